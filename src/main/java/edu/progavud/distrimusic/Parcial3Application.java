@@ -3,6 +3,7 @@ package edu.progavud.distrimusic;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -13,6 +14,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * - Configuración de CORS para permitir acceso desde el frontend
  * - Inicialización del contexto de Spring
  * - Configuración de seguridad básica
+ * - Habilitación de tareas programadas en segundo plano
  * 
  * La aplicación implementa una plataforma de música para estudiantes universitarios
  * que permite:
@@ -29,6 +31,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * @since 2025-07-10
  */
 @SpringBootApplication
+@EnableScheduling
 public class Parcial3Application {
 
     /**
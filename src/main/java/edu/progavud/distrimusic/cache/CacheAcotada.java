@@ -0,0 +1,184 @@
+package edu.progavud.distrimusic.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché concurrente acotada en tamaño y con expiración.
+ *
+ * Las lecturas no toman ningún bloqueo: cada entrada guarda el instante de su último
+ * uso y, al superar la capacidad, se descarta la menos usada de una muestra de
+ * {@value #MUESTRA} entradas (un LRU aproximado). Las entradas vencidas se descartan
+ * al leerlas o al encontrarlas en la muestra.
+ *
+ * Para no guardar un valor leído antes de una invalidación, quien carga un valor toma
+ * la {@link #generacion()} antes de leerlo y la pasa a {@link #poner}; si hubo una
+ * invalidación en el medio, el valor se descarta. La invalidación se repite al
+ * confirmarse la transacción, porque una carga que empieza después de invalidar pero
+ * antes del commit todavía lee el valor anterior.
+ *
+ * La usan las cachés de usuarios y de visibilidad de playlists.
+ *
+ * @param <K> tipo de la clave
+ * @param <V> tipo del valor
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+public final class CacheAcotada<K, V> {
+
+    /**
+     * Cantidad de entradas que se comparan para elegir cuál descartar.
+     */
+    private static final int MUESTRA = 16;
+
+    /**
+     * Resolución con la que se registra el último uso, para no escribir en cada lectura.
+     */
+    private static final long RESOLUCION_ACCESO_MS = 1000;
+
+    private final int capacidad;
+    private final long ttlMs;
+    private final Map<K, Entrada<V>> mapa = new ConcurrentHashMap<>();
+
+    /**
+     * Contador de invalidaciones, usado para descartar cargas concurrentes con una invalidación.
+     */
+    private final AtomicLong invalidaciones = new AtomicLong();
+
+    private static final class Entrada<V> {
+
+        final V valor;
+        final long expira;
+        volatile long ultimoAcceso;
+
+        Entrada(V valor, long ahora, long ttlMs) {
+            this.valor = valor;
+            this.expira = ahora + ttlMs;
+            this.ultimoAcceso = ahora;
+        }
+    }
+
+    /**
+     * Crea una caché vacía.
+     *
+     * @param capacidad cantidad máxima de entradas
+     * @param ttlMs tiempo de vida de cada entrada en milisegundos
+     */
+    public CacheAcotada(int capacidad, long ttlMs) {
+        this.capacidad = Math.max(1, capacidad);
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Obtiene el valor vigente de una clave.
+     *
+     * @param clave clave buscada
+     * @return valor, o null si no está o venció
+     */
+    public V obtener(K clave) {
+        Entrada<V> entrada = mapa.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        long ahora = System.currentTimeMillis();
+        if (entrada.expira < ahora) {
+            mapa.remove(clave, entrada);
+            return null;
+        }
+        if (ahora - entrada.ultimoAcceso > RESOLUCION_ACCESO_MS) {
+            entrada.ultimoAcceso = ahora;
+        }
+        return entrada.valor;
+    }
+
+    /**
+     * Generación actual de invalidaciones, a tomar antes de cargar un valor.
+     *
+     * @return generación actual
+     */
+    public long generacion() {
+        return invalidaciones.get();
+    }
+
+    /**
+     * Guarda un valor cargado, salvo que haya habido una invalidación desde que se
+     * tomó la generación.
+     *
+     * @param clave clave del valor
+     * @param valor valor cargado
+     * @param generacion generación tomada antes de cargar el valor
+     */
+    public void poner(K clave, V valor, long generacion) {
+        if (invalidaciones.get() != generacion) {
+            return;
+        }
+        Entrada<V> entrada = new Entrada<>(valor, System.currentTimeMillis(), ttlMs);
+        boolean nueva = mapa.put(clave, entrada) == null;
+        // Una invalidación que llegó mientras se guardaba puede no haber visto la entrada
+        if (invalidaciones.get() != generacion) {
+            mapa.remove(clave, entrada);
+            return;
+        }
+        if (nueva && mapa.size() > capacidad) {
+            desalojar();
+        }
+    }
+
+    /**
+     * Descarta la entrada de una clave y anula las cargas en curso, ahora y al
+     * confirmarse la transacción actual.
+     *
+     * @param clave clave a descartar
+     */
+    public void invalidar(K clave) {
+        descartar(clave);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descartar(clave);
+                }
+            });
+        }
+    }
+
+    private void descartar(K clave) {
+        invalidaciones.incrementAndGet();
+        mapa.remove(clave);
+    }
+
+    /**
+     * Descarta entradas hasta volver a la capacidad: las vencidas que aparezcan en la
+     * muestra y, si no alcanza, la de uso más antiguo de la muestra.
+     */
+    private void desalojar() {
+        long ahora = System.currentTimeMillis();
+        while (mapa.size() > capacidad) {
+            K candidata = null;
+            long masAntiguo = Long.MAX_VALUE;
+            int vistas = 0;
+            Iterator<Map.Entry<K, Entrada<V>>> iterador = mapa.entrySet().iterator();
+            while (iterador.hasNext() && vistas++ < MUESTRA) {
+                Map.Entry<K, Entrada<V>> actual = iterador.next();
+                Entrada<V> entrada = actual.getValue();
+                if (entrada.expira < ahora) {
+                    iterador.remove();
+                } else if (entrada.ultimoAcceso < masAntiguo) {
+                    masAntiguo = entrada.ultimoAcceso;
+                    candidata = actual.getKey();
+                }
+            }
+            if (candidata != null && mapa.size() > capacidad) {
+                mapa.remove(candidata);
+            }
+        }
+    }
+}
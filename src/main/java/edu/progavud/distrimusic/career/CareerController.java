@@ -0,0 +1,86 @@
+package edu.progavud.distrimusic.career;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+
+/**
+ * Controlador REST de las comunidades por carrera.
+ *
+ * Expone el listado de carreras, la página de comunidad de cada una (canciones
+ * más incluidas, playlists más comentadas y miembros que más comentan) y sus
+ * miembros paginados por cursor.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@RestController
+@RequestMapping("/api/careers")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class CareerController {
+
+    private final CareerRollupService careerRollupService;
+
+    /**
+     * Lista las carreras con su cantidad de miembros.
+     *
+     * @return ResponseEntity con la lista de carreras
+     */
+    @GetMapping
+    public ResponseEntity<?> getCarreras() {
+        return ResponseEntity.ok(careerRollupService.getCarreras());
+    }
+
+    /**
+     * Obtiene la página de comunidad de una carrera.
+     *
+     * @param carrera nombre de la carrera
+     * @param limit tamaño de cada ranking (máximo 50)
+     * @return ResponseEntity con los rankings de la carrera
+     */
+    @GetMapping("/{carrera}")
+    public ResponseEntity<?> getComunidad(
+            @PathVariable String carrera,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(careerRollupService.getComunidad(carrera, limit));
+        } catch (RuntimeException e) {
+            return error(e);
+        }
+    }
+
+    /**
+     * Obtiene una página de los miembros de una carrera, de los más recientes a los más antiguos.
+     *
+     * @param carrera nombre de la carrera
+     * @param cursor cursor de la página anterior (siguienteCursor); se omite en la primera
+     * @param limit tamaño de la página (máximo 50)
+     * @return ResponseEntity con la página de miembros
+     */
+    @GetMapping("/{carrera}/members")
+    public ResponseEntity<?> getMiembros(
+            @PathVariable String carrera,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(careerRollupService.getMiembros(carrera, cursor, limit));
+        } catch (RuntimeException e) {
+            return error(e);
+        }
+    }
+
+    private ResponseEntity<?> error(RuntimeException e) {
+        HttpStatus status = "Carrera no encontrada".equals(e.getMessage())
+                ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(Map.of(
+            "error", e.getMessage(),
+            "status", "error"
+        ));
+    }
+}
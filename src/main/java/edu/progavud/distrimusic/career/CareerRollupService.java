@@ -0,0 +1,723 @@
+package edu.progavud.distrimusic.career;
+
+import edu.progavud.distrimusic.music.MusicEntity;
+import edu.progavud.distrimusic.music.MusicRepository;
+import edu.progavud.distrimusic.persona.UserRepository;
+import edu.progavud.distrimusic.playlist.PlaylistRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agregados por carrera para las páginas de comunidad.
+ *
+ * Para cada carrera se mantienen en memoria:
+ * - Sus miembros (IDs de usuario activos)
+ * - Cuántas playlists públicas de sus miembros contienen cada canción
+ * - Cuántos comentarios recibió cada playlist pública de sus miembros
+ * - Cuántos comentarios en playlists públicas hizo cada miembro
+ *
+ * Los agregados se cargan al iniciar leyendo las tablas una sola vez y luego se
+ * actualizan con deltas con signo al confirmarse cada cambio: canciones agregadas o
+ * quitadas, comentarios (o subárboles de respuestas) creados o eliminados, playlists
+ * que cambian de privacidad o se eliminan, y usuarios que se registran, cambian de
+ * carrera o se eliminan. La reconstrucción completa solo se hace periódicamente para
+ * corregir cualquier desvío, o cuando un delta llega mientras se reconstruye.
+ *
+ * Los rankings de cada carrera se calculan desde los agregados y se reutilizan
+ * mientras no cambien o durante {@code app.careers.ranking-ms}.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CareerRollupService {
+
+    /**
+     * Tamaño máximo de los rankings y de las páginas de miembros.
+     */
+    private static final int MAX_PAGINA = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final PlaylistRepository playlistRepository;
+    private final MusicRepository musicRepository;
+
+    /**
+     * Tiempo durante el que se reutiliza un ranking aunque haya cambios.
+     */
+    @Value("${app.careers.ranking-ms:2000}")
+    private long rankingMs;
+
+    /**
+     * Agregados vigentes.
+     */
+    private volatile Agregados agregados = new Agregados();
+
+    /**
+     * true si un delta llegó durante una reconstrucción y hay que repetirla.
+     */
+    private final AtomicBoolean desactualizado = new AtomicBoolean();
+
+    /**
+     * true mientras se reconstruye; los cambios que lleguen entonces fuerzan otra reconstrucción.
+     */
+    private volatile boolean reconstruyendo;
+
+    /**
+     * Agregados de todas las carreras.
+     */
+    private static final class Agregados {
+
+        final Map<String, Comunidad> comunidades = new ConcurrentHashMap<>();
+        final Map<Long, String> carreraPorUsuario = new ConcurrentHashMap<>();
+
+        Comunidad comunidad(String clave, String nombre) {
+            return comunidades.computeIfAbsent(clave, k -> new Comunidad(nombre));
+        }
+    }
+
+    /**
+     * Agregados de una carrera.
+     */
+    private static final class Comunidad {
+
+        final String nombre;
+        final NavigableSet<Long> miembros = new ConcurrentSkipListSet<>();
+        final Map<Long, LongAdder> canciones = new ConcurrentHashMap<>();
+        final Map<Long, LongAdder> playlists = new ConcurrentHashMap<>();
+        final Map<Long, LongAdder> comentaristas = new ConcurrentHashMap<>();
+        final AtomicLong version = new AtomicLong();
+        volatile Rankings rankings;
+
+        Comunidad(String nombre) {
+            this.nombre = nombre;
+        }
+
+        void sumar(Map<Long, LongAdder> contadores, Long id, long delta) {
+            contadores.computeIfAbsent(id, k -> new LongAdder()).add(delta);
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Rankings calculados de una carrera.
+     *
+     * @param version versión de los agregados con la que se calcularon
+     * @param calculado instante del cálculo en milisegundos
+     * @param canciones [ID, cantidad] de las canciones más incluidas
+     * @param playlists [ID, cantidad] de las playlists más comentadas
+     * @param comentaristas [ID, cantidad] de los miembros que más comentan
+     */
+    private record Rankings(long version, long calculado, List<long[]> canciones,
+                            List<long[]> playlists, List<long[]> comentaristas) {
+    }
+
+    /**
+     * Aportes de un usuario a los agregados de su carrera.
+     *
+     * @param canciones [ID de canción, cantidad de sus playlists públicas que la contienen]
+     * @param playlists [ID de playlist pública, cantidad de comentarios recibidos]
+     * @param comentarios cantidad de comentarios que hizo en playlists públicas
+     */
+    private record Aportes(List<long[]> canciones, List<long[]> playlists, long comentarios) {
+
+        void aplicar(Comunidad comunidad, Long userId, int signo) {
+            for (long[] cancion : canciones) {
+                comunidad.sumar(comunidad.canciones, cancion[0], signo * cancion[1]);
+            }
+            for (long[] playlist : playlists) {
+                comunidad.sumar(comunidad.playlists, playlist[0], signo * playlist[1]);
+            }
+            if (comentarios > 0) {
+                comunidad.sumar(comunidad.comentaristas, userId, signo * comentarios);
+            }
+        }
+    }
+
+    /**
+     * Carga los agregados al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        reconstruir();
+    }
+
+    /**
+     * Repite la reconstrucción si durante la anterior llegaron deltas que pudo no incluir.
+     */
+    @Scheduled(fixedDelayString = "${app.careers.revision-ms:5000}")
+    public void revisar() {
+        if (desactualizado.getAndSet(false)) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Reconstruye periódicamente los agregados para corregir desvíos.
+     */
+    @Scheduled(initialDelayString = "${app.careers.reconstruccion-ms:600000}",
+               fixedDelayString = "${app.careers.reconstruccion-ms:600000}")
+    public void reconstruirProgramado() {
+        reconstruir();
+    }
+
+    /**
+     * Reconstruye todos los agregados con un recorrido de las tablas de usuarios,
+     * canciones de playlists y comentarios. Mientras tanto siguen en uso los anteriores.
+     */
+    public synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        reconstruyendo = true;
+        try {
+            Agregados nuevos = new Agregados();
+            jdbcTemplate.query("SELECT id, carrera FROM users WHERE eliminado = false", rs -> {
+                String carrera = rs.getString(2);
+                String clave = normalizarCarrera(carrera);
+                if (clave != null) {
+                    long id = rs.getLong(1);
+                    nuevos.carreraPorUsuario.put(id, clave);
+                    nuevos.comunidad(clave, carrera.trim()).miembros.add(id);
+                }
+            });
+            jdbcTemplate.query("SELECT p.usuario_id, ps.song_id FROM playlist_songs ps " +
+                               "JOIN playlists p ON p.id = ps.playlist_id WHERE p.es_publica = true", rs -> {
+                Comunidad comunidad = comunidadDe(nuevos, rs.getLong(1));
+                if (comunidad != null) {
+                    comunidad.sumar(comunidad.canciones, rs.getLong(2), 1);
+                }
+            });
+            jdbcTemplate.query("SELECT c.usuario_id, c.playlist_id, p.usuario_id FROM comments c " +
+                               "JOIN playlists p ON p.id = c.playlist_id WHERE p.es_publica = true", rs -> {
+                Comunidad deAutor = comunidadDe(nuevos, rs.getLong(1));
+                if (deAutor != null) {
+                    deAutor.sumar(deAutor.comentaristas, rs.getLong(1), 1);
+                }
+                Comunidad deDueño = comunidadDe(nuevos, rs.getLong(3));
+                if (deDueño != null) {
+                    deDueño.sumar(deDueño.playlists, rs.getLong(2), 1);
+                }
+            });
+            agregados = nuevos;
+            log.info("🎓 Agregados por carrera cargados: {} carreras, {} miembros en {} ms",
+                    nuevos.comunidades.size(), nuevos.carreraPorUsuario.size(),
+                    (System.nanoTime() - inicio) / 1_000_000);
+        } finally {
+            reconstruyendo = false;
+        }
+    }
+
+    /**
+     * Registra un usuario nuevo como miembro de su carrera.
+     *
+     * @param userId ID del usuario
+     * @param carrera carrera del usuario (puede ser null)
+     */
+    public void registrarMiembro(Long userId, String carrera) {
+        String clave = normalizarCarrera(carrera);
+        if (clave == null) {
+            return;
+        }
+        alConfirmar(() -> {
+            Agregados actuales = agregados;
+            actuales.carreraPorUsuario.put(userId, clave);
+            Comunidad comunidad = actuales.comunidad(clave, carrera.trim());
+            comunidad.miembros.add(userId);
+            comunidad.version.incrementAndGet();
+        });
+    }
+
+    /**
+     * Registra que una canción se agregó o se quitó de una playlist pública.
+     *
+     * @param propietarioId ID del dueño de la playlist
+     * @param songId ID de la canción
+     * @param delta 1 si se agregó, -1 si se quitó
+     */
+    public void registrarCancion(Long propietarioId, Long songId, int delta) {
+        alConfirmar(() -> {
+            Comunidad comunidad = comunidadDe(agregados, propietarioId);
+            if (comunidad != null) {
+                comunidad.sumar(comunidad.canciones, songId, delta);
+            }
+        });
+    }
+
+    /**
+     * Registra que varias canciones se agregaron o se quitaron de una playlist pública,
+     * por ejemplo al crearla con canciones.
+     *
+     * @param propietarioId ID del dueño de la playlist
+     * @param songIds IDs de las canciones
+     * @param delta 1 si se agregaron, -1 si se quitaron
+     */
+    public void registrarCanciones(Long propietarioId, Collection<Long> songIds, int delta) {
+        if (songIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(songIds);
+        alConfirmar(() -> {
+            Comunidad comunidad = comunidadDe(agregados, propietarioId);
+            if (comunidad != null) {
+                for (Long songId : ids) {
+                    comunidad.sumar(comunidad.canciones, songId, delta);
+                }
+            }
+        });
+    }
+
+    /**
+     * Registra que se creó o eliminó un comentario en una playlist pública.
+     *
+     * @param autorId ID del autor del comentario
+     * @param playlistId ID de la playlist
+     * @param propietarioId ID del dueño de la playlist
+     * @param delta 1 si se creó, -1 si se eliminó
+     */
+    public void registrarComentario(Long autorId, Long playlistId, Long propietarioId, int delta) {
+        alConfirmar(() -> {
+            Agregados actuales = agregados;
+            Comunidad deAutor = comunidadDe(actuales, autorId);
+            if (deAutor != null) {
+                deAutor.sumar(deAutor.comentaristas, autorId, delta);
+            }
+            Comunidad deDueño = comunidadDe(actuales, propietarioId);
+            if (deDueño != null) {
+                deDueño.sumar(deDueño.playlists, playlistId, delta);
+            }
+        });
+    }
+
+    /**
+     * Registra varios comentarios creados o eliminados, agrupados por autor y playlist,
+     * por ejemplo un subárbol de respuestas o un lote de la purga de una cuenta.
+     *
+     * @param filas [ID del autor, ID de la playlist, ID del dueño, cantidad] de comentarios
+     *        en playlists públicas
+     * @param signo 1 si se crearon, -1 si se eliminaron
+     */
+    public void registrarComentarios(List<Object[]> filas, int signo) {
+        if (filas.isEmpty()) {
+            return;
+        }
+        alConfirmar(() -> {
+            Agregados actuales = agregados;
+            for (Object[] fila : filas) {
+                long cantidad = signo * ((Number) fila[3]).longValue();
+                Comunidad deAutor = comunidadDe(actuales, (Long) fila[0]);
+                if (deAutor != null) {
+                    deAutor.sumar(deAutor.comentaristas, (Long) fila[0], cantidad);
+                }
+                Comunidad deDueño = comunidadDe(actuales, (Long) fila[2]);
+                if (deDueño != null) {
+                    deDueño.sumar(deDueño.playlists, (Long) fila[1], cantidad);
+                }
+            }
+        });
+    }
+
+    /**
+     * Suma o resta los aportes de una playlist: sus canciones y sus comentarios. Se usa
+     * cuando una playlist se vuelve pública o privada y antes de eliminar una pública.
+     * Lee las canciones y los comentarios actuales de la base de datos.
+     *
+     * @param propietarioId ID del dueño de la playlist
+     * @param playlistId ID de la playlist
+     * @param signo 1 si la playlist pasa a contar (se hizo pública), -1 si deja de contar
+     */
+    public void registrarPlaylist(Long propietarioId, Long playlistId, int signo) {
+        List<Long> canciones = jdbcTemplate.queryForList(
+                "SELECT song_id FROM playlist_songs WHERE playlist_id = ?", Long.class, playlistId);
+        List<long[]> comentarios = jdbcTemplate.query(
+                "SELECT usuario_id, COUNT(*) FROM comments WHERE playlist_id = ? GROUP BY usuario_id",
+                (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2)}, playlistId);
+        if (canciones.isEmpty() && comentarios.isEmpty()) {
+            return;
+        }
+        alConfirmar(() -> {
+            Agregados actuales = agregados;
+            Comunidad deDueño = comunidadDe(actuales, propietarioId);
+            long total = 0;
+            for (long[] autor : comentarios) {
+                total += autor[1];
+                Comunidad deAutor = comunidadDe(actuales, autor[0]);
+                if (deAutor != null) {
+                    deAutor.sumar(deAutor.comentaristas, autor[0], signo * autor[1]);
+                }
+            }
+            if (deDueño != null) {
+                for (Long songId : canciones) {
+                    deDueño.sumar(deDueño.canciones, songId, signo);
+                }
+                if (total > 0) {
+                    deDueño.sumar(deDueño.playlists, playlistId, signo * total);
+                }
+            }
+        });
+    }
+
+    /**
+     * Quita de inmediato a un usuario eliminado de su carrera y, al confirmarse, descuenta
+     * sus aportes: las canciones y comentarios de sus playlists públicas y sus comentarios.
+     * Sus comentarios en playlists de otros se descuentan de esas playlists a medida que
+     * la purga los elimina.
+     *
+     * @param userId ID del usuario
+     */
+    public void quitarMiembro(Long userId) {
+        Aportes aportes = aportes(userId);
+        Comunidad anterior = quitarDeCarrera(agregados, userId);
+        if (anterior != null) {
+            alConfirmar(() -> aportes.aplicar(anterior, userId, -1));
+        }
+    }
+
+    /**
+     * Mueve a un usuario y sus aportes a su nueva carrera.
+     *
+     * @param userId ID del usuario
+     * @param carrera nueva carrera (puede ser null)
+     */
+    public void cambiarCarrera(Long userId, String carrera) {
+        Aportes aportes = aportes(userId);
+        String clave = normalizarCarrera(carrera);
+        alConfirmar(() -> {
+            Agregados actuales = agregados;
+            Comunidad anterior = quitarDeCarrera(actuales, userId);
+            if (anterior != null) {
+                aportes.aplicar(anterior, userId, -1);
+            }
+            if (clave != null) {
+                actuales.carreraPorUsuario.put(userId, clave);
+                Comunidad nueva = actuales.comunidad(clave, carrera.trim());
+                nueva.miembros.add(userId);
+                aportes.aplicar(nueva, userId, 1);
+                nueva.version.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Lee los aportes actuales de un usuario con tres consultas agrupadas.
+     */
+    private Aportes aportes(Long userId) {
+        List<long[]> canciones = jdbcTemplate.query(
+                "SELECT ps.song_id, COUNT(*) FROM playlist_songs ps JOIN playlists p ON p.id = ps.playlist_id " +
+                "WHERE p.usuario_id = ? AND p.es_publica = true GROUP BY ps.song_id",
+                (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2)}, userId);
+        List<long[]> playlists = jdbcTemplate.query(
+                "SELECT c.playlist_id, COUNT(*) FROM comments c JOIN playlists p ON p.id = c.playlist_id " +
+                "WHERE p.usuario_id = ? AND p.es_publica = true GROUP BY c.playlist_id",
+                (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2)}, userId);
+        Long comentarios = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM comments c JOIN playlists p ON p.id = c.playlist_id " +
+                "WHERE c.usuario_id = ? AND p.es_publica = true", Long.class, userId);
+        return new Aportes(canciones, playlists, comentarios != null ? comentarios : 0);
+    }
+
+    /**
+     * Quita a un usuario de su carrera.
+     *
+     * @return comunidad de la que se quitó, o null si no tenía carrera
+     */
+    private static Comunidad quitarDeCarrera(Agregados actuales, Long userId) {
+        String clave = actuales.carreraPorUsuario.remove(userId);
+        Comunidad comunidad = clave != null ? actuales.comunidades.get(clave) : null;
+        if (comunidad != null) {
+            comunidad.miembros.remove(userId);
+            comunidad.version.incrementAndGet();
+        }
+        return comunidad;
+    }
+
+    /**
+     * Lista las carreras con su cantidad de miembros, de la más grande a la más pequeña.
+     *
+     * @return lista de carreras
+     */
+    public List<Map<String, Object>> getCarreras() {
+        List<Comunidad> comunidades = new ArrayList<>(agregados.comunidades.values());
+        comunidades.removeIf(c -> c.miembros.isEmpty());
+        comunidades.sort(Comparator.comparingInt((Comunidad c) -> c.miembros.size()).reversed()
+                .thenComparing(c -> c.nombre));
+        List<Map<String, Object>> carreras = new ArrayList<>();
+        for (Comunidad comunidad : comunidades) {
+            Map<String, Object> carrera = new LinkedHashMap<>();
+            carrera.put("carrera", comunidad.nombre);
+            carrera.put("miembros", comunidad.miembros.size());
+            carreras.add(carrera);
+        }
+        return carreras;
+    }
+
+    /**
+     * Obtiene la página de comunidad de una carrera: cantidad de miembros, canciones
+     * más incluidas en sus playlists, playlists más comentadas y miembros que más comentan.
+     *
+     * @param carrera nombre de la carrera (sin distinguir mayúsculas)
+     * @param limit tamaño de cada ranking (máximo {@value #MAX_PAGINA})
+     * @return mapa con los datos de la comunidad
+     * @throws RuntimeException si la carrera no tiene miembros
+     */
+    public Map<String, Object> getComunidad(String carrera, int limit) {
+        Comunidad comunidad = buscarComunidad(carrera);
+        int tamano = Math.max(1, Math.min(limit, MAX_PAGINA));
+        Rankings rankings = rankings(comunidad);
+
+        // Canciones
+        List<long[]> topCanciones = recortar(rankings.canciones(), tamano);
+        Map<Long, MusicEntity> musica = new HashMap<>();
+        for (MusicEntity cancion : musicRepository.findAllById(ids(topCanciones))) {
+            musica.put(cancion.getId(), cancion);
+        }
+        List<Map<String, Object>> canciones = new ArrayList<>();
+        for (long[] item : topCanciones) {
+            MusicEntity cancion = musica.get(item[0]);
+            if (cancion != null) {
+                Map<String, Object> fila = new LinkedHashMap<>();
+                fila.put("id", cancion.getId());
+                fila.put("titulo", cancion.getTitulo());
+                fila.put("artista", cancion.getArtista());
+                fila.put("album", cancion.getAlbum());
+                fila.put("imageUrl", cancion.getImageUrl());
+                fila.put("playlists", item[1]);
+                canciones.add(fila);
+            }
+        }
+
+        // Playlists
+        List<long[]> topPlaylists = recortar(rankings.playlists(), tamano);
+        Map<Long, Object[]> datosPlaylists = new HashMap<>();
+        if (!topPlaylists.isEmpty()) {
+            for (Object[] fila : playlistRepository.findResumenPublicoByIdIn(ids(topPlaylists))) {
+                datosPlaylists.put((Long) fila[0], fila);
+            }
+        }
+        List<Map<String, Object>> playlists = new ArrayList<>();
+        for (long[] item : topPlaylists) {
+            Object[] datos = datosPlaylists.get(item[0]);
+            if (datos != null) {
+                Map<String, Object> fila = new LinkedHashMap<>();
+                fila.put("id", datos[0]);
+                fila.put("nombre", datos[1]);
+                fila.put("imageUrl", datos[2]);
+                fila.put("usuario", datos[3]);
+                fila.put("comentarios", item[1]);
+                playlists.add(fila);
+            }
+        }
+
+        // Comentaristas
+        List<long[]> topComentaristas = recortar(rankings.comentaristas(), tamano);
+        List<Map<String, Object>> comentaristas = new ArrayList<>();
+        Map<Long, Map<String, Object>> usuarios = resumenUsuarios(ids(topComentaristas));
+        for (long[] item : topComentaristas) {
+            Map<String, Object> usuario = usuarios.get(item[0]);
+            if (usuario != null) {
+                Map<String, Object> fila = new LinkedHashMap<>(usuario);
+                fila.put("comentarios", item[1]);
+                comentaristas.add(fila);
+            }
+        }
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("carrera", comunidad.nombre);
+        resultado.put("miembros", comunidad.miembros.size());
+        resultado.put("topCanciones", canciones);
+        resultado.put("topPlaylists", playlists);
+        resultado.put("comentaristas", comentaristas);
+        return resultado;
+    }
+
+    /**
+     * Obtiene una página de los miembros de una carrera, de los más recientes a los más antiguos.
+     *
+     * @param carrera nombre de la carrera (sin distinguir mayúsculas)
+     * @param cursor ID del último miembro de la página anterior (null para la primera)
+     * @param limit tamaño de la página (máximo {@value #MAX_PAGINA})
+     * @return mapa con los miembros de la página y el cursor de la siguiente
+     * @throws RuntimeException si la carrera no tiene miembros o el cursor es inválido
+     */
+    public Map<String, Object> getMiembros(String carrera, String cursor, int limit) {
+        Comunidad comunidad = buscarComunidad(carrera);
+        int tamano = Math.max(1, Math.min(limit, MAX_PAGINA));
+        NavigableSet<Long> rango = comunidad.miembros.descendingSet();
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                rango = rango.tailSet(Long.parseLong(cursor), false);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Cursor inválido");
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(tamano + 1);
+        Iterator<Long> iterador = rango.iterator();
+        while (iterador.hasNext() && ids.size() <= tamano) {
+            ids.add(iterador.next());
+        }
+        boolean hayMas = ids.size() > tamano;
+        if (hayMas) {
+            ids.remove(tamano);
+        }
+
+        Map<Long, Map<String, Object>> usuarios = resumenUsuarios(ids);
+        List<Map<String, Object>> miembros = new ArrayList<>();
+        for (Long id : ids) {
+            Map<String, Object> usuario = usuarios.get(id);
+            if (usuario != null) {
+                miembros.add(usuario);
+            }
+        }
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("carrera", comunidad.nombre);
+        resultado.put("total", comunidad.miembros.size());
+        resultado.put("miembros", miembros);
+        resultado.put("siguienteCursor", hayMas ? String.valueOf(ids.get(ids.size() - 1)) : null);
+        return resultado;
+    }
+
+    /**
+     * Normaliza el nombre de una carrera para agrupar variantes de mayúsculas y espacios.
+     *
+     * @param carrera carrera registrada por el usuario
+     * @return carrera normalizada, o null si está vacía
+     */
+    public static String normalizarCarrera(String carrera) {
+        if (carrera == null || carrera.isBlank()) {
+            return null;
+        }
+        return carrera.trim().toLowerCase();
+    }
+
+    private Comunidad buscarComunidad(String carrera) {
+        String clave = normalizarCarrera(carrera);
+        Comunidad comunidad = clave != null ? agregados.comunidades.get(clave) : null;
+        if (comunidad == null || comunidad.miembros.isEmpty()) {
+            throw new RuntimeException("Carrera no encontrada");
+        }
+        return comunidad;
+    }
+
+    /**
+     * Obtiene los rankings de una carrera, recalculándolos si cambiaron y ya venció
+     * el tiempo de reutilización.
+     */
+    private Rankings rankings(Comunidad comunidad) {
+        Rankings actuales = comunidad.rankings;
+        long version = comunidad.version.get();
+        long ahora = System.currentTimeMillis();
+        if (actuales != null && (actuales.version() == version || ahora - actuales.calculado() < rankingMs)) {
+            return actuales;
+        }
+        Rankings nuevos = new Rankings(version, ahora, mejores(comunidad.canciones),
+                mejores(comunidad.playlists), mejores(comunidad.comentaristas));
+        comunidad.rankings = nuevos;
+        return nuevos;
+    }
+
+    /**
+     * Selecciona los {@value #MAX_PAGINA} elementos con mayor cantidad (y menor ID ante empates).
+     */
+    private static List<long[]> mejores(Map<Long, LongAdder> contadores) {
+        Comparator<long[]> orden = Comparator.<long[]>comparingLong(par -> par[1]).reversed()
+                .thenComparingLong(par -> par[0]);
+        PriorityQueue<long[]> monticulo = new PriorityQueue<>(MAX_PAGINA + 1, orden.reversed());
+        for (Map.Entry<Long, LongAdder> entry : contadores.entrySet()) {
+            long cantidad = entry.getValue().sum();
+            if (cantidad <= 0) {
+                continue;
+            }
+            monticulo.add(new long[]{entry.getKey(), cantidad});
+            if (monticulo.size() > MAX_PAGINA) {
+                monticulo.poll();
+            }
+        }
+        List<long[]> ordenados = new ArrayList<>(monticulo);
+        ordenados.sort(orden);
+        return ordenados;
+    }
+
+    private static List<long[]> recortar(List<long[]> ranking, int tamano) {
+        return ranking.subList(0, Math.min(tamano, ranking.size()));
+    }
+
+    private static List<Long> ids(List<long[]> ranking) {
+        List<Long> ids = new ArrayList<>(ranking.size());
+        for (long[] item : ranking) {
+            ids.add(item[0]);
+        }
+        return ids;
+    }
+
+    private Map<Long, Map<String, Object>> resumenUsuarios(List<Long> ids) {
+        Map<Long, Map<String, Object>> usuarios = new HashMap<>();
+        if (ids.isEmpty()) {
+            return usuarios;
+        }
+        for (Object[] fila : userRepository.findResumenByIdIn(ids)) {
+            Map<String, Object> usuario = new LinkedHashMap<>();
+            usuario.put("usuario", fila[1]);
+            usuario.put("nombre", fila[2]);
+            usuario.put("profileImageUrl", fila[3]);
+            usuarios.put((Long) fila[0], usuario);
+        }
+        return usuarios;
+    }
+
+    private static Comunidad comunidadDe(Agregados agregados, Long userId) {
+        String clave = userId != null ? agregados.carreraPorUsuario.get(userId) : null;
+        return clave != null ? agregados.comunidades.get(clave) : null;
+    }
+
+    /**
+     * Ejecuta un cambio cuando se confirme la transacción actual (o de inmediato si no hay una).
+     * Si llega durante una reconstrucción, se programa otra para no perderlo.
+     */
+    private void alConfirmar(Runnable cambio) {
+        Runnable aplicar = () -> {
+            cambio.run();
+            if (reconstruyendo) {
+                desactualizado.set(true);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar.run();
+                }
+            });
+        } else {
+            aplicar.run();
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package edu.progavud.distrimusic.comment;
 
+import edu.progavud.distrimusic.persona.SessionTokenService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador REST para la gestión de comentarios en playlists.
@@ -26,23 +31,36 @@ import java.util.List;
 public class CommentController {
     
     private final CommentService commentService;
+    private final CommentStreamService commentStreamService;
+    private final CommentWriteBehind commentWriteBehind;
+    private final CommentModerator commentModerator;
     
     /**
      * Crea un nuevo comentario en una playlist.
      * 
      * @param playlistId ID de la playlist donde se creará el comentario
-     * @param usuario Nombre de usuario del autor del comentario
+     * @param usuario Nombre de usuario del autor del comentario (opcional si se envía un token de sesión)
      * @param comment Entidad del comentario con el contenido
-     * @return ResponseEntity con el comentario creado y status 201 (CREATED)
+     * @return ResponseEntity con el comentario creado y status 201 (CREATED), o con el
+     *         comentario aceptado y status 202 (ACCEPTED) si la escritura diferida está activa
      * @throws org.springframework.web.server.ResponseStatusException con estado 404 si la playlist no existe
      * @throws org.springframework.web.server.ResponseStatusException con estado 403 si la playlist es privada
+     * @throws org.springframework.web.server.ResponseStatusException con estado 503 si hay demasiados comentarios pendientes
      */
     @PostMapping("/playlist/{playlistId}")
-    public ResponseEntity<CommentEntity> createComment(
+    public ResponseEntity<?> createComment(
             @PathVariable Long playlistId,
-            @RequestParam String usuario,
+            @RequestParam(required = false) String usuario,
             @Valid @RequestBody CommentEntity comment) {
-        CommentEntity savedComment = commentService.createComment(playlistId, usuario, comment.getContenido());
+        String autor = SessionTokenService.usuarioActuante(usuario);
+        if (autor == null || autor.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Falta el usuario que comenta");
+        }
+        if (commentService.escrituraDiferida()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(commentService.aceptarComentario(playlistId, autor, comment.getContenido()));
+        }
+        CommentEntity savedComment = commentService.createComment(playlistId, autor, comment.getContenido());
         return new ResponseEntity<>(savedComment, HttpStatus.CREATED);
     }
     
@@ -60,17 +78,112 @@ public class CommentController {
     }
     
     /**
-     * Obtiene todos los comentarios de una playlist específica.
+     * Obtiene una página de los hilos de comentarios de una playlist, del más reciente
+     * al más antiguo, con las primeras respuestas de cada uno.
      * 
      * @param playlistId ID de la playlist de la cual obtener los comentarios
-     * @return ResponseEntity con la lista de comentarios de la playlist
+     * @param cursor cursor de la página anterior (siguienteCursor); se omite en la primera
+     * @param limit tamaño de la página (máximo 50)
+     * @param respuestas primeras respuestas incluidas por hilo (máximo 10)
+     * @return ResponseEntity con la página de hilos de la playlist
      * @throws org.springframework.web.server.ResponseStatusException con estado 404 si la playlist no existe
      * @throws org.springframework.web.server.ResponseStatusException con estado 403 si la playlist es privada
      */
     @GetMapping("/playlist/{playlistId}")
-    public ResponseEntity<List<CommentEntity>> getCommentsByPlaylist(@PathVariable Long playlistId) {
-        List<CommentEntity> comments = commentService.getCommentsByPlaylist(playlistId);
-        return ResponseEntity.ok(comments);
+    public ResponseEntity<Map<String, Object>> getCommentsByPlaylist(
+            @PathVariable Long playlistId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "3") int respuestas) {
+        return ResponseEntity.ok(commentService.getCommentsByPlaylist(playlistId, cursor, limit, respuestas));
+    }
+    
+    /**
+     * Abre una conexión Server-Sent Events con los comentarios de una playlist en vivo.
+     * Emite los eventos comentario-creado, comentario-actualizado y comentario-eliminado,
+     * además de latidos periódicos. Si el cliente no consume a tiempo, la conexión se
+     * cierra y debe reconectarse.
+     * 
+     * @param playlistId ID de la playlist
+     * @return emisor SSE de la conexión
+     * @throws org.springframework.web.server.ResponseStatusException con estado 404 si la playlist no existe
+     * @throws org.springframework.web.server.ResponseStatusException con estado 403 si la playlist es privada
+     * @throws org.springframework.web.server.ResponseStatusException con estado 503 si hay demasiadas conexiones
+     */
+    @GetMapping(value = "/playlist/{playlistId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamComments(@PathVariable Long playlistId) {
+        return commentService.suscribir(playlistId);
+    }
+    
+    /**
+     * Obtiene métricas de las conexiones en vivo.
+     * 
+     * @return ResponseEntity con conexiones abiertas, playlists con oyentes y desconexiones por lentitud
+     */
+    @GetMapping("/stream/metrics")
+    public ResponseEntity<Map<String, Object>> getStreamMetrics() {
+        return ResponseEntity.ok(commentStreamService.getMetricas());
+    }
+    
+    /**
+     * Obtiene métricas de la escritura diferida de comentarios.
+     * 
+     * @return ResponseEntity con comentarios pendientes, escritos, lotes y descartados
+     */
+    @GetMapping("/write-behind/metrics")
+    public ResponseEntity<Map<String, Object>> getWriteBehindMetrics() {
+        return ResponseEntity.ok(commentWriteBehind.getMetricas());
+    }
+    
+    /**
+     * Obtiene métricas del filtro de moderación de comentarios.
+     * 
+     * @return ResponseEntity con términos cargados, comentarios revisados, rechazados y costo promedio
+     */
+    @GetMapping("/moderation/metrics")
+    public ResponseEntity<Map<String, Object>> getModerationMetrics() {
+        return ResponseEntity.ok(commentModerator.getMetricas());
+    }
+    
+    /**
+     * Responde a un comentario.
+     * 
+     * @param id ID del comentario al que se responde
+     * @param usuario Nombre de usuario del autor de la respuesta (opcional si se envía un token de sesión)
+     * @param comment Entidad del comentario con el contenido
+     * @return ResponseEntity con la respuesta creada y status 201 (CREATED)
+     * @throws org.springframework.web.server.ResponseStatusException con estado 404 si el comentario no existe
+     * @throws org.springframework.web.server.ResponseStatusException con estado 403 si la playlist es privada
+     */
+    @PostMapping("/{id}/replies")
+    public ResponseEntity<CommentEntity> replyToComment(
+            @PathVariable Long id,
+            @RequestParam(required = false) String usuario,
+            @Valid @RequestBody CommentEntity comment) {
+        String autor = SessionTokenService.usuarioActuante(usuario);
+        if (autor == null || autor.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Falta el usuario que comenta");
+        }
+        CommentEntity savedReply = commentService.responderComentario(id, autor, comment.getContenido());
+        return new ResponseEntity<>(savedReply, HttpStatus.CREATED);
+    }
+    
+    /**
+     * Obtiene una página de todas las respuestas a un comentario, en el orden del hilo.
+     * 
+     * @param id ID del comentario
+     * @param cursor cursor de la página anterior (siguienteCursor); se omite en la primera
+     * @param limit tamaño de la página (máximo 50)
+     * @return ResponseEntity con la página de respuestas
+     * @throws org.springframework.web.server.ResponseStatusException con estado 404 si el comentario no existe
+     * @throws org.springframework.web.server.ResponseStatusException con estado 403 si la playlist es privada
+     */
+    @GetMapping("/{id}/replies")
+    public ResponseEntity<Map<String, Object>> getReplies(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(commentService.getRespuestas(id, cursor, limit));
     }
     
     /**
@@ -86,6 +199,29 @@ public class CommentController {
         return ResponseEntity.ok(comments);
     }
     
+    /**
+     * Busca comentarios por su contenido, ordenados por relevancia.
+     * 
+     * @param q palabras a buscar; las frases exactas van entre comillas dobles
+     * @param playlistId ID de la playlist a la que se limita la búsqueda (opcional)
+     * @param usuario autor al que se limita la búsqueda (opcional)
+     * @param page número de página (desde 0)
+     * @param limit tamaño de la página (máximo 50)
+     * @return ResponseEntity con el total de coincidencias y los comentarios de la página
+     * @throws org.springframework.web.server.ResponseStatusException con estado 400 si la consulta está vacía
+     * @throws org.springframework.web.server.ResponseStatusException con estado 404 si la playlist o el usuario no existen
+     * @throws org.springframework.web.server.ResponseStatusException con estado 403 si la playlist es privada
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchComments(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Long playlistId,
+            @RequestParam(required = false) String usuario,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(commentService.buscarComentarios(q, playlistId, usuario, page, limit));
+    }
+    
     /**
      * Actualiza el contenido de un comentario existente.
      * 
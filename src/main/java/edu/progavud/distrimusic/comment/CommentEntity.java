@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import edu.progavud.distrimusic.persona.UserEntity;
 import edu.progavud.distrimusic.playlist.PlaylistEntity;
 import org.hibernate.annotations.CreationTimestamp;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.time.LocalDateTime;
 
@@ -16,6 +17,9 @@ import java.time.LocalDateTime;
  * 
  * Esta clase maneja la persistencia y estructura de los comentarios en la aplicación.
  * Los comentarios están asociados a un usuario autor y a una playlist específica.
+ * Las respuestas forman hilos: cada comentario guarda la ruta materializada desde
+ * la raíz de su hilo, de modo que un subárbol completo se obtiene con un recorrido
+ * por rango del índice (hilo_id, ruta).
  * Se utiliza la anotación {@code @JsonIgnoreProperties} para manejar la serialización
  * de las relaciones lazy loading con Hibernate.
  *
@@ -26,7 +30,11 @@ import java.time.LocalDateTime;
  * @since 2025-07-10
  */
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+    @Index(name = "idx_comments_usuario", columnList = "usuario_id, id"),
+    @Index(name = "idx_comments_playlist", columnList = "playlist_id, id"),
+    @Index(name = "idx_comments_hilo", columnList = "hilo_id, ruta")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,9 +42,13 @@ public class CommentEntity {
     
     /**
      * Identificador único del comentario.
+     * Se toma de una secuencia por bloques, que también usa la escritura diferida
+     * ({@link CommentWriteBehind}) para asignar IDs antes de insertar.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_seq")
+    @SequenceGenerator(name = "comments_seq", sequenceName = CommentWriteBehind.SECUENCIA,
+                       allocationSize = CommentWriteBehind.BLOQUE_IDS)
     private Long id;
     
     /**
@@ -56,6 +68,39 @@ public class CommentEntity {
     @Column(name = "fecha_comentario", nullable = false, updatable = false)
     private LocalDateTime fechaComentario;
     
+    /**
+     * ID del comentario al que responde; null si es un comentario raíz.
+     */
+    @Column(name = "parent_id", updatable = false)
+    private Long parentId;
+    
+    /**
+     * ID del comentario raíz del hilo (el propio ID si es raíz).
+     */
+    @Column(name = "hilo_id")
+    private Long hiloId;
+    
+    /**
+     * Ruta materializada desde la raíz del hilo: un segmento de ancho fijo por
+     * nivel con el ID de cada ancestro y el propio, de modo que el orden de las
+     * rutas recorre el hilo en profundidad y los descendientes comparten prefijo.
+     */
+    @Column(name = "ruta", length = 128)
+    @JsonIgnore
+    private String ruta;
+    
+    /**
+     * Nivel del comentario en su hilo (0 para la raíz).
+     */
+    @Column(name = "profundidad", nullable = false, updatable = false)
+    private Integer profundidad = 0;
+    
+    /**
+     * Cantidad de respuestas directas, mantenida con actualizaciones atómicas.
+     */
+    @Column(name = "respuestas_count", nullable = false, updatable = false)
+    private Long respuestasCount = 0L;
+    
     /**
      * Usuario que creó el comentario.
      * Relación muchos a uno con la entidad UserEntity.
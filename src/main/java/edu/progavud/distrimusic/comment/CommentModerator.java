@@ -0,0 +1,336 @@
+package edu.progavud.distrimusic.comment;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtro de moderación de los comentarios: rechaza los que contienen términos
+ * prohibidos o enlaces de spam de una lista configurable.
+ *
+ * Todos los términos se compilan en un autómata de Aho-Corasick con la tabla de
+ * transiciones completa, de modo que revisar un comentario es una sola pasada por
+ * sus caracteres, con un acceso a un arreglo por carácter, sin importar cuántos
+ * términos tenga la lista.
+ *
+ * El texto y los términos se normalizan igual antes de comparar:
+ * - Minúsculas y sin tildes (á → a, ñ → n)
+ * - Leetspeak: 0 → o, 1 → i, 3 → e, 4 → a, 5 → s, 7 → t, @ → a, $ → s, ! → i
+ * - Cualquier otro carácter es un separador, y las repeticiones se reducen a una
+ *   (puuuuta → puta, b i t . l y → bit ly)
+ *
+ * Los términos coinciden con palabras completas; un término terminado en '*' coincide
+ * también con las palabras que empiezan por él.
+ *
+ * La lista se lee de {@code app.comments.moderacion.terminos}. Si es un archivo del
+ * sistema, se vuelve a cargar automáticamente cuando cambia, sin reiniciar.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Component
+@Slf4j
+public class CommentModerator {
+
+    /**
+     * Tamaño del alfabeto normalizado: separador, a-z y 0-9.
+     */
+    private static final int ALFABETO = 37;
+
+    /**
+     * Símbolo de cada carácter normalizado; -1 para los que no se mapean directamente.
+     */
+    private static final byte[] SIMBOLOS = new byte[0x180];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            SIMBOLOS[c] = (byte) (c - 'a' + 1);
+            SIMBOLOS[Character.toUpperCase(c)] = (byte) (c - 'a' + 1);
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            SIMBOLOS[c] = (byte) (c - '0' + 27);
+        }
+        String leet = "0o1i3e4a5s7t@a$s!i";
+        for (int i = 0; i < leet.length(); i += 2) {
+            SIMBOLOS[leet.charAt(i)] = SIMBOLOS[leet.charAt(i + 1)];
+        }
+        // Letras latinas con tildes: se toma la letra base de su descomposición
+        for (char c = 0xC0; c < 0x180; c++) {
+            String base = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            char letra = Character.toLowerCase(base.charAt(0));
+            if (letra >= 'a' && letra <= 'z') {
+                SIMBOLOS[c] = (byte) (letra - 'a' + 1);
+            }
+        }
+    }
+
+    @Value("${app.comments.moderacion.terminos:classpath:moderacion/terminos.txt}")
+    private Resource fuente;
+
+    /**
+     * Autómata vigente; se reemplaza completo al recargar la lista.
+     */
+    private volatile Automata automata = Automata.construir(List.of());
+
+    /**
+     * Fecha de modificación del archivo la última vez que se cargó.
+     */
+    private long ultimaModificacion;
+
+    private final AtomicLong revisados = new AtomicLong();
+    private final AtomicLong rechazados = new AtomicLong();
+    private final AtomicLong nanosTotales = new AtomicLong();
+
+    /**
+     * Autómata de Aho-Corasick con la tabla de transiciones completa.
+     *
+     * @param transiciones estado siguiente para cada estado y símbolo (estado * ALFABETO + símbolo)
+     * @param salidas índice del término reconocido al llegar a cada estado, o -1
+     * @param terminos términos originales
+     */
+    private record Automata(int[] transiciones, int[] salidas, List<String> terminos) {
+
+        static Automata construir(List<String> terminos) {
+            // 1. Trie con las secuencias de símbolos de cada término
+            List<int[]> hijos = new ArrayList<>();
+            List<Integer> salidaTrie = new ArrayList<>();
+            hijos.add(nuevoNodo());
+            salidaTrie.add(-1);
+            List<String> aceptados = new ArrayList<>();
+            for (String termino : terminos) {
+                boolean prefijo = termino.endsWith("*");
+                byte[] simbolos = normalizarTermino(prefijo ? termino.substring(0, termino.length() - 1) : termino, prefijo);
+                if (simbolos.length < 2 || (simbolos.length == 2 && simbolos[1] == 0)) {
+                    continue;
+                }
+                int estado = 0;
+                for (byte simbolo : simbolos) {
+                    int siguiente = hijos.get(estado)[simbolo];
+                    if (siguiente < 0) {
+                        siguiente = hijos.size();
+                        hijos.get(estado)[simbolo] = siguiente;
+                        hijos.add(nuevoNodo());
+                        salidaTrie.add(-1);
+                    }
+                    estado = siguiente;
+                }
+                if (salidaTrie.get(estado) < 0) {
+                    salidaTrie.set(estado, aceptados.size());
+                }
+                aceptados.add(termino);
+            }
+
+            // 2. Enlaces de falla por niveles, completando las transiciones faltantes
+            int estados = hijos.size();
+            int[] transiciones = new int[estados * ALFABETO];
+            int[] salidas = new int[estados];
+            int[] falla = new int[estados];
+            ArrayDeque<Integer> cola = new ArrayDeque<>();
+            salidas[0] = -1;
+            for (int s = 0; s < ALFABETO; s++) {
+                int hijo = hijos.get(0)[s];
+                if (hijo > 0) {
+                    falla[hijo] = 0;
+                    cola.add(hijo);
+                    transiciones[s] = hijo;
+                } else {
+                    transiciones[s] = 0;
+                }
+            }
+            while (!cola.isEmpty()) {
+                int estado = cola.poll();
+                int propia = salidaTrie.get(estado);
+                salidas[estado] = propia >= 0 ? propia : salidas[falla[estado]];
+                for (int s = 0; s < ALFABETO; s++) {
+                    int hijo = hijos.get(estado)[s];
+                    if (hijo > 0) {
+                        falla[hijo] = transiciones[falla[estado] * ALFABETO + s];
+                        cola.add(hijo);
+                        transiciones[estado * ALFABETO + s] = hijo;
+                    } else {
+                        transiciones[estado * ALFABETO + s] = transiciones[falla[estado] * ALFABETO + s];
+                    }
+                }
+            }
+            return new Automata(transiciones, salidas, List.copyOf(aceptados));
+        }
+
+        private static int[] nuevoNodo() {
+            int[] nodo = new int[ALFABETO];
+            Arrays.fill(nodo, -1);
+            return nodo;
+        }
+
+        /**
+         * Recorre el texto normalizándolo al vuelo y devuelve el primer término reconocido.
+         */
+        int buscar(String texto) {
+            int estado = transiciones[0];
+            int anterior = 0;
+            int largo = texto.length();
+            for (int i = 0; i <= largo; i++) {
+                int simbolo = i < largo ? simbolo(texto.charAt(i)) : 0;
+                if (simbolo == anterior) {
+                    continue;
+                }
+                anterior = simbolo;
+                estado = transiciones[estado * ALFABETO + simbolo];
+                if (salidas[estado] >= 0) {
+                    return salidas[estado];
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Carga la lista de términos al iniciar.
+     */
+    @PostConstruct
+    public void iniciar() {
+        recargar();
+    }
+
+    /**
+     * Vuelve a cargar la lista si es un archivo del sistema y cambió desde la última carga.
+     */
+    @Scheduled(fixedDelayString = "${app.comments.moderacion.revision-ms:10000}")
+    public void revisar() {
+        try {
+            if (fuente.isFile() && fuente.lastModified() != ultimaModificacion) {
+                recargar();
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ No se pudo revisar la lista de moderación: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Lee la lista de términos y reemplaza el autómata. Si la lectura falla, se
+     * conserva la lista anterior.
+     */
+    public synchronized void recargar() {
+        List<String> terminos = new ArrayList<>();
+        try {
+            long modificacion = fuente.isFile() ? fuente.lastModified() : 0;
+            try (BufferedReader lector = new BufferedReader(
+                    new InputStreamReader(fuente.getInputStream(), StandardCharsets.UTF_8))) {
+                String linea;
+                while ((linea = lector.readLine()) != null) {
+                    linea = linea.trim();
+                    if (!linea.isEmpty() && !linea.startsWith("#")) {
+                        terminos.add(linea);
+                    }
+                }
+            }
+            long inicio = System.nanoTime();
+            Automata nuevo = Automata.construir(terminos);
+            automata = nuevo;
+            ultimaModificacion = modificacion;
+            log.info("🛡️ Lista de moderación cargada: {} términos, {} estados en {} ms",
+                    nuevo.terminos().size(), nuevo.salidas().length, (System.nanoTime() - inicio) / 1_000_000);
+        } catch (IOException e) {
+            log.error("❌ No se pudo cargar la lista de moderación {}: {}", fuente, e.getMessage());
+        }
+    }
+
+    /**
+     * Busca un término prohibido en un texto.
+     *
+     * @param texto texto a revisar
+     * @return Optional con el primer término encontrado
+     */
+    public Optional<String> buscarTermino(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return Optional.empty();
+        }
+        Automata actual = automata;
+        int encontrado = actual.buscar(texto);
+        return encontrado >= 0 ? Optional.of(actual.terminos().get(encontrado)) : Optional.empty();
+    }
+
+    /**
+     * Verifica que el contenido de un comentario no tenga términos prohibidos.
+     *
+     * @param contenido contenido del comentario
+     * @throws ResponseStatusException (400) si contiene un término prohibido
+     */
+    public void verificar(String contenido) {
+        long inicio = System.nanoTime();
+        Optional<String> termino = buscarTermino(contenido);
+        nanosTotales.addAndGet(System.nanoTime() - inicio);
+        revisados.incrementAndGet();
+        if (termino.isPresent()) {
+            rechazados.incrementAndGet();
+            log.info("🛡️ Comentario rechazado por el término '{}'", termino.get());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "El comentario contiene términos o enlaces no permitidos");
+        }
+    }
+
+    /**
+     * Obtiene métricas del filtro de moderación.
+     *
+     * @return mapa con términos, estados, comentarios revisados, rechazados y costo promedio
+     */
+    public Map<String, Object> getMetricas() {
+        Automata actual = automata;
+        long total = revisados.get();
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("terminos", actual.terminos().size());
+        metricas.put("estados", actual.salidas().length);
+        metricas.put("revisados", total);
+        metricas.put("rechazados", rechazados.get());
+        metricas.put("promedioMicros", total > 0 ? nanosTotales.get() / 1000.0 / total : 0.0);
+        return metricas;
+    }
+
+    /**
+     * Símbolo normalizado de un carácter: 0 para separadores, 1-26 para letras, 27-36 para dígitos.
+     */
+    private static int simbolo(char c) {
+        return c < SIMBOLOS.length ? SIMBOLOS[c] : 0;
+    }
+
+    /**
+     * Normaliza un término a su secuencia de símbolos, rodeada de separadores (o solo
+     * precedida si es un prefijo) y con las repeticiones reducidas igual que en el texto.
+     */
+    private static byte[] normalizarTermino(String termino, boolean prefijo) {
+        byte[] simbolos = new byte[termino.length() + 2];
+        int largo = 0;
+        simbolos[largo++] = 0;
+        for (int i = 0; i < termino.length(); i++) {
+            byte simbolo = (byte) simbolo(termino.charAt(i));
+            if (simbolo != simbolos[largo - 1]) {
+                simbolos[largo++] = simbolo;
+            }
+        }
+        if (!prefijo && simbolos[largo - 1] != 0) {
+            simbolos[largo++] = 0;
+        }
+        return Arrays.copyOf(simbolos, largo);
+    }
+}
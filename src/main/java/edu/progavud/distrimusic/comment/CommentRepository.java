@@ -1,7 +1,12 @@
 package edu.progavud.distrimusic.comment;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -21,13 +26,145 @@ import java.util.List;
 public interface CommentRepository extends JpaRepository<CommentEntity, Long> {
 
     /**
-     * Busca todos los comentarios de una playlist ordenados por ID de forma
-     * descendente.
+     * Obtiene una página de los comentarios raíz de una playlist anteriores a un ID, del
+     * más reciente al más antiguo, con su autor cargado en la misma consulta. Recorre el
+     * índice (playlist_id, id) sin usar OFFSET.
      *
      * @param playlistId ID de la playlist
-     * @return Lista de comentarios ordenados del más reciente al más antiguo
+     * @param antesDe ID del último comentario de la página anterior (Long.MAX_VALUE para la primera)
+     * @param pageable tamaño de la página
+     * @return comentarios raíz de la página
      */
-    List<CommentEntity> findByPlaylistIdOrderByIdDesc(Long playlistId);
+    @Query("SELECT c FROM CommentEntity c JOIN FETCH c.usuario " +
+           "WHERE c.playlist.id = :playlistId AND c.parentId IS NULL AND c.id < :antesDe ORDER BY c.id DESC")
+    List<CommentEntity> findPaginaByPlaylistId(@Param("playlistId") Long playlistId,
+                                               @Param("antesDe") Long antesDe,
+                                               Pageable pageable);
+
+    /**
+     * Obtiene las primeras respuestas de cada uno de un conjunto de hilos, en el orden
+     * de la ruta (en profundidad), con una sola consulta sobre el índice (hilo_id, ruta).
+     * Cada fila contiene [id, contenido, fechaComentario, parentId, hiloId, profundidad,
+     * respuestasCount, usuario, nombre, profileImageUrl].
+     *
+     * @param hilos IDs de los comentarios raíz
+     * @param porHilo cantidad máxima de respuestas por hilo
+     * @return filas ordenadas por hilo y ruta
+     */
+    @Query(value = "SELECT r.id, r.contenido, r.fecha_comentario, r.parent_id, r.hilo_id, r.profundidad, " +
+                   "r.respuestas_count, u.usuario, u.nombre, u.profile_image_url " +
+                   "FROM (SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.hilo_id ORDER BY c.ruta) AS n " +
+                   "      FROM comments c WHERE c.hilo_id IN (:hilos) AND c.parent_id IS NOT NULL) r " +
+                   "JOIN users u ON u.id = r.usuario_id " +
+                   "WHERE r.n <= :porHilo ORDER BY r.hilo_id, r.ruta",
+           nativeQuery = true)
+    List<Object[]> findPrimerasRespuestas(@Param("hilos") Collection<Long> hilos,
+                                          @Param("porHilo") int porHilo);
+
+    /**
+     * Obtiene una página de los descendientes de un comentario en el orden de la ruta,
+     * a partir de una ruta dada, con su autor cargado en la misma consulta.
+     *
+     * @param hiloId ID del hilo
+     * @param prefijo ruta del comentario seguida de '%'
+     * @param despuesDe ruta del último comentario de la página anterior (o la del propio comentario)
+     * @param pageable tamaño de la página
+     * @return descendientes de la página
+     */
+    @Query("SELECT c FROM CommentEntity c JOIN FETCH c.usuario " +
+           "WHERE c.hiloId = :hiloId AND c.ruta LIKE :prefijo AND c.ruta > :despuesDe ORDER BY c.ruta")
+    List<CommentEntity> findSubarbol(@Param("hiloId") Long hiloId,
+                                     @Param("prefijo") String prefijo,
+                                     @Param("despuesDe") String despuesDe,
+                                     Pageable pageable);
+
+    /**
+     * Obtiene un conjunto de comentarios con su autor cargado en la misma consulta.
+     *
+     * @param ids IDs de los comentarios
+     * @return comentarios encontrados, sin orden específico
+     */
+    @Query("SELECT c FROM CommentEntity c JOIN FETCH c.usuario WHERE c.id IN :ids")
+    List<CommentEntity> findConUsuarioByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Suma atómicamente un valor a la cantidad de respuestas de un comentario.
+     *
+     * @param id ID del comentario
+     * @param delta valor a sumar (negativo para restar)
+     * @return número de filas actualizadas
+     */
+    @Modifying
+    @Query("UPDATE CommentEntity c SET c.respuestasCount = c.respuestasCount + :delta WHERE c.id = :id")
+    int sumarRespuestas(@Param("id") Long id, @Param("delta") long delta);
+
+    /**
+     * Recalcula la cantidad de respuestas directas de un conjunto de comentarios.
+     *
+     * @param ids IDs de los comentarios
+     * @return número de filas actualizadas
+     */
+    @Modifying
+    @Query("UPDATE CommentEntity p SET p.respuestasCount = " +
+           "(SELECT COUNT(r) FROM CommentEntity r WHERE r.parentId = p.id) WHERE p.id IN :ids")
+    int recontarRespuestas(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Elimina un comentario con todas sus respuestas con una única sentencia sobre
+     * el índice (hilo_id, ruta).
+     *
+     * @param hiloId ID del hilo
+     * @param prefijo ruta del comentario seguida de '%'
+     * @return número de comentarios eliminados
+     */
+    @Modifying
+    @Query("DELETE FROM CommentEntity c WHERE c.hiloId = :hiloId AND c.ruta LIKE :prefijo")
+    int deleteSubarbol(@Param("hiloId") Long hiloId, @Param("prefijo") String prefijo);
+
+    /**
+     * Obtiene los comentarios padre de un conjunto de comentarios que no pertenecen al conjunto.
+     *
+     * @param ids IDs de los comentarios
+     * @return IDs de los padres
+     */
+    @Query("SELECT DISTINCT c.parentId FROM CommentEntity c " +
+           "WHERE c.id IN :ids AND c.parentId IS NOT NULL AND c.parentId NOT IN :ids")
+    List<Long> findParentIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Obtiene el hilo y la ruta de un conjunto de comentarios, ordenados por hilo y
+     * ruta, para eliminar sus subárboles con {@link #deleteSubarbol(Long, String)}.
+     * Cada fila contiene [hiloId, ruta].
+     *
+     * @param ids IDs de los comentarios
+     * @return filas de los comentarios encontrados
+     */
+    @Query("SELECT c.hiloId, c.ruta FROM CommentEntity c WHERE c.id IN :ids ORDER BY c.hiloId, c.ruta")
+    List<Object[]> findRutasByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Cuenta los comentarios de un subárbol en playlists públicas agrupados por autor y
+     * playlist, para descontarlos de los agregados por carrera antes de eliminarlo.
+     *
+     * @param hiloId ID del hilo
+     * @param prefijo ruta del comentario raíz del subárbol seguida de '%'
+     * @return filas [ID del autor, ID de la playlist, ID del dueño, cantidad]
+     */
+    @Query("SELECT c.usuario.id, c.playlist.id, c.playlist.usuario.id, COUNT(c) FROM CommentEntity c " +
+           "WHERE c.hiloId = :hiloId AND c.ruta LIKE :prefijo AND c.playlist.esPublica = true " +
+           "GROUP BY c.usuario.id, c.playlist.id, c.playlist.usuario.id")
+    List<Object[]> contarSubarbolPorAutor(@Param("hiloId") Long hiloId, @Param("prefijo") String prefijo);
+
+    /**
+     * Cuenta un lote de comentarios en playlists públicas agrupados por autor y playlist.
+     *
+     * @param ids IDs de los comentarios
+     * @return filas [ID del autor, ID de la playlist, ID del dueño, cantidad]
+     */
+    @Query("SELECT c.usuario.id, c.playlist.id, c.playlist.usuario.id, COUNT(c) FROM CommentEntity c " +
+           "WHERE c.id IN :ids AND c.playlist.esPublica = true " +
+           "GROUP BY c.usuario.id, c.playlist.id, c.playlist.usuario.id")
+    List<Object[]> contarPorAutorByIdIn(@Param("ids") Collection<Long> ids);
 
     /**
      * Busca todos los comentarios realizados por un usuario ordenados por ID de
@@ -50,11 +187,15 @@ public interface CommentRepository extends JpaRepository<CommentEntity, Long> {
     /**
      * Elimina todos los comentarios asociados a una playlist. Este método es
      * útil cuando se elimina una playlist y se necesita eliminar sus
-     * comentarios.
+     * comentarios. Se ejecuta como una única sentencia DELETE, sin cargar
+     * los comentarios en memoria.
      *
      * @param playlistId ID de la playlist cuyos comentarios serán eliminados
+     * @return número de comentarios eliminados
      */
-    void deleteByPlaylistId(Long playlistId);
+    @Modifying
+    @Query("DELETE FROM CommentEntity c WHERE c.playlist.id = :playlistId")
+    int deleteByPlaylistId(@Param("playlistId") Long playlistId);
 
     /**
      * Elimina todos los comentarios realizados por un usuario específico. Este
@@ -63,4 +204,52 @@ public interface CommentRepository extends JpaRepository<CommentEntity, Long> {
      * @param usuario Nombre del usuario cuyos comentarios serán eliminados
      */
     void deleteByUsuarioUsuario(String usuario);
+
+    /**
+     * Obtiene una página de los comentarios más recientes de un usuario con la playlist
+     * donde se hicieron. Cada fila contiene [id, contenido, fechaComentario, playlistId,
+     * nombre de la playlist].
+     *
+     * @param userId ID del autor
+     * @param incluirPrivadas true para incluir comentarios en playlists privadas
+     * @param pageable tamaño de la página
+     * @return filas de la página
+     */
+    @Query("SELECT c.id, c.contenido, c.fechaComentario, p.id, p.nombre " +
+           "FROM CommentEntity c JOIN c.playlist p " +
+           "WHERE c.usuario.id = :userId AND (p.esPublica = true OR :incluirPrivadas = true) " +
+           "ORDER BY c.id DESC")
+    List<Object[]> findRecientesByUsuarioId(@Param("userId") Long userId,
+                                            @Param("incluirPrivadas") boolean incluirPrivadas,
+                                            Pageable pageable);
+
+    /**
+     * Obtiene un lote de IDs de comentarios realizados por un usuario.
+     *
+     * @param userId ID del usuario
+     * @param pageable tamaño del lote
+     * @return IDs de los comentarios del lote
+     */
+    @Query("SELECT c.id FROM CommentEntity c WHERE c.usuario.id = :userId")
+    List<Long> findIdsByUsuarioId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Elimina un conjunto de comentarios con una única sentencia.
+     *
+     * @param ids IDs de los comentarios a eliminar
+     * @return número de comentarios eliminados
+     */
+    @Modifying
+    @Query("DELETE FROM CommentEntity c WHERE c.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Obtiene un lote de IDs de comentarios de un conjunto de playlists.
+     *
+     * @param playlistIds IDs de las playlists
+     * @param pageable tamaño del lote
+     * @return IDs de los comentarios del lote
+     */
+    @Query("SELECT c.id FROM CommentEntity c WHERE c.playlist.id IN :playlistIds")
+    List<Long> findIdsByPlaylistIdIn(@Param("playlistIds") Collection<Long> playlistIds, Pageable pageable);
 }
@@ -0,0 +1,660 @@
+package edu.progavud.distrimusic.comment;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import edu.progavud.distrimusic.search.TextoBusqueda;
+import edu.progavud.distrimusic.search.TopClaves;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria para la búsqueda de comentarios por su contenido.
+ *
+ * El contenido se normaliza (minúsculas, sin tildes) y se separa en palabras. Cada
+ * comentario ocupa una posición entera en el índice, asignada en orden de llegada, y
+ * cada palabra guarda la lista ordenada de las posiciones de los comentarios que la
+ * contienen junto con los lugares de la palabra dentro de cada uno, para las frases.
+ * Cada playlist y cada autor tienen también su lista de posiciones, así una búsqueda
+ * acotada recorre solo la lista más corta y salta en las demás con búsqueda binaria.
+ *
+ * Las consultas combinan palabras sueltas y frases entre comillas; un comentario
+ * coincide si tiene todas las palabras y todas las frases. La relevancia es BM25: pesan
+ * más las palabras poco comunes y las que se repiten en comentarios cortos; a igual
+ * relevancia va primero el más reciente. Solo se ordenan los resultados necesarios
+ * para la página pedida.
+ *
+ * Las listas solo crecen: un comentario nuevo se agrega al final y uno editado o
+ * eliminado se marca como borrado. Las búsquedas no se bloquean nunca. Los cambios se
+ * aplican al confirmarse la transacción; el índice se carga al iniciar la aplicación,
+ * se reconstruye periódicamente y también cuando los borrados superan una cuarta parte
+ * de los comentarios.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CommentSearchIndex {
+
+    private static final Pattern FRASES = Pattern.compile("\"([^\"]*)\"");
+
+    /**
+     * Largo máximo de una palabra indexada; las más largas se ignoran.
+     */
+    private static final int MAX_LARGO_PALABRA = 64;
+
+    /**
+     * Parámetros de BM25.
+     */
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Índice vigente.
+     */
+    private volatile Indice indice = Indice.vacio();
+
+    /**
+     * Índice en construcción que también debe recibir los cambios concurrentes.
+     */
+    private volatile Indice pendiente;
+
+    /**
+     * Datos de un comentario indexado.
+     *
+     * @param id ID del comentario
+     * @param playlistId ID de la playlist
+     * @param usuarioId ID del autor
+     * @param hiloId ID del comentario raíz del hilo
+     * @param ruta ruta materializada del comentario
+     * @param largo cantidad de palabras del contenido
+     */
+    private record Documento(long id, long playlistId, long usuarioId, long hiloId, String ruta, int largo) {
+    }
+
+    /**
+     * Datos de un comentario que se va a indexar.
+     *
+     * @param id ID del comentario
+     * @param playlistId ID de la playlist
+     * @param usuarioId ID del autor
+     * @param hiloId ID del comentario raíz del hilo
+     * @param ruta ruta materializada del comentario
+     * @param contenido contenido del comentario
+     */
+    public record Entrada(long id, long playlistId, long usuarioId, long hiloId, String ruta, String contenido) {
+    }
+
+    /**
+     * Arreglos de una lista de posiciones. Las posiciones de los comentarios van en
+     * {@code documentos}; los lugares de la palabra en el comentario i van en
+     * {@code lugares}, entre {@code inicios[i]} e {@code inicios[i + 1]}.
+     */
+    private record Bloque(int[] documentos, int[] inicios, int[] lugares) {
+    }
+
+    /**
+     * Lista de posiciones que solo crece, con un único escritor y lectores sin bloqueo.
+     * El escritor llena los arreglos y después publica el nuevo largo; si tiene que
+     * agrandarlos, publica primero el bloque nuevo. Un lector que lee el largo y luego
+     * el bloque ve al menos ese largo de datos completos.
+     */
+    private static final class Lista {
+
+        private volatile Bloque bloque = new Bloque(new int[4], new int[5], new int[0]);
+        private volatile int largo;
+
+        void agregar(int documento, int[] lugares, int cantidad) {
+            Bloque actual = bloque;
+            int n = largo;
+            int fin = actual.inicios()[n];
+            if (n == actual.documentos().length || fin + cantidad > actual.lugares().length) {
+                int capacidad = n == actual.documentos().length ? n * 2 : actual.documentos().length;
+                actual = new Bloque(Arrays.copyOf(actual.documentos(), capacidad),
+                        Arrays.copyOf(actual.inicios(), capacidad + 1),
+                        Arrays.copyOf(actual.lugares(), Math.max(actual.lugares().length * 2, fin + cantidad)));
+                bloque = actual;
+            }
+            actual.documentos()[n] = documento;
+            System.arraycopy(lugares, 0, actual.lugares(), fin, cantidad);
+            actual.inicios()[n + 1] = fin + cantidad;
+            largo = n + 1;
+        }
+    }
+
+    /**
+     * Vista de solo lectura de una lista, con un cursor que solo avanza.
+     */
+    private static final class Cursor {
+
+        final int largo;
+        final Bloque bloque;
+        int i;
+
+        Cursor(Lista lista) {
+            this.largo = lista.largo;
+            this.bloque = lista.bloque;
+        }
+
+        int documento() {
+            return bloque.documentos()[i];
+        }
+
+        int frecuencia() {
+            return bloque.inicios()[i + 1] - bloque.inicios()[i];
+        }
+
+        /**
+         * Avanza hasta el primer documento mayor o igual al indicado, con saltos
+         * exponenciales y búsqueda binaria.
+         */
+        boolean avanzarHasta(int documento) {
+            int[] documentos = bloque.documentos();
+            if (i >= largo) {
+                return false;
+            }
+            if (documentos[i] >= documento) {
+                return true;
+            }
+            int paso = 1;
+            int bajo = i;
+            int alto = i + 1;
+            while (alto < largo && documentos[alto] < documento) {
+                bajo = alto;
+                paso <<= 1;
+                alto = i + paso;
+            }
+            alto = Math.min(alto + 1, largo);
+            int encontrado = Arrays.binarySearch(documentos, bajo + 1, alto, documento);
+            i = encontrado >= 0 ? encontrado : -encontrado - 1;
+            return i < largo;
+        }
+
+        /**
+         * Indica si la palabra aparece en el lugar indicado del documento actual.
+         */
+        boolean tieneLugar(int lugar) {
+            return Arrays.binarySearch(bloque.lugares(), bloque.inicios()[i], bloque.inicios()[i + 1], lugar) >= 0;
+        }
+    }
+
+    /**
+     * Estructura del índice. Las escrituras se serializan; las lecturas no se bloquean.
+     */
+    private static final class Indice {
+
+        private volatile Documento[] documentos = new Documento[1024];
+        private int siguiente;
+        private volatile int vivos;
+        private volatile long largoTotal;
+        private final Map<Long, Integer> posiciones = new HashMap<>();
+        private final Map<String, Lista> palabras = new ConcurrentHashMap<>();
+        private final Map<Long, Lista> porPlaylist = new ConcurrentHashMap<>();
+        private final Map<Long, Lista> porUsuario = new ConcurrentHashMap<>();
+
+        /**
+         * Respuestas de cada hilo, para quitar un comentario con sus respuestas.
+         */
+        private final Map<Long, Lista> porHilo = new ConcurrentHashMap<>();
+
+        /**
+         * Playlists privadas; sus comentarios se omiten en las búsquedas.
+         */
+        private final Set<Long> privadas = ConcurrentHashMap.newKeySet();
+
+        /**
+         * true mientras se carga desde la base de datos.
+         */
+        private volatile boolean enCarga = true;
+
+        /**
+         * Cambios recibidos mientras el índice se construye; la carga no los sobrescribe.
+         */
+        private final Set<Long> tocados = ConcurrentHashMap.newKeySet();
+        private final Set<Long> playlistsEliminadas = ConcurrentHashMap.newKeySet();
+        private final Map<Long, List<String>> subarbolesEliminados = new ConcurrentHashMap<>();
+
+        synchronized void poner(Entrada entrada) {
+            borrar(entrada.id());
+            Map<String, int[]> lugares = new LinkedHashMap<>();
+            Map<String, Integer> frecuencias = new HashMap<>();
+            List<String> terminos = palabras(entrada.contenido());
+            for (int lugar = 0; lugar < terminos.size(); lugar++) {
+                String termino = terminos.get(lugar);
+                int n = frecuencias.merge(termino, 1, Integer::sum);
+                int[] actuales = lugares.computeIfAbsent(termino, t -> new int[2]);
+                if (n > actuales.length) {
+                    actuales = Arrays.copyOf(actuales, actuales.length * 2);
+                    lugares.put(termino, actuales);
+                }
+                actuales[n - 1] = lugar;
+            }
+
+            int posicion = siguiente++;
+            if (posicion == documentos.length) {
+                documentos = Arrays.copyOf(documentos, documentos.length * 2);
+            }
+            int[] ninguno = new int[0];
+            for (Map.Entry<String, int[]> termino : lugares.entrySet()) {
+                palabras.computeIfAbsent(termino.getKey(), t -> new Lista())
+                        .agregar(posicion, termino.getValue(), frecuencias.get(termino.getKey()));
+            }
+            porPlaylist.computeIfAbsent(entrada.playlistId(), k -> new Lista()).agregar(posicion, ninguno, 0);
+            porUsuario.computeIfAbsent(entrada.usuarioId(), k -> new Lista()).agregar(posicion, ninguno, 0);
+            if (entrada.hiloId() != entrada.id()) {
+                porHilo.computeIfAbsent(entrada.hiloId(), k -> new Lista()).agregar(posicion, ninguno, 0);
+            }
+            documentos[posicion] = new Documento(entrada.id(), entrada.playlistId(), entrada.usuarioId(),
+                    entrada.hiloId(), entrada.ruta(), terminos.size());
+            posiciones.put(entrada.id(), posicion);
+            vivos++;
+            largoTotal += terminos.size();
+        }
+
+        synchronized void cargar(Entrada entrada) {
+            if (tocados.contains(entrada.id()) || playlistsEliminadas.contains(entrada.playlistId())) {
+                return;
+            }
+            List<String> prefijos = subarbolesEliminados.get(entrada.hiloId());
+            if (prefijos != null && entrada.ruta() != null && prefijos.stream().anyMatch(entrada.ruta()::startsWith)) {
+                return;
+            }
+            poner(entrada);
+        }
+
+        /**
+         * Marca como borrado un comentario y todas sus respuestas.
+         */
+        synchronized void quitarConRespuestas(long id, long hiloId, String ruta) {
+            borrar(id);
+            if (ruta == null) {
+                return;
+            }
+            if (enCarga) {
+                subarbolesEliminados.computeIfAbsent(hiloId, k -> new ArrayList<>()).add(ruta);
+            }
+            Lista hilo = porHilo.get(hiloId);
+            if (hilo == null) {
+                return;
+            }
+            Cursor cursor = new Cursor(hilo);
+            for (cursor.i = 0; cursor.i < cursor.largo; cursor.i++) {
+                Documento documento = documentos[cursor.documento()];
+                if (documento != null && documento.ruta() != null && documento.ruta().startsWith(ruta)) {
+                    borrar(documento.id());
+                }
+            }
+        }
+
+        synchronized void quitarPlaylist(long playlistId) {
+            if (enCarga) {
+                playlistsEliminadas.add(playlistId);
+            }
+            Lista lista = porPlaylist.remove(playlistId);
+            if (lista == null) {
+                return;
+            }
+            Cursor cursor = new Cursor(lista);
+            for (cursor.i = 0; cursor.i < cursor.largo; cursor.i++) {
+                Documento documento = documentos[cursor.documento()];
+                if (documento != null) {
+                    borrar(documento.id());
+                }
+            }
+        }
+
+        synchronized Documento documento(long id) {
+            Integer posicion = posiciones.get(id);
+            return posicion != null ? documentos[posicion] : null;
+        }
+
+        private void borrar(long id) {
+            Integer posicion = posiciones.remove(id);
+            if (posicion != null) {
+                vivos--;
+                largoTotal -= documentos[posicion].largo();
+                documentos[posicion] = null;
+            }
+        }
+
+        /**
+         * Registra un comentario modificado mientras se carga el índice.
+         */
+        void tocar(long id) {
+            if (enCarga) {
+                tocados.add(id);
+            }
+        }
+
+        static Indice vacio() {
+            Indice vacio = new Indice();
+            vacio.enCarga = false;
+            return vacio;
+        }
+
+        int borrados() {
+            return siguiente - vivos;
+        }
+    }
+
+    /**
+     * Carga el índice al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        reconstruir();
+    }
+
+    /**
+     * Reconstruye periódicamente el índice desde la base de datos.
+     */
+    @Scheduled(initialDelayString = "${app.comments.search.reconstruccion-ms:3600000}",
+               fixedDelayString = "${app.comments.search.reconstruccion-ms:3600000}")
+    public void reconstruirProgramado() {
+        reconstruir();
+    }
+
+    /**
+     * Reconstruye el índice si los comentarios borrados superan una cuarta parte del total,
+     * para liberar la memoria que ocupan en las listas.
+     */
+    @Scheduled(fixedDelayString = "${app.comments.search.revision-ms:60000}")
+    public void revisar() {
+        Indice actual = indice;
+        int borrados = actual.borrados();
+        if (pendiente == null && borrados > 1000 && borrados > actual.siguiente / 4) {
+            log.info("🧹 {} comentarios borrados en el índice de búsqueda, se reconstruye", borrados);
+            reconstruir();
+        }
+    }
+
+    /**
+     * Reconstruye el índice leyendo todos los comentarios.
+     * Mientras se reconstruye, el índice anterior sigue en uso.
+     */
+    public synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        Indice nuevo = new Indice();
+        pendiente = nuevo;
+        jdbcTemplate.query("SELECT id FROM playlists WHERE es_publica = false", rs -> {
+            nuevo.privadas.add(rs.getLong(1));
+        });
+        jdbcTemplate.query("SELECT id, playlist_id, usuario_id, hilo_id, ruta, contenido FROM comments ORDER BY id", rs -> {
+            nuevo.cargar(new Entrada(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4),
+                    rs.getString(5), rs.getString(6)));
+        });
+        nuevo.enCarga = false;
+        indice = nuevo;
+        pendiente = null;
+        nuevo.tocados.clear();
+        nuevo.playlistsEliminadas.clear();
+        nuevo.subarbolesEliminados.clear();
+        log.info("🔎 Índice de búsqueda de comentarios cargado: {} comentarios, {} palabras en {} ms",
+                nuevo.vivos, nuevo.palabras.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Agrega o actualiza un comentario en el índice al confirmarse la transacción.
+     *
+     * @param entrada datos del comentario
+     */
+    public void indexar(Entrada entrada) {
+        alConfirmar(indice -> {
+            indice.tocar(entrada.id());
+            indice.poner(entrada);
+        });
+    }
+
+    /**
+     * Quita del índice un conjunto de comentarios con todas sus respuestas al
+     * confirmarse la transacción.
+     *
+     * @param ids IDs de los comentarios eliminados
+     */
+    public void eliminarConRespuestas(Collection<Long> ids) {
+        List<Long> copia = List.copyOf(ids);
+        alConfirmar(indice -> {
+            for (Long id : copia) {
+                indice.tocar(id);
+                Documento documento = documento(id);
+                if (documento != null) {
+                    indice.quitarConRespuestas(id, documento.hiloId(), documento.ruta());
+                }
+            }
+        });
+    }
+
+    /**
+     * Quita del índice todos los comentarios de una playlist eliminada al confirmarse la transacción.
+     *
+     * @param playlistId ID de la playlist
+     */
+    public void eliminarPlaylist(Long playlistId) {
+        alConfirmar(indice -> indice.quitarPlaylist(playlistId));
+    }
+
+    /**
+     * Registra un cambio de visibilidad de una playlist al confirmarse la transacción.
+     *
+     * @param playlistId ID de la playlist
+     * @param esPublica nueva visibilidad
+     */
+    public void cambiarVisibilidad(Long playlistId, boolean esPublica) {
+        alConfirmar(indice -> {
+            if (esPublica) {
+                indice.privadas.remove(playlistId);
+            } else {
+                indice.privadas.add(playlistId);
+            }
+        });
+    }
+
+    /**
+     * Busca comentarios que contengan todas las palabras y frases de la consulta.
+     * Las frases se escriben entre comillas dobles.
+     *
+     * @param consulta texto de búsqueda
+     * @param playlistId ID de la playlist a la que se limita la búsqueda (puede ser null)
+     * @param usuarioId ID del autor al que se limita la búsqueda (puede ser null)
+     * @param desde posición del primer resultado
+     * @param limite cantidad máxima de resultados
+     * @return resultado con el total de coincidencias y los IDs de la página en orden de relevancia
+     */
+    public Resultado buscar(String consulta, Long playlistId, Long usuarioId, int desde, int limite) {
+        Indice actual = indice;
+        List<List<String>> frases = new ArrayList<>();
+        Matcher matcher = FRASES.matcher(consulta);
+        while (matcher.find()) {
+            List<String> frase = palabras(matcher.group(1));
+            if (frase.size() > 1) {
+                frases.add(frase);
+            }
+        }
+        List<String> terminos = palabras(consulta).stream().distinct().toList();
+        if (terminos.isEmpty()) {
+            return new Resultado(0, List.of());
+        }
+
+        // Una lista por palabra, más la del alcance; si falta alguna no hay resultados
+        Map<String, Cursor> cursores = new HashMap<>();
+        for (String termino : terminos) {
+            Lista lista = actual.palabras.get(termino);
+            if (lista == null) {
+                return new Resultado(0, List.of());
+            }
+            cursores.put(termino, new Cursor(lista));
+        }
+        List<Cursor> todos = new ArrayList<>(cursores.values());
+        Lista delPlaylist = playlistId != null ? actual.porPlaylist.get(playlistId) : null;
+        Lista delUsuario = usuarioId != null ? actual.porUsuario.get(usuarioId) : null;
+        if ((playlistId != null && delPlaylist == null) || (usuarioId != null && delUsuario == null)) {
+            return new Resultado(0, List.of());
+        }
+        if (delPlaylist != null) {
+            todos.add(new Cursor(delPlaylist));
+        }
+        if (delUsuario != null) {
+            todos.add(new Cursor(delUsuario));
+        }
+        todos.sort((a, b) -> Integer.compare(a.largo, b.largo));
+
+        Documento[] documentos = actual.documentos;
+        double total = Math.max(1, actual.vivos);
+        double largoPromedio = Math.max(1.0, actual.largoTotal / total);
+        // Las listas conservan los comentarios borrados: la frecuencia de cada palabra se
+        // estima con la proporción de comentarios vivos, para que no supere al total
+        double proporcionVivos = Math.min(1.0, total / Math.max(1, actual.siguiente));
+        double[] idf = new double[terminos.size()];
+        Cursor[] porTermino = new Cursor[terminos.size()];
+        for (int t = 0; t < terminos.size(); t++) {
+            porTermino[t] = cursores.get(terminos.get(t));
+            double frecuenciaDocumental = porTermino[t].largo * proporcionVivos;
+            idf[t] = Math.log(1 + Math.max(0, total - frecuenciaDocumental + 0.5) / (frecuenciaDocumental + 0.5));
+        }
+
+        // Intersección: se recorre la lista más corta y se salta en las demás
+        TopClaves mejores = new TopClaves(desde + limite);
+        int coincidencias = 0;
+        Cursor guia = todos.get(0);
+        for (guia.i = 0; guia.i < guia.largo; guia.i++) {
+            int posicion = guia.documento();
+            boolean enTodas = true;
+            for (int k = 1; k < todos.size() && enTodas; k++) {
+                Cursor otro = todos.get(k);
+                if (!otro.avanzarHasta(posicion)) {
+                    guia.i = guia.largo;
+                    enTodas = false;
+                } else {
+                    enTodas = otro.documento() == posicion;
+                }
+            }
+            if (!enTodas) {
+                continue;
+            }
+            Documento documento = posicion < documentos.length ? documentos[posicion] : null;
+            if (documento == null || (playlistId == null && actual.privadas.contains(documento.playlistId()))
+                    || !contieneFrases(frases, cursores)) {
+                continue;
+            }
+
+            double puntaje = 0;
+            for (int t = 0; t < porTermino.length; t++) {
+                int frecuencia = porTermino[t].frecuencia();
+                puntaje += idf[t] * frecuencia * (K1 + 1)
+                        / (frecuencia + K1 * (1 - B + B * documento.largo() / largoPromedio));
+            }
+            coincidencias++;
+            mejores.ofrecer(((long) Float.floatToIntBits((float) puntaje) << 32) | posicion);
+        }
+        long[] ordenados = mejores.ordenadas();
+
+        // Un comentario borrado después de puntuarlo se omite de la página
+        List<Long> ids = new ArrayList<>();
+        for (int k = ordenados.length - 1 - desde; k >= 0; k--) {
+            Documento documento = documentos[(int) ordenados[k]];
+            if (documento != null) {
+                ids.add(documento.id());
+            }
+        }
+        return new Resultado(coincidencias, ids);
+    }
+
+    /**
+     * Resultado de una búsqueda.
+     *
+     * @param total cantidad de comentarios que coinciden
+     * @param ids IDs de los comentarios de la página, del más relevante al menos relevante
+     */
+    public record Resultado(int total, List<Long> ids) {
+    }
+
+    /**
+     * Verifica que el documento actual tenga cada frase: palabras en lugares consecutivos.
+     */
+    private static boolean contieneFrases(List<List<String>> frases, Map<String, Cursor> cursores) {
+        for (List<String> frase : frases) {
+            Cursor primera = cursores.get(frase.get(0));
+            Bloque bloque = primera.bloque;
+            boolean encontrada = false;
+            for (int j = bloque.inicios()[primera.i]; j < bloque.inicios()[primera.i + 1] && !encontrada; j++) {
+                int lugar = bloque.lugares()[j];
+                encontrada = true;
+                for (int k = 1; k < frase.size() && encontrada; k++) {
+                    encontrada = cursores.get(frase.get(k)).tieneLugar(lugar + k);
+                }
+            }
+            if (!encontrada) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Busca un comentario en el índice vigente o, si no está, en el que se construye.
+     */
+    private Documento documento(long id) {
+        Documento documento = indice.documento(id);
+        Indice enConstruccion = pendiente;
+        if (documento == null && enConstruccion != null) {
+            documento = enConstruccion.documento(id);
+        }
+        return documento;
+    }
+
+    /**
+     * Aplica un cambio al índice vigente y al que se construye, después de confirmarse
+     * la transacción actual o de inmediato si no hay una.
+     */
+    private void alConfirmar(Consumer<Indice> cambio) {
+        Runnable aplicar = () -> {
+            Indice enConstruccion = pendiente;
+            if (enConstruccion != null) {
+                cambio.accept(enConstruccion);
+            }
+            cambio.accept(indice);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar.run();
+                }
+            });
+        } else {
+            aplicar.run();
+        }
+    }
+
+    /**
+     * Normaliza un texto y lo separa en palabras, omitiendo las de más de
+     * {@value #MAX_LARGO_PALABRA} caracteres.
+     */
+    private static List<String> palabras(String texto) {
+        return TextoBusqueda.separar(TextoBusqueda.normalizar(texto), MAX_LARGO_PALABRA);
+    }
+}
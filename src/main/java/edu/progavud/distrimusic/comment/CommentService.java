@@ -1,14 +1,27 @@
 package edu.progavud.distrimusic.comment;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.http.HttpStatus;
+import edu.progavud.distrimusic.career.CareerRollupService;
 import edu.progavud.distrimusic.persona.UserEntity;
-import edu.progavud.distrimusic.persona.UserRepository;
+import edu.progavud.distrimusic.persona.UserLookupCache;
 import edu.progavud.distrimusic.playlist.PlaylistEntity;
 import edu.progavud.distrimusic.playlist.PlaylistRepository;
+import edu.progavud.distrimusic.playlist.PlaylistVisibilityCache;
+import edu.progavud.distrimusic.timeline.ActivityEntity;
+import edu.progavud.distrimusic.timeline.TimelineService;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Servicio que gestiona la lógica de negocio relacionada con los comentarios.
@@ -28,8 +41,41 @@ import java.util.List;
 public class CommentService {
     
     private final CommentRepository commentRepository;
-    private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
     private final PlaylistRepository playlistRepository;
+    private final TimelineService timelineService;
+    private final CareerRollupService careerRollupService;
+    private final PlaylistVisibilityCache playlistVisibilityCache;
+    private final CommentStreamService commentStreamService;
+    private final CommentWriteBehind commentWriteBehind;
+    private final CommentModerator commentModerator;
+    private final CommentSearchIndex commentSearchIndex;
+
+    /**
+     * Tamaño máximo de una página de comentarios.
+     */
+    private static final int MAX_PAGINA = 50;
+
+    /**
+     * Cantidad máxima de respuestas incluidas por hilo en una página de comentarios.
+     */
+    private static final int MAX_RESPUESTAS_POR_HILO = 10;
+
+    /**
+     * Profundidad máxima de un hilo; las respuestas a un comentario en este nivel
+     * se agregan como hermanas de él.
+     */
+    private static final int MAX_PROFUNDIDAD = 8;
+
+    /**
+     * Ancho fijo de cada segmento de la ruta (ID en base 36 con ceros a la izquierda).
+     */
+    private static final int ANCHO_SEGMENTO = 8;
+
+    /**
+     * Cantidad máxima de resultados de búsqueda que se pueden recorrer por páginas.
+     */
+    private static final int MAX_RESULTADOS_BUSQUEDA = 1000;
     
     /**
      * Crea un nuevo comentario en una playlist pública.
@@ -40,8 +86,12 @@ public class CommentService {
      * @return El comentario creado
      * @throws ResponseStatusException (404) si la playlist o el usuario no existen
      * @throws ResponseStatusException (403) si la playlist no es pública
+     * @throws ResponseStatusException (400) si el contenido tiene términos no permitidos
      */
+    @Transactional
     public CommentEntity createComment(Long playlistId, String usuario, String contenido) {
+        commentModerator.verificar(contenido);
+        
         // Verificar que la playlist existe y es pública
         PlaylistEntity playlist = playlistRepository.findById(playlistId)
             .orElseThrow(() -> new ResponseStatusException(
@@ -53,13 +103,124 @@ public class CommentService {
         }
         
         // Verificar que el usuario existe
-        UserEntity user = userRepository.findByUsuario(usuario)
+        UserEntity user = userLookupCache.buscarEntidad(usuario)
             .orElseThrow(() -> new ResponseStatusException(
                 HttpStatus.NOT_FOUND, "Usuario no encontrado"));
         
         // Crear el comentario
         CommentEntity comment = new CommentEntity(contenido, user, playlist);
-        return commentRepository.save(comment);
+        CommentEntity saved = commentRepository.save(comment);
+        saved.setHiloId(saved.getId());
+        saved.setRuta(segmento(saved.getId()));
+        commentSearchIndex.indexar(entradaDeIndice(saved, playlistId, user.getId()));
+        timelineService.registrarActividad(user.getId(), ActivityEntity.Tipo.COMENTARIO,
+                playlistId, null, saved.getId());
+        careerRollupService.registrarComentario(user.getId(), playlistId, playlist.getUsuario().getId(), 1);
+        commentStreamService.publicar(playlistId, "comentario-creado", resumir(saved));
+        return saved;
+    }
+    
+    /**
+     * Indica si los comentarios nuevos se escriben de forma diferida.
+     *
+     * @return true si se debe usar {@link #aceptarComentario(Long, String, String)}
+     */
+    public boolean escrituraDiferida() {
+        return commentWriteBehind.isActivo();
+    }
+    
+    /**
+     * Valida un comentario nuevo y lo deja pendiente de escribir en el próximo lote
+     * de {@link CommentWriteBehind}. La validación usa solo las cachés de playlists y
+     * usuarios, y el ID se asigna de inmediato.
+     *
+     * @param playlistId ID de la playlist donde se creará el comentario
+     * @param usuario Nombre de usuario del autor del comentario
+     * @param contenido Contenido del comentario
+     * @return representación del comentario aceptado, con estado PENDIENTE
+     * @throws ResponseStatusException (404) si la playlist o el usuario no existen
+     * @throws ResponseStatusException (403) si la playlist no es pública
+     * @throws ResponseStatusException (400) si el contenido tiene términos no permitidos
+     * @throws ResponseStatusException (503) si hay demasiados comentarios pendientes
+     */
+    public Map<String, Object> aceptarComentario(Long playlistId, String usuario, String contenido) {
+        commentModerator.verificar(contenido);
+        
+        PlaylistVisibilityCache.Visibilidad playlist = playlistVisibilityCache.buscar(playlistId)
+            .orElseThrow(() -> new ResponseStatusException(
+                HttpStatus.NOT_FOUND, "Playlist no encontrada"));
+        
+        if (!playlist.esPublica()) {
+            throw new ResponseStatusException(
+                HttpStatus.FORBIDDEN, "Solo se pueden comentar playlists públicas");
+        }
+        
+        UserEntity user = userLookupCache.buscarEntidad(usuario)
+            .orElseThrow(() -> new ResponseStatusException(
+                HttpStatus.NOT_FOUND, "Usuario no encontrado"));
+        
+        CommentEntity comment = new CommentEntity(contenido, user, null);
+        comment.setId(commentWriteBehind.reservarId());
+        comment.setHiloId(comment.getId());
+        comment.setRuta(segmento(comment.getId()));
+        comment.setFechaComentario(LocalDateTime.now());
+        Map<String, Object> resumen = resumir(comment);
+        commentWriteBehind.encolar(new CommentWriteBehind.Pendiente(comment.getId(), contenido,
+                comment.getFechaComentario(), user.getId(), playlistId, playlist.propietarioId(),
+                comment.getRuta(), resumen));
+        
+        Map<String, Object> aceptado = new LinkedHashMap<>(resumen);
+        aceptado.put("playlistId", playlistId);
+        aceptado.put("estado", "PENDIENTE");
+        return aceptado;
+    }
+    
+    /**
+     * Crea una respuesta a un comentario.
+     *
+     * La respuesta hereda el hilo y la playlist del comentario, su ruta es la del
+     * padre más su propio segmento y la cantidad de respuestas del padre se
+     * incrementa atómicamente. Si el padre está en la profundidad máxima, la
+     * respuesta se agrega al mismo nivel que él.
+     *
+     * @param parentId ID del comentario al que se responde
+     * @param usuario Nombre de usuario del autor de la respuesta
+     * @param contenido Contenido de la respuesta
+     * @return La respuesta creada
+     * @throws ResponseStatusException (404) si el comentario o el usuario no existen
+     * @throws ResponseStatusException (403) si la playlist ya no es pública
+     * @throws ResponseStatusException (400) si el contenido tiene términos no permitidos
+     */
+    @Transactional
+    public CommentEntity responderComentario(Long parentId, String usuario, String contenido) {
+        commentModerator.verificar(contenido);
+        CommentEntity parent = getCommentById(parentId);
+        if (parent.getProfundidad() >= MAX_PROFUNDIDAD) {
+            parent = getCommentById(parent.getParentId());
+        }
+        PlaylistEntity playlist = parent.getPlaylist();
+        if (!playlistVisibilityCache.esPublica(playlist.getId()).orElse(false)) {
+            throw new ResponseStatusException(
+                HttpStatus.FORBIDDEN, "Solo se pueden comentar playlists públicas");
+        }
+        
+        UserEntity user = userLookupCache.buscarEntidad(usuario)
+            .orElseThrow(() -> new ResponseStatusException(
+                HttpStatus.NOT_FOUND, "Usuario no encontrado"));
+        
+        CommentEntity reply = new CommentEntity(contenido, user, playlist);
+        reply.setParentId(parent.getId());
+        reply.setHiloId(parent.getHiloId());
+        reply.setProfundidad(parent.getProfundidad() + 1);
+        CommentEntity saved = commentRepository.save(reply);
+        saved.setRuta(parent.getRuta() + segmento(saved.getId()));
+        commentRepository.sumarRespuestas(parent.getId(), 1);
+        commentSearchIndex.indexar(entradaDeIndice(saved, playlist.getId(), user.getId()));
+        timelineService.registrarActividad(user.getId(), ActivityEntity.Tipo.COMENTARIO,
+                playlist.getId(), null, saved.getId());
+        careerRollupService.registrarComentario(user.getId(), playlist.getId(), playlist.getUsuario().getId(), 1);
+        commentStreamService.publicar(playlist.getId(), "comentario-creado", resumir(saved));
+        return saved;
     }
     
     /**
@@ -76,25 +237,204 @@ public class CommentService {
     }
     
     /**
-     * Obtiene todos los comentarios de una playlist pública.
+     * Obtiene una página de los comentarios de una playlist pública, del más reciente
+     * al más antiguo.
+     *
+     * La visibilidad de la playlist se toma de {@link PlaylistVisibilityCache}. La
+     * página de hilos se obtiene con una consulta por cursor que incluye a los autores
+     * y las primeras respuestas de todos los hilos de la página con otra consulta sobre
+     * el índice de rutas.
      *
      * @param playlistId ID de la playlist
-     * @return Lista de comentarios ordenados por ID descendente
+     * @param cursor ID del último comentario de la página anterior (null para la primera)
+     * @param limit tamaño de la página (máximo {@value #MAX_PAGINA})
+     * @param respuestas respuestas incluidas por hilo (máximo {@value #MAX_RESPUESTAS_POR_HILO})
+     * @return mapa con los hilos de la página y el cursor de la siguiente
      * @throws ResponseStatusException (404) si la playlist no existe
      * @throws ResponseStatusException (403) si la playlist es privada
+     * @throws ResponseStatusException (400) si el cursor es inválido
      */
-    public List<CommentEntity> getCommentsByPlaylist(Long playlistId) {
+    public Map<String, Object> getCommentsByPlaylist(Long playlistId, String cursor, int limit, int respuestas) {
         // Verificar que la playlist es pública antes de mostrar comentarios
-        PlaylistEntity playlist = playlistRepository.findById(playlistId)
+        boolean esPublica = playlistVisibilityCache.esPublica(playlistId)
             .orElseThrow(() -> new ResponseStatusException(
                 HttpStatus.NOT_FOUND, "Playlist no encontrada"));
 
-        if (!playlist.getEsPublica()) {
+        if (!esPublica) {
+            throw new ResponseStatusException(
+                HttpStatus.FORBIDDEN, "No se pueden ver comentarios de playlists privadas");
+        }
+
+        long antesDe = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                antesDe = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+            }
+        }
+        int tamano = Math.max(1, Math.min(limit, MAX_PAGINA));
+        List<CommentEntity> filas = commentRepository.findPaginaByPlaylistId(
+                playlistId, antesDe, PageRequest.of(0, tamano + 1));
+        boolean hayMas = filas.size() > tamano;
+
+        List<CommentEntity> hilos = filas.subList(0, Math.min(tamano, filas.size()));
+        Map<Long, List<Map<String, Object>>> respuestasPorHilo = new HashMap<>();
+        int porHilo = Math.max(0, Math.min(respuestas, MAX_RESPUESTAS_POR_HILO));
+        List<Long> conRespuestas = new ArrayList<>();
+        for (CommentEntity hilo : hilos) {
+            if (hilo.getRespuestasCount() > 0) {
+                conRespuestas.add(hilo.getId());
+            }
+        }
+        if (porHilo > 0 && !conRespuestas.isEmpty()) {
+            for (Object[] fila : commentRepository.findPrimerasRespuestas(conRespuestas, porHilo)) {
+                respuestasPorHilo.computeIfAbsent(((Number) fila[4]).longValue(), k -> new ArrayList<>())
+                        .add(resumir(fila));
+            }
+        }
+
+        List<Map<String, Object>> comentarios = new ArrayList<>();
+        for (CommentEntity hilo : hilos) {
+            Map<String, Object> comentario = resumir(hilo);
+            comentario.put("respuestas", respuestasPorHilo.getOrDefault(hilo.getId(), List.of()));
+            comentarios.add(comentario);
+        }
+
+        Map<String, Object> pagina = new LinkedHashMap<>();
+        pagina.put("playlistId", playlistId);
+        pagina.put("comentarios", comentarios);
+        pagina.put("siguienteCursor", hayMas ? String.valueOf(filas.get(tamano - 1).getId()) : null);
+        return pagina;
+    }
+    
+    /**
+     * Obtiene una página de las respuestas a un comentario (directas e indirectas),
+     * en el orden del hilo, con una consulta por rango sobre el índice de rutas.
+     *
+     * @param id ID del comentario
+     * @param cursor cursor de la página anterior (null para la primera)
+     * @param limit tamaño de la página (máximo {@value #MAX_PAGINA})
+     * @return mapa con las respuestas de la página y el cursor de la siguiente
+     * @throws ResponseStatusException (404) si el comentario no existe
+     * @throws ResponseStatusException (403) si la playlist es privada
+     */
+    public Map<String, Object> getRespuestas(Long id, String cursor, int limit) {
+        CommentEntity comment = getCommentById(id);
+        if (!playlistVisibilityCache.esPublica(comment.getPlaylist().getId()).orElse(false)) {
             throw new ResponseStatusException(
                 HttpStatus.FORBIDDEN, "No se pueden ver comentarios de playlists privadas");
         }
+        String ruta = comment.getRuta();
+        String despuesDe = ruta;
+        if (cursor != null && !cursor.isBlank()) {
+            if (!cursor.startsWith(ruta) || cursor.length() <= ruta.length()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+            }
+            despuesDe = cursor;
+        }
+        int tamano = Math.max(1, Math.min(limit, MAX_PAGINA));
+        List<CommentEntity> filas = commentRepository.findSubarbol(
+                comment.getHiloId(), ruta + "%", despuesDe, PageRequest.of(0, tamano + 1));
+        boolean hayMas = filas.size() > tamano;
+
+        List<Map<String, Object>> respuestas = new ArrayList<>();
+        for (CommentEntity respuesta : filas.subList(0, Math.min(tamano, filas.size()))) {
+            respuestas.add(resumir(respuesta));
+        }
 
-        return commentRepository.findByPlaylistIdOrderByIdDesc(playlistId);
+        Map<String, Object> pagina = new LinkedHashMap<>();
+        pagina.put("comentarioId", id);
+        pagina.put("respuestasCount", comment.getRespuestasCount());
+        pagina.put("respuestas", respuestas);
+        pagina.put("siguienteCursor", hayMas ? filas.get(tamano - 1).getRuta() : null);
+        return pagina;
+    }
+    
+    /**
+     * Abre una conexión en vivo a los comentarios de una playlist pública.
+     *
+     * @param playlistId ID de la playlist
+     * @return emisor SSE que recibe los comentarios creados, editados y eliminados
+     * @throws ResponseStatusException (404) si la playlist no existe
+     * @throws ResponseStatusException (403) si la playlist es privada
+     * @throws ResponseStatusException (503) si se alcanzó el máximo de conexiones
+     */
+    public SseEmitter suscribir(Long playlistId) {
+        boolean esPublica = playlistVisibilityCache.esPublica(playlistId)
+            .orElseThrow(() -> new ResponseStatusException(
+                HttpStatus.NOT_FOUND, "Playlist no encontrada"));
+        if (!esPublica) {
+            throw new ResponseStatusException(
+                HttpStatus.FORBIDDEN, "No se pueden ver comentarios de playlists privadas");
+        }
+        return commentStreamService.suscribir(playlistId);
+    }
+    
+    /**
+     * Busca comentarios por su contenido en {@link CommentSearchIndex}, del más relevante
+     * al menos relevante. Sin alcance, solo se buscan comentarios de playlists públicas.
+     *
+     * @param consulta palabras a buscar; las frases exactas van entre comillas dobles
+     * @param playlistId ID de la playlist a la que se limita la búsqueda (opcional)
+     * @param usuario autor al que se limita la búsqueda (opcional)
+     * @param pagina número de página (desde 0)
+     * @param limit tamaño de la página (máximo {@value #MAX_PAGINA})
+     * @return mapa con el total de coincidencias y los comentarios de la página
+     * @throws ResponseStatusException (400) si la consulta está vacía o la página es demasiado profunda
+     * @throws ResponseStatusException (404) si la playlist o el usuario no existen
+     * @throws ResponseStatusException (403) si la playlist es privada
+     */
+    public Map<String, Object> buscarComentarios(String consulta, Long playlistId, String usuario, int pagina, int limit) {
+        if (consulta == null || consulta.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La búsqueda no puede estar vacía");
+        }
+        int tamano = Math.max(1, Math.min(limit, MAX_PAGINA));
+        int desde = Math.max(0, pagina) * tamano;
+        if (desde + tamano > MAX_RESULTADOS_BUSQUEDA) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Solo se pueden consultar los primeros " + MAX_RESULTADOS_BUSQUEDA + " resultados");
+        }
+        if (playlistId != null) {
+            boolean esPublica = playlistVisibilityCache.esPublica(playlistId)
+                .orElseThrow(() -> new ResponseStatusException(
+                    HttpStatus.NOT_FOUND, "Playlist no encontrada"));
+            if (!esPublica) {
+                throw new ResponseStatusException(
+                    HttpStatus.FORBIDDEN, "No se pueden ver comentarios de playlists privadas");
+            }
+        }
+        Long usuarioId = null;
+        if (usuario != null && !usuario.isBlank()) {
+            usuarioId = userLookupCache.resolverId(usuario)
+                .orElseThrow(() -> new ResponseStatusException(
+                    HttpStatus.NOT_FOUND, "Usuario no encontrado"));
+        }
+
+        CommentSearchIndex.Resultado resultado = commentSearchIndex.buscar(consulta, playlistId, usuarioId, desde, tamano);
+        Map<Long, CommentEntity> encontrados = new HashMap<>();
+        if (!resultado.ids().isEmpty()) {
+            for (CommentEntity comment : commentRepository.findConUsuarioByIdIn(resultado.ids())) {
+                encontrados.put(comment.getId(), comment);
+            }
+        }
+        List<Map<String, Object>> comentarios = new ArrayList<>();
+        for (Long id : resultado.ids()) {
+            CommentEntity comment = encontrados.get(id);
+            // Un comentario eliminado por otra vía puede seguir en el índice hasta la próxima reconstrucción
+            if (comment != null) {
+                Map<String, Object> item = resumir(comment);
+                item.put("playlistId", comment.getPlaylist().getId());
+                comentarios.add(item);
+            }
+        }
+
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("consulta", consulta);
+        respuesta.put("total", resultado.total());
+        respuesta.put("pagina", Math.max(0, pagina));
+        respuesta.put("comentarios", comentarios);
+        return respuesta;
     }
     
     /**
@@ -106,7 +446,7 @@ public class CommentService {
      */
     public List<CommentEntity> getCommentsByUser(String usuario) {
         // Verificar que el usuario existe
-        userRepository.findByUsuario(usuario)
+        userLookupCache.resolverId(usuario)
             .orElseThrow(() -> new ResponseStatusException(
                 HttpStatus.NOT_FOUND, "Usuario no encontrado"));
                 
@@ -122,8 +462,10 @@ public class CommentService {
      * @return El comentario actualizado
      * @throws ResponseStatusException (404) si el comentario no existe
      * @throws ResponseStatusException (403) si el usuario no es el autor del comentario
+     * @throws ResponseStatusException (400) si el contenido tiene términos no permitidos
      */
     public CommentEntity updateComment(Long id, String usuario, String nuevoContenido) {
+        commentModerator.verificar(nuevoContenido);
         CommentEntity comment = getCommentById(id);
         
         // Verificar que el usuario es el dueño del comentario
@@ -133,17 +475,21 @@ public class CommentService {
         }
         
         comment.setContenido(nuevoContenido);
-        return commentRepository.save(comment);
+        CommentEntity saved = commentRepository.save(comment);
+        commentSearchIndex.indexar(entradaDeIndice(saved, saved.getPlaylist().getId(), saved.getUsuario().getId()));
+        commentStreamService.publicar(saved.getPlaylist().getId(), "comentario-actualizado", resumir(saved));
+        return saved;
     }
     
     /**
-     * Elimina un comentario.
+     * Elimina un comentario junto con todas sus respuestas.
      *
      * @param id ID del comentario a eliminar
      * @param usuario Nombre del usuario que intenta eliminar el comentario
      * @throws ResponseStatusException (404) si el comentario no existe
      * @throws ResponseStatusException (403) si el usuario no es el autor del comentario ni el dueño de la playlist
      */
+    @Transactional
     public void deleteComment(Long id, String usuario) {
         CommentEntity comment = getCommentById(id);
         
@@ -156,6 +502,83 @@ public class CommentService {
                 HttpStatus.FORBIDDEN, "Solo puedes eliminar tus propios comentarios o comentarios en tus playlists");
         }
         
-        commentRepository.deleteById(id);
+        // Con respuestas, los comentarios del subárbol se cuentan por autor antes de borrarlos
+        boolean publica = Boolean.TRUE.equals(comment.getPlaylist().getEsPublica());
+        List<Object[]> aportes = publica && comment.getRespuestasCount() > 0
+                ? commentRepository.contarSubarbolPorAutor(comment.getHiloId(), comment.getRuta() + "%")
+                : List.of();
+        int eliminados = commentRepository.deleteSubarbol(comment.getHiloId(), comment.getRuta() + "%");
+        if (comment.getParentId() != null) {
+            commentRepository.sumarRespuestas(comment.getParentId(), -1);
+        }
+        commentSearchIndex.eliminarConRespuestas(List.of(id));
+        Map<String, Object> eliminado = new LinkedHashMap<>();
+        eliminado.put("id", id);
+        eliminado.put("parentId", comment.getParentId());
+        eliminado.put("eliminados", eliminados);
+        commentStreamService.publicar(comment.getPlaylist().getId(), "comentario-eliminado", eliminado);
+        if (!aportes.isEmpty()) {
+            careerRollupService.registrarComentarios(aportes, -1);
+        } else if (publica) {
+            careerRollupService.registrarComentario(comment.getUsuario().getId(), comment.getPlaylist().getId(),
+                    comment.getPlaylist().getUsuario().getId(), -1);
+        }
+    }
+    
+    /**
+     * Datos de un comentario para {@link CommentSearchIndex}.
+     */
+    private static CommentSearchIndex.Entrada entradaDeIndice(CommentEntity comment, Long playlistId, Long usuarioId) {
+        return new CommentSearchIndex.Entrada(comment.getId(), playlistId, usuarioId, comment.getHiloId(),
+                comment.getRuta(), comment.getContenido());
+    }
+    
+    /**
+     * Resume un comentario con los datos públicos de su autor.
+     */
+    private static Map<String, Object> resumir(CommentEntity comment) {
+        Map<String, Object> autor = new LinkedHashMap<>();
+        autor.put("usuario", comment.getUsuario().getUsuario());
+        autor.put("nombre", comment.getUsuario().getNombre());
+        autor.put("profileImageUrl", comment.getUsuario().getProfileImageUrl());
+
+        Map<String, Object> comentario = new LinkedHashMap<>();
+        comentario.put("id", comment.getId());
+        comentario.put("contenido", comment.getContenido());
+        comentario.put("fechaComentario", comment.getFechaComentario());
+        comentario.put("parentId", comment.getParentId());
+        comentario.put("profundidad", comment.getProfundidad());
+        comentario.put("respuestasCount", comment.getRespuestasCount());
+        comentario.put("usuario", autor);
+        return comentario;
+    }
+    
+    /**
+     * Resume una fila de {@link CommentRepository#findPrimerasRespuestas}.
+     */
+    private static Map<String, Object> resumir(Object[] fila) {
+        Map<String, Object> autor = new LinkedHashMap<>();
+        autor.put("usuario", fila[7]);
+        autor.put("nombre", fila[8]);
+        autor.put("profileImageUrl", fila[9]);
+
+        Map<String, Object> comentario = new LinkedHashMap<>();
+        comentario.put("id", ((Number) fila[0]).longValue());
+        comentario.put("contenido", fila[1]);
+        comentario.put("fechaComentario", fila[2] instanceof Timestamp fecha ? fecha.toLocalDateTime() : fila[2]);
+        comentario.put("parentId", ((Number) fila[3]).longValue());
+        comentario.put("profundidad", ((Number) fila[5]).intValue());
+        comentario.put("respuestasCount", ((Number) fila[6]).longValue());
+        comentario.put("usuario", autor);
+        return comentario;
+    }
+    
+    /**
+     * Segmento de ruta de un comentario: su ID en base 36 con ancho fijo, para que
+     * el orden alfabético de las rutas coincida con el numérico en cada nivel.
+     */
+    private static String segmento(Long id) {
+        String base36 = Long.toString(id, 36);
+        return "0".repeat(Math.max(0, ANCHO_SEGMENTO - base36.length())) + base36;
     }
 }
\ No newline at end of file
@@ -0,0 +1,343 @@
+package edu.progavud.distrimusic.comment;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Difusión en vivo de los comentarios de cada playlist mediante Server-Sent Events.
+ *
+ * Funciona como un pub/sub en memoria: {@link CommentService} publica los comentarios
+ * creados, editados y eliminados al confirmarse cada transacción, y cada suscriptor
+ * de la playlist recibe el evento.
+ *
+ * - Las conexiones abiertas usan el modo asíncrono del servlet, así que un oyente
+ *   inactivo no ocupa ningún hilo.
+ * - Cada suscriptor tiene un buffer acotado de eventos pendientes. Un pool pequeño
+ *   de hilos los envía, sin procesar nunca dos envíos del mismo suscriptor a la vez.
+ * - Si el buffer de un suscriptor se llena (cliente lento) o un envío falla, la
+ *   conexión se cierra y el cliente debe reconectarse y volver a pedir la página.
+ * - Cada escritura tiene un plazo: si un envío sigue bloqueado pasado ese tiempo
+ *   (cliente que no lee su socket), la conexión se aborta para liberar el hilo y no
+ *   frenar la entrega al resto de suscriptores ni los latidos.
+ * - Se envía un latido periódico para mantener abiertas las conexiones a través de
+ *   proxies y detectar clientes desconectados.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Service
+@Slf4j
+public class CommentStreamService {
+
+    private final int capacidadBuffer;
+    private final int maxSuscriptores;
+    private final long timeoutMs;
+    private final long plazoEscrituraNanos;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Suscriptores por ID de playlist.
+     */
+    private final Map<Long, Set<Suscriptor>> suscriptores = new ConcurrentHashMap<>();
+
+    /**
+     * Cantidad total de suscriptores conectados.
+     */
+    private final AtomicInteger conectados = new AtomicInteger();
+
+    /**
+     * Secuencia de los IDs de evento.
+     */
+    private final AtomicLong secuencia = new AtomicLong();
+
+    /**
+     * Cantidad de suscriptores desconectados por no consumir a tiempo.
+     */
+    private final AtomicLong descartados = new AtomicLong();
+
+    /**
+     * Conexión de un cliente a una playlist.
+     */
+    private static final class Suscriptor {
+
+        final Long playlistId;
+        final SseEmitter emitter;
+        final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pendientes;
+        final AtomicBoolean programado = new AtomicBoolean();
+        final AtomicBoolean cerrado = new AtomicBoolean();
+
+        /**
+         * Momento (System.nanoTime) en que empezó la escritura en curso, 0 si no hay una.
+         */
+        final AtomicLong escribiendoDesde = new AtomicLong();
+
+        Suscriptor(Long playlistId, SseEmitter emitter, int capacidad) {
+            this.playlistId = playlistId;
+            this.emitter = emitter;
+            this.pendientes = new ArrayBlockingQueue<>(capacidad);
+        }
+    }
+
+    /**
+     * Crea el servicio con su pool de envío.
+     *
+     * @param hilos cantidad de hilos que envían los eventos
+     * @param capacidadBuffer eventos pendientes por suscriptor antes de desconectarlo
+     * @param maxSuscriptores cantidad máxima de conexiones abiertas
+     * @param timeoutMs duración máxima de una conexión antes de que el cliente deba reconectarse
+     * @param plazoEscrituraMs tiempo máximo que puede tardar una escritura antes de abortar la conexión
+     */
+    public CommentStreamService(@Value("${app.comments.stream.hilos:4}") int hilos,
+                                @Value("${app.comments.stream.buffer:64}") int capacidadBuffer,
+                                @Value("${app.comments.stream.max-suscriptores:10000}") int maxSuscriptores,
+                                @Value("${app.comments.stream.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${app.comments.stream.plazo-escritura-ms:5000}") long plazoEscrituraMs) {
+        this.capacidadBuffer = capacidadBuffer;
+        this.maxSuscriptores = maxSuscriptores;
+        this.timeoutMs = timeoutMs;
+        this.plazoEscrituraNanos = TimeUnit.MILLISECONDS.toNanos(plazoEscrituraMs);
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(maxSuscriptores), r -> {
+                    Thread hilo = new Thread(r, "comment-stream-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Suscribe un cliente a los comentarios de una playlist.
+     *
+     * @param playlistId ID de la playlist (ya verificada como pública)
+     * @return emisor SSE de la conexión
+     * @throws ResponseStatusException (503) si se alcanzó el máximo de conexiones
+     */
+    public SseEmitter suscribir(Long playlistId) {
+        if (conectados.incrementAndGet() > maxSuscriptores) {
+            conectados.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Demasiadas conexiones en vivo, intenta más tarde");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Suscriptor suscriptor = new Suscriptor(playlistId, emitter, capacidadBuffer);
+        emitter.onCompletion(() -> quitar(suscriptor));
+        emitter.onTimeout(() -> quitar(suscriptor));
+        emitter.onError(e -> quitar(suscriptor));
+        suscriptores.compute(playlistId, (id, grupo) -> {
+            Set<Suscriptor> actual = grupo != null ? grupo : ConcurrentHashMap.<Suscriptor>newKeySet();
+            actual.add(suscriptor);
+            return actual;
+        });
+
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("playlistId", playlistId);
+        encolar(suscriptor, SseEmitter.event().name("conectado").data(datos).reconnectTime(3000).build());
+        return emitter;
+    }
+
+    /**
+     * Publica un evento a los suscriptores de una playlist cuando se confirme la
+     * transacción actual (o de inmediato si no hay una).
+     *
+     * @param playlistId ID de la playlist
+     * @param tipo nombre del evento
+     * @param datos contenido del evento
+     */
+    public void publicar(Long playlistId, String tipo, Map<String, Object> datos) {
+        Runnable envio = () -> difundir(playlistId, tipo, datos);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    envio.run();
+                }
+            });
+        } else {
+            envio.run();
+        }
+    }
+
+    /**
+     * Envía un latido a todas las conexiones para mantenerlas abiertas y detectar
+     * clientes que ya se desconectaron.
+     */
+    @Scheduled(fixedDelayString = "${app.comments.stream.heartbeat-ms:15000}")
+    public void latido() {
+        Set<ResponseBodyEmitter.DataWithMediaType> latido = SseEmitter.event().comment("latido").build();
+        for (Set<Suscriptor> grupo : suscriptores.values()) {
+            for (Suscriptor suscriptor : grupo) {
+                encolar(suscriptor, latido);
+            }
+        }
+    }
+
+    /**
+     * Aborta las conexiones cuya escritura en curso superó el plazo. Corre en el hilo
+     * del planificador, así que funciona aunque todos los hilos de envío estén bloqueados.
+     */
+    @Scheduled(fixedDelayString = "${app.comments.stream.vigilancia-ms:1000}")
+    public void vigilarEscrituras() {
+        long ahora = System.nanoTime();
+        for (Set<Suscriptor> grupo : suscriptores.values()) {
+            for (Suscriptor suscriptor : grupo) {
+                long desde = suscriptor.escribiendoDesde.get();
+                if (desde != 0 && ahora - desde > plazoEscrituraNanos && quitar(suscriptor)) {
+                    descartados.incrementAndGet();
+                    log.warn("🐢 Escritura bloqueada, suscriptor desconectado de la playlist {}", suscriptor.playlistId);
+                    try {
+                        // Cerrar la conexión hace fallar la escritura bloqueada y libera el hilo
+                        suscriptor.emitter.completeWithError(new IOException("Plazo de escritura vencido"));
+                    } catch (IllegalStateException e) {
+                        // La conexión ya estaba cerrada
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene métricas de las conexiones en vivo.
+     *
+     * @return mapa con conexiones, playlists con oyentes, desconexiones por lentitud y envíos en cola
+     */
+    public Map<String, Object> getMetricas() {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("conectados", conectados.get());
+        metricas.put("playlists", suscriptores.size());
+        metricas.put("descartadosPorLentitud", descartados.get());
+        metricas.put("enviosEnCola", executor.getQueue().size());
+        return metricas;
+    }
+
+    /**
+     * Cierra todas las conexiones y detiene el pool de envío al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void cerrar() {
+        for (Set<Suscriptor> grupo : suscriptores.values()) {
+            for (Suscriptor suscriptor : grupo) {
+                cerrar(suscriptor);
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    private void difundir(Long playlistId, String tipo, Map<String, Object> datos) {
+        Set<Suscriptor> grupo = suscriptores.get(playlistId);
+        if (grupo == null || grupo.isEmpty()) {
+            return;
+        }
+        // El evento se arma una sola vez y se comparte entre los suscriptores
+        Set<ResponseBodyEmitter.DataWithMediaType> evento = SseEmitter.event()
+                .id(String.valueOf(secuencia.incrementAndGet())).name(tipo).data(datos).build();
+        for (Suscriptor suscriptor : grupo) {
+            encolar(suscriptor, evento);
+        }
+    }
+
+    /**
+     * Agrega un evento al buffer del suscriptor y programa su envío si no hay uno en curso.
+     * Si el buffer está lleno, el suscriptor no consume a tiempo y se desconecta.
+     */
+    private void encolar(Suscriptor suscriptor, Set<ResponseBodyEmitter.DataWithMediaType> evento) {
+        if (suscriptor.cerrado.get()) {
+            return;
+        }
+        if (!suscriptor.pendientes.offer(evento)) {
+            descartados.incrementAndGet();
+            log.warn("🐢 Suscriptor lento desconectado de la playlist {}", suscriptor.playlistId);
+            cerrar(suscriptor);
+            return;
+        }
+        programar(suscriptor);
+    }
+
+    private void programar(Suscriptor suscriptor) {
+        if (suscriptor.programado.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> enviar(suscriptor));
+            } catch (RejectedExecutionException e) {
+                suscriptor.programado.set(false);
+                cerrar(suscriptor);
+            }
+        }
+    }
+
+    /**
+     * Envía los eventos pendientes de un suscriptor. Solo un hilo a la vez lo ejecuta
+     * para cada suscriptor, de modo que los eventos llegan en orden.
+     */
+    private void enviar(Suscriptor suscriptor) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> evento;
+            while (!suscriptor.cerrado.get() && (evento = suscriptor.pendientes.poll()) != null) {
+                suscriptor.escribiendoDesde.set(System.nanoTime());
+                suscriptor.emitter.send(evento);
+                suscriptor.escribiendoDesde.set(0);
+            }
+        } catch (IOException | IllegalStateException e) {
+            cerrar(suscriptor);
+        } finally {
+            suscriptor.escribiendoDesde.set(0);
+            suscriptor.programado.set(false);
+        }
+        if (!suscriptor.cerrado.get() && !suscriptor.pendientes.isEmpty()) {
+            programar(suscriptor);
+        }
+    }
+
+    private void cerrar(Suscriptor suscriptor) {
+        if (quitar(suscriptor)) {
+            try {
+                suscriptor.emitter.complete();
+            } catch (IllegalStateException e) {
+                // La conexión ya estaba cerrada
+            }
+        }
+    }
+
+    /**
+     * Quita un suscriptor de su playlist.
+     *
+     * @return true si seguía suscrito
+     */
+    private boolean quitar(Suscriptor suscriptor) {
+        if (!suscriptor.cerrado.compareAndSet(false, true)) {
+            return false;
+        }
+        conectados.decrementAndGet();
+        suscriptor.pendientes.clear();
+        suscriptores.computeIfPresent(suscriptor.playlistId, (id, grupo) -> {
+            grupo.remove(suscriptor);
+            return grupo.isEmpty() ? null : grupo;
+        });
+        return true;
+    }
+}
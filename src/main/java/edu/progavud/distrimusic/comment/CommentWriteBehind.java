@@ -0,0 +1,326 @@
+package edu.progavud.distrimusic.comment;
+
+import edu.progavud.distrimusic.career.CareerRollupService;
+import edu.progavud.distrimusic.timeline.ActivityEntity;
+import edu.progavud.distrimusic.timeline.TimelineService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Escritura diferida (write-behind) de los comentarios nuevos.
+ *
+ * Pensada para eventos en vivo en los que llegan cientos de comentarios por segundo a
+ * una misma playlist. Cuando está activa ({@code app.comments.write-behind.activo}):
+ * - {@link CommentService} valida el comentario con las cachés, le asigna un ID de un
+ *   bloque reservado de la secuencia y lo deja en un buffer acotado
+ * - Un hilo escritor toma los pendientes y los inserta en lotes JDBC, cuando junta
+ *   {@code lote} comentarios o pasan {@code intervalo-ms} desde el primero
+ * - Cada lote se inserta en una transacción junto con sus actividades del timeline;
+ *   los agregados por carrera, el índice de búsqueda y la difusión en vivo se
+ *   actualizan al confirmarse
+ *
+ * Si un lote falla, sus comentarios se reintentan uno por uno y solo se descartan los
+ * que siguen fallando (por ejemplo, si la playlist se eliminó mientras esperaban).
+ * Si el buffer está lleno se responde 503. Al cerrar la aplicación se deja de aceptar
+ * comentarios y se escriben todos los pendientes.
+ *
+ * Un comentario aceptado tarda unos milisegundos en aparecer en las consultas y no
+ * puede editarse ni eliminarse hasta entonces.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CommentWriteBehind {
+
+    /**
+     * Secuencia de IDs de comentarios.
+     */
+    public static final String SECUENCIA = "comments_seq";
+
+    /**
+     * Cantidad de IDs que se reservan en cada llamada a la secuencia.
+     */
+    public static final int BLOQUE_IDS = 50;
+
+    private static final String INSERT = "INSERT INTO comments (id, contenido, fecha_comentario, usuario_id, " +
+            "playlist_id, parent_id, hilo_id, ruta, profundidad, respuestas_count) " +
+            "VALUES (?, ?, ?, ?, ?, NULL, ?, ?, 0, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TimelineService timelineService;
+    private final CareerRollupService careerRollupService;
+    private final CommentStreamService commentStreamService;
+    private final CommentSearchIndex commentSearchIndex;
+
+    @Value("${app.comments.write-behind.activo:false}")
+    private boolean activo;
+
+    @Value("${app.comments.write-behind.capacidad:10000}")
+    private int capacidad;
+
+    @Value("${app.comments.write-behind.lote:200}")
+    private int tamanoLote;
+
+    @Value("${app.comments.write-behind.intervalo-ms:10}")
+    private long intervaloMs;
+
+    @Value("${app.comments.write-behind.espera-cierre-ms:30000}")
+    private long esperaCierreMs;
+
+    private BlockingQueue<Pendiente> pendientes;
+    private Thread escritor;
+    private volatile boolean cerrando;
+
+    /**
+     * Los encolados comprueban el cierre y ofrecen su comentario con el bloqueo de
+     * lectura; el cierre se marca con el de escritura. Así, cuando el escritor ve el
+     * cierre, ningún comentario aceptado puede llegar después de vaciar el buffer.
+     */
+    private final ReadWriteLock cierre = new ReentrantReadWriteLock();
+
+    /**
+     * Siguiente ID libre del bloque reservado y último ID del bloque.
+     */
+    private long siguienteId = 1;
+    private long ultimoId = 0;
+
+    private final AtomicLong aceptados = new AtomicLong();
+    private final AtomicLong escritos = new AtomicLong();
+    private final AtomicLong lotes = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+
+    /**
+     * Comentario validado pendiente de escribir.
+     *
+     * @param id ID asignado
+     * @param contenido contenido del comentario
+     * @param fecha fecha del comentario
+     * @param usuarioId ID del autor
+     * @param playlistId ID de la playlist
+     * @param propietarioId ID del dueño de la playlist
+     * @param ruta ruta materializada del comentario raíz
+     * @param resumen representación que se difunde en vivo al escribirse
+     */
+    public record Pendiente(Long id, String contenido, LocalDateTime fecha, Long usuarioId, Long playlistId,
+                            Long propietarioId, String ruta, Map<String, Object> resumen) {
+    }
+
+    /**
+     * Inicia el hilo escritor si la escritura diferida está activa.
+     */
+    @PostConstruct
+    public void iniciar() {
+        if (!activo) {
+            return;
+        }
+        pendientes = new ArrayBlockingQueue<>(capacidad);
+        escritor = new Thread(this::escribirPendientes, "comment-writer");
+        escritor.setDaemon(true);
+        escritor.start();
+        log.info("✍️ Escritura diferida de comentarios activa (lote {}, cada {} ms)", tamanoLote, intervaloMs);
+    }
+
+    /**
+     * Indica si los comentarios nuevos se escriben de forma diferida.
+     *
+     * @return true si la escritura diferida está activa
+     */
+    public boolean isActivo() {
+        return activo;
+    }
+
+    /**
+     * Reserva un ID para un comentario nuevo. Los IDs se toman por bloques de la misma
+     * secuencia que usa Hibernate, así que nunca coinciden con los de la escritura normal.
+     *
+     * @return ID libre
+     */
+    public synchronized long reservarId() {
+        if (siguienteId > ultimoId) {
+            Long inicio = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + SECUENCIA, Long.class);
+            siguienteId = inicio;
+            ultimoId = inicio + BLOQUE_IDS - 1;
+        }
+        return siguienteId++;
+    }
+
+    /**
+     * Deja un comentario validado en el buffer para escribirlo en el próximo lote.
+     *
+     * @param pendiente comentario a escribir
+     * @throws ResponseStatusException (503) si el buffer está lleno o la aplicación se está cerrando
+     */
+    public void encolar(Pendiente pendiente) {
+        cierre.readLock().lock();
+        try {
+            if (cerrando || !pendientes.offer(pendiente)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Hay demasiados comentarios pendientes, intenta de nuevo");
+            }
+        } finally {
+            cierre.readLock().unlock();
+        }
+        aceptados.incrementAndGet();
+    }
+
+    /**
+     * Obtiene métricas de la escritura diferida.
+     *
+     * @return mapa con el estado y los contadores de comentarios y lotes
+     */
+    public Map<String, Object> getMetricas() {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("activo", activo);
+        metricas.put("pendientes", pendientes != null ? pendientes.size() : 0);
+        metricas.put("aceptados", aceptados.get());
+        metricas.put("escritos", escritos.get());
+        metricas.put("lotes", lotes.get());
+        metricas.put("descartados", descartados.get());
+        return metricas;
+    }
+
+    /**
+     * Deja de aceptar comentarios y espera a que se escriban todos los pendientes.
+     */
+    @PreDestroy
+    public void cerrar() {
+        if (escritor == null) {
+            return;
+        }
+        cierre.writeLock().lock();
+        try {
+            cerrando = true;
+        } finally {
+            cierre.writeLock().unlock();
+        }
+        try {
+            escritor.join(esperaCierreMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (escritor.isAlive() || !pendientes.isEmpty()) {
+            log.error("❌ Quedaron {} comentarios sin escribir al cerrar", pendientes.size());
+        } else {
+            log.info("✅ Comentarios pendientes escritos antes de cerrar ({} en total)", escritos.get());
+        }
+    }
+
+    /**
+     * Bucle del hilo escritor: arma lotes hasta llenarlos o hasta que pase el intervalo
+     * desde el primer comentario del lote, y termina al cerrar con el buffer vacío.
+     */
+    private void escribirPendientes() {
+        List<Pendiente> lote = new ArrayList<>(tamanoLote);
+        while (!(cerrando && pendientes.isEmpty())) {
+            try {
+                Pendiente primero = pendientes.poll(intervaloMs, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+                while (lote.size() < tamanoLote) {
+                    long restante = limite - System.nanoTime();
+                    Pendiente siguiente = restante > 0 ? pendientes.poll(restante, TimeUnit.NANOSECONDS) : pendientes.poll();
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+                escribir(lote);
+            } catch (InterruptedException e) {
+                // Solo se interrumpe si el cierre no esperó; se escribe lo que queda
+                pendientes.drainTo(lote);
+                escribir(lote);
+                return;
+            } catch (RuntimeException e) {
+                log.error("❌ Error inesperado en la escritura diferida de comentarios: ", e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Escribe un lote en una sola transacción; si falla, reintenta cada comentario por separado.
+     */
+    private void escribir(List<Pendiente> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(estado -> {
+                jdbcTemplate.batchUpdate(INSERT, lote, lote.size(), (ps, p) -> {
+                    ps.setLong(1, p.id());
+                    ps.setString(2, p.contenido());
+                    ps.setTimestamp(3, Timestamp.valueOf(p.fecha()));
+                    ps.setLong(4, p.usuarioId());
+                    ps.setLong(5, p.playlistId());
+                    ps.setLong(6, p.id());
+                    ps.setString(7, p.ruta());
+                });
+                lote.forEach(this::registrar);
+            });
+            lotes.incrementAndGet();
+            escritos.addAndGet(lote.size());
+        } catch (DataAccessException e) {
+            log.warn("⚠️ Falló un lote de {} comentarios, se reintentan uno por uno: {}", lote.size(), e.getMessage());
+            for (Pendiente pendiente : lote) {
+                try {
+                    transactionTemplate.executeWithoutResult(estado -> {
+                        jdbcTemplate.update(INSERT, pendiente.id(), pendiente.contenido(),
+                                Timestamp.valueOf(pendiente.fecha()), pendiente.usuarioId(),
+                                pendiente.playlistId(), pendiente.id(), pendiente.ruta());
+                        registrar(pendiente);
+                    });
+                    escritos.incrementAndGet();
+                } catch (DataAccessException ex) {
+                    descartados.incrementAndGet();
+                    log.error("❌ Comentario {} descartado: {}", pendiente.id(), ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Registra la actividad del comentario y programa las actualizaciones posteriores a la confirmación.
+     */
+    private void registrar(Pendiente pendiente) {
+        timelineService.registrarActividad(pendiente.usuarioId(), ActivityEntity.Tipo.COMENTARIO,
+                pendiente.playlistId(), null, pendiente.id());
+        careerRollupService.registrarComentario(pendiente.usuarioId(), pendiente.playlistId(),
+                pendiente.propietarioId(), 1);
+        commentSearchIndex.indexar(new CommentSearchIndex.Entrada(pendiente.id(), pendiente.playlistId(),
+                pendiente.usuarioId(), pendiente.id(), pendiente.ruta(), pendiente.contenido()));
+        commentStreamService.publicar(pendiente.playlistId(), "comentario-creado", pendiente.resumen());
+    }
+}
@@ -0,0 +1,169 @@
+package edu.progavud.distrimusic.music;
+
+import edu.progavud.distrimusic.search.TextoBusqueda;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria del catálogo por título + artista.
+ *
+ * Lo usa la importación de playlists para resolver cada entrada del archivo sin
+ * consultar la base de datos ni normalizar el catálogo completo en cada importación.
+ * Se carga una vez al iniciar la aplicación (después de los datos iniciales) y
+ * {@link MusicService} lo mantiene al crear, actualizar o eliminar canciones.
+ *
+ * Las lecturas no bloquean; las escrituras y la carga se serializan. Si varias
+ * canciones comparten la misma clave gana la de menor ID.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogoIndice {
+
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private final MusicRepository musicRepository;
+
+    /**
+     * Contenido actual del índice; null hasta la primera carga.
+     */
+    private volatile Indice indice;
+
+    /**
+     * Clave de cada canción y canción de cada clave.
+     */
+    private record Indice(Map<Long, String> claves, Map<String, Long> porClave) {
+    }
+
+    /**
+     * Carga el índice al terminar el arranque, cuando ya están las canciones iniciales.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        cargar();
+    }
+
+    /**
+     * Reconstruye el índice completo con una sola consulta de proyección.
+     */
+    public synchronized void cargar() {
+        List<Object[]> filas = musicRepository.findResumenCatalogo();
+        Indice nuevo = new Indice(new ConcurrentHashMap<>(filas.size() * 2), new ConcurrentHashMap<>(filas.size() * 2));
+        for (Object[] fila : filas) {
+            agregar(nuevo, (Long) fila[0], clave((String) fila[1], (String) fila[2]));
+        }
+        indice = nuevo;
+        log.info("🎵 Índice del catálogo cargado: {} canciones", filas.size());
+    }
+
+    /**
+     * Indica si una canción existe en el catálogo.
+     *
+     * @param songId ID de la canción
+     * @return true si la canción está en el índice
+     */
+    public boolean contiene(Long songId) {
+        return songId != null && actual().claves().containsKey(songId);
+    }
+
+    /**
+     * Busca una canción por título y artista, sin distinguir mayúsculas, tildes ni
+     * espacios repetidos.
+     *
+     * @param titulo título de la canción
+     * @param artista artista de la canción
+     * @return ID de la canción, o null si no hay ninguna con esa clave
+     */
+    public Long buscar(String titulo, String artista) {
+        return actual().porClave().get(clave(titulo, artista));
+    }
+
+    /**
+     * Agrega o actualiza una canción ya confirmada en la base de datos.
+     *
+     * @param cancion canción guardada
+     */
+    public synchronized void registrar(MusicEntity cancion) {
+        Indice actual = indice;
+        if (actual == null) {
+            return;
+        }
+        quitar(actual, cancion.getId());
+        agregar(actual, cancion.getId(), clave(cancion.getTitulo(), cancion.getArtista()));
+    }
+
+    /**
+     * Quita una canción eliminada de la base de datos.
+     *
+     * @param songId ID de la canción
+     */
+    public synchronized void quitar(Long songId) {
+        Indice actual = indice;
+        if (actual != null) {
+            quitar(actual, songId);
+        }
+    }
+
+    private Indice actual() {
+        Indice actual = indice;
+        if (actual == null) {
+            cargar();
+            actual = indice;
+        }
+        return actual;
+    }
+
+    private static void agregar(Indice indice, Long songId, String clave) {
+        indice.claves().put(songId, clave);
+        indice.porClave().merge(clave, songId, Math::min);
+    }
+
+    /**
+     * Quita una canción y, si era la dueña de su clave, la cede a la siguiente de menor
+     * ID con la misma clave. Ese caso recorre el índice, pero solo ocurre al editar o
+     * eliminar canciones con título y artista repetidos.
+     */
+    private static void quitar(Indice indice, Long songId) {
+        String clave = indice.claves().remove(songId);
+        if (clave == null || !songId.equals(indice.porClave().get(clave))) {
+            return;
+        }
+        Long siguiente = null;
+        for (Map.Entry<Long, String> entrada : indice.claves().entrySet()) {
+            if (entrada.getValue().equals(clave) && (siguiente == null || entrada.getKey() < siguiente)) {
+                siguiente = entrada.getKey();
+            }
+        }
+        if (siguiente != null) {
+            indice.porClave().put(clave, siguiente);
+        } else {
+            indice.porClave().remove(clave);
+        }
+    }
+
+    /**
+     * Genera la clave de búsqueda título + artista: minúsculas, sin acentos
+     * y con espacios normalizados.
+     */
+    static String clave(String titulo, String artista) {
+        return normalizar(titulo) + '\u0000' + normalizar(artista);
+    }
+
+    private static String normalizar(String texto) {
+        return ESPACIOS.matcher(TextoBusqueda.normalizar(texto)).replaceAll(" ");
+    }
+}
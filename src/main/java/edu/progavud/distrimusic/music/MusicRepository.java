@@ -1,6 +1,7 @@
 package edu.progavud.distrimusic.music;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
@@ -54,4 +55,13 @@ public interface MusicRepository extends JpaRepository<MusicEntity, Long> {
      * @return lista de todas las canciones ordenadas por título
      */
     List<MusicEntity> findAllByOrderByTituloAsc();
+    
+    /**
+     * Obtiene el ID, título y artista de todas las canciones del catálogo.
+     * Usado para construir índices en memoria sin cargar las entidades completas.
+     *
+     * @return arreglos [id, titulo, artista] de cada canción
+     */
+    @Query("SELECT m.id, m.titulo, m.artista FROM MusicEntity m")
+    List<Object[]> findResumenCatalogo();
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ import java.util.List;
 public class MusicService {
     
     private final MusicRepository musicRepository;
+    private final CatalogoIndice catalogoIndice;
     
     /**
      * Crea una nueva canción en el sistema.
@@ -30,7 +31,9 @@ public class MusicService {
      * @return la canción creada con su ID asignado
      */
     public MusicEntity createSong(MusicEntity song) {
-        return musicRepository.save(song);
+        MusicEntity guardada = musicRepository.save(song);
+        catalogoIndice.registrar(guardada);
+        return guardada;
     }
     
     /**
@@ -109,7 +112,9 @@ public class MusicService {
             existingSong.setImageUrl(songRequest.getImageUrl());
         }
         
-        return musicRepository.save(existingSong);
+        MusicEntity guardada = musicRepository.save(existingSong);
+        catalogoIndice.registrar(guardada);
+        return guardada;
     }
     
     /**
@@ -119,5 +124,6 @@ public class MusicService {
      */
     public void deleteSong(Long id) {
         musicRepository.deleteById(id);
+        catalogoIndice.quitar(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package edu.progavud.distrimusic.persona;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de cadenas, seguro para uso concurrente.
+ *
+ * Responde "definitivamente no está" o "posiblemente está": nunca da falsos negativos
+ * y la tasa de falsos positivos se fija al crearlo según la cantidad esperada de
+ * elementos. Los bits se guardan en un {@link AtomicLongArray}, de modo que las
+ * inserciones no necesitan bloqueos. Las k posiciones de cada elemento se derivan
+ * de un hash de 64 bits por doble hashing.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long totalBits;
+    private final int funciones;
+
+    /**
+     * Crea un filtro dimensionado para la cantidad esperada de elementos.
+     *
+     * @param elementosEsperados cantidad de elementos que se insertarán
+     * @param falsosPositivos tasa de falsos positivos deseada (por ejemplo 0.01)
+     */
+    BloomFilter(long elementosEsperados, double falsosPositivos) {
+        long n = Math.max(1, elementosEsperados);
+        long m = (long) Math.ceil(-n * Math.log(falsosPositivos) / (Math.log(2) * Math.log(2)));
+        this.totalBits = Math.max(64, (m + 63) / 64 * 64);
+        this.funciones = Math.max(1, (int) Math.round((double) totalBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (totalBits / 64));
+    }
+
+    /**
+     * Inserta un elemento.
+     *
+     * @param valor elemento a insertar
+     */
+    void agregar(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funciones; i++) {
+            long bit = posicion(h1 + i * h2);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual;
+            do {
+                actual = bits.get(palabra);
+                if ((actual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+    }
+
+    /**
+     * Verifica si un elemento posiblemente fue insertado.
+     *
+     * @param valor elemento a verificar
+     * @return false si el elemento definitivamente no está; true si posiblemente está
+     */
+    boolean posiblementeContiene(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funciones; i++) {
+            long bit = posicion(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long posicion(int combinado) {
+        return (combinado & 0x7fffffffL) % totalBits;
+    }
+
+    /**
+     * Hash FNV-1a de 64 bits sobre los bytes UTF-8, con una mezcla final para
+     * repartir mejor los bits altos y bajos.
+     *
+     * @param valor cadena a procesar
+     * @return hash de 64 bits
+     */
+    private static long hash64(String valor) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,174 @@
+package edu.progavud.distrimusic.persona;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Servicio que mantiene los contadores desnormalizados de seguidores y seguidos.
+ *
+ * Cada seguimiento suma o resta uno a los contadores con un UPDATE atómico dentro de
+ * la misma transacción que inserta o elimina la relación. Para las cuentas con muchos
+ * seguidores (celebridades) el contador de seguidores no se actualiza fila a fila,
+ * porque todas las escrituras competirían por el mismo registro: los cambios se
+ * acumulan en memoria en un {@link LongAdder} y se vuelcan periódicamente con un
+ * solo UPDATE por cuenta.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FollowCounterService {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UserLookupCache userLookupCache;
+
+    /**
+     * Cantidad de seguidores a partir de la cual una cuenta se considera celebridad.
+     */
+    @Value("${app.follows.umbral-celebridad:10000}")
+    private long umbralCelebridad;
+
+    /**
+     * Cuentas cuyo contador de seguidores se acumula en memoria (usuario → ID).
+     */
+    private volatile Map<String, Long> celebridades = Map.of();
+
+    /**
+     * IDs de las cuentas celebridad.
+     */
+    private volatile Set<Long> idsCelebridades = Set.of();
+
+    /**
+     * Cambios de seguidores pendientes de volcar por cuenta.
+     */
+    private final Map<String, LongAdder> pendientes = new ConcurrentHashMap<>();
+
+    /**
+     * Aplica a los contadores el alta o la baja de un seguimiento.
+     * Debe llamarse dentro de la transacción que modificó la tabla follows.
+     *
+     * @param follower nombre del usuario que sigue
+     * @param followee nombre del usuario seguido
+     * @param delta 1 al seguir, -1 al dejar de seguir
+     */
+    public void registrarCambio(String follower, String followee, int delta) {
+        userRepository.incrementarSiguiendo(follower, delta);
+
+        if (!celebridades.containsKey(followee)) {
+            userRepository.incrementarSeguidores(followee, delta);
+            return;
+        }
+
+        // El cambio solo se acumula si la transacción se confirma
+        LongAdder acumulado = pendientes.computeIfAbsent(followee, k -> new LongAdder());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acumulado.add(delta);
+                }
+            });
+        } else {
+            acumulado.add(delta);
+        }
+    }
+
+    /**
+     * Obtiene los IDs de las cuentas consideradas celebridad.
+     *
+     * @return conjunto inmutable de IDs
+     */
+    public Set<Long> getIdsCelebridades() {
+        return idsCelebridades;
+    }
+
+    /**
+     * Verifica si un usuario se considera celebridad.
+     *
+     * @param userId ID del usuario
+     * @return true si supera el umbral de seguidores
+     */
+    public boolean esCelebridad(Long userId) {
+        return idsCelebridades.contains(userId);
+    }
+
+    /**
+     * Obtiene los cambios de seguidores aún no volcados a la base de datos.
+     *
+     * @param usuario nombre del usuario
+     * @return cambio pendiente (0 si no hay)
+     */
+    public long getSeguidoresPendientes(String usuario) {
+        LongAdder acumulado = pendientes.get(usuario);
+        return acumulado != null ? acumulado.sum() : 0L;
+    }
+
+    /**
+     * Completa los contadores de un usuario con los cambios pendientes en memoria.
+     *
+     * @param user usuario cargado de la base de datos
+     * @return el mismo usuario con los contadores al día
+     */
+    public UserEntity completarContadores(UserEntity user) {
+        long pendiente = getSeguidoresPendientes(user.getUsuario());
+        if (pendiente != 0) {
+            user.setSeguidoresCount(user.getSeguidoresCount() + pendiente);
+        }
+        return user;
+    }
+
+    /**
+     * Vuelca a la base de datos los contadores acumulados en memoria.
+     * Si el volcado de una cuenta falla, su cambio se devuelve al acumulador; si se
+     * confirma, se invalida la cuenta en la caché de usuarios, que guardaba el contador
+     * anterior y ya no tiene el cambio pendiente para completarlo.
+     */
+    @Scheduled(fixedDelayString = "${app.follows.flush-ms:1000}")
+    public void volcarPendientes() {
+        for (Map.Entry<String, LongAdder> entry : pendientes.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta == 0) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        userRepository.incrementarSeguidores(entry.getKey(), delta));
+                userLookupCache.invalidar(entry.getKey());
+            } catch (Exception e) {
+                entry.getValue().add(delta);
+                log.error("❌ Error al volcar el contador de {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Actualiza el conjunto de celebridades a partir de los contadores persistidos.
+     */
+    @Scheduled(fixedDelayString = "${app.follows.celebridades-ms:60000}")
+    public void actualizarCelebridades() {
+        Map<String, Long> actuales = new HashMap<>();
+        for (Object[] fila : userRepository.findUsuariosConSeguidoresMinimos(umbralCelebridad)) {
+            actuales.put((String) fila[0], (Long) fila[1]);
+        }
+        celebridades = Map.copyOf(actuales);
+        idsCelebridades = Set.copyOf(actuales.values());
+    }
+}
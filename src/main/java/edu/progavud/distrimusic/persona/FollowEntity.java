@@ -0,0 +1,70 @@
+package edu.progavud.distrimusic.persona;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa una relación de seguimiento entre dos usuarios.
+ *
+ * Cada fila es una arista dirigida seguidor → seguido en la tabla follows. La clave
+ * primaria (follower_id, followee_id) resuelve seguir, dejar de seguir y verificar el
+ * seguimiento sobre una sola fila. Los índices (followee_id, created_at, follower_id)
+ * y (follower_id, created_at, followee_id) sirven los listados de seguidores y
+ * seguidos paginados por fecha de seguimiento sin cargar colecciones.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Entity
+@Table(name = "follows", indexes = {
+    @Index(name = "idx_follows_followee_created", columnList = "followee_id, created_at, follower_id"),
+    @Index(name = "idx_follows_follower_created", columnList = "follower_id, created_at, followee_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowEntity {
+
+    /**
+     * Clave compuesta de la relación.
+     */
+    @EmbeddedId
+    private FollowId id;
+
+    /**
+     * Fecha y hora en que se creó la relación.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Clave primaria compuesta (seguidor, seguido).
+     */
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FollowId implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * ID del usuario que sigue.
+         */
+        @Column(name = "follower_id", nullable = false)
+        private Long followerId;
+
+        /**
+         * ID del usuario seguido.
+         */
+        @Column(name = "followee_id", nullable = false)
+        private Long followeeId;
+    }
+}
@@ -0,0 +1,277 @@
+package edu.progavud.distrimusic.persona;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Instantánea inmutable del grafo de seguimiento en formato CSR (compressed sparse row).
+ *
+ * Cada usuario activo se identifica con un índice entero denso, asignado en orden
+ * de ID. Las aristas salientes del nodo i ocupan destinos[offsets[i] .. offsets[i+1])
+ * y están ordenadas, de modo que recorrer los seguidos de un usuario es leer un tramo
+ * contiguo de un int[] y verificar una arista es una búsqueda binaria dentro del tramo.
+ * Para las sugerencias por carrera se guardan además los miembros de cada carrera
+ * ordenados por cantidad de seguidores.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+final class FollowGraph {
+
+    /**
+     * Valor de carrera para los usuarios que no la registraron.
+     */
+    static final int SIN_CARRERA = -1;
+
+    private final long[] ids;
+    private final String[] usuarios;
+    private final Map<String, Integer> indicePorUsuario;
+    private final int[] carreraPorNodo;
+    private final Map<String, Integer> indicePorCarrera;
+    private final int[][] miembrosPorCarrera;
+    private final int[] offsets;
+    private final int[] destinos;
+    private final int[] gradoEntrada;
+
+    private FollowGraph(long[] ids, String[] usuarios, Map<String, Integer> indicePorUsuario,
+                        int[] carreraPorNodo, Map<String, Integer> indicePorCarrera, int[][] miembrosPorCarrera,
+                        int[] offsets, int[] destinos, int[] gradoEntrada) {
+        this.ids = ids;
+        this.usuarios = usuarios;
+        this.indicePorUsuario = indicePorUsuario;
+        this.carreraPorNodo = carreraPorNodo;
+        this.indicePorCarrera = indicePorCarrera;
+        this.miembrosPorCarrera = miembrosPorCarrera;
+        this.offsets = offsets;
+        this.destinos = destinos;
+        this.gradoEntrada = gradoEntrada;
+    }
+
+    /**
+     * Crea un grafo sin nodos ni aristas.
+     *
+     * @return grafo vacío
+     */
+    static FollowGraph vacio() {
+        return construir(new long[0], new String[0], new String[0], new long[0], new long[0], 0, false);
+    }
+
+    /**
+     * Construye el grafo a partir de los usuarios y las aristas cargados de la base de datos.
+     *
+     * Las aristas se empaquetan como (origen << 32 | destino) y se ordenan; el arreglo
+     * ordenado ya es la lista CSR, así que la construcción se reduce a un ordenamiento
+     * de long[] y un recorrido lineal. Con paralelo = true la traducción de IDs y el
+     * ordenamiento se reparten entre los núcleos disponibles.
+     *
+     * @param ids IDs de usuario en orden ascendente
+     * @param usuarios nombres de usuario, en el mismo orden que ids
+     * @param carreras carrera de cada usuario (puede contener null)
+     * @param origenes ID del seguidor de cada arista
+     * @param destinosIds ID del seguido de cada arista
+     * @param aristas cantidad de aristas válidas en origenes y destinosIds
+     * @param paralelo true para construir en paralelo
+     * @return grafo construido
+     */
+    static FollowGraph construir(long[] ids, String[] usuarios, String[] carreras,
+                                 long[] origenes, long[] destinosIds, int aristas, boolean paralelo) {
+        int n = ids.length;
+
+        Map<String, Integer> indicePorUsuario = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            indicePorUsuario.put(usuarios[i], i);
+        }
+
+        // Aristas empaquetadas; las que apuntan a usuarios inexistentes quedan en -1
+        long[] empaquetadas = new long[aristas];
+        IntStream rango = IntStream.range(0, aristas);
+        (paralelo ? rango.parallel() : rango).forEach(k -> {
+            int origen = Arrays.binarySearch(ids, origenes[k]);
+            int destino = Arrays.binarySearch(ids, destinosIds[k]);
+            empaquetadas[k] = origen >= 0 && destino >= 0 ? ((long) origen << 32) | destino : -1L;
+        });
+        if (paralelo) {
+            Arrays.parallelSort(empaquetadas);
+        } else {
+            Arrays.sort(empaquetadas);
+        }
+
+        int inicio = 0;
+        while (inicio < aristas && empaquetadas[inicio] < 0) {
+            inicio++;
+        }
+        int m = aristas - inicio;
+        int[] offsets = new int[n + 1];
+        int[] destinos = new int[m];
+        int[] gradoEntrada = new int[n];
+        for (int k = 0; k < m; k++) {
+            long arista = empaquetadas[inicio + k];
+            int destino = (int) arista;
+            destinos[k] = destino;
+            offsets[(int) (arista >>> 32) + 1]++;
+            gradoEntrada[destino]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        // Carreras como índices enteros y miembros ordenados por seguidores
+        Map<String, Integer> indicePorCarrera = new HashMap<>();
+        int[] carreraPorNodo = new int[n];
+        int[] tamanoCarrera = new int[0];
+        for (int i = 0; i < n; i++) {
+            String carrera = normalizarCarrera(carreras[i]);
+            if (carrera == null) {
+                carreraPorNodo[i] = SIN_CARRERA;
+                continue;
+            }
+            int c = indicePorCarrera.computeIfAbsent(carrera, k -> indicePorCarrera.size());
+            if (c >= tamanoCarrera.length) {
+                tamanoCarrera = Arrays.copyOf(tamanoCarrera, Math.max(8, tamanoCarrera.length * 2));
+            }
+            carreraPorNodo[i] = c;
+            tamanoCarrera[c]++;
+        }
+        int[][] miembrosPorCarrera = new int[indicePorCarrera.size()][];
+        for (int c = 0; c < miembrosPorCarrera.length; c++) {
+            miembrosPorCarrera[c] = new int[tamanoCarrera[c]];
+            tamanoCarrera[c] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            int c = carreraPorNodo[i];
+            if (c != SIN_CARRERA) {
+                miembrosPorCarrera[c][tamanoCarrera[c]++] = i;
+            }
+        }
+        IntStream carrerasRango = IntStream.range(0, miembrosPorCarrera.length);
+        (paralelo ? carrerasRango.parallel() : carrerasRango).forEach(c ->
+                miembrosPorCarrera[c] = ordenarPorGrado(miembrosPorCarrera[c], gradoEntrada));
+
+        return new FollowGraph(ids, usuarios, indicePorUsuario, carreraPorNodo, indicePorCarrera,
+                miembrosPorCarrera, offsets, destinos, gradoEntrada);
+    }
+
+    /**
+     * Ordena nodos por cantidad de seguidores descendente (y por índice ante empates)
+     * empaquetando ambos valores en un long.
+     *
+     * @param nodos nodos a ordenar
+     * @param gradoEntrada cantidad de seguidores por nodo
+     * @return nodos ordenados
+     */
+    private static int[] ordenarPorGrado(int[] nodos, int[] gradoEntrada) {
+        long[] claves = new long[nodos.length];
+        for (int k = 0; k < nodos.length; k++) {
+            claves[k] = ((long) (Integer.MAX_VALUE - gradoEntrada[nodos[k]]) << 32) | nodos[k];
+        }
+        Arrays.sort(claves);
+        int[] ordenados = new int[nodos.length];
+        for (int k = 0; k < claves.length; k++) {
+            ordenados[k] = (int) claves[k];
+        }
+        return ordenados;
+    }
+
+    /**
+     * Normaliza el nombre de una carrera para agrupar variantes de mayúsculas y espacios.
+     *
+     * @param carrera carrera registrada por el usuario
+     * @return carrera normalizada, o null si está vacía
+     */
+    static String normalizarCarrera(String carrera) {
+        if (carrera == null || carrera.isBlank()) {
+            return null;
+        }
+        return carrera.trim().toLowerCase();
+    }
+
+    int tamano() {
+        return ids.length;
+    }
+
+    int aristas() {
+        return destinos.length;
+    }
+
+    /**
+     * Obtiene el índice de un usuario por su ID.
+     *
+     * @param id ID del usuario
+     * @return índice del nodo, o -1 si no está en la instantánea
+     */
+    int indice(long id) {
+        int i = Arrays.binarySearch(ids, id);
+        return i >= 0 ? i : -1;
+    }
+
+    /**
+     * Obtiene el índice de un usuario por su nombre.
+     *
+     * @param usuario nombre del usuario
+     * @return índice del nodo, o -1 si no está en la instantánea
+     */
+    int indice(String usuario) {
+        Integer i = indicePorUsuario.get(usuario);
+        return i != null ? i : -1;
+    }
+
+    long id(int nodo) {
+        return ids[nodo];
+    }
+
+    String usuario(int nodo) {
+        return usuarios[nodo];
+    }
+
+    int carrera(int nodo) {
+        return carreraPorNodo[nodo];
+    }
+
+    /**
+     * Obtiene el índice de una carrera.
+     *
+     * @param carrera nombre de la carrera
+     * @return índice de la carrera, o {@link #SIN_CARRERA} si no existe
+     */
+    int indiceCarrera(String carrera) {
+        String normalizada = normalizarCarrera(carrera);
+        Integer c = normalizada != null ? indicePorCarrera.get(normalizada) : null;
+        return c != null ? c : SIN_CARRERA;
+    }
+
+    int[] miembros(int carrera) {
+        return carrera == SIN_CARRERA ? new int[0] : miembrosPorCarrera[carrera];
+    }
+
+    int gradoEntrada(int nodo) {
+        return gradoEntrada[nodo];
+    }
+
+    int inicio(int nodo) {
+        return offsets[nodo];
+    }
+
+    int fin(int nodo) {
+        return offsets[nodo + 1];
+    }
+
+    int destino(int posicion) {
+        return destinos[posicion];
+    }
+
+    /**
+     * Verifica si existe la arista origen → destino en la instantánea.
+     *
+     * @param origen nodo seguidor
+     * @param destino nodo seguido
+     * @return true si la arista existe
+     */
+    boolean contiene(int origen, int destino) {
+        return Arrays.binarySearch(destinos, offsets[origen], offsets[origen + 1], destino) >= 0;
+    }
+}
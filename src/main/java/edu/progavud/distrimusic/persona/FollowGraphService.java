@@ -0,0 +1,473 @@
+package edu.progavud.distrimusic.persona;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Servicio que mantiene el grafo de seguimiento en memoria y calcula sugerencias
+ * de "personas que quizá conozcas".
+ *
+ * El grafo se carga al iniciar la aplicación en una instantánea CSR ({@link FollowGraph})
+ * y se reconstruye periódicamente. Entre reconstrucciones, cada seguimiento confirmado
+ * se registra en una capa de cambios por usuario que las consultas combinan con la
+ * instantánea; la reconstrucción descarta los cambios que ya quedaron incluidos en ella.
+ * Si un cambio involucra a un usuario registrado después de la instantánea, o la capa
+ * de cambios crece demasiado, se adelanta la reconstrucción.
+ *
+ * Las sugerencias recorren los seguidos de los seguidos del usuario (dos saltos) y
+ * ordenan los candidatos por cantidad de conexiones en común, dando prioridad a los de
+ * la misma carrera. Si no alcanzan, se completan con los usuarios más seguidos de la
+ * misma carrera.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FollowGraphService {
+
+    /**
+     * Cantidad de aristas a partir de la cual la reconstrucción se hace en paralelo.
+     */
+    private static final int UMBRAL_PARALELO = 1 << 16;
+
+    /**
+     * Cantidad máxima de sugerencias por consulta.
+     */
+    private static final int MAX_SUGERENCIAS = 50;
+
+    /**
+     * Cantidad de usuarios con cambios pendientes a partir de la cual se adelanta la reconstrucción.
+     */
+    private static final int MAX_USUARIOS_CON_CAMBIOS = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
+
+    /**
+     * Instantánea vigente del grafo.
+     */
+    private volatile FollowGraph grafo = FollowGraph.vacio();
+
+    /**
+     * Secuencia de los cambios registrados, usada para saber cuáles cubre una instantánea.
+     */
+    private final AtomicLong secuencia = new AtomicLong();
+
+    /**
+     * Cambios posteriores a la instantánea: ID del seguidor → ID del seguido → cambio.
+     */
+    private final Map<Long, Map<Long, Cambio>> cambios = new ConcurrentHashMap<>();
+
+    /**
+     * IDs de usuarios eliminados que aún figuran en la instantánea.
+     */
+    private final Set<Long> excluidos = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Indica que hay cambios que la instantánea no puede representar (usuarios nuevos).
+     */
+    private final AtomicBoolean desactualizado = new AtomicBoolean();
+
+    /**
+     * Arreglos de trabajo reutilizados entre consultas, en un pool acotado.
+     */
+    private final PoolEspacios<Espacio> espacios = new PoolEspacios<>(Espacio::new);
+
+    /**
+     * Cambio de una arista registrado después de la instantánea.
+     *
+     * @param secuencia número de secuencia del cambio
+     * @param agregado true si la arista se creó, false si se eliminó
+     */
+    private record Cambio(long secuencia, boolean agregado) {
+    }
+
+    /**
+     * Carga el grafo al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        reconstruir();
+    }
+
+    /**
+     * Reconstruye la instantánea del grafo desde la base de datos.
+     * Con grafos grandes la construcción se reparte entre los núcleos disponibles.
+     */
+    @Scheduled(fixedDelayString = "${app.follows.grafo.reconstruccion-ms:600000}",
+               initialDelayString = "${app.follows.grafo.reconstruccion-ms:600000}")
+    public synchronized void reconstruir() {
+        long corte = secuencia.get();
+        long inicio = System.nanoTime();
+
+        List<String> usuarios = new ArrayList<>();
+        List<String> carreras = new ArrayList<>();
+        long[][] ids = {new long[1024]};
+        jdbcTemplate.query("SELECT id, usuario, carrera FROM users WHERE eliminado = false ORDER BY id", rs -> {
+            int i = usuarios.size();
+            if (i == ids[0].length) {
+                ids[0] = Arrays.copyOf(ids[0], i * 2);
+            }
+            ids[0][i] = rs.getLong(1);
+            usuarios.add(rs.getString(2));
+            carreras.add(rs.getString(3));
+        });
+
+        long[][] aristas = {new long[4096], new long[4096]};
+        int[] total = {0};
+        jdbcTemplate.query("SELECT follower_id, followee_id FROM follows", rs -> {
+            int k = total[0]++;
+            if (k == aristas[0].length) {
+                aristas[0] = Arrays.copyOf(aristas[0], k * 2);
+                aristas[1] = Arrays.copyOf(aristas[1], k * 2);
+            }
+            aristas[0][k] = rs.getLong(1);
+            aristas[1][k] = rs.getLong(2);
+        });
+
+        FollowGraph nuevo = FollowGraph.construir(
+                Arrays.copyOf(ids[0], usuarios.size()),
+                usuarios.toArray(new String[0]),
+                carreras.toArray(new String[0]),
+                aristas[0], aristas[1], total[0],
+                total[0] >= UMBRAL_PARALELO);
+        grafo = nuevo;
+
+        // Los cambios anteriores al corte ya están en la instantánea
+        for (Long follower : cambios.keySet()) {
+            Map<Long, Cambio> delta = cambios.get(follower);
+            if (delta == null) {
+                continue;
+            }
+            for (Map.Entry<Long, Cambio> entry : delta.entrySet()) {
+                if (entry.getValue().secuencia() <= corte) {
+                    delta.remove(entry.getKey(), entry.getValue());
+                }
+            }
+            cambios.computeIfPresent(follower, (k, m) -> m.isEmpty() ? null : m);
+        }
+        excluidos.removeIf(id -> nuevo.indice(id) < 0);
+
+        log.info("🕸️ Grafo de seguimiento reconstruido: {} usuarios, {} relaciones en {} ms",
+                nuevo.tamano(), nuevo.aristas(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Adelanta la reconstrucción si hay usuarios nuevos en los cambios o demasiados cambios acumulados.
+     */
+    @Scheduled(fixedDelayString = "${app.follows.grafo.revision-ms:5000}")
+    public void revisar() {
+        if (desactualizado.getAndSet(false) || cambios.size() > MAX_USUARIOS_CON_CAMBIOS) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Registra la creación o eliminación de una relación de seguimiento.
+     * Si hay una transacción activa, el cambio se aplica al grafo solo tras confirmarse.
+     *
+     * @param follower nombre del usuario que sigue
+     * @param followee nombre del usuario seguido
+     * @param agregado true al seguir, false al dejar de seguir
+     */
+    public void registrarCambio(String follower, String followee, boolean agregado) {
+        FollowGraph g = grafo;
+        Long followerId = resolverId(g, follower);
+        Long followeeId = resolverId(g, followee);
+        if (followerId == null || followeeId == null) {
+            return;
+        }
+        boolean fueraDeInstantanea = g.indice(followerId) < 0 || g.indice(followeeId) < 0;
+
+        Runnable aplicar = () -> {
+            Cambio cambio = new Cambio(secuencia.incrementAndGet(), agregado);
+            cambios.compute(followerId, (k, delta) -> {
+                Map<Long, Cambio> mapa = delta != null ? delta : new ConcurrentHashMap<>();
+                mapa.put(followeeId, cambio);
+                return mapa;
+            });
+            if (fueraDeInstantanea) {
+                desactualizado.set(true);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar.run();
+                }
+            });
+        } else {
+            aplicar.run();
+        }
+    }
+
+    /**
+     * Excluye de las sugerencias a un usuario eliminado hasta la próxima reconstrucción.
+     *
+     * @param userId ID del usuario eliminado
+     */
+    public void excluirUsuario(Long userId) {
+        excluidos.add(userId);
+    }
+
+    /**
+     * Calcula sugerencias de usuarios a seguir.
+     *
+     * @param usuario nombre del usuario que recibe las sugerencias
+     * @param limit cantidad máxima de sugerencias
+     * @return lista de sugerencias con usuario, nombre, imagen, carrera, conexiones en común y motivo
+     * @throws RuntimeException si el usuario no existe
+     */
+    public List<Map<String, Object>> sugerir(String usuario, int limit) {
+        FollowGraph g = grafo;
+        int tamano = Math.max(1, Math.min(limit, MAX_SUGERENCIAS));
+
+        int nodo = g.indice(usuario);
+        long uid;
+        int carrera;
+        if (nodo >= 0) {
+            uid = g.id(nodo);
+            carrera = g.carrera(nodo);
+        } else {
+            UserLookupCache.Snapshot user = userLookupCache.buscar(usuario)
+                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+            uid = user.id();
+            carrera = g.indiceCarrera(user.carrera());
+        }
+        if (excluidos.contains(uid)) {
+            throw new RuntimeException("Usuario no encontrado");
+        }
+
+        // Los arreglos del pool se devuelven antes de consultar la base de datos
+        Espacio e = espacios.tomar();
+        List<int[]> elegidos;
+        try {
+            e.preparar(g.tamano());
+            if (nodo >= 0) {
+                e.excluir(nodo);
+            }
+
+            // Primer salto: usuarios que ya sigue
+            recorrerSalientes(g, uid, nodo, w -> {
+                e.excluir(w);
+                e.agregarDirecto(w);
+            });
+
+            // Segundo salto: seguidos de los seguidos, contando conexiones en común
+            for (int k = 0; k < e.totalDirectos; k++) {
+                int v = e.directos[k];
+                recorrerSalientes(g, g.id(v), v, e::sumar);
+            }
+
+            // Orden por (conexiones en común, misma carrera) empaquetado en un long
+            long[] claves = new long[e.totalTocados];
+            for (int k = 0; k < e.totalTocados; k++) {
+                int w = e.tocados[k];
+                int puntaje = e.conteo[w] * 2 + (carrera != FollowGraph.SIN_CARRERA && g.carrera(w) == carrera ? 1 : 0);
+                claves[k] = ((long) puntaje << 32) | (Integer.MAX_VALUE - w);
+            }
+            Arrays.sort(claves);
+
+            elegidos = new ArrayList<>(tamano);
+            for (int k = claves.length - 1; k >= 0 && elegidos.size() < tamano; k--) {
+                int w = Integer.MAX_VALUE - (int) claves[k];
+                if (!excluidos.contains(g.id(w))) {
+                    elegidos.add(new int[] {w, e.conteo[w]});
+                    e.excluir(w);
+                }
+            }
+
+            // Relleno con los usuarios más seguidos de la misma carrera
+            for (int w : g.miembros(carrera)) {
+                if (elegidos.size() >= tamano) {
+                    break;
+                }
+                if (!e.excluido(w) && !excluidos.contains(g.id(w))) {
+                    elegidos.add(new int[] {w, 0});
+                    e.excluir(w);
+                }
+            }
+        } finally {
+            espacios.devolver(e);
+        }
+
+        return describir(g, elegidos);
+    }
+
+    /**
+     * Recorre los usuarios seguidos por un usuario combinando la instantánea con los
+     * cambios posteriores.
+     *
+     * @param g instantánea del grafo
+     * @param uid ID del usuario
+     * @param nodo índice del usuario en la instantánea (-1 si no figura)
+     * @param accion acción a ejecutar con el índice de cada seguido
+     */
+    private void recorrerSalientes(FollowGraph g, long uid, int nodo, IntConsumer accion) {
+        Map<Long, Cambio> delta = cambios.get(uid);
+        if (nodo >= 0) {
+            for (int p = g.inicio(nodo); p < g.fin(nodo); p++) {
+                int w = g.destino(p);
+                if (delta != null) {
+                    Cambio cambio = delta.get(g.id(w));
+                    if (cambio != null && !cambio.agregado()) {
+                        continue;
+                    }
+                }
+                accion.accept(w);
+            }
+        }
+        if (delta != null) {
+            for (Map.Entry<Long, Cambio> entry : delta.entrySet()) {
+                if (!entry.getValue().agregado()) {
+                    continue;
+                }
+                int w = g.indice(entry.getKey());
+                if (w >= 0 && (nodo < 0 || !g.contiene(nodo, w))) {
+                    accion.accept(w);
+                }
+            }
+        }
+    }
+
+    /**
+     * Completa las sugerencias con los datos públicos de cada usuario en una sola consulta.
+     *
+     * @param g instantánea del grafo
+     * @param elegidos pares [índice, conexiones en común]
+     * @return lista de sugerencias
+     */
+    private List<Map<String, Object>> describir(FollowGraph g, List<int[]> elegidos) {
+        if (elegidos.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(elegidos.size());
+        for (int[] elegido : elegidos) {
+            ids.add(g.id(elegido[0]));
+        }
+        Map<Long, Object[]> resumenes = new HashMap<>();
+        for (Object[] fila : userRepository.findResumenByIdIn(ids)) {
+            resumenes.put((Long) fila[0], fila);
+        }
+
+        List<Map<String, Object>> sugerencias = new ArrayList<>(elegidos.size());
+        for (int[] elegido : elegidos) {
+            Object[] fila = resumenes.get(g.id(elegido[0]));
+            if (fila == null) {
+                continue;
+            }
+            Map<String, Object> sugerencia = new LinkedHashMap<>();
+            sugerencia.put("usuario", fila[1]);
+            sugerencia.put("nombre", fila[2]);
+            sugerencia.put("profileImageUrl", fila[3]);
+            sugerencia.put("carrera", fila[4]);
+            sugerencia.put("conexionesEnComun", elegido[1]);
+            sugerencia.put("motivo", elegido[1] > 0 ? "CONEXIONES_EN_COMUN" : "MISMA_CARRERA");
+            sugerencias.add(sugerencia);
+        }
+        return sugerencias;
+    }
+
+    /**
+     * Resuelve el ID de un usuario desde la instantánea o, si no figura, desde la base de datos.
+     *
+     * @param g instantánea del grafo
+     * @param usuario nombre del usuario
+     * @return ID del usuario, o null si no existe
+     */
+    private Long resolverId(FollowGraph g, String usuario) {
+        int nodo = g.indice(usuario);
+        if (nodo >= 0) {
+            return g.id(nodo);
+        }
+        return userLookupCache.resolverId(usuario).orElse(null);
+    }
+
+    /**
+     * Arreglos de trabajo de una consulta de sugerencias.
+     *
+     * Las marcas usan un número de generación para no tener que limpiar los arreglos
+     * entre consultas; si el grafo se achica mucho se reemplazan por unos del tamaño
+     * actual. Un conteo de -1 indica un nodo que no puede sugerirse (el propio
+     * usuario, sus seguidos o un candidato ya elegido).
+     */
+    private static final class Espacio {
+
+        private int[] marca = new int[0];
+        private int[] conteo = new int[0];
+        private int generacion;
+        private int[] tocados = new int[64];
+        private int totalTocados;
+        private int[] directos = new int[64];
+        private int totalDirectos;
+
+        void preparar(int n) {
+            if (marca.length < n || marca.length > 4 * n + 1024) {
+                marca = new int[n];
+                conteo = new int[n];
+                generacion = 0;
+            }
+            if (++generacion == 0) {
+                Arrays.fill(marca, 0);
+                generacion = 1;
+            }
+            totalTocados = 0;
+            totalDirectos = 0;
+        }
+
+        void excluir(int nodo) {
+            marca[nodo] = generacion;
+            conteo[nodo] = -1;
+        }
+
+        boolean excluido(int nodo) {
+            return marca[nodo] == generacion && conteo[nodo] < 0;
+        }
+
+        void agregarDirecto(int nodo) {
+            if (totalDirectos == directos.length) {
+                directos = Arrays.copyOf(directos, totalDirectos * 2);
+            }
+            directos[totalDirectos++] = nodo;
+        }
+
+        void sumar(int nodo) {
+            if (marca[nodo] != generacion) {
+                marca[nodo] = generacion;
+                conteo[nodo] = 1;
+                if (totalTocados == tocados.length) {
+                    tocados = Arrays.copyOf(tocados, totalTocados * 2);
+                }
+                tocados[totalTocados++] = nodo;
+            } else if (conteo[nodo] > 0) {
+                conteo[nodo]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package edu.progavud.distrimusic.persona;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio para las relaciones de seguimiento entre usuarios.
+ *
+ * Todas las operaciones se resuelven con una sola sentencia sobre la tabla follows,
+ * usando subconsultas por nombre de usuario en lugar de cargar las entidades.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Repository
+public interface FollowRepository extends JpaRepository<FollowEntity, FollowEntity.FollowId> {
+
+    /**
+     * Crea la relación de seguimiento entre dos usuarios activos con un único INSERT.
+     * Si la relación ya existe, la clave primaria produce una violación de integridad.
+     *
+     * @param follower nombre del usuario que sigue
+     * @param followee nombre del usuario seguido
+     * @return número de filas insertadas (0 si alguno de los usuarios no existe)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO follows (follower_id, followee_id, created_at) " +
+                   "SELECT a.id, b.id, CURRENT_TIMESTAMP FROM users a, users b " +
+                   "WHERE a.usuario = :follower AND b.usuario = :followee " +
+                   "AND a.eliminado = false AND b.eliminado = false", nativeQuery = true)
+    int seguir(@Param("follower") String follower, @Param("followee") String followee);
+
+    /**
+     * Elimina la relación de seguimiento entre dos usuarios con un único DELETE.
+     *
+     * @param follower nombre del usuario que sigue
+     * @param followee nombre del usuario seguido
+     * @return número de filas eliminadas (0 si la relación no existía)
+     */
+    @Modifying
+    @Query(value = "DELETE FROM follows " +
+                   "WHERE follower_id = (SELECT id FROM users WHERE usuario = :follower) " +
+                   "AND followee_id = (SELECT id FROM users WHERE usuario = :followee)", nativeQuery = true)
+    int dejarDeSeguir(@Param("follower") String follower, @Param("followee") String followee);
+
+    /**
+     * Verifica si un usuario sigue a otro con una búsqueda por clave primaria.
+     *
+     * @param follower nombre del usuario seguidor
+     * @param followee nombre del usuario seguido
+     * @return true si follower sigue a followee
+     */
+    @Query("SELECT CASE WHEN COUNT(f) > 0 THEN true ELSE false END " +
+           "FROM FollowEntity f, UserEntity a, UserEntity b " +
+           "WHERE a.usuario = :follower AND b.usuario = :followee " +
+           "AND f.id.followerId = a.id AND f.id.followeeId = b.id")
+    boolean existeSeguimiento(@Param("follower") String follower, @Param("followee") String followee);
+
+    /**
+     * Filtra, de un conjunto de usuarios, los que sigue un usuario.
+     * Cada candidato se resuelve con una búsqueda por clave primaria.
+     *
+     * @param userId ID del usuario seguidor
+     * @param candidatos IDs de los usuarios candidatos
+     * @return IDs de los candidatos que el usuario sigue
+     */
+    @Query("SELECT f.id.followeeId FROM FollowEntity f WHERE f.id.followerId = :userId AND f.id.followeeId IN :candidatos")
+    List<Long> findSeguidosEntre(@Param("userId") Long userId, @Param("candidatos") Collection<Long> candidatos);
+
+    /**
+     * Filtra, de un conjunto de usuarios, los que siguen a un usuario.
+     * Cada candidato se resuelve con una búsqueda por clave primaria.
+     *
+     * @param userId ID del usuario seguido
+     * @param candidatos IDs de los usuarios candidatos
+     * @return IDs de los candidatos que siguen al usuario
+     */
+    @Query("SELECT f.id.followerId FROM FollowEntity f WHERE f.id.followeeId = :userId AND f.id.followerId IN :candidatos")
+    List<Long> findSeguidoresEntre(@Param("userId") Long userId, @Param("candidatos") Collection<Long> candidatos);
+
+    /**
+     * Obtiene la primera página de seguidores de un usuario, del más reciente al más antiguo.
+     * Cada fila contiene [usuario, nombre, profileImageUrl, createdAt, id].
+     *
+     * @param userId ID del usuario seguido
+     * @param pageable tamaño de la página
+     * @return filas de la página
+     */
+    @Query("SELECT u.usuario, u.nombre, u.profileImageUrl, f.createdAt, u.id " +
+           "FROM FollowEntity f, UserEntity u " +
+           "WHERE f.id.followeeId = :userId AND u.id = f.id.followerId AND u.eliminado = false " +
+           "ORDER BY f.createdAt DESC, f.id.followerId DESC")
+    List<Object[]> findSeguidores(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Obtiene la página de seguidores posterior a un cursor (fecha de seguimiento, ID).
+     *
+     * @param userId ID del usuario seguido
+     * @param antes fecha de seguimiento del último elemento de la página anterior
+     * @param antesId ID del último seguidor de la página anterior
+     * @param pageable tamaño de la página
+     * @return filas de la página
+     */
+    @Query("SELECT u.usuario, u.nombre, u.profileImageUrl, f.createdAt, u.id " +
+           "FROM FollowEntity f, UserEntity u " +
+           "WHERE f.id.followeeId = :userId AND u.id = f.id.followerId AND u.eliminado = false " +
+           "AND (f.createdAt < :antes OR (f.createdAt = :antes AND f.id.followerId < :antesId)) " +
+           "ORDER BY f.createdAt DESC, f.id.followerId DESC")
+    List<Object[]> findSeguidoresAntesDe(@Param("userId") Long userId, @Param("antes") LocalDateTime antes,
+                                         @Param("antesId") Long antesId, Pageable pageable);
+
+    /**
+     * Obtiene la primera página de usuarios seguidos, del más reciente al más antiguo.
+     * Cada fila contiene [usuario, nombre, profileImageUrl, createdAt, id].
+     *
+     * @param userId ID del usuario seguidor
+     * @param pageable tamaño de la página
+     * @return filas de la página
+     */
+    @Query("SELECT u.usuario, u.nombre, u.profileImageUrl, f.createdAt, u.id " +
+           "FROM FollowEntity f, UserEntity u " +
+           "WHERE f.id.followerId = :userId AND u.id = f.id.followeeId AND u.eliminado = false " +
+           "ORDER BY f.createdAt DESC, f.id.followeeId DESC")
+    List<Object[]> findSiguiendo(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Obtiene la página de usuarios seguidos posterior a un cursor (fecha de seguimiento, ID).
+     *
+     * @param userId ID del usuario seguidor
+     * @param antes fecha de seguimiento del último elemento de la página anterior
+     * @param antesId ID del último seguido de la página anterior
+     * @param pageable tamaño de la página
+     * @return filas de la página
+     */
+    @Query("SELECT u.usuario, u.nombre, u.profileImageUrl, f.createdAt, u.id " +
+           "FROM FollowEntity f, UserEntity u " +
+           "WHERE f.id.followerId = :userId AND u.id = f.id.followeeId AND u.eliminado = false " +
+           "AND (f.createdAt < :antes OR (f.createdAt = :antes AND f.id.followeeId < :antesId)) " +
+           "ORDER BY f.createdAt DESC, f.id.followeeId DESC")
+    List<Object[]> findSiguiendoAntesDe(@Param("userId") Long userId, @Param("antes") LocalDateTime antes,
+                                        @Param("antesId") Long antesId, Pageable pageable);
+
+    /**
+     * Obtiene un lote de IDs de usuarios que sigue un usuario.
+     *
+     * @param userId ID del usuario
+     * @param pageable tamaño del lote
+     * @return IDs de los usuarios seguidos del lote
+     */
+    @Query("SELECT f.id.followeeId FROM FollowEntity f WHERE f.id.followerId = :userId")
+    List<Long> findIdsSeguidos(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Obtiene un lote de IDs de seguidores de un usuario.
+     *
+     * @param userId ID del usuario
+     * @param pageable tamaño del lote
+     * @return IDs de los seguidores del lote
+     */
+    @Query("SELECT f.id.followerId FROM FollowEntity f WHERE f.id.followeeId = :userId")
+    List<Long> findIdsSeguidores(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Elimina las relaciones de un usuario con un conjunto de usuarios que sigue.
+     *
+     * @param userId ID del usuario que sigue
+     * @param seguidos IDs de los usuarios seguidos
+     * @return número de relaciones eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM FollowEntity f WHERE f.id.followerId = :userId AND f.id.followeeId IN :seguidos")
+    int deleteSeguidos(@Param("userId") Long userId, @Param("seguidos") Collection<Long> seguidos);
+
+    /**
+     * Elimina las relaciones de un conjunto de seguidores con un usuario.
+     *
+     * @param userId ID del usuario seguido
+     * @param seguidores IDs de los seguidores
+     * @return número de relaciones eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM FollowEntity f WHERE f.id.followeeId = :userId AND f.id.followerId IN :seguidores")
+    int deleteSeguidores(@Param("userId") Long userId, @Param("seguidores") Collection<Long> seguidores);
+}
@@ -0,0 +1,395 @@
+package edu.progavud.distrimusic.persona;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Servicio de hash de contraseñas con PBKDF2-HMAC-SHA256.
+ *
+ * Las contraseñas se guardan como {@code pbkdf2-sha256$iteraciones$sal$hash}, de modo
+ * que cada valor lleva su propio costo y la verificación no depende de la configuración
+ * vigente. Los valores sin ese prefijo son contraseñas heredadas en texto plano; se
+ * siguen aceptando y se reemplazan por un hash en el siguiente inicio de sesión, igual
+ * que los hashes generados con un número de iteraciones distinto al configurado.
+ *
+ * Calcular un hash es costoso a propósito, así que el trabajo se ejecuta en un pool
+ * propio y acotado ({@code app.auth.hash.hilos} hilos y una cola de
+ * {@code app.auth.hash.cola} tareas): los hilos de Tomcat no compiten por CPU con los
+ * inicios de sesión y, si la cola se llena, la solicitud se rechaza con 503 en lugar
+ * de acumular espera.
+ *
+ * Se registran métricas de latencia (cantidad, promedio, máximo y distribución por
+ * rangos) de los hashes y verificaciones. Al arrancar se mide el costo de la
+ * configuración actual y se sugiere el número de iteraciones que se ajusta a
+ * {@code app.auth.hash.objetivo-ms} en este equipo.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Service
+@Slf4j
+public class PasswordHasher {
+
+    /**
+     * Prefijo de los valores generados por este servicio.
+     */
+    static final String PREFIJO = "pbkdf2-sha256";
+
+    private static final String ALGORITMO = "PBKDF2WithHmacSHA256";
+    private static final int BYTES_SAL = 16;
+    private static final int BITS_HASH = 256;
+
+    /**
+     * Límites superiores (en milisegundos) de los rangos de la distribución de latencias.
+     */
+    private static final long[] RANGOS_MS = {10, 25, 50, 100, 250, 500, 1000};
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int iteraciones;
+    private final long timeoutMs;
+    private final long objetivoMs;
+    private final ThreadPoolExecutor executor;
+
+    private final Metrica metricaHash = new Metrica();
+    private final Metrica metricaVerificacion = new Metrica();
+    private final LongAdder rechazadas = new LongAdder();
+    private final LongAdder rehashes = new LongAdder();
+
+    /**
+     * Resultado de verificar una contraseña.
+     *
+     * @param valida true si la contraseña coincide
+     * @param nuevoHash hash recalculado con el costo vigente, o null si no hace falta actualizarlo
+     */
+    public record Verificacion(boolean valida, String nuevoHash) {
+    }
+
+    /**
+     * Crea el servicio con el costo y el pool configurados.
+     *
+     * @param iteraciones iteraciones de PBKDF2 para los hashes nuevos
+     * @param hilos cantidad de hilos dedicados al hash (0 para usar los núcleos disponibles)
+     * @param cola cantidad máxima de tareas en espera
+     * @param timeoutMs tiempo máximo de espera de una operación bloqueante
+     * @param objetivoMs latencia objetivo usada para sugerir el número de iteraciones
+     */
+    public PasswordHasher(@Value("${app.auth.hash.iteraciones:310000}") int iteraciones,
+                          @Value("${app.auth.hash.hilos:0}") int hilos,
+                          @Value("${app.auth.hash.cola:64}") int cola,
+                          @Value("${app.auth.hash.timeout-ms:5000}") long timeoutMs,
+                          @Value("${app.auth.hash.objetivo-ms:100}") long objetivoMs) {
+        this.iteraciones = iteraciones;
+        this.timeoutMs = timeoutMs;
+        this.objetivoMs = objetivoMs;
+        int tamano = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(tamano, tamano, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), r -> {
+                    Thread hilo = new Thread(r, "password-hash-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Calcula el hash de una contraseña en el pool dedicado y espera el resultado.
+     *
+     * @param contraseña contraseña en texto plano
+     * @return valor codificado para guardar
+     * @throws ResponseStatusException con estado 503 si el pool está saturado o se agota el tiempo
+     */
+    public String hashear(String contraseña) {
+        return esperar(enviar(() -> medir(metricaHash, () -> calcular(contraseña, iteraciones))));
+    }
+
+    /**
+     * Verifica una contraseña en el pool dedicado sin bloquear al llamador.
+     *
+     * Si la contraseña es válida y el valor guardado es texto plano o usa un costo
+     * distinto al configurado, el resultado incluye el hash recalculado.
+     *
+     * El futuro falla con 503 si no se completa dentro del tiempo máximo configurado,
+     * contando la espera en la cola, igual que las operaciones bloqueantes.
+     *
+     * @param contraseña contraseña ingresada
+     * @param almacenado valor guardado
+     * @return futuro con el resultado de la verificación
+     * @throws ResponseStatusException con estado 503 si el pool está saturado
+     */
+    public CompletableFuture<Verificacion> verificar(String contraseña, String almacenado) {
+        return enviar(() -> {
+            boolean valida = medir(metricaVerificacion, () -> coincide(almacenado, contraseña));
+            if (!valida || !necesitaRehash(almacenado)) {
+                return new Verificacion(valida, null);
+            }
+            rehashes.increment();
+            return new Verificacion(true, medir(metricaHash, () -> calcular(contraseña, iteraciones)));
+        }).orTimeout(timeoutMs, TimeUnit.MILLISECONDS).exceptionally(error -> {
+            Throwable causa = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (causa instanceof TimeoutException) {
+                rechazadas.increment();
+                throw ocupado();
+            }
+            throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+        });
+    }
+
+    /**
+     * Verifica una contraseña en el pool dedicado y espera el resultado.
+     *
+     * @param contraseña contraseña ingresada
+     * @param almacenado valor guardado
+     * @return true si la contraseña coincide
+     * @throws ResponseStatusException con estado 503 si el pool está saturado o se agota el tiempo
+     */
+    public boolean verificarBloqueante(String contraseña, String almacenado) {
+        return esperar(enviar(() -> medir(metricaVerificacion, () -> coincide(almacenado, contraseña))));
+    }
+
+    /**
+     * Indica si un valor guardado debe recalcularse con el costo vigente.
+     *
+     * @param almacenado valor guardado
+     * @return true si es texto plano o usa otro número de iteraciones
+     */
+    public boolean necesitaRehash(String almacenado) {
+        String[] partes = partes(almacenado);
+        return partes == null || Integer.parseInt(partes[1]) != iteraciones;
+    }
+
+    /**
+     * Compara una contraseña con el valor guardado en el hilo actual.
+     * Acepta valores heredados en texto plano; la comparación es de tiempo constante.
+     *
+     * @param almacenado valor guardado
+     * @param contraseña contraseña ingresada
+     * @return true si la contraseña coincide
+     */
+    static boolean coincide(String almacenado, String contraseña) {
+        if (almacenado == null || contraseña == null) {
+            return false;
+        }
+        String[] partes = partes(almacenado);
+        if (partes == null) {
+            return MessageDigest.isEqual(almacenado.getBytes(StandardCharsets.UTF_8),
+                    contraseña.getBytes(StandardCharsets.UTF_8));
+        }
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] sal = decoder.decode(partes[2]);
+        byte[] esperado = decoder.decode(partes[3]);
+        return MessageDigest.isEqual(esperado, derivar(contraseña, sal, Integer.parseInt(partes[1])));
+    }
+
+    /**
+     * Obtiene las métricas de latencia y el estado del pool.
+     *
+     * @return mapa con las métricas
+     */
+    public Map<String, Object> getMetricas() {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("algoritmo", ALGORITMO);
+        metricas.put("iteraciones", iteraciones);
+        metricas.put("hash", metricaHash.describir());
+        metricas.put("verificacion", metricaVerificacion.describir());
+        metricas.put("rehashes", rehashes.sum());
+        metricas.put("rechazadas", rechazadas.sum());
+        metricas.put("hilos", executor.getMaximumPoolSize());
+        metricas.put("hilosActivos", executor.getActiveCount());
+        metricas.put("enCola", executor.getQueue().size());
+        return metricas;
+    }
+
+    /**
+     * Mide el costo de la configuración actual en este equipo y sugiere el número de
+     * iteraciones que se ajusta a la latencia objetivo. No afecta las métricas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void calibrar() {
+        executor.execute(() -> {
+            int muestras = 5;
+            calcular("calentamiento", Math.max(1, iteraciones / 10));
+            long inicio = System.nanoTime();
+            for (int i = 0; i < muestras; i++) {
+                calcular("calibracion-" + i, iteraciones);
+            }
+            double promedioMs = (System.nanoTime() - inicio) / 1_000_000.0 / muestras;
+            long sugeridas = Math.round(iteraciones * objetivoMs / Math.max(promedioMs, 0.001));
+            log.info("🔐 Hash de contraseñas: {} iteraciones tardan {} ms en este equipo; " +
+                            "para {} ms se sugieren {} iteraciones (app.auth.hash.iteraciones)",
+                    iteraciones, String.format("%.1f", promedioMs), objetivoMs, sugeridas);
+        });
+    }
+
+    /**
+     * Detiene el pool de hash al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdown();
+    }
+
+    /**
+     * Envía una tarea al pool dedicado.
+     *
+     * @param tarea tarea a ejecutar
+     * @return futuro con el resultado
+     * @throws ResponseStatusException con estado 503 si la cola está llena
+     */
+    private <T> CompletableFuture<T> enviar(Supplier<T> tarea) {
+        try {
+            return CompletableFuture.supplyAsync(tarea, executor);
+        } catch (RejectedExecutionException e) {
+            rechazadas.increment();
+            throw ocupado();
+        }
+    }
+
+    /**
+     * Espera el resultado de una tarea con el tiempo máximo configurado.
+     *
+     * @param futuro tarea enviada
+     * @return resultado de la tarea
+     */
+    private <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            rechazadas.increment();
+            throw ocupado();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ocupado();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ResponseStatusException ocupado() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "El servicio de autenticación está saturado, intenta de nuevo");
+    }
+
+    private static <T> T medir(Metrica metrica, Supplier<T> operacion) {
+        long inicio = System.nanoTime();
+        try {
+            return operacion.get();
+        } finally {
+            metrica.registrar(System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Calcula el valor codificado de una contraseña con una sal nueva.
+     */
+    private static String calcular(String contraseña, int iteraciones) {
+        byte[] sal = new byte[BYTES_SAL];
+        RANDOM.nextBytes(sal);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIJO + "$" + iteraciones + "$" + encoder.encodeToString(sal)
+                + "$" + encoder.encodeToString(derivar(contraseña, sal, iteraciones));
+    }
+
+    private static byte[] derivar(String contraseña, byte[] sal, int iteraciones) {
+        PBEKeySpec spec = new PBEKeySpec(contraseña.toCharArray(), sal, iteraciones, BITS_HASH);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITMO).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo calcular " + ALGORITMO, e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Separa un valor codificado en [prefijo, iteraciones, sal, hash].
+     *
+     * @return partes del valor, o null si es una contraseña heredada en texto plano
+     */
+    private static String[] partes(String almacenado) {
+        if (almacenado == null || !almacenado.startsWith(PREFIJO + "$")) {
+            return null;
+        }
+        String[] partes = almacenado.split("\\$");
+        return partes.length == 4 ? partes : null;
+    }
+
+    /**
+     * Acumulador de latencias de una operación.
+     */
+    private static final class Metrica {
+
+        private final LongAdder cantidad = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maximoNanos = new AtomicLong();
+        private final LongAdder[] rangos = new LongAdder[RANGOS_MS.length + 1];
+
+        Metrica() {
+            for (int i = 0; i < rangos.length; i++) {
+                rangos[i] = new LongAdder();
+            }
+        }
+
+        void registrar(long nanos) {
+            cantidad.increment();
+            totalNanos.add(nanos);
+            maximoNanos.accumulateAndGet(nanos, Math::max);
+            long ms = nanos / 1_000_000;
+            int i = 0;
+            while (i < RANGOS_MS.length && ms >= RANGOS_MS[i]) {
+                i++;
+            }
+            rangos[i].increment();
+        }
+
+        Map<String, Object> describir() {
+            long n = cantidad.sum();
+            Map<String, Object> descripcion = new LinkedHashMap<>();
+            descripcion.put("cantidad", n);
+            descripcion.put("promedioMs", n == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / n);
+            descripcion.put("maximoMs", maximoNanos.get() / 1_000_000.0);
+            Map<String, Long> distribucion = new LinkedHashMap<>();
+            for (int i = 0; i < RANGOS_MS.length; i++) {
+                distribucion.put("<" + RANGOS_MS[i] + "ms", rangos[i].sum());
+            }
+            distribucion.put(">=" + RANGOS_MS[RANGOS_MS.length - 1] + "ms", rangos[RANGOS_MS.length].sum());
+            descripcion.put("distribucion", distribucion);
+            return descripcion;
+        }
+    }
+}
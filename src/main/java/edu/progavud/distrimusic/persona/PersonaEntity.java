@@ -95,9 +95,9 @@ public abstract class PersonaEntity {
      * Valida las credenciales de la persona.
      *
      * @param contraseñaIngresada contraseña a validar
-     * @return true si la contraseña coincide con la almacenada
+     * @return true si la contraseña coincide con la almacenada (hash o texto plano heredado)
      */
     public boolean validarCredenciales(String contraseñaIngresada) {
-        return this.contraseña.equals(contraseñaIngresada);
+        return PasswordHasher.coincide(this.contraseña, contraseñaIngresada);
     }
 }
\ No newline at end of file
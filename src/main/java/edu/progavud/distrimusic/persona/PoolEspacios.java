@@ -0,0 +1,63 @@
+package edu.progavud.distrimusic.persona;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Pool acotado de espacios de trabajo (arreglos grandes reutilizables entre consultas).
+ *
+ * A diferencia de un espacio por hilo, la memoria retenida no crece con la cantidad
+ * de hilos del servidor: como máximo se guardan {@code capacidad} espacios libres. Si
+ * no hay uno libre se crea otro, que se descarta al devolverlo si el pool está lleno.
+ *
+ * @param <T> tipo del espacio de trabajo
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+final class PoolEspacios<T> {
+
+    private final ArrayBlockingQueue<T> libres;
+    private final Supplier<T> fabrica;
+
+    /**
+     * Crea un pool que guarda un espacio libre por núcleo disponible.
+     *
+     * @param fabrica crea un espacio nuevo cuando no hay uno libre
+     */
+    PoolEspacios(Supplier<T> fabrica) {
+        this(Runtime.getRuntime().availableProcessors(), fabrica);
+    }
+
+    /**
+     * Crea un pool con una capacidad dada.
+     *
+     * @param capacidad cantidad máxima de espacios libres guardados
+     * @param fabrica crea un espacio nuevo cuando no hay uno libre
+     */
+    PoolEspacios(int capacidad, Supplier<T> fabrica) {
+        this.libres = new ArrayBlockingQueue<>(Math.max(1, capacidad));
+        this.fabrica = fabrica;
+    }
+
+    /**
+     * Toma un espacio libre o crea uno nuevo.
+     *
+     * @return espacio de uso exclusivo hasta devolverlo
+     */
+    T tomar() {
+        T espacio = libres.poll();
+        return espacio != null ? espacio : fabrica.get();
+    }
+
+    /**
+     * Devuelve un espacio al pool; si el pool está lleno se descarta.
+     *
+     * @param espacio espacio tomado con {@link #tomar()}
+     */
+    void devolver(T espacio) {
+        libres.offer(espacio);
+    }
+}
@@ -0,0 +1,184 @@
+package edu.progavud.distrimusic.persona;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verificación previa de unicidad de nombres de usuario y correos al registrarse.
+ *
+ * Mantiene en memoria un filtro de Bloom de los nombres de usuario y otro de los
+ * correos registrados. Si el filtro dice que un valor definitivamente no está, el
+ * registro se salta la consulta a la base de datos; si dice que posiblemente está,
+ * se confirma con la consulta. Las restricciones de unicidad de la tabla users
+ * siguen siendo la autoridad final.
+ *
+ * Los filtros se cargan al iniciar la aplicación y se actualizan con cada registro.
+ * Como un filtro de Bloom no admite borrados, las cuentas eliminadas solo cuestan
+ * una consulta de más; los filtros se reconstruyen cuando se acumulan demasiadas
+ * eliminaciones o cuando se supera la capacidad para la que se dimensionaron.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RegistrationPrecheck {
+
+    /**
+     * Tasa de falsos positivos de los filtros.
+     */
+    private static final double FALSOS_POSITIVOS = 0.01;
+
+    /**
+     * Capacidad mínima con la que se dimensionan los filtros.
+     */
+    private static final long CAPACIDAD_MINIMA = 100_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Filtros vigentes; null hasta que se cargan por primera vez.
+     */
+    private volatile Filtros filtros;
+
+    /**
+     * Filtros en construcción que también deben recibir los registros concurrentes.
+     */
+    private volatile Filtros pendientes;
+
+    /**
+     * Elementos insertados en los filtros vigentes.
+     */
+    private final AtomicLong insertados = new AtomicLong();
+
+    /**
+     * Cuentas eliminadas desde la última reconstrucción.
+     */
+    private final AtomicLong eliminados = new AtomicLong();
+
+    /**
+     * Par de filtros con la capacidad con la que se dimensionaron.
+     *
+     * @param usuarios filtro de nombres de usuario
+     * @param emails filtro de correos
+     * @param capacidad cantidad de elementos esperados
+     */
+    private record Filtros(BloomFilter usuarios, BloomFilter emails, long capacidad) {
+    }
+
+    /**
+     * Carga los filtros al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        reconstruir();
+    }
+
+    /**
+     * Reconstruye los filtros si se superó su capacidad o se acumularon eliminaciones.
+     */
+    @Scheduled(fixedDelayString = "${app.users.precheck.revision-ms:300000}")
+    public void revisar() {
+        Filtros actuales = filtros;
+        if (actuales == null) {
+            return;
+        }
+        if (insertados.get() > actuales.capacidad() || eliminados.get() > actuales.capacidad() / 10) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Reconstruye los filtros leyendo todos los usuarios de la base de datos.
+     * Mientras se reconstruyen, los filtros anteriores siguen en uso.
+     */
+    public synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        long capacidad = Math.max(CAPACIDAD_MINIMA, (total != null ? total : 0) * 2);
+        Filtros nuevos = new Filtros(
+                new BloomFilter(capacidad, FALSOS_POSITIVOS),
+                new BloomFilter(capacidad, FALSOS_POSITIVOS),
+                capacidad);
+
+        // Los registros concurrentes se agregan también a los filtros en construcción
+        pendientes = nuevos;
+        long[] cargados = {0};
+        jdbcTemplate.query("SELECT usuario, email FROM users", rs -> {
+            nuevos.usuarios().agregar(rs.getString(1));
+            nuevos.emails().agregar(rs.getString(2));
+            cargados[0]++;
+        });
+        filtros = nuevos;
+        pendientes = null;
+        insertados.set(cargados[0]);
+        eliminados.set(0);
+
+        log.info("🌸 Filtros de registro cargados: {} usuarios, capacidad {} en {} ms",
+                cargados[0], capacidad, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Indica si un nombre de usuario posiblemente está registrado.
+     *
+     * @param usuario nombre de usuario
+     * @return false si definitivamente no está registrado
+     */
+    public boolean usuarioPosiblementeRegistrado(String usuario) {
+        Filtros actuales = filtros;
+        return actuales == null || usuario == null || actuales.usuarios().posiblementeContiene(usuario);
+    }
+
+    /**
+     * Indica si un correo posiblemente está registrado.
+     *
+     * @param email correo electrónico
+     * @return false si definitivamente no está registrado
+     */
+    public boolean emailPosiblementeRegistrado(String email) {
+        Filtros actuales = filtros;
+        return actuales == null || email == null || actuales.emails().posiblementeContiene(email);
+    }
+
+    /**
+     * Agrega a los filtros un usuario recién registrado o un correo actualizado.
+     *
+     * @param usuario nombre de usuario (puede ser null)
+     * @param email correo electrónico (puede ser null)
+     */
+    public void registrar(String usuario, String email) {
+        agregar(filtros, usuario, email);
+        agregar(pendientes, usuario, email);
+        insertados.incrementAndGet();
+    }
+
+    /**
+     * Registra la eliminación de una cuenta para programar la reconstrucción de los filtros.
+     */
+    public void registrarEliminacion() {
+        eliminados.incrementAndGet();
+    }
+
+    private void agregar(Filtros destino, String usuario, String email) {
+        if (destino == null) {
+            return;
+        }
+        if (usuario != null) {
+            destino.usuarios().agregar(usuario);
+        }
+        if (email != null) {
+            destino.emails().agregar(email);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package edu.progavud.distrimusic.persona;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Filtro que verifica el token de sesión de cada petición.
+ *
+ * Si la petición trae {@code Authorization: Bearer <token>} y el token es válido, deja
+ * la sesión como atributo de la petición para que los controladores y servicios usen
+ * el ID del usuario sin volver a buscarlo. Un token inválido o vencido responde 401.
+ * Las peticiones sin token siguen pasando, identificando al usuario por parámetro.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Component
+@RequiredArgsConstructor
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    private static final String PREFIJO = "Bearer ";
+
+    private final SessionTokenService sessionTokenService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String cabecera = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (cabecera == null || !cabecera.startsWith(PREFIJO)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<SessionTokenService.Sesion> sesion = sessionTokenService.verificar(cabecera.substring(PREFIJO.length()).trim());
+        if (sesion.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"error\":\"Token inválido o vencido\",\"status\":\"error\"}");
+            return;
+        }
+        request.setAttribute(SessionTokenService.ATRIBUTO_SESION, sesion.get());
+        chain.doFilter(request, response);
+    }
+}
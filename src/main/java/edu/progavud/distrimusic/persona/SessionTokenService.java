@@ -0,0 +1,196 @@
+package edu.progavud.distrimusic.persona;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio que emite y verifica tokens de sesión firmados con HMAC-SHA256.
+ *
+ * El token tiene la forma {@code base64url(datos).base64url(firma)}, donde los datos
+ * son {@code userId.emitido.expira.usuario}. Verificarlo solo requiere recalcular la
+ * firma, sin acceder a la base de datos ni a un almacén de sesiones, así que cualquier
+ * nodo que comparta el secreto ({@code app.auth.token-secret}) puede validarlo.
+ *
+ * Al cambiar la contraseña o eliminar la cuenta se revocan en este nodo los tokens
+ * emitidos antes de ese momento; en los demás nodos vencen por su tiempo de vida.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Service
+@Slf4j
+public class SessionTokenService {
+
+    /**
+     * Nombre del atributo de petición donde el filtro deja la sesión verificada.
+     */
+    static final String ATRIBUTO_SESION = SessionTokenService.class.getName() + ".sesion";
+
+    private static final String ALGORITMO = "HmacSHA256";
+
+    private final byte[] secreto;
+    private final long ttlMs;
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * Instante mínimo de emisión aceptado por usuario (tokens revocados).
+     */
+    private final Map<Long, Long> revocados = new ConcurrentHashMap<>();
+
+    /**
+     * Sesión verificada a partir de un token.
+     *
+     * @param userId ID del usuario
+     * @param usuario nombre del usuario
+     * @param expira instante de expiración en milisegundos
+     */
+    public record Sesion(Long userId, String usuario, long expira) {
+    }
+
+    /**
+     * Crea el servicio con el secreto y el tiempo de vida configurados.
+     *
+     * @param secretoConfigurado secreto compartido entre nodos (vacío para generar uno aleatorio)
+     * @param ttlMinutos tiempo de vida de los tokens en minutos
+     */
+    public SessionTokenService(@Value("${app.auth.token-secret:}") String secretoConfigurado,
+                               @Value("${app.auth.token-ttl-min:120}") long ttlMinutos) {
+        if (secretoConfigurado == null || secretoConfigurado.isBlank()) {
+            byte[] aleatorio = new byte[32];
+            new SecureRandom().nextBytes(aleatorio);
+            this.secreto = aleatorio;
+            log.warn("⚠️ app.auth.token-secret no está configurado; los tokens solo serán válidos en este nodo");
+        } else {
+            this.secreto = secretoConfigurado.getBytes(StandardCharsets.UTF_8);
+        }
+        this.ttlMs = ttlMinutos * 60_000L;
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITMO);
+                mac.init(new SecretKeySpec(secreto, ALGORITMO));
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("No se pudo inicializar " + ALGORITMO, e);
+            }
+        });
+    }
+
+    /**
+     * Emite un token de sesión para un usuario autenticado.
+     *
+     * @param userId ID del usuario
+     * @param usuario nombre del usuario
+     * @return mapa con el token y su expiración
+     */
+    public Map<String, Object> emitir(Long userId, String usuario) {
+        long emitido = System.currentTimeMillis();
+        long expira = emitido + ttlMs;
+        String datos = userId + "." + emitido + "." + expira + "." + usuario;
+        byte[] bytes = datos.getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String token = encoder.encodeToString(bytes) + "." + encoder.encodeToString(firmar(bytes));
+        return Map.of("token", token, "expira", expira);
+    }
+
+    /**
+     * Verifica un token sin acceder a la base de datos.
+     *
+     * @param token token recibido
+     * @return Optional con la sesión si la firma es válida y el token no venció ni fue revocado
+     */
+    public Optional<Sesion> verificar(String token) {
+        try {
+            int punto = token.indexOf('.');
+            if (punto <= 0) {
+                return Optional.empty();
+            }
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] datos = decoder.decode(token.substring(0, punto));
+            byte[] firma = decoder.decode(token.substring(punto + 1));
+            if (!MessageDigest.isEqual(firma, firmar(datos))) {
+                return Optional.empty();
+            }
+
+            String[] partes = new String(datos, StandardCharsets.UTF_8).split("\\.", 4);
+            Long userId = Long.parseLong(partes[0]);
+            long emitido = Long.parseLong(partes[1]);
+            long expira = Long.parseLong(partes[2]);
+            if (expira < System.currentTimeMillis()) {
+                return Optional.empty();
+            }
+            Long revocadoAntes = revocados.get(userId);
+            if (revocadoAntes != null && emitido < revocadoAntes) {
+                return Optional.empty();
+            }
+            return Optional.of(new Sesion(userId, partes[3], expira));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Revoca en este nodo todos los tokens emitidos hasta ahora para un usuario.
+     *
+     * @param userId ID del usuario
+     */
+    public void revocar(Long userId) {
+        revocados.put(userId, System.currentTimeMillis());
+    }
+
+    /**
+     * Obtiene la sesión verificada de la petición HTTP actual.
+     *
+     * @return Optional con la sesión, vacío si la petición no trae token
+     */
+    public static Optional<Sesion> actual() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((Sesion) atributos.getAttribute(ATRIBUTO_SESION, RequestAttributes.SCOPE_REQUEST));
+    }
+
+    /**
+     * Resuelve el usuario que realiza una acción. Si la petición trae un token, el
+     * usuario es el del token y, si además se indicó otro usuario, la acción se rechaza.
+     * Sin token se mantiene el usuario indicado en la petición.
+     *
+     * @param solicitado usuario indicado en la petición (puede ser null)
+     * @return usuario que realiza la acción
+     * @throws ResponseStatusException (403) si el usuario indicado no coincide con el del token
+     */
+    public static String usuarioActuante(String solicitado) {
+        Optional<Sesion> sesion = actual();
+        if (sesion.isEmpty()) {
+            return solicitado;
+        }
+        String usuario = sesion.get().usuario();
+        if (solicitado != null && !solicitado.isBlank() && !solicitado.equals(usuario)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "El token no corresponde al usuario " + solicitado);
+        }
+        return usuario;
+    }
+
+    private byte[] firmar(byte[] datos) {
+        return macs.get().doFinal(datos);
+    }
+}
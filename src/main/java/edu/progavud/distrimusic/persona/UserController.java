@@ -1,12 +1,18 @@
 package edu.progavud.distrimusic.persona;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controlador REST para la gestión de usuarios.
@@ -33,6 +39,9 @@ import java.util.Map;
 public class UserController {
     
     private final UserService userService;
+    private final SessionTokenService sessionTokenService;
+    private final UserProfileService userProfileService;
+    private final ObjectMapper objectMapper;
     
     /**
      * Actualiza el perfil de un usuario.
@@ -46,6 +55,7 @@ public class UserController {
     public ResponseEntity<?> updateUserProfile(
             @PathVariable String usuario,
             @RequestBody Map<String, Object> updates) {
+        SessionTokenService.usuarioActuante(usuario);
         try {
             UserEntity updated = userService.updateUserProfile(usuario, updates);
             return ResponseEntity.ok(updated);
@@ -69,13 +79,60 @@ public class UserController {
     /**
      * Autentica un usuario en el sistema.
      *
+     * La contraseña se verifica fuera del hilo de la solicitud (ver {@link PasswordHasher}).
+     * Además de los datos del usuario, la respuesta incluye un token de sesión firmado
+     * ("token" y "tokenExpira") que puede enviarse en la cabecera
+     * {@code Authorization: Bearer <token>} de las peticiones siguientes.
+     *
      * @param loginRequest credenciales del usuario
-     * @return ResponseEntity con los datos del usuario autenticado
+     * @return ResponseEntity con los datos del usuario autenticado y su token
      */
     @PostMapping("/login")
-    public ResponseEntity<UserEntity> loginUser(@RequestBody UserEntity loginRequest) {
-        UserEntity user = userService.authenticateUser(loginRequest.getUsuario(), loginRequest.getContraseña());
-        return ResponseEntity.ok(user);
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> loginUser(@RequestBody UserEntity loginRequest) {
+        return userService.authenticateUser(loginRequest.getUsuario(), loginRequest.getContraseña()).thenApply(user -> {
+            Map<String, Object> token = sessionTokenService.emitir(user.getId(), user.getUsuario());
+
+            Map<String, Object> respuesta = new LinkedHashMap<>(
+                    objectMapper.convertValue(user, new TypeReference<Map<String, Object>>() { }));
+            respuesta.put("token", token.get("token"));
+            respuesta.put("tokenExpira", token.get("expira"));
+            return ResponseEntity.ok(respuesta);
+        });
+    }
+
+    /**
+     * Busca usuarios por nombre de usuario, nombre o carrera.
+     * Cada palabra de la consulta se compara como prefijo, sin distinguir
+     * mayúsculas ni tildes, y los resultados se ordenan por relevancia.
+     *
+     * @param q texto de búsqueda
+     * @param page número de página, desde 0
+     * @param limit cantidad de resultados por página (máximo 50)
+     * @return ResponseEntity con la página de usuarios encontrados
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> buscarUsuarios(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(userService.buscarUsuarios(q, page, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", e.getMessage(),
+                "status", "error"
+            ));
+        }
+    }
+
+    /**
+     * Obtiene las métricas de latencia del hash de contraseñas.
+     *
+     * @return ResponseEntity con las métricas y el estado del pool de hash
+     */
+    @GetMapping("/auth/hash-metrics")
+    public ResponseEntity<Map<String, Object>> getMetricasHash() {
+        return ResponseEntity.ok(userService.getMetricasHash());
     }
     
     /**
@@ -86,7 +143,7 @@ public class UserController {
      */
     @GetMapping("/{usuario}")
     public ResponseEntity<UserEntity> getUserByUsuario(@PathVariable String usuario) {
-        UserEntity user = userService.getUserByUsuario(usuario);
+        UserEntity user = userService.getPerfil(usuario);
         return ResponseEntity.ok(user);
     }
     
@@ -115,11 +172,12 @@ public class UserController {
             @PathVariable String usuario,
             @RequestParam(required = false) String follower,
             @RequestBody(required = false) Map<String, Object> body) {
+        String followerUser = follower;
+        if ((followerUser == null || followerUser.isBlank()) && body != null && body.get("follower") != null) {
+            followerUser = String.valueOf(body.get("follower"));
+        }
+        followerUser = SessionTokenService.usuarioActuante(followerUser);
         try {
-            String followerUser = follower;
-            if ((followerUser == null || followerUser.isBlank()) && body != null && body.get("follower") != null) {
-                followerUser = String.valueOf(body.get("follower"));
-            }
             if (followerUser == null || followerUser.isBlank()) {
                 return ResponseEntity.badRequest().body(Map.of(
                     "error", "Falta el usuario que sigue",
@@ -149,9 +207,16 @@ public class UserController {
     @DeleteMapping("/{usuario}/follow")
     public ResponseEntity<Map<String, String>> dejarDeSeguir(
             @PathVariable String usuario,
-            @RequestParam String follower) {
+            @RequestParam(required = false) String follower) {
+        String followerUser = SessionTokenService.usuarioActuante(follower);
+        if (followerUser == null || followerUser.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Falta el usuario que deja de seguir",
+                "status", "error"
+            ));
+        }
         try {
-            userService.dejarDeSeguir(follower, usuario);
+            userService.dejarDeSeguir(followerUser, usuario);
             return ResponseEntity.ok(Map.of(
                 "message", "Dejaste de seguir a " + usuario,
                 "status", "success"
@@ -165,27 +230,128 @@ public class UserController {
     }
     
     /**
-     * Obtiene la lista de seguidores de un usuario.
+     * Obtiene una página de seguidores de un usuario, del más reciente al más antiguo.
+     * Cada elemento incluye solo usuario, nombre, profileImageUrl y fechaSeguimiento.
      *
      * @param usuario nombre del usuario
-     * @return ResponseEntity con la lista de seguidores
+     * @param cursor cursor de la página anterior (siguienteCursor); se omite en la primera
+     * @param limit tamaño de la página (máximo 100)
+     * @return ResponseEntity con la página de seguidores
      */
     @GetMapping("/{usuario}/followers")
-    public ResponseEntity<List<UserEntity>> getSeguidores(@PathVariable String usuario) {
-        List<UserEntity> seguidores = userService.getSeguidores(usuario);
-        return ResponseEntity.ok(seguidores);
+    public ResponseEntity<?> getSeguidores(
+            @PathVariable String usuario,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(userService.getSeguidores(usuario, cursor, limit));
+        } catch (RuntimeException e) {
+            return errorDePaginacion(e);
+        }
     }
     
     /**
-     * Obtiene la lista de usuarios que sigue un usuario.
+     * Obtiene una página de usuarios que sigue un usuario, del más reciente al más antiguo.
+     * Cada elemento incluye solo usuario, nombre, profileImageUrl y fechaSeguimiento.
      *
      * @param usuario nombre del usuario
-     * @return ResponseEntity con la lista de usuarios seguidos
+     * @param cursor cursor de la página anterior (siguienteCursor); se omite en la primera
+     * @param limit tamaño de la página (máximo 100)
+     * @return ResponseEntity con la página de usuarios seguidos
      */
     @GetMapping("/{usuario}/following")
-    public ResponseEntity<List<UserEntity>> getSiguiendo(@PathVariable String usuario) {
-        List<UserEntity> siguiendo = userService.getSiguiendo(usuario);
-        return ResponseEntity.ok(siguiendo);
+    public ResponseEntity<?> getSiguiendo(
+            @PathVariable String usuario,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(userService.getSiguiendo(usuario, cursor, limit));
+        } catch (RuntimeException e) {
+            return errorDePaginacion(e);
+        }
+    }
+
+    /**
+     * Construye la respuesta de error de los listados paginados de seguimiento.
+     *
+     * @param e excepción lanzada por el servicio
+     * @return 404 si el usuario no existe, 400 en otro caso
+     */
+    private ResponseEntity<?> errorDePaginacion(RuntimeException e) {
+        HttpStatus status = "Usuario no encontrado".equals(e.getMessage())
+                ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(Map.of(
+            "error", e.getMessage(),
+            "status", "error"
+        ));
+    }
+    
+    /**
+     * Obtiene el perfil completo de un usuario en una sola respuesta: sus datos,
+     * contadores y la primera página de sus playlists y comentarios recientes.
+     *
+     * La respuesta lleva una ETag; si el cliente envía la misma en If-None-Match,
+     * se responde 304 sin cuerpo.
+     *
+     * @param usuario nombre del usuario
+     * @param limit tamaño de la primera página de playlists y comentarios (máximo 50)
+     * @param ifNoneMatch ETag de la versión que tiene el cliente
+     * @return ResponseEntity con el perfil, 304 si no cambió, o 404 si el usuario no existe
+     */
+    @GetMapping("/{usuario}/profile")
+    public ResponseEntity<?> getPerfilCompleto(
+            @PathVariable String usuario,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Map<String, Object> perfil;
+        try {
+            perfil = userProfileService.getPerfil(usuario, limit);
+        } catch (RuntimeException e) {
+            if (!"Usuario no encontrado".equals(e.getMessage())) {
+                throw e;
+            }
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "error", e.getMessage(),
+                "status", "error"
+            ));
+        }
+
+        String etag = userProfileService.calcularEtag(perfil);
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (userProfileService.coincideEtag(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION)
+                .body(perfil);
+    }
+
+    /**
+     * Obtiene sugerencias de "personas que quizá conozcas" para un usuario:
+     * seguidos de sus seguidos ordenados por conexiones en común y, si no alcanzan,
+     * usuarios destacados de su misma carrera.
+     *
+     * @param usuario nombre del usuario
+     * @param limit cantidad máxima de sugerencias (máximo 50)
+     * @return ResponseEntity con la lista de sugerencias, o 404 si el usuario no existe
+     */
+    @GetMapping("/{usuario}/suggestions")
+    public ResponseEntity<?> getSugerencias(
+            @PathVariable String usuario,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(Map.of(
+                "usuario", usuario,
+                "sugerencias", userService.getSugerencias(usuario, limit)
+            ));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "error", e.getMessage(),
+                "status", "error"
+            ));
+        }
     }
     
     /**
@@ -203,27 +369,50 @@ public class UserController {
         return ResponseEntity.ok(Map.of("isFollowing", isFollowing));
     }
 
+    /**
+     * Resuelve con consultas indexadas el estado de seguimiento entre un usuario y una
+     * lista de usuarios, para pintar los botones "Seguir/Siguiendo" de un listado.
+     *
+     * @param usuario usuario que consulta
+     * @param usuarios lista de nombres de usuario (máximo 200)
+     * @return ResponseEntity con un mapa de usuario a {following, followedBy}
+     */
+    @PostMapping("/{usuario}/relationships")
+    public ResponseEntity<?> getRelaciones(
+            @PathVariable String usuario,
+            @RequestBody List<String> usuarios) {
+        try {
+            return ResponseEntity.ok(userService.getRelaciones(usuario, usuarios));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", e.getMessage(),
+                "status", "error"
+            ));
+        }
+    }
+
     /**
      * Elimina un usuario del sistema junto con todos sus datos relacionados.
      * 
-     * Este endpoint realiza una eliminación completa y permanente del usuario,
-     * incluyendo todas sus playlists, comentarios y relaciones sociales.
+     * La cuenta se marca como eliminada de inmediato y la purga de sus playlists,
+     * comentarios y relaciones sociales se realiza en segundo plano. El avance
+     * puede consultarse en /api/users/{usuario}/deletion-status.
      * 
      * Por seguridad, requiere la contraseña del usuario para confirmar la operación.
-     * La eliminación es irreversible y se realiza de forma transaccional.
+     * La eliminación es irreversible.
      * 
      * @param usuario nombre del usuario a eliminar
      * @param requestBody objeto JSON que debe contener la contraseña del usuario para verificación
      *                   Formato esperado: {"password": "contraseña_del_usuario"}
-     * @return ResponseEntity con mensaje de confirmación (200) o error (400/404)
-     *         - 200: Usuario eliminado exitosamente
-     *         - 400: Contraseña faltante, incorrecta o error en el proceso
-     *         - 404: Usuario no encontrado
+     * @return ResponseEntity con el estado de la eliminación (202) o error (400)
+     *         - 202: Eliminación aceptada y en proceso
+     *         - 400: Contraseña faltante, incorrecta o usuario no encontrado
      */
     @DeleteMapping("/{usuario}")
     public ResponseEntity<?> deleteUser(
             @PathVariable String usuario,
             @RequestBody Map<String, String> requestBody) {
+        SessionTokenService.usuarioActuante(usuario);
         try {
             String password = requestBody.get("password");
             if (password == null || password.trim().isEmpty()) {
@@ -233,10 +422,11 @@ public class UserController {
                 ));
             }
             
-            userService.deleteUser(usuario, password);
-            return ResponseEntity.ok(Map.of(
-                "message", "Usuario eliminado exitosamente",
-                "status", "success"
+            Map<String, Object> eliminacion = userService.deleteUser(usuario, password);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                "message", "Eliminación del usuario en proceso",
+                "status", "success",
+                "eliminacion", eliminacion
             ));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -245,4 +435,22 @@ public class UserController {
             ));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Consulta el estado de la eliminación de un usuario.
+     *
+     * @param usuario nombre del usuario
+     * @return ResponseEntity con el estado del trabajo de eliminación, o 404 si no existe
+     */
+    @GetMapping("/{usuario}/deletion-status")
+    public ResponseEntity<?> getEstadoEliminacion(@PathVariable String usuario) {
+        try {
+            return ResponseEntity.ok(userService.getEstadoEliminacion(usuario));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "error", e.getMessage(),
+                "status", "error"
+            ));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package edu.progavud.distrimusic.persona;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Trabajo de eliminación de una cuenta de usuario.
+ *
+ * Al solicitar la eliminación, la cuenta se marca como eliminada de inmediato y se
+ * registra un trabajo que un proceso en segundo plano ejecuta por lotes acotados.
+ * Esta entidad guarda el estado y el avance de ese proceso para que el cliente
+ * pueda consultarlo.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Entity
+@Table(name = "user_deletion_jobs", indexes = {
+    @Index(name = "idx_user_deletion_jobs_usuario", columnList = "usuario"),
+    @Index(name = "idx_user_deletion_jobs_estado", columnList = "estado")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDeletionJobEntity {
+
+    /**
+     * Estados posibles de un trabajo de eliminación.
+     */
+    public enum Estado {
+        PENDIENTE,
+        EN_PROCESO,
+        COMPLETADO,
+        FALLIDO
+    }
+
+    /**
+     * Identificador único del trabajo.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * ID del usuario a eliminar.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Nombre de usuario, conservado para consultar el estado tras la eliminación.
+     */
+    @Column(nullable = false)
+    private String usuario;
+
+    /**
+     * Estado actual del trabajo.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Estado estado = Estado.PENDIENTE;
+
+    /**
+     * Cantidad de comentarios eliminados hasta el momento.
+     */
+    @Column(name = "comentarios_eliminados", nullable = false)
+    private long comentariosEliminados;
+
+    /**
+     * Cantidad de playlists eliminadas hasta el momento.
+     */
+    @Column(name = "playlists_eliminadas", nullable = false)
+    private long playlistsEliminadas;
+
+    /**
+     * Mensaje del error que el trabajo está reintentando, o del que lo hizo fallar.
+     */
+    @Column(length = 500)
+    private String error;
+
+    /**
+     * Cantidad de lotes fallidos seguidos; vuelve a cero cuando un lote termina bien.
+     */
+    @Column(nullable = false)
+    private int intentos;
+
+    /**
+     * Fecha y hora a partir de la cual se reintenta el trabajo tras un error.
+     */
+    @Column(name = "siguiente_intento")
+    private LocalDateTime siguienteIntento;
+
+    /**
+     * Fecha y hora de la solicitud de eliminación.
+     */
+    @CreationTimestamp
+    @Column(name = "fecha_solicitud", nullable = false, updatable = false)
+    private LocalDateTime fechaSolicitud;
+
+    /**
+     * Fecha y hora en que terminó la eliminación.
+     */
+    @Column(name = "fecha_finalizacion")
+    private LocalDateTime fechaFinalizacion;
+
+    /**
+     * Constructor personalizado para registrar una nueva solicitud.
+     *
+     * @param userId ID del usuario
+     * @param usuario nombre de usuario
+     */
+    public UserDeletionJobEntity(Long userId, String usuario) {
+        this.userId = userId;
+        this.usuario = usuario;
+    }
+}
@@ -0,0 +1,36 @@
+package edu.progavud.distrimusic.persona;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio para los trabajos de eliminación de usuarios.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Repository
+public interface UserDeletionJobRepository extends JpaRepository<UserDeletionJobEntity, Long> {
+
+    /**
+     * Obtiene el trabajo de eliminación más reciente de un usuario.
+     *
+     * @param usuario nombre de usuario
+     * @return Optional con el último trabajo registrado
+     */
+    Optional<UserDeletionJobEntity> findFirstByUsuarioOrderByIdDesc(String usuario);
+
+    /**
+     * Obtiene los trabajos en los estados indicados, en orden de llegada.
+     *
+     * @param estados estados a buscar
+     * @return lista de trabajos pendientes de procesar
+     */
+    List<UserDeletionJobEntity> findByEstadoInOrderByIdAsc(Collection<UserDeletionJobEntity.Estado> estados);
+}
@@ -0,0 +1,346 @@
+package edu.progavud.distrimusic.persona;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import edu.progavud.distrimusic.career.CareerRollupService;
+import edu.progavud.distrimusic.comment.CommentRepository;
+import edu.progavud.distrimusic.comment.CommentSearchIndex;
+import edu.progavud.distrimusic.playlist.PlaylistChangeRepository;
+import edu.progavud.distrimusic.playlist.PlaylistRepository;
+import edu.progavud.distrimusic.playlist.PlaylistVisibilityCache;
+import edu.progavud.distrimusic.timeline.ActivityRepository;
+import edu.progavud.distrimusic.timeline.TimelineRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio que ejecuta la eliminación de cuentas de usuario en segundo plano.
+ *
+ * La solicitud HTTP solo marca la cuenta como eliminada y registra un trabajo.
+ * Un proceso programado purga luego los datos del usuario por lotes acotados,
+ * cada uno en su propia transacción corta, en este orden:
+ * - Comentarios del usuario en cualquier playlist
+ * - Comentarios de las playlists del usuario
+ * - Playlists del usuario (con sus canciones y registro de cambios)
+ * - Actividades publicadas y sus entradas en los timelines
+ * - Relaciones de seguimiento, en ambos sentidos
+ * - El timeline y el registro del usuario
+ *
+ * Así ninguna transacción mantiene bloqueos por mucho tiempo y el resto del
+ * tráfico no se ve afectado por la eliminación de cuentas grandes.
+ *
+ * Si un lote falla (por ejemplo, por un bloqueo que expiró), el error se registra en
+ * el trabajo y se reintenta con una espera que se duplica en cada fallo seguido. Solo
+ * tras {@code app.users.deletion.max-intentos} fallos seguidos se marca como fallido.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserDeletionService {
+
+    /**
+     * Cantidad máxima de comentarios eliminados por lote.
+     */
+    private static final int LOTE_COMENTARIOS = 500;
+
+    /**
+     * Cantidad máxima de playlists eliminadas por lote.
+     */
+    private static final int LOTE_PLAYLISTS = 20;
+
+    /**
+     * Cantidad máxima de actividades eliminadas por lote. Cada una está a lo sumo en los
+     * timelines de los seguidores de su autor, que no superan el umbral de celebridad.
+     */
+    private static final int LOTE_ACTIVIDADES = 20;
+
+    /**
+     * Cantidad máxima de relaciones de seguimiento eliminadas por lote.
+     */
+    private static final int LOTE_SEGUIMIENTOS = 1000;
+
+    /**
+     * Cantidad máxima de lotes procesados por trabajo en cada ciclo del proceso programado.
+     */
+    private static final int LOTES_POR_CICLO = 10;
+
+    private final UserRepository userRepository;
+    private final UserDeletionJobRepository userDeletionJobRepository;
+    private final FollowRepository followRepository;
+    private final CommentRepository commentRepository;
+    private final PlaylistRepository playlistRepository;
+    private final PlaylistVisibilityCache playlistVisibilityCache;
+    private final CommentSearchIndex commentSearchIndex;
+    private final PlaylistChangeRepository playlistChangeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final FollowGraphService followGraphService;
+    private final TimelineRepository timelineRepository;
+    private final ActivityRepository activityRepository;
+    private final RegistrationPrecheck registrationPrecheck;
+    private final CareerRollupService careerRollupService;
+
+    /**
+     * Cantidad de fallos seguidos tras la cual el trabajo se marca como fallido.
+     */
+    @Value("${app.users.deletion.max-intentos:10}")
+    private int maxIntentos;
+
+    /**
+     * Espera antes del primer reintento; se duplica en cada fallo seguido.
+     */
+    @Value("${app.users.deletion.reintento-ms:5000}")
+    private long reintentoMs;
+
+    /**
+     * Espera máxima entre reintentos.
+     */
+    @Value("${app.users.deletion.reintento-max-ms:3600000}")
+    private long reintentoMaxMs;
+
+    /**
+     * Marca la cuenta como eliminada y registra el trabajo de purga.
+     *
+     * @param user usuario a eliminar (ya autenticado)
+     * @return trabajo de eliminación registrado
+     */
+    @Transactional
+    public UserDeletionJobEntity solicitarEliminacion(UserEntity user) {
+        user.setEliminado(true);
+        userRepository.save(user);
+        UserDeletionJobEntity job = userDeletionJobRepository.save(
+                new UserDeletionJobEntity(user.getId(), user.getUsuario()));
+        followGraphService.excluirUsuario(user.getId());
+        log.info("🗑️ Eliminación de {} programada (trabajo {})", user.getUsuario(), job.getId());
+        return job;
+    }
+
+    /**
+     * Obtiene el estado de la eliminación más reciente de un usuario.
+     *
+     * @param usuario nombre de usuario
+     * @return mapa con el estado y el avance del trabajo
+     * @throws RuntimeException si no existe ninguna solicitud de eliminación para el usuario
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getEstado(String usuario) {
+        UserDeletionJobEntity job = userDeletionJobRepository.findFirstByUsuarioOrderByIdDesc(usuario)
+                .orElseThrow(() -> new RuntimeException("No hay solicitudes de eliminación para este usuario"));
+        return describir(job);
+    }
+
+    /**
+     * Procesa los trabajos de eliminación pendientes.
+     * Cada trabajo avanza como máximo {@value #LOTES_POR_CICLO} lotes por ciclo; los
+     * que esperan un reintento se omiten hasta que llegue su hora.
+     */
+    @Scheduled(fixedDelayString = "${app.users.deletion.delay-ms:500}")
+    public void procesarPendientes() {
+        List<UserDeletionJobEntity> jobs = userDeletionJobRepository.findByEstadoInOrderByIdAsc(
+                EnumSet.of(UserDeletionJobEntity.Estado.PENDIENTE, UserDeletionJobEntity.Estado.EN_PROCESO));
+        LocalDateTime ahora = LocalDateTime.now();
+        for (UserDeletionJobEntity job : jobs) {
+            if (job.getSiguienteIntento() != null && job.getSiguienteIntento().isAfter(ahora)) {
+                continue;
+            }
+            try {
+                for (int i = 0; i < LOTES_POR_CICLO; i++) {
+                    Boolean terminado = transactionTemplate.execute(status -> procesarLote(job.getId()));
+                    if (Boolean.TRUE.equals(terminado)) {
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                transactionTemplate.executeWithoutResult(status ->
+                        userDeletionJobRepository.findById(job.getId()).ifPresent(j -> registrarFallo(j, e)));
+            }
+        }
+    }
+
+    /**
+     * Ejecuta un lote de la purga dentro de la transacción actual.
+     *
+     * @param jobId ID del trabajo
+     * @return true si el trabajo terminó
+     */
+    private boolean procesarLote(Long jobId) {
+        UserDeletionJobEntity job = userDeletionJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getEstado() == UserDeletionJobEntity.Estado.COMPLETADO
+                || job.getEstado() == UserDeletionJobEntity.Estado.FALLIDO) {
+            return true;
+        }
+        job.setEstado(UserDeletionJobEntity.Estado.EN_PROCESO);
+        if (job.getIntentos() > 0) {
+            job.setIntentos(0);
+            job.setSiguienteIntento(null);
+            job.setError(null);
+        }
+        Long userId = job.getUserId();
+
+        // 1. Comentarios del usuario en todas las playlists
+        List<Long> comentarios = commentRepository.findIdsByUsuarioId(userId, PageRequest.of(0, LOTE_COMENTARIOS));
+        if (!comentarios.isEmpty()) {
+            // Las respuestas de otros usuarios se eliminan con el hilo y se recuentan los padres que quedan
+            List<Long> padres = commentRepository.findParentIdsByIdIn(comentarios);
+            List<Object[]> subarboles = subarboles(commentRepository.findRutasByIdIn(comentarios));
+            List<Object[]> aportes = new ArrayList<>();
+            for (Object[] subarbol : subarboles) {
+                aportes.addAll(commentRepository.contarSubarbolPorAutor((Long) subarbol[0], subarbol[1] + "%"));
+            }
+            job.setComentariosEliminados(job.getComentariosEliminados() + commentRepository.deleteByIdIn(comentarios));
+            for (Object[] subarbol : subarboles) {
+                commentRepository.deleteSubarbol((Long) subarbol[0], subarbol[1] + "%");
+            }
+            careerRollupService.registrarComentarios(aportes, -1);
+            commentSearchIndex.eliminarConRespuestas(comentarios);
+            if (!padres.isEmpty()) {
+                commentRepository.recontarRespuestas(padres);
+            }
+            return false;
+        }
+
+        // 2. Playlists del usuario; sus comentarios se eliminan antes, por lotes
+        List<Long> playlists = playlistRepository.findIdsByUsuarioId(userId, PageRequest.of(0, LOTE_PLAYLISTS));
+        if (!playlists.isEmpty()) {
+            List<Long> comentariosDePlaylists = commentRepository.findIdsByPlaylistIdIn(
+                    playlists, PageRequest.of(0, LOTE_COMENTARIOS));
+            if (!comentariosDePlaylists.isEmpty()) {
+                careerRollupService.registrarComentarios(
+                        commentRepository.contarPorAutorByIdIn(comentariosDePlaylists), -1);
+                commentRepository.deleteByIdIn(comentariosDePlaylists);
+                return false;
+            }
+            playlistRepository.deleteCancionesByPlaylistIdIn(playlists);
+            playlistChangeRepository.deleteByPlaylistIdIn(playlists);
+            job.setPlaylistsEliminadas(job.getPlaylistsEliminadas() + playlistRepository.deleteByIdIn(playlists));
+            playlists.forEach(playlistVisibilityCache::invalidar);
+            playlists.forEach(commentSearchIndex::eliminarPlaylist);
+            return false;
+        }
+
+        // 3. Actividades del usuario y sus entradas en los timelines de otros
+        List<Long> actividades = activityRepository.findIdsByActorId(userId, PageRequest.of(0, LOTE_ACTIVIDADES));
+        if (!actividades.isEmpty()) {
+            timelineRepository.deleteByActivityIdIn(actividades);
+            activityRepository.deleteByIdIn(actividades);
+            return false;
+        }
+
+        // 4. Relaciones de seguimiento, descontándolas de los contadores del otro usuario
+        List<Long> seguidos = followRepository.findIdsSeguidos(userId, PageRequest.of(0, LOTE_SEGUIMIENTOS));
+        if (!seguidos.isEmpty()) {
+            userRepository.decrementarSeguidoresDeIdIn(seguidos);
+            followRepository.deleteSeguidos(userId, seguidos);
+            return false;
+        }
+        List<Long> seguidores = followRepository.findIdsSeguidores(userId, PageRequest.of(0, LOTE_SEGUIMIENTOS));
+        if (!seguidores.isEmpty()) {
+            userRepository.decrementarSiguiendoDeIdIn(seguidores);
+            followRepository.deleteSeguidores(userId, seguidores);
+            return false;
+        }
+
+        // 5. Timeline y registro del usuario
+        timelineRepository.deleteByUserId(userId);
+        userRepository.deleteUsuarioById(userId);
+
+        job.setEstado(UserDeletionJobEntity.Estado.COMPLETADO);
+        job.setFechaFinalizacion(LocalDateTime.now());
+        registrationPrecheck.registrarEliminacion();
+        log.info("✅ Usuario {} eliminado: {} comentarios y {} playlists purgados",
+                job.getUsuario(), job.getComentariosEliminados(), job.getPlaylistsEliminadas());
+        return true;
+    }
+
+    /**
+     * Registra el error de un lote y programa el reintento, o marca el trabajo como
+     * fallido si ya se agotaron los intentos.
+     *
+     * @param job trabajo de eliminación
+     * @param e error del lote
+     */
+    private void registrarFallo(UserDeletionJobEntity job, Exception e) {
+        int intentos = job.getIntentos() + 1;
+        job.setIntentos(intentos);
+        job.setError(e.getMessage() != null && e.getMessage().length() > 500
+                ? e.getMessage().substring(0, 500) : e.getMessage());
+        if (intentos >= maxIntentos) {
+            job.setEstado(UserDeletionJobEntity.Estado.FALLIDO);
+            job.setSiguienteIntento(null);
+            job.setFechaFinalizacion(LocalDateTime.now());
+            log.error("❌ Trabajo de eliminación {} fallido tras {} intentos: {}", job.getId(), intentos, e.getMessage());
+            return;
+        }
+        long espera = Math.min(reintentoMaxMs, reintentoMs << Math.min(intentos - 1, 30));
+        job.setSiguienteIntento(LocalDateTime.now().plus(Duration.ofMillis(espera)));
+        log.warn("⚠️ Error en el trabajo de eliminación {} (intento {} de {}), se reintenta en {} ms: {}",
+                job.getId(), intentos, maxIntentos, espera, e.getMessage());
+    }
+
+    /**
+     * Reduce un conjunto de comentarios a los subárboles disjuntos que los contienen,
+     * para contarlos y eliminarlos con un recorrido por rango del índice (hilo_id, ruta)
+     * cada uno. Las rutas llegan ordenadas, así que se omiten las que están dentro del
+     * subárbol anterior.
+     *
+     * @param rutas filas [hiloId, ruta] de los comentarios
+     * @return filas [hiloId, ruta] de las raíces de los subárboles
+     */
+    private static List<Object[]> subarboles(List<Object[]> rutas) {
+        List<Object[]> raices = new ArrayList<>();
+        Long hiloAnterior = null;
+        String rutaAnterior = null;
+        for (Object[] fila : rutas) {
+            Long hiloId = (Long) fila[0];
+            String ruta = (String) fila[1];
+            if (hiloId.equals(hiloAnterior) && ruta.startsWith(rutaAnterior)) {
+                continue;
+            }
+            raices.add(fila);
+            hiloAnterior = hiloId;
+            rutaAnterior = ruta;
+        }
+        return raices;
+    }
+
+    /**
+     * Describe el estado y el avance de un trabajo de eliminación.
+     *
+     * @param job trabajo de eliminación
+     * @return mapa con el estado del trabajo
+     */
+    public Map<String, Object> describir(UserDeletionJobEntity job) {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("usuario", job.getUsuario());
+        estado.put("estado", job.getEstado());
+        estado.put("comentariosEliminados", job.getComentariosEliminados());
+        estado.put("playlistsEliminadas", job.getPlaylistsEliminadas());
+        estado.put("fechaSolicitud", job.getFechaSolicitud());
+        estado.put("fechaFinalizacion", job.getFechaFinalizacion());
+        if (job.getError() != null) {
+            estado.put("error", job.getError());
+        }
+        if (job.getIntentos() > 0) {
+            estado.put("intentos", job.getIntentos());
+            estado.put("siguienteIntento", job.getSiguienteIntento());
+        }
+        return estado;
+    }
+}
@@ -2,6 +2,7 @@ package edu.progavud.distrimusic.persona;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.Getter;
@@ -18,9 +19,10 @@ import java.util.Objects;
 /**
  * Entidad que representa un usuario estudiante en el sistema DistriMusic.
  * 
- * Esta clase maneja los usuarios del sistema, incluyendo sus datos personales,
- * relaciones sociales (seguidores/siguiendo) y playlists. Implementa la gestión
- * de lazy loading con Hibernate y evita referencias circulares en la serialización.
+ * Esta clase maneja los usuarios del sistema, incluyendo sus datos personales
+ * y playlists. Las relaciones sociales (seguidores/siguiendo) se guardan aparte
+ * en la tabla follows (ver {@link FollowEntity}). Implementa la gestión de lazy
+ * loading con Hibernate y evita referencias circulares en la serialización.
  *
  * @author Batapop
  * @author Cabrito
@@ -29,7 +31,9 @@ import java.util.Objects;
  * @since 2025-07-10
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_seguidores_count", columnList = "seguidores_count")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -58,8 +62,9 @@ public class UserEntity {
     private String usuario;
 
     /**
-     * Contraseña del usuario.
+     * Hash de la contraseña del usuario (ver {@link PasswordHasher}).
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = false)
     @NotBlank(message = "La contraseña es obligatoria")
     private String password;
@@ -100,57 +105,48 @@ public class UserEntity {
     private LocalDateTime fechaRegistro;
 
     /**
-     * Playlists creadas por el usuario.
-     * Se usa @JsonIgnore para evitar referencias circulares.
+     * Indica si la cuenta fue marcada para eliminación.
+     * Las cuentas marcadas dejan de ser visibles mientras se purgan sus datos en segundo plano.
      */
     @JsonIgnore
-    @OneToMany(mappedBy = "usuario", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private Set<PlaylistEntity> playlists = new HashSet<>();
+    @Column(name = "eliminado", nullable = false)
+    private Boolean eliminado = false;
 
     /**
-     * Usuarios que siguen a este usuario.
-     * Se usa @JsonIgnore para evitar referencias circulares.
+     * Cantidad de seguidores del usuario.
+     * Contador desnormalizado que solo se modifica con incrementos atómicos en SQL.
      */
-    @JsonIgnore
-    @ManyToMany(fetch = FetchType.LAZY)
-    @JoinTable(
-        name = "user_followers",
-        joinColumns = @JoinColumn(name = "user_id"),
-        inverseJoinColumns = @JoinColumn(name = "follower_id")
-    )
-    private Set<UserEntity> seguidores = new HashSet<>();
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "seguidores_count", nullable = false, updatable = false)
+    private Long seguidoresCount = 0L;
 
     /**
-     * Usuarios que este usuario sigue.
+     * Cantidad de usuarios que sigue el usuario.
+     * Contador desnormalizado que solo se modifica con incrementos atómicos en SQL.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "siguiendo_count", nullable = false, updatable = false)
+    private Long siguiendoCount = 0L;
+
+    /**
+     * Playlists creadas por el usuario.
      * Se usa @JsonIgnore para evitar referencias circulares.
      */
     @JsonIgnore
-    @ManyToMany(fetch = FetchType.LAZY)
-    @JoinTable(
-        name = "user_following",
-        joinColumns = @JoinColumn(name = "user_id"),
-        inverseJoinColumns = @JoinColumn(name = "following_id")
-    )
-    private Set<UserEntity> siguiendo = new HashSet<>();
+    @OneToMany(mappedBy = "usuario", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    private Set<PlaylistEntity> playlists = new HashSet<>();
 
     /**
      * Valida las credenciales del usuario.
      *
+     * La comparación se hace en el hilo actual; en las solicitudes HTTP se usa
+     * {@link PasswordHasher}, que ejecuta la verificación en su propio pool.
+     *
      * @param contraseñaIngresada contraseña a validar
      * @return true si la contraseña coincide
      */
     public boolean validarCredenciales(String contraseñaIngresada) {
-        return this.password.equals(contraseñaIngresada);
-    }
-
-    /**
-     * Verifica si este usuario sigue a otro usuario.
-     *
-     * @param usuario usuario a verificar
-     * @return true si este usuario sigue al usuario especificado
-     */
-    public boolean estaSiguiendo(UserEntity usuario) {
-        return this.siguiendo.contains(usuario);
+        return PasswordHasher.coincide(this.password, contraseñaIngresada);
     }
 
     /**
@@ -159,6 +155,7 @@ public class UserEntity {
      *
      * @return la contraseña del usuario
      */
+    @JsonIgnore
     public String getContraseña() {
         return this.password;
     }
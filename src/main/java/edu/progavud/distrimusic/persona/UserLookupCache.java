@@ -0,0 +1,201 @@
+package edu.progavud.distrimusic.persona;
+
+import edu.progavud.distrimusic.cache.CacheAcotada;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Caché de búsqueda de usuarios activos por nombre de usuario.
+ *
+ * Tiene dos niveles:
+ * - Una memoria por petición HTTP, guardada como atributo de la petición, para que
+ *   resolver el mismo usuario varias veces en una petición cueste una sola búsqueda.
+ * - Una caché compartida entre peticiones ({@link CacheAcotada}), sin bloqueos en las
+ *   lecturas, acotada en tamaño (se descarta aproximadamente la entrada usada hace más
+ *   tiempo) y con expiración, que guarda una instantánea inmutable del usuario.
+ *
+ * Si la petición trae un token de sesión del mismo usuario, su ID se toma del token
+ * sin consultar nada.
+ *
+ * Cada consulta devuelve una copia nueva y desconectada de la entidad, que puede
+ * modificarse sin afectar a la caché. Las modificaciones de un usuario deben invalidar
+ * su entrada; una búsqueda que se cruza con una invalidación no guarda su resultado.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Component
+@RequiredArgsConstructor
+public class UserLookupCache {
+
+    /**
+     * Nombre del atributo de petición que guarda la memoria por petición.
+     */
+    private static final String ATRIBUTO_PETICION = UserLookupCache.class.getName() + ".memo";
+
+    private final UserRepository userRepository;
+
+    /**
+     * Cantidad máxima de usuarios en la caché compartida.
+     */
+    @Value("${app.users.cache.capacidad:10000}")
+    private int capacidad;
+
+    /**
+     * Tiempo de vida de una entrada de la caché compartida.
+     */
+    @Value("${app.users.cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    /**
+     * Caché compartida entre peticiones.
+     */
+    private CacheAcotada<String, Snapshot> cache;
+
+    /**
+     * Instantánea inmutable de los datos de un usuario.
+     */
+    public record Snapshot(Long id, String usuario, String password, String email, String nombre,
+                           String carrera, String codigoEstudiantil, String profileImageUrl,
+                           LocalDateTime fechaRegistro, Long seguidoresCount, Long siguiendoCount) {
+
+        static Snapshot de(UserEntity user) {
+            return new Snapshot(user.getId(), user.getUsuario(), user.getPassword(), user.getEmail(),
+                    user.getNombre(), user.getCarrera(), user.getCodigoEstudiantil(), user.getProfileImageUrl(),
+                    user.getFechaRegistro(), user.getSeguidoresCount(), user.getSiguiendoCount());
+        }
+
+        /**
+         * Crea una copia desconectada de la entidad. Sirve para lecturas y como
+         * referencia en asociaciones, pero no debe guardarse con save().
+         *
+         * @return nueva entidad con los datos de la instantánea
+         */
+        public UserEntity toEntity() {
+            UserEntity user = new UserEntity();
+            user.setId(id);
+            user.setUsuario(usuario);
+            user.setPassword(password);
+            user.setEmail(email);
+            user.setNombre(nombre);
+            user.setCarrera(carrera);
+            user.setCodigoEstudiantil(codigoEstudiantil);
+            user.setProfileImageUrl(profileImageUrl);
+            user.setFechaRegistro(fechaRegistro);
+            user.setSeguidoresCount(seguidoresCount);
+            user.setSiguiendoCount(siguiendoCount);
+            return user;
+        }
+    }
+
+    /**
+     * Crea la caché compartida con la capacidad y el tiempo de vida configurados.
+     */
+    @PostConstruct
+    public void iniciar() {
+        cache = new CacheAcotada<>(capacidad, ttlMs);
+    }
+
+    /**
+     * Busca un usuario activo por su nombre de usuario.
+     *
+     * @param usuario nombre de usuario
+     * @return Optional con la instantánea del usuario
+     */
+    public Optional<Snapshot> buscar(String usuario) {
+        if (usuario == null) {
+            return Optional.empty();
+        }
+        Map<String, Snapshot> memo = memoDePeticion();
+        if (memo != null) {
+            Snapshot snapshot = memo.get(usuario);
+            if (snapshot != null) {
+                return Optional.of(snapshot);
+            }
+        }
+
+        Snapshot snapshot = cache.obtener(usuario);
+        if (snapshot == null) {
+            long generacion = cache.generacion();
+            snapshot = userRepository.findByUsuarioAndEliminadoFalse(usuario).map(Snapshot::de).orElse(null);
+            if (snapshot == null) {
+                return Optional.empty();
+            }
+            cache.poner(usuario, snapshot, generacion);
+        }
+        if (memo != null) {
+            memo.put(usuario, snapshot);
+        }
+        return Optional.of(snapshot);
+    }
+
+    /**
+     * Busca un usuario activo y devuelve una copia desconectada de la entidad.
+     *
+     * @param usuario nombre de usuario
+     * @return Optional con la entidad
+     */
+    public Optional<UserEntity> buscarEntidad(String usuario) {
+        return buscar(usuario).map(Snapshot::toEntity);
+    }
+
+    /**
+     * Resuelve el ID de un usuario activo.
+     *
+     * @param usuario nombre de usuario
+     * @return Optional con el ID del usuario
+     */
+    public Optional<Long> resolverId(String usuario) {
+        Optional<SessionTokenService.Sesion> sesion = SessionTokenService.actual();
+        if (sesion.isPresent() && sesion.get().usuario().equals(usuario)) {
+            return Optional.of(sesion.get().userId());
+        }
+        return buscar(usuario).map(Snapshot::id);
+    }
+
+    /**
+     * Descarta la entrada de un usuario en la caché compartida y en la memoria de la
+     * petición, y de nuevo en la caché compartida al confirmarse la transacción actual.
+     *
+     * @param usuario nombre de usuario
+     */
+    public void invalidar(String usuario) {
+        cache.invalidar(usuario);
+        Map<String, Snapshot> memo = memoDePeticion();
+        if (memo != null) {
+            memo.remove(usuario);
+        }
+    }
+
+    /**
+     * Obtiene la memoria de la petición HTTP actual, creándola si no existe.
+     *
+     * @return memoria de la petición, o null si no hay una petición en curso
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Snapshot> memoDePeticion() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return null;
+        }
+        Map<String, Snapshot> memo = (Map<String, Snapshot>) atributos.getAttribute(
+                ATRIBUTO_PETICION, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new HashMap<>();
+            atributos.setAttribute(ATRIBUTO_PETICION, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return memo;
+    }
+}
@@ -0,0 +1,216 @@
+package edu.progavud.distrimusic.persona;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.progavud.distrimusic.comment.CommentRepository;
+import edu.progavud.distrimusic.playlist.PlaylistRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio que arma el perfil completo de un usuario en una sola respuesta.
+ *
+ * El perfil reúne los datos públicos del usuario, sus contadores y la primera página
+ * de sus playlists y de sus comentarios recientes. Se resuelve siempre con el mismo
+ * número de consultas, todas sobre proyecciones (sin cargar colecciones):
+ * - El usuario, desde {@link UserLookupCache}
+ * - Los contadores de playlists y comentarios, en una sola consulta
+ * - La primera página de playlists con su cantidad de canciones
+ * - La primera página de comentarios con el nombre de la playlist
+ *
+ * Las tres últimas son independientes y se ejecutan en paralelo en un pool acotado;
+ * si el pool está saturado, la consulta se ejecuta en el hilo de la solicitud.
+ * El propio usuario (identificado por su token de sesión) ve también sus playlists
+ * privadas y los comentarios hechos en ellas.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Service
+public class UserProfileService {
+
+    /**
+     * Tamaño máximo de la primera página de playlists y de comentarios.
+     */
+    private static final int MAX_PAGINA = 50;
+
+    private final UserLookupCache userLookupCache;
+    private final FollowCounterService followCounterService;
+    private final UserRepository userRepository;
+    private final PlaylistRepository playlistRepository;
+    private final CommentRepository commentRepository;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Crea el servicio con su pool de consultas.
+     *
+     * @param hilos cantidad de hilos para las consultas en paralelo
+     * @param cola cantidad máxima de consultas en espera antes de ejecutarlas en el hilo llamador
+     */
+    public UserProfileService(UserLookupCache userLookupCache, FollowCounterService followCounterService,
+                              UserRepository userRepository, PlaylistRepository playlistRepository,
+                              CommentRepository commentRepository, ObjectMapper objectMapper,
+                              @Value("${app.users.perfil.hilos:8}") int hilos,
+                              @Value("${app.users.perfil.cola:256}") int cola) {
+        this.userLookupCache = userLookupCache;
+        this.followCounterService = followCounterService;
+        this.userRepository = userRepository;
+        this.playlistRepository = playlistRepository;
+        this.commentRepository = commentRepository;
+        this.objectMapper = objectMapper;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), r -> {
+                    Thread hilo = new Thread(r, "user-profile-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Arma el perfil completo de un usuario.
+     *
+     * @param usuario nombre del usuario
+     * @param limit tamaño de la primera página de playlists y comentarios (máximo {@value #MAX_PAGINA})
+     * @return mapa con el usuario, sus contadores, playlists y comentarios recientes
+     * @throws RuntimeException si el usuario no existe
+     */
+    public Map<String, Object> getPerfil(String usuario, int limit) {
+        UserEntity user = followCounterService.completarContadores(userLookupCache.buscarEntidad(usuario)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado")));
+        Long userId = user.getId();
+        int tamano = Math.max(1, Math.min(limit, MAX_PAGINA));
+        boolean propio = SessionTokenService.actual()
+                .map(sesion -> sesion.usuario().equals(usuario))
+                .orElse(false);
+
+        CompletableFuture<List<Object[]>> contadores = CompletableFuture.supplyAsync(
+                () -> userRepository.findContadoresContenido(userId), executor);
+        CompletableFuture<List<Object[]>> playlists = CompletableFuture.supplyAsync(
+                () -> playlistRepository.findResumenByUsuarioId(userId, propio, PageRequest.of(0, tamano + 1)), executor);
+        CompletableFuture<List<Object[]>> comentarios = CompletableFuture.supplyAsync(
+                () -> commentRepository.findRecientesByUsuarioId(userId, propio, PageRequest.of(0, tamano + 1)), executor);
+
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("usuario", user.getUsuario());
+        datos.put("nombre", user.getNombre());
+        datos.put("carrera", user.getCarrera());
+        datos.put("profileImageUrl", user.getProfileImageUrl());
+        datos.put("fechaRegistro", user.getFechaRegistro());
+
+        Object[] cuenta = esperar(contadores).get(0);
+        Map<String, Object> totales = new LinkedHashMap<>();
+        totales.put("seguidores", user.getSeguidoresCount());
+        totales.put("siguiendo", user.getSiguiendoCount());
+        totales.put("playlists", ((Number) cuenta[propio ? 0 : 1]).longValue());
+        totales.put("comentarios", ((Number) cuenta[propio ? 2 : 3]).longValue());
+
+        List<Object[]> filasPlaylists = esperar(playlists);
+        List<Map<String, Object>> resumenPlaylists = new ArrayList<>();
+        for (Object[] fila : filasPlaylists.subList(0, Math.min(tamano, filasPlaylists.size()))) {
+            Map<String, Object> playlist = new LinkedHashMap<>();
+            playlist.put("id", fila[0]);
+            playlist.put("nombre", fila[1]);
+            playlist.put("esPublica", fila[2]);
+            playlist.put("imageUrl", fila[3]);
+            playlist.put("fechaCreacion", fila[4]);
+            playlist.put("cantidadCanciones", fila[5]);
+            resumenPlaylists.add(playlist);
+        }
+
+        List<Object[]> filasComentarios = esperar(comentarios);
+        List<Map<String, Object>> recientes = new ArrayList<>();
+        for (Object[] fila : filasComentarios.subList(0, Math.min(tamano, filasComentarios.size()))) {
+            Map<String, Object> comentario = new LinkedHashMap<>();
+            comentario.put("id", fila[0]);
+            comentario.put("contenido", fila[1]);
+            comentario.put("fechaComentario", fila[2]);
+            comentario.put("playlistId", fila[3]);
+            comentario.put("playlistNombre", fila[4]);
+            recientes.add(comentario);
+        }
+
+        Map<String, Object> perfil = new LinkedHashMap<>();
+        perfil.put("usuario", datos);
+        perfil.put("contadores", totales);
+        perfil.put("playlists", resumenPlaylists);
+        perfil.put("hayMasPlaylists", filasPlaylists.size() > tamano);
+        perfil.put("comentarios", recientes);
+        perfil.put("hayMasComentarios", filasComentarios.size() > tamano);
+        return perfil;
+    }
+
+    /**
+     * Calcula la ETag de un perfil a partir de su contenido serializado.
+     *
+     * @param perfil perfil armado por {@link #getPerfil(String, int)}
+     * @return ETag entre comillas
+     */
+    public String calcularEtag(Map<String, Object> perfil) {
+        try {
+            return "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(perfil)) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el perfil", e);
+        }
+    }
+
+    /**
+     * Indica si la ETag enviada por el cliente coincide con la actual.
+     *
+     * @param ifNoneMatch valor de la cabecera If-None-Match (puede ser null)
+     * @param etag ETag actual
+     * @return true si el cliente ya tiene esta versión
+     */
+    public boolean coincideEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidata : ifNoneMatch.split(",")) {
+            String valor = candidata.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals(etag) || valor.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Detiene el pool de consultas al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdown();
+    }
+
+    private static <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+}
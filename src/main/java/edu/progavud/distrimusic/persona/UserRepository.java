@@ -1,9 +1,11 @@
 package edu.progavud.distrimusic.persona;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,8 +13,8 @@ import java.util.Optional;
  * Repositorio para gestionar la persistencia de usuarios.
  * 
  * Esta interfaz proporciona métodos para realizar operaciones CRUD sobre la entidad UserEntity,
- * así como consultas personalizadas para búsqueda, autenticación y gestión de relaciones
- * sociales entre usuarios.
+ * así como consultas personalizadas para búsqueda y autenticación. Las relaciones
+ * sociales entre usuarios se gestionan en {@link FollowRepository}.
  *
  * @author Batapop
  * @author Cabrito
@@ -32,6 +34,21 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
      */
     Optional<UserEntity> findByUsuario(String usuario);
     
+    /**
+     * Busca un usuario activo (no marcado como eliminado) por su nombre de usuario.
+     *
+     * @param usuario nombre de usuario a buscar
+     * @return Optional con el usuario si existe y no está en proceso de eliminación
+     */
+    Optional<UserEntity> findByUsuarioAndEliminadoFalse(String usuario);
+    
+    /**
+     * Obtiene todos los usuarios activos.
+     *
+     * @return lista de usuarios no marcados como eliminados
+     */
+    List<UserEntity> findByEliminadoFalse();
+    
     /**
      * Verifica si existe un usuario con el nombre de usuario especificado.
      *
@@ -50,51 +67,125 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     boolean existsByEmail(String email);
     
     /**
-     * Busca usuarios cuyo nombre contenga el texto especificado.
-     * La búsqueda es case-insensitive.
+     * Cuenta en una sola consulta las playlists y los comentarios de un usuario.
+     * La fila contiene [playlists, playlists públicas, comentarios, comentarios en
+     * playlists públicas].
      *
-     * @param nombre texto a buscar en los nombres
-     * @return lista de usuarios que coinciden con la búsqueda
+     * @param userId ID del usuario
+     * @return lista con una única fila de contadores
      */
-    @Query("SELECT u FROM UserEntity u WHERE LOWER(u.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))")
-    List<UserEntity> findByNombreContainingIgnoreCase(String nombre);
+    @Query(value = "SELECT (SELECT COUNT(*) FROM playlists WHERE usuario_id = :userId), " +
+                   "(SELECT COUNT(*) FROM playlists WHERE usuario_id = :userId AND es_publica = true), " +
+                   "(SELECT COUNT(*) FROM comments WHERE usuario_id = :userId), " +
+                   "(SELECT COUNT(*) FROM comments c JOIN playlists p ON p.id = c.playlist_id " +
+                   "WHERE c.usuario_id = :userId AND p.es_publica = true)", nativeQuery = true)
+    List<Object[]> findContadoresContenido(@Param("userId") Long userId);
+
+    /**
+     * Reemplaza el hash de la contraseña de un usuario solo si no cambió desde que se leyó,
+     * para no pisar un cambio de contraseña concurrente.
+     *
+     * @param userId ID del usuario
+     * @param anterior valor leído de la contraseña
+     * @param nuevo nuevo valor de la contraseña
+     * @return número de filas actualizadas
+     */
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.password = :nuevo WHERE u.id = :userId AND u.password = :anterior")
+    int actualizarPassword(@Param("userId") Long userId, @Param("anterior") String anterior,
+                           @Param("nuevo") String nuevo);
     
     /**
-     * Autentica un usuario por sus credenciales.
+     * Elimina un usuario con una sentencia DELETE directa.
      *
-     * @param usuario nombre de usuario
-     * @param password contraseña
-     * @return Optional con el usuario si las credenciales son correctas
+     * @param userId ID del usuario
+     * @return número de usuarios eliminados
+     */
+    @Modifying
+    @Query("DELETE FROM UserEntity u WHERE u.id = :userId")
+    int deleteUsuarioById(@Param("userId") Long userId);
+    
+    /**
+     * Suma un delta al contador de seguidores de un usuario.
+     *
+     * @param usuario nombre del usuario
+     * @param delta cantidad a sumar (negativa para restar)
+     * @return número de filas actualizadas
      */
-    @Query("SELECT u FROM UserEntity u WHERE u.usuario = :usuario AND u.password = :password")
-    Optional<UserEntity> findByUsuarioAndPassword(String usuario, String password);
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.seguidoresCount = u.seguidoresCount + :delta WHERE u.usuario = :usuario")
+    int incrementarSeguidores(@Param("usuario") String usuario, @Param("delta") long delta);
     
     /**
-     * Obtiene la lista de usuarios que siguen a un usuario específico.
+     * Suma un delta al contador de seguidos de un usuario.
      *
-     * @param usuario nombre del usuario del cual obtener seguidores
-     * @return lista de usuarios seguidores
+     * @param usuario nombre del usuario
+     * @param delta cantidad a sumar (negativa para restar)
+     * @return número de filas actualizadas
      */
-    @Query("SELECT u.seguidores FROM UserEntity u WHERE u.usuario = :usuario")
-    List<UserEntity> findSeguidoresByUsuario(String usuario);
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.siguiendoCount = u.siguiendoCount + :delta WHERE u.usuario = :usuario")
+    int incrementarSiguiendo(@Param("usuario") String usuario, @Param("delta") long delta);
     
     /**
-     * Obtiene la lista de usuarios que un usuario específico sigue.
+     * Resta uno al contador de seguidos de un conjunto de usuarios.
+     * Se usa al eliminar por lotes las relaciones de un usuario que se está borrando.
      *
-     * @param usuario nombre del usuario del cual obtener seguidos
-     * @return lista de usuarios seguidos
+     * @param ids IDs de los seguidores del usuario que se elimina
+     * @return número de filas actualizadas
      */
-    @Query("SELECT u.siguiendo FROM UserEntity u WHERE u.usuario = :usuario")
-    List<UserEntity> findSiguiendoByUsuario(String usuario);
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.siguiendoCount = u.siguiendoCount - 1 WHERE u.id IN :ids")
+    int decrementarSiguiendoDeIdIn(@Param("ids") Collection<Long> ids);
     
     /**
-     * Verifica si un usuario sigue a otro.
+     * Resta uno al contador de seguidores de un conjunto de usuarios.
+     * Se usa al eliminar por lotes las relaciones de un usuario que se está borrando.
+     *
+     * @param ids IDs de los usuarios que sigue el usuario que se elimina
+     * @return número de filas actualizadas
+     */
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.seguidoresCount = u.seguidoresCount - 1 WHERE u.id IN :ids")
+    int decrementarSeguidoresDeIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Obtiene los usuarios activos con al menos la cantidad indicada de seguidores.
+     * Cada fila contiene [usuario, id].
+     *
+     * @param umbral cantidad mínima de seguidores
+     * @return filas de los usuarios que superan el umbral
+     */
+    @Query("SELECT u.usuario, u.id FROM UserEntity u WHERE u.seguidoresCount >= :umbral AND u.eliminado = false")
+    List<Object[]> findUsuariosConSeguidoresMinimos(@Param("umbral") long umbral);
+    
+    /**
+     * Obtiene el ID de un usuario activo sin cargar la entidad.
+     *
+     * @param usuario nombre de usuario
+     * @return Optional con el ID del usuario
+     */
+    @Query("SELECT u.id FROM UserEntity u WHERE u.usuario = :usuario AND u.eliminado = false")
+    Optional<Long> findIdByUsuario(@Param("usuario") String usuario);
+    
+    /**
+     * Obtiene los datos públicos de varios usuarios activos en una sola consulta.
+     * Cada fila contiene [id, usuario, nombre, profileImageUrl, carrera].
+     *
+     * @param ids IDs de los usuarios
+     * @return filas de los usuarios encontrados
+     */
+    @Query("SELECT u.id, u.usuario, u.nombre, u.profileImageUrl, u.carrera FROM UserEntity u " +
+           "WHERE u.id IN :ids AND u.eliminado = false")
+    List<Object[]> findResumenByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Resuelve los IDs de varios usuarios activos por nombre de usuario.
+     * Cada fila contiene [usuario, id].
      *
-     * @param follower nombre del usuario seguidor
-     * @param following nombre del usuario seguido
-     * @return true si follower sigue a following
+     * @param usuarios nombres de usuario
+     * @return filas de los usuarios encontrados
      */
-    @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END " +
-           "FROM UserEntity u JOIN u.siguiendo s WHERE u.usuario = :follower AND s.usuario = :following")
-    boolean isFollowing(String follower, String following);
-}
\ No newline at end of file
+    @Query("SELECT u.usuario, u.id FROM UserEntity u WHERE u.usuario IN :usuarios AND u.eliminado = false")
+    List<Object[]> findIdsByUsuarioIn(@Param("usuarios") Collection<String> usuarios);
+}
@@ -0,0 +1,485 @@
+package edu.progavud.distrimusic.persona;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import edu.progavud.distrimusic.search.TextoBusqueda;
+import edu.progavud.distrimusic.search.TopClaves;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice en memoria para la búsqueda de usuarios por usuario, nombre y carrera.
+ *
+ * Cada campo se normaliza (minúsculas, sin tildes) y se separa en palabras. Cada
+ * usuario ocupa una posición entera en el índice, y cada palabra guarda un int[] con
+ * las posiciones de los usuarios que la contienen junto con los campos donde aparece.
+ * Las palabras se guardan ordenadas, así que los usuarios con una palabra que empieza
+ * por un prefijo son un rango contiguo del índice. Una búsqueda con varias palabras
+ * devuelve los usuarios que tienen, para cada una, alguna palabra con ese prefijo.
+ *
+ * La relevancia se calcula mientras se recorren las listas, en arreglos de enteros
+ * tomados de un pool acotado, sin crear objetos por candidato: coincidir con el nombre de
+ * usuario pesa más que con el nombre, y este más que con la carrera; las coincidencias
+ * exactas más que las de prefijo. Solo se ordenan los resultados necesarios para la
+ * página pedida.
+ *
+ * Las escrituras reemplazan la lista de cada palabra afectada por una copia, así las
+ * búsquedas nunca se bloquean. El índice se carga al iniciar la aplicación, se
+ * actualiza con cada registro, modificación de perfil y eliminación, y se reconstruye
+ * periódicamente para recoger cambios hechos desde otros nodos.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserSearchIndex {
+
+    /**
+     * Campos en los que aparece una palabra, guardados en los 4 bits bajos de cada entrada.
+     */
+    private static final int CARRERA = 1;
+    private static final int NOMBRE = 2;
+    private static final int USUARIO = 4;
+    private static final int USUARIO_COMPLETO = 8;
+    private static final int BITS_CAMPOS = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Índice vigente.
+     */
+    private volatile Indice indice = Indice.vacio();
+
+    /**
+     * Índice en construcción que también debe recibir los cambios concurrentes.
+     */
+    private volatile Indice pendiente;
+
+    /**
+     * Arreglos de trabajo para calcular la relevancia, compartidos entre búsquedas.
+     */
+    private final PoolEspacios<Espacio> espacios = new PoolEspacios<>(Espacio::new);
+
+    /**
+     * Datos de un usuario indexado.
+     *
+     * @param id ID del usuario
+     * @param usuario nombre de usuario
+     * @param nombre nombre completo
+     * @param carrera carrera
+     * @param profileImageUrl imagen de perfil
+     * @param palabras palabras del usuario con los campos donde aparece cada una
+     */
+    private record Documento(long id, String usuario, String nombre, String carrera, String profileImageUrl,
+                             Map<String, Integer> palabras) {
+
+        static Documento de(long id, String usuario, String nombre, String carrera, String profileImageUrl) {
+            Map<String, Integer> palabras = new HashMap<>();
+            String usuarioNormalizado = TextoBusqueda.normalizar(usuario);
+            agregar(palabras, TextoBusqueda.separar(usuarioNormalizado), USUARIO);
+            if (!usuarioNormalizado.isEmpty()) {
+                palabras.merge(usuarioNormalizado, USUARIO | USUARIO_COMPLETO, (a, b) -> a | b);
+            }
+            agregar(palabras, TextoBusqueda.separar(TextoBusqueda.normalizar(nombre)), NOMBRE);
+            agregar(palabras, TextoBusqueda.separar(TextoBusqueda.normalizar(carrera)), CARRERA);
+            return new Documento(id, usuario, nombre, carrera, profileImageUrl, palabras);
+        }
+
+        private static void agregar(Map<String, Integer> destino, List<String> palabras, int campo) {
+            for (String palabra : palabras) {
+                destino.merge(palabra, campo, (a, b) -> a | b);
+            }
+        }
+    }
+
+    /**
+     * Estructura del índice. Las escrituras se serializan; las lecturas no se bloquean.
+     */
+    private static final class Indice {
+
+        private volatile Documento[] documentos = new Documento[1024];
+        private int siguiente;
+        private final Map<Long, Integer> posiciones = new HashMap<>();
+        private final ConcurrentSkipListMap<String, int[]> palabras = new ConcurrentSkipListMap<>();
+
+        /**
+         * IDs modificados mientras el índice se construye; la carga no los sobrescribe.
+         */
+        private final Set<Long> tocados = ConcurrentHashMap.newKeySet();
+
+        /**
+         * true mientras se carga: solo se registran los documentos y las listas de
+         * palabras se arman de una vez al terminar.
+         */
+        private boolean enCarga = true;
+
+        synchronized void poner(Documento documento) {
+            Integer existente = posiciones.get(documento.id());
+            int posicion;
+            if (existente != null) {
+                posicion = existente;
+                if (!enCarga) {
+                    quitarPalabras(posicion, documentos[posicion]);
+                }
+            } else {
+                posicion = siguiente++;
+                if (posicion == documentos.length) {
+                    documentos = Arrays.copyOf(documentos, documentos.length * 2);
+                }
+                posiciones.put(documento.id(), posicion);
+            }
+            documentos[posicion] = documento;
+            if (enCarga) {
+                return;
+            }
+            for (Map.Entry<String, Integer> palabra : documento.palabras().entrySet()) {
+                int entrada = (posicion << BITS_CAMPOS) | palabra.getValue();
+                palabras.merge(palabra.getKey(), new int[]{entrada}, (actual, nueva) -> {
+                    int[] copia = Arrays.copyOf(actual, actual.length + 1);
+                    copia[actual.length] = entrada;
+                    return copia;
+                });
+            }
+        }
+
+        synchronized void quitar(long id) {
+            Integer posicion = posiciones.remove(id);
+            if (posicion != null) {
+                if (!enCarga) {
+                    quitarPalabras(posicion, documentos[posicion]);
+                }
+                documentos[posicion] = null;
+            }
+        }
+
+        /**
+         * Arma las listas de todas las palabras en un solo recorrido y termina la carga.
+         */
+        synchronized void terminarCarga() {
+            Map<String, int[]> listas = new HashMap<>();
+            Map<String, Integer> largos = new HashMap<>();
+            for (int posicion = 0; posicion < siguiente; posicion++) {
+                Documento documento = documentos[posicion];
+                if (documento == null) {
+                    continue;
+                }
+                for (Map.Entry<String, Integer> palabra : documento.palabras().entrySet()) {
+                    int largo = largos.merge(palabra.getKey(), 1, Integer::sum);
+                    int[] lista = listas.computeIfAbsent(palabra.getKey(), k -> new int[4]);
+                    if (largo > lista.length) {
+                        lista = Arrays.copyOf(lista, lista.length * 2);
+                        listas.put(palabra.getKey(), lista);
+                    }
+                    lista[largo - 1] = (posicion << BITS_CAMPOS) | palabra.getValue();
+                }
+            }
+            for (Map.Entry<String, int[]> lista : listas.entrySet()) {
+                palabras.put(lista.getKey(), Arrays.copyOf(lista.getValue(), largos.get(lista.getKey())));
+            }
+            enCarga = false;
+        }
+
+        synchronized void cargar(Documento documento) {
+            if (!tocados.contains(documento.id())) {
+                poner(documento);
+            }
+        }
+
+        private void quitarPalabras(int posicion, Documento anterior) {
+            for (String palabra : anterior.palabras().keySet()) {
+                int[] actual = palabras.get(palabra);
+                if (actual == null) {
+                    continue;
+                }
+                int[] copia = new int[actual.length];
+                int n = 0;
+                for (int entrada : actual) {
+                    if (entrada >>> BITS_CAMPOS != posicion) {
+                        copia[n++] = entrada;
+                    }
+                }
+                if (n == 0) {
+                    palabras.remove(palabra);
+                } else {
+                    palabras.put(palabra, Arrays.copyOf(copia, n));
+                }
+            }
+        }
+
+        static Indice vacio() {
+            Indice vacio = new Indice();
+            vacio.terminarCarga();
+            return vacio;
+        }
+
+        int tamano() {
+            return posiciones.size();
+        }
+    }
+
+    /**
+     * Arreglos de trabajo reutilizados entre búsquedas. Una posición solo es válida si
+     * su época coincide con la de la búsqueda en curso. Si el índice se achica mucho,
+     * los arreglos se reemplazan por unos del tamaño actual.
+     */
+    private static final class Espacio {
+
+        int epoca;
+        int[] epocas = new int[0];
+        int[] terminos = new int[0];
+        int[] mejor = new int[0];
+        int[] puntaje = new int[0];
+        int[] tocados = new int[0];
+
+        void asegurar(int capacidad) {
+            if (epocas.length < capacidad || epocas.length > 4 * capacidad + 1024) {
+                int nueva = epocas.length < capacidad ? Math.max(capacidad, epocas.length * 2) : capacidad;
+                epocas = new int[nueva];
+                terminos = new int[nueva];
+                mejor = new int[nueva];
+                puntaje = new int[nueva];
+                tocados = new int[nueva];
+                epoca = 0;
+            }
+            if (++epoca == Integer.MAX_VALUE) {
+                Arrays.fill(epocas, 0);
+                epoca = 1;
+            }
+        }
+    }
+
+    /**
+     * Carga el índice al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        reconstruir();
+    }
+
+    /**
+     * Reconstruye periódicamente el índice desde la base de datos.
+     */
+    @Scheduled(initialDelayString = "${app.users.search.reconstruccion-ms:600000}",
+               fixedDelayString = "${app.users.search.reconstruccion-ms:600000}")
+    public void reconstruirProgramado() {
+        reconstruir();
+    }
+
+    /**
+     * Reconstruye el índice leyendo todos los usuarios activos.
+     * Mientras se reconstruye, el índice anterior sigue en uso.
+     */
+    public synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        Indice nuevo = new Indice();
+        pendiente = nuevo;
+        jdbcTemplate.query("SELECT id, usuario, nombre, carrera, profile_image_url FROM users " +
+                           "WHERE eliminado = false ORDER BY id", rs -> {
+            nuevo.cargar(Documento.de(rs.getLong(1), rs.getString(2), rs.getString(3),
+                    rs.getString(4), rs.getString(5)));
+        });
+        nuevo.terminarCarga();
+        indice = nuevo;
+        pendiente = null;
+        nuevo.tocados.clear();
+        log.info("🔎 Índice de búsqueda de usuarios cargado: {} usuarios, {} palabras en {} ms",
+                nuevo.tamano(), nuevo.palabras.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Agrega o actualiza un usuario en el índice.
+     *
+     * @param user usuario registrado o modificado
+     */
+    public void indexar(UserEntity user) {
+        Documento documento = Documento.de(user.getId(), user.getUsuario(), user.getNombre(),
+                user.getCarrera(), user.getProfileImageUrl());
+        Indice enConstruccion = pendiente;
+        if (enConstruccion != null) {
+            enConstruccion.tocados.add(documento.id());
+            enConstruccion.poner(documento);
+        }
+        indice.poner(documento);
+    }
+
+    /**
+     * Quita un usuario del índice.
+     *
+     * @param userId ID del usuario eliminado
+     */
+    public void eliminar(Long userId) {
+        Indice enConstruccion = pendiente;
+        if (enConstruccion != null) {
+            enConstruccion.tocados.add(userId);
+            enConstruccion.quitar(userId);
+        }
+        indice.quitar(userId);
+    }
+
+    /**
+     * Busca usuarios que tengan, para cada palabra de la consulta, alguna palabra en su
+     * usuario, nombre o carrera que empiece por ella.
+     *
+     * @param consulta texto de búsqueda
+     * @param desde posición del primer resultado
+     * @param limite cantidad máxima de resultados
+     * @return mapa con el total de coincidencias y la página de resultados
+     */
+    public Map<String, Object> buscar(String consulta, int desde, int limite) {
+        Indice actual = indice;
+        String normalizada = TextoBusqueda.normalizar(consulta);
+        List<String> terminos = TextoBusqueda.separar(normalizada);
+
+        Espacio espacio = espacios.tomar();
+        try {
+            return buscar(actual, normalizada, terminos, desde, limite, espacio);
+        } finally {
+            espacios.devolver(espacio);
+        }
+    }
+
+    /**
+     * Calcula la búsqueda usando los arreglos de un espacio de trabajo tomado del pool.
+     */
+    private Map<String, Object> buscar(Indice actual, String normalizada, List<String> terminos,
+                                       int desde, int limite, Espacio espacio) {
+        Documento[] documentos = actual.documentos;
+        espacio.asegurar(documentos.length);
+        int epoca = espacio.epoca;
+        int[] epocas = espacio.epocas;
+        int[] cuenta = espacio.terminos;
+        int[] mejor = espacio.mejor;
+        int[] puntaje = espacio.puntaje;
+        int[] tocados = espacio.tocados;
+        int totalTocados = 0;
+
+        // Un recorrido por término: solo siguen candidatos los que coincidieron con todos los anteriores
+        for (int t = 0; t < terminos.size(); t++) {
+            String termino = terminos.get(t);
+            for (Map.Entry<String, int[]> palabra : rango(actual, termino)) {
+                boolean exacta = palabra.getKey().equals(termino);
+                for (int entrada : palabra.getValue()) {
+                    int posicion = entrada >>> BITS_CAMPOS;
+                    if (posicion >= epocas.length) {
+                        continue;
+                    }
+                    int valor = valorCampo(entrada, exacta);
+                    if (t == 0) {
+                        if (epocas[posicion] != epoca) {
+                            epocas[posicion] = epoca;
+                            cuenta[posicion] = 1;
+                            mejor[posicion] = valor;
+                            puntaje[posicion] = valor;
+                            tocados[totalTocados++] = posicion;
+                        } else if (valor > mejor[posicion]) {
+                            puntaje[posicion] += valor - mejor[posicion];
+                            mejor[posicion] = valor;
+                        }
+                    } else if (epocas[posicion] == epoca) {
+                        if (cuenta[posicion] == t) {
+                            cuenta[posicion] = t + 1;
+                            mejor[posicion] = valor;
+                            puntaje[posicion] += valor;
+                        } else if (cuenta[posicion] == t + 1 && valor > mejor[posicion]) {
+                            puntaje[posicion] += valor - mejor[posicion];
+                            mejor[posicion] = valor;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Bonificación por nombre de usuario igual o que empieza por la consulta completa
+        int n = terminos.size();
+        if (n > 0) {
+            for (Map.Entry<String, int[]> palabra : rango(actual, normalizada)) {
+                boolean exacta = palabra.getKey().equals(normalizada);
+                for (int entrada : palabra.getValue()) {
+                    int posicion = entrada >>> BITS_CAMPOS;
+                    if ((entrada & USUARIO_COMPLETO) != 0 && posicion < epocas.length
+                            && epocas[posicion] == epoca && cuenta[posicion] == n) {
+                        puntaje[posicion] += exacta ? 100 : 50;
+                    }
+                }
+            }
+        }
+
+        // Selección de los mejores (desde + limite) con un montículo mínimo de claves long
+        TopClaves mejores = new TopClaves(desde + limite);
+        int total = 0;
+        for (int k = 0; k < totalTocados; k++) {
+            int posicion = tocados[k];
+            Documento documento = posicion < documentos.length ? documentos[posicion] : null;
+            if (cuenta[posicion] != n || documento == null) {
+                continue;
+            }
+            total++;
+            mejores.ofrecer(clave(puntaje[posicion], documento.usuario().length(), posicion));
+        }
+        long[] ordenados = mejores.ordenadas();
+
+        List<Map<String, Object>> usuarios = new ArrayList<>();
+        for (int k = ordenados.length - 1 - desde; k >= 0; k--) {
+            // Un usuario eliminado después de puntuarlo se omite de la página
+            Documento documento = documentos[(int) (Integer.MAX_VALUE - (ordenados[k] & 0xFFFFFFFFL))];
+            if (documento == null) {
+                continue;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("usuario", documento.usuario());
+            item.put("nombre", documento.nombre());
+            item.put("carrera", documento.carrera());
+            item.put("profileImageUrl", documento.profileImageUrl());
+            usuarios.add(item);
+        }
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("total", total);
+        resultado.put("usuarios", usuarios);
+        return resultado;
+    }
+
+    private static Iterable<Map.Entry<String, int[]>> rango(Indice indice, String prefijo) {
+        return indice.palabras.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false).entrySet();
+    }
+
+    /**
+     * Valor de una coincidencia según el campo más relevante donde aparece la palabra.
+     */
+    private static int valorCampo(int entrada, boolean exacta) {
+        if ((entrada & USUARIO) != 0) {
+            return exacta ? 15 : 10;
+        }
+        if ((entrada & NOMBRE) != 0) {
+            return exacta ? 8 : 6;
+        }
+        return exacta ? 3 : 2;
+    }
+
+    /**
+     * Clave de orden: mayor puntaje, luego nombre de usuario más corto, luego posición menor.
+     */
+    private static long clave(int puntaje, int largoUsuario, int posicion) {
+        return ((long) Math.min(puntaje, 0x3FFFFF) << 42)
+                | ((long) (1023 - Math.min(largoUsuario, 1023)) << 32)
+                | (Integer.MAX_VALUE - posicion);
+    }
+}
@@ -1,15 +1,27 @@
 package edu.progavud.distrimusic.persona;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import edu.progavud.distrimusic.career.CareerRollupService;
 import edu.progavud.distrimusic.email.EmailService;
-import edu.progavud.distrimusic.playlist.PlaylistEntity;
-import edu.progavud.distrimusic.playlist.PlaylistRepository;
-import edu.progavud.distrimusic.comment.CommentEntity;
-import edu.progavud.distrimusic.comment.CommentRepository;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Servicio que implementa la lógica de negocio relacionada con los usuarios.
@@ -17,7 +29,7 @@ import java.util.Map;
  * Esta clase maneja todas las operaciones relacionadas con usuarios,
  * incluyendo: - Registro y autenticación de usuarios - Gestión de perfiles -
  * Sistema de seguimiento entre usuarios - Envío de emails de bienvenida
- * - Eliminación completa de usuarios y sus datos relacionados
+ * - Eliminación de usuarios en segundo plano (ver {@link UserDeletionService})
  *
  * @author Batapop
  * @author Cabrito
@@ -29,10 +41,45 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class UserService {
 
+    /**
+     * Tamaño máximo de una página de seguidores o seguidos.
+     */
+    private static final int MAX_PAGINA_SEGUIMIENTO = 100;
+
+    /**
+     * Cantidad máxima de usuarios por consulta de relaciones.
+     */
+    private static final int MAX_RELACIONES = 200;
+
+    /**
+     * Tamaño máximo de una página de búsqueda.
+     */
+    private static final int MAX_PAGINA_BUSQUEDA = 50;
+
+    /**
+     * Posición máxima alcanzable paginando una búsqueda.
+     */
+    private static final int MAX_PROFUNDIDAD_BUSQUEDA = 1000;
+
     private final UserRepository userRepository;
+    private final FollowRepository followRepository;
     private final EmailService emailService;
-    private final PlaylistRepository playlistRepository;
-    private final CommentRepository commentRepository;
+    private final UserDeletionService userDeletionService;
+    private final FollowCounterService followCounterService;
+    private final FollowGraphService followGraphService;
+    private final UserLookupCache userLookupCache;
+    private final RegistrationPrecheck registrationPrecheck;
+    private final SessionTokenService sessionTokenService;
+    private final PasswordHasher passwordHasher;
+    private final TransactionTemplate transactionTemplate;
+    private final UserSearchIndex userSearchIndex;
+    private final CareerRollupService careerRollupService;
+
+    /**
+     * Pool de tareas de la aplicación; la actualización del hash tras el inicio de
+     * sesión usa la base de datos y no debe ocupar un hilo del pool de hash.
+     */
+    private final Executor applicationTaskExecutor;
 
     /**
      * Actualiza el perfil de un usuario existente. Solo actualiza los campos
@@ -44,7 +91,8 @@ public class UserService {
      * @throws RuntimeException si el email ya está registrado por otro usuario
      */
     public UserEntity updateUserProfile(String usuario, Map<String, Object> updates) {
-        UserEntity user = getUserByUsuario(usuario);
+        UserEntity user = userRepository.findByUsuarioAndEliminadoFalse(usuario)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
         if (updates.containsKey("nombre")) {
             String nombre = (String) updates.get("nombre");
@@ -52,14 +100,19 @@ public class UserService {
                 user.setNombre(nombre);
             }
         }
+        boolean cambioCarrera = false;
         if (updates.containsKey("carrera")) {
             String carrera = (String) updates.get("carrera");
+            cambioCarrera = !Objects.equals(CareerRollupService.normalizarCarrera(carrera),
+                    CareerRollupService.normalizarCarrera(user.getCarrera()));
             user.setCarrera(carrera);
         }
         if (updates.containsKey("email")) {
             String email = (String) updates.get("email");
             if (email != null && !email.isBlank()) {
-                if (!email.equals(user.getEmail()) && userRepository.existsByEmail(email)) {
+                if (!email.equals(user.getEmail())
+                        && registrationPrecheck.emailPosiblementeRegistrado(email)
+                        && userRepository.existsByEmail(email)) {
                     throw new RuntimeException("El correo electrónico ya está registrado");
                 }
                 user.setEmail(email);
@@ -72,29 +125,55 @@ public class UserService {
         if (updates.containsKey("newPassword")) {
             String newPassword = (String) updates.get("newPassword");
             if (newPassword != null && !newPassword.isBlank()) {
-                user.setPassword(newPassword);
+                user.setPassword(passwordHasher.hashear(newPassword));
+                sessionTokenService.revocar(user.getId());
             }
         }
-        return userRepository.save(user);
+        UserEntity saved = userRepository.save(user);
+        userLookupCache.invalidar(usuario);
+        userSearchIndex.indexar(saved);
+        if (cambioCarrera) {
+            careerRollupService.cambiarCarrera(saved.getId(), saved.getCarrera());
+        }
+        registrationPrecheck.registrar(null, saved.getEmail());
+        return saved;
     }
 
     /**
      * Registra un nuevo usuario en el sistema y envía un email de bienvenida.
      *
+     * Las consultas de unicidad solo se ejecutan si los filtros de
+     * {@link RegistrationPrecheck} indican que el valor posiblemente ya existe;
+     * las restricciones únicas de la tabla resuelven los registros simultáneos.
+     *
      * @param user datos del nuevo usuario
      * @return el usuario creado
      * @throws RuntimeException si el usuario o email ya existen
      */
     public UserEntity registerUser(UserEntity user) {
-        if (userRepository.existsByUsuario(user.getUsuario())) {
+        if (registrationPrecheck.usuarioPosiblementeRegistrado(user.getUsuario())
+                && userRepository.existsByUsuario(user.getUsuario())) {
             throw new RuntimeException("El nombre de usuario ya está registrado");
         }
 
-        if (userRepository.existsByEmail(user.getEmail())) {
+        if (registrationPrecheck.emailPosiblementeRegistrado(user.getEmail())
+                && userRepository.existsByEmail(user.getEmail())) {
             throw new RuntimeException("El correo electrónico ya está registrado");
         }
 
-        UserEntity savedUser = userRepository.save(user);
+        user.setPassword(passwordHasher.hashear(user.getPassword()));
+        UserEntity savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (userRepository.existsByUsuario(user.getUsuario())) {
+                throw new RuntimeException("El nombre de usuario ya está registrado");
+            }
+            throw new RuntimeException("El correo electrónico ya está registrado");
+        }
+        registrationPrecheck.registrar(savedUser.getUsuario(), savedUser.getEmail());
+        userSearchIndex.indexar(savedUser);
+        careerRollupService.registrarMiembro(savedUser.getId(), savedUser.getCarrera());
 
         try {
             emailService.enviarEmailRegistro(
@@ -114,41 +193,76 @@ public class UserService {
     /**
      * Autentica un usuario en el sistema.
      *
+     * La verificación de la contraseña se ejecuta en el pool de {@link PasswordHasher}
+     * sin ocupar el hilo de la solicitud. Si el hash guardado es texto plano o usa un
+     * costo distinto al configurado, se reemplaza por el hash recalculado desde el pool
+     * de tareas de la aplicación.
+     *
      * @param usuario nombre de usuario
      * @param contraseña contraseña del usuario
-     * @return el usuario autenticado
+     * @return futuro con el usuario autenticado
      * @throws RuntimeException si el usuario no existe o la contraseña es incorrecta
      */
-    public UserEntity authenticateUser(String usuario, String contraseña) {
-        UserEntity user = userRepository.findByUsuario(usuario)
+    public CompletableFuture<UserEntity> authenticateUser(String usuario, String contraseña) {
+        UserEntity user = userLookupCache.buscarEntidad(usuario)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        if (!user.validarCredenciales(contraseña)) {
-            throw new RuntimeException("Contraseña incorrecta");
-        }
+        return passwordHasher.verificar(contraseña, user.getPassword()).thenApplyAsync(verificacion -> {
+            if (!verificacion.valida()) {
+                throw new RuntimeException("Contraseña incorrecta");
+            }
+            if (verificacion.nuevoHash() != null) {
+                Integer actualizadas = transactionTemplate.execute(status -> userRepository.actualizarPassword(
+                        user.getId(), user.getPassword(), verificacion.nuevoHash()));
+                if (actualizadas != null && actualizadas > 0) {
+                    userLookupCache.invalidar(usuario);
+                }
+            }
+            return user;
+        }, applicationTaskExecutor);
+    }
 
-        return user;
+    /**
+     * Obtiene las métricas del hash de contraseñas.
+     *
+     * @return mapa con latencias y estado del pool de hash
+     */
+    public Map<String, Object> getMetricasHash() {
+        return passwordHasher.getMetricas();
     }
 
     /**
      * Busca y retorna un usuario por su nombre de usuario.
+     * Se resuelve desde {@link UserLookupCache}; el resultado es una copia desconectada.
      *
      * @param usuario nombre de usuario a buscar
      * @return el usuario encontrado
      * @throws RuntimeException si el usuario no existe
      */
     public UserEntity getUserByUsuario(String usuario) {
-        return userRepository.findByUsuario(usuario)
+        return userLookupCache.buscarEntidad(usuario)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
     }
 
+    /**
+     * Obtiene el perfil público de un usuario con sus contadores de seguidores
+     * y seguidos al día, sin cargar ninguna relación.
+     *
+     * @param usuario nombre de usuario a buscar
+     * @return el usuario encontrado
+     * @throws RuntimeException si el usuario no existe
+     */
+    public UserEntity getPerfil(String usuario) {
+        return followCounterService.completarContadores(getUserByUsuario(usuario));
+    }
+
     /**
      * Obtiene la lista de todos los usuarios registrados.
      *
      * @return lista de todos los usuarios
      */
     public List<UserEntity> getAllUsers() {
-        return userRepository.findAll();
+        return userRepository.findByEliminadoFalse();
     }
 
     /**
@@ -156,25 +270,28 @@ public class UserService {
      *
      * @param usuarioActual nombre del usuario que va a seguir
      * @param usuarioASeguir nombre del usuario a ser seguido
-     * @throws RuntimeException si el usuario intenta seguirse a sí mismo o ya sigue al usuario
+     * @throws RuntimeException si el usuario intenta seguirse a sí mismo, ya sigue al usuario
+     *                          o alguno de los dos no existe
      */
+    @Transactional
     public void seguirUsuario(String usuarioActual, String usuarioASeguir) {
         if (usuarioActual.equals(usuarioASeguir)) {
             throw new RuntimeException("No puedes seguirte a ti mismo");
         }
 
-        UserEntity follower = getUserByUsuario(usuarioActual);
-        UserEntity following = getUserByUsuario(usuarioASeguir);
-
-        if (follower.estaSiguiendo(following)) {
+        int insertadas;
+        try {
+            insertadas = followRepository.seguir(usuarioActual, usuarioASeguir);
+        } catch (DataIntegrityViolationException e) {
             throw new RuntimeException("Ya sigues a este usuario");
         }
-
-        follower.getSiguiendo().add(following);
-        following.getSeguidores().add(follower);
-
-        userRepository.save(follower);
-        userRepository.save(following);
+        if (insertadas == 0) {
+            throw new RuntimeException("Usuario no encontrado");
+        }
+        followCounterService.registrarCambio(usuarioActual, usuarioASeguir, 1);
+        followGraphService.registrarCambio(usuarioActual, usuarioASeguir, true);
+        userLookupCache.invalidar(usuarioActual);
+        userLookupCache.invalidar(usuarioASeguir);
     }
 
     /**
@@ -184,39 +301,173 @@ public class UserService {
      * @param usuarioADejar nombre del usuario que será dejado de seguir
      * @throws RuntimeException si el usuario no sigue al usuario especificado
      */
+    @Transactional
     public void dejarDeSeguir(String usuarioActual, String usuarioADejar) {
-        UserEntity follower = getUserByUsuario(usuarioActual);
-        UserEntity following = getUserByUsuario(usuarioADejar);
-
-        if (!follower.estaSiguiendo(following)) {
+        if (followRepository.dejarDeSeguir(usuarioActual, usuarioADejar) == 0) {
             throw new RuntimeException("No sigues a este usuario");
         }
+        followCounterService.registrarCambio(usuarioActual, usuarioADejar, -1);
+        followGraphService.registrarCambio(usuarioActual, usuarioADejar, false);
+        userLookupCache.invalidar(usuarioActual);
+        userLookupCache.invalidar(usuarioADejar);
+    }
 
-        follower.getSiguiendo().remove(following);
-        following.getSeguidores().remove(follower);
+    /**
+     * Obtiene una página de seguidores de un usuario, del más reciente al más antiguo.
+     *
+     * @param usuario nombre del usuario
+     * @param cursor cursor devuelto por la página anterior (null para la primera)
+     * @param limit tamaño de la página
+     * @return mapa con los seguidores de la página y el cursor de la siguiente
+     * @throws RuntimeException si el usuario no existe o el cursor es inválido
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSeguidores(String usuario, String cursor, int limit) {
+        return paginarSeguimiento(usuario, cursor, limit, true);
+    }
 
-        userRepository.save(follower);
-        userRepository.save(following);
+    /**
+     * Obtiene una página de usuarios que sigue un usuario, del más reciente al más antiguo.
+     *
+     * @param usuario nombre del usuario
+     * @param cursor cursor devuelto por la página anterior (null para la primera)
+     * @param limit tamaño de la página
+     * @return mapa con los usuarios seguidos de la página y el cursor de la siguiente
+     * @throws RuntimeException si el usuario no existe o el cursor es inválido
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSiguiendo(String usuario, String cursor, int limit) {
+        return paginarSeguimiento(usuario, cursor, limit, false);
     }
 
     /**
-     * Obtiene la lista de seguidores de un usuario.
+     * Resuelve una página de seguidores o seguidos por búsqueda de rango en el índice
+     * de la tabla follows. Se pide un elemento de más para saber si hay otra página.
      *
      * @param usuario nombre del usuario
-     * @return lista de usuarios que siguen al usuario especificado
+     * @param cursor cursor de la página anterior (null para la primera)
+     * @param limit tamaño de la página
+     * @param seguidores true para seguidores, false para seguidos
+     * @return mapa con la página
      */
-    public List<UserEntity> getSeguidores(String usuario) {
-        return userRepository.findSeguidoresByUsuario(usuario);
+    private Map<String, Object> paginarSeguimiento(String usuario, String cursor, int limit, boolean seguidores) {
+        Long userId = userLookupCache.resolverId(usuario)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        int tamano = Math.max(1, Math.min(limit, MAX_PAGINA_SEGUIMIENTO));
+        PageRequest pagina = PageRequest.of(0, tamano + 1);
+
+        List<Object[]> filas;
+        if (cursor == null || cursor.isBlank()) {
+            filas = seguidores
+                    ? followRepository.findSeguidores(userId, pagina)
+                    : followRepository.findSiguiendo(userId, pagina);
+        } else {
+            Object[] posicion = decodificarCursor(cursor);
+            LocalDateTime antes = (LocalDateTime) posicion[0];
+            Long antesId = (Long) posicion[1];
+            filas = seguidores
+                    ? followRepository.findSeguidoresAntesDe(userId, antes, antesId, pagina)
+                    : followRepository.findSiguiendoAntesDe(userId, antes, antesId, pagina);
+        }
+
+        boolean hayMas = filas.size() > tamano;
+        List<Map<String, Object>> usuarios = new ArrayList<>(Math.min(filas.size(), tamano));
+        for (int i = 0; i < filas.size() && i < tamano; i++) {
+            Object[] fila = filas.get(i);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("usuario", fila[0]);
+            item.put("nombre", fila[1]);
+            item.put("profileImageUrl", fila[2]);
+            item.put("fechaSeguimiento", fila[3]);
+            usuarios.add(item);
+        }
+
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("usuario", usuario);
+        respuesta.put("usuarios", usuarios);
+        if (hayMas) {
+            Object[] ultima = filas.get(tamano - 1);
+            respuesta.put("siguienteCursor", codificarCursor((LocalDateTime) ultima[3], (Long) ultima[4]));
+        } else {
+            respuesta.put("siguienteCursor", null);
+        }
+        return respuesta;
     }
 
     /**
-     * Obtiene la lista de usuarios que sigue un usuario.
+     * Codifica la posición (fecha de seguimiento, ID) como un cursor opaco.
+     *
+     * @param fecha fecha de seguimiento
+     * @param id ID del usuario relacionado
+     * @return cursor en Base64 apto para URL
+     */
+    private String codificarCursor(LocalDateTime fecha, Long id) {
+        String posicion = fecha + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(posicion.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor generado por {@link #codificarCursor(LocalDateTime, Long)}.
+     *
+     * @param cursor cursor opaco
+     * @return arreglo [LocalDateTime, Long]
+     * @throws RuntimeException si el cursor es inválido
+     */
+    private Object[] decodificarCursor(String cursor) {
+        try {
+            String posicion = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = posicion.lastIndexOf('|');
+            return new Object[] {
+                LocalDateTime.parse(posicion.substring(0, separador)),
+                Long.parseLong(posicion.substring(separador + 1))
+            };
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
+    }
+
+    /**
+     * Obtiene sugerencias de usuarios a seguir a partir del grafo de seguimiento en memoria.
      *
      * @param usuario nombre del usuario
-     * @return lista de usuarios seguidos por el usuario especificado
+     * @param limit cantidad máxima de sugerencias
+     * @return lista de sugerencias ordenadas por relevancia
+     * @throws RuntimeException si el usuario no existe
      */
-    public List<UserEntity> getSiguiendo(String usuario) {
-        return userRepository.findSiguiendoByUsuario(usuario);
+    public List<Map<String, Object>> getSugerencias(String usuario, int limit) {
+        return followGraphService.sugerir(usuario, limit);
+    }
+
+    /**
+     * Busca usuarios por usuario, nombre o carrera en el índice en memoria.
+     * Los resultados vienen ordenados por relevancia.
+     *
+     * @param consulta texto de búsqueda
+     * @param pagina número de página, desde 0
+     * @param limit cantidad de resultados por página (máximo {@value #MAX_PAGINA_BUSQUEDA})
+     * @return mapa con la consulta, el total de coincidencias, la página y los usuarios
+     * @throws RuntimeException si la consulta está vacía o la página es inválida
+     */
+    public Map<String, Object> buscarUsuarios(String consulta, int pagina, int limit) {
+        if (consulta == null || consulta.isBlank()) {
+            throw new RuntimeException("La consulta de búsqueda es obligatoria");
+        }
+        int tamano = Math.max(1, Math.min(limit, MAX_PAGINA_BUSQUEDA));
+        if (pagina < 0 || (long) pagina * tamano >= MAX_PROFUNDIDAD_BUSQUEDA) {
+            throw new RuntimeException("Página de búsqueda inválida");
+        }
+
+        Map<String, Object> encontrados = userSearchIndex.buscar(consulta, pagina * tamano, tamano);
+        int total = (Integer) encontrados.get("total");
+        boolean hayMas = (long) (pagina + 1) * tamano < Math.min(total, MAX_PROFUNDIDAD_BUSQUEDA);
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("query", consulta);
+        resultado.put("total", total);
+        resultado.put("pagina", pagina);
+        resultado.put("usuarios", encontrados.get("usuarios"));
+        resultado.put("siguientePagina", hayMas ? pagina + 1 : null);
+        return resultado;
     }
 
     /**
@@ -227,117 +478,92 @@ public class UserService {
      * @return true si follower sigue a following
      */
     public boolean esSeguidor(String follower, String following) {
-        return userRepository.isFollowing(follower, following);
+        return followRepository.existeSeguimiento(follower, following);
     }
 
     /**
- * Elimina un usuario del sistema junto con todos sus datos relacionados.
- * 
- * Este método realiza una eliminación completa en cascada que incluye:
- * - Verificación de credenciales del usuario para seguridad
- * - Eliminación de todos los comentarios realizados por el usuario
- * - Eliminación de todas las playlists creadas por el usuario (y sus comentarios)
- * - Eliminación de todas las relaciones de seguimiento (seguidores y siguiendo)
- * - Eliminación final del registro del usuario
- * 
- * La operación es transaccional, garantizando que todos los datos se eliminen
- * de forma consistente o que la operación falle completamente sin cambios parciales.
- *
- * @param usuario nombre del usuario a eliminar
- * @param password contraseña del usuario para verificación de seguridad
- * @throws RuntimeException si el usuario no existe, la contraseña es incorrecta, 
- *                         o hay errores durante el proceso de eliminación
- */
-@Transactional
-public void deleteUser(String usuario, String password) {
-    UserEntity user = userRepository.findByUsuario(usuario)
-            .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-    if (!user.validarCredenciales(password)) {
-        throw new RuntimeException("Contraseña incorrecta");
-    }
-
-    try {
-        
-        
-        // 1. PRIMER PASO: Eliminar comentarios del usuario en TODAS las playlists
-        
-        try {
-            List<CommentEntity> userComments = commentRepository.findByUsuarioUsuarioOrderByIdDesc(usuario);
-            if (!userComments.isEmpty()) {
-                
-                commentRepository.deleteAll(userComments);
-                commentRepository.flush();
-
-            }
-        } catch (Exception e) {
-            
-            // Continuar con el proceso
+     * Obtiene el estado de seguimiento entre un usuario y varios usuarios.
+     * Los nombres se resuelven en una consulta y cada sentido de la relación se
+     * consulta aparte con búsquedas por clave primaria.
+     *
+     * @param usuario nombre del usuario consultado
+     * @param usuarios nombres de los usuarios relacionados
+     * @return mapa de nombre de usuario a {following, followedBy}
+     * @throws RuntimeException si la lista supera el máximo permitido
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Map<String, Boolean>> getRelaciones(String usuario, List<String> usuarios) {
+        Set<String> objetivos = new LinkedHashSet<>(usuarios);
+        objetivos.remove(null);
+        if (objetivos.size() > MAX_RELACIONES) {
+            throw new RuntimeException("Se permiten como máximo " + MAX_RELACIONES + " usuarios por consulta");
         }
 
-        // 2. SEGUNDO PASO: Eliminar playlists del usuario (y sus comentarios asociados)
-        
-        try {
-            List<PlaylistEntity> userPlaylists = playlistRepository.findByUsuarioUsuario(usuario);
-            if (!userPlaylists.isEmpty()) {
-
-                
-                for (PlaylistEntity playlist : userPlaylists) {
-                    
-                    // Eliminar comentarios en esta playlist
-                    List<CommentEntity> playlistComments = commentRepository.findByPlaylistId(playlist.getId());
-                    if (!playlistComments.isEmpty()) {
-                        commentRepository.deleteAll(playlistComments);
-                    }
-                    
-                    // Limpiar relaciones de canciones
-                    if (playlist.getCanciones() != null) {
-                        playlist.getCanciones().clear();
-                        playlistRepository.save(playlist);
-                    }
-                    
-                    // Eliminar la playlist
-                    playlistRepository.deleteById(playlist.getId());
-                }
-                playlistRepository.flush();
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Error eliminando playlists del usuario");
+        Map<String, Map<String, Boolean>> relaciones = new LinkedHashMap<>();
+        for (String objetivo : objetivos) {
+            Map<String, Boolean> estado = new LinkedHashMap<>();
+            estado.put("following", false);
+            estado.put("followedBy", false);
+            relaciones.put(objetivo, estado);
+        }
+        Optional<Long> userId = userLookupCache.resolverId(usuario);
+        if (objetivos.isEmpty() || userId.isEmpty()) {
+            return relaciones;
         }
 
-        // 3. TERCER PASO: Eliminar relaciones de seguimiento
-        try {
-            // Eliminar de las listas de "siguiendo" de otros usuarios
-            List<UserEntity> followers = userRepository.findSeguidoresByUsuario(usuario);
-            for (UserEntity follower : followers) {
-                follower.getSiguiendo().remove(user);
-                userRepository.save(follower);
-            }
+        Map<Long, String> nombres = new HashMap<>();
+        for (Object[] fila : userRepository.findIdsByUsuarioIn(objetivos)) {
+            nombres.put((Long) fila[1], (String) fila[0]);
+        }
+        if (nombres.isEmpty()) {
+            return relaciones;
+        }
+        for (Long seguido : followRepository.findSeguidosEntre(userId.get(), nombres.keySet())) {
+            relaciones.get(nombres.get(seguido)).put("following", true);
+        }
+        for (Long seguidor : followRepository.findSeguidoresEntre(userId.get(), nombres.keySet())) {
+            relaciones.get(nombres.get(seguidor)).put("followedBy", true);
+        }
+        return relaciones;
+    }
 
-            // Eliminar de las listas de "seguidores" de otros usuarios
-            List<UserEntity> following = userRepository.findSiguiendoByUsuario(usuario);
-            for (UserEntity followed : following) {
-                followed.getSeguidores().remove(user);
-                userRepository.save(followed);
-            }
+    /**
+     * Solicita la eliminación de un usuario junto con todos sus datos relacionados.
+     *
+     * Tras verificar la contraseña, la cuenta se marca como eliminada de inmediato
+     * (deja de ser visible y de poder autenticarse) y la purga de comentarios,
+     * playlists y relaciones de seguimiento se delega a un trabajo en segundo plano
+     * que procesa los datos por lotes.
+     *
+     * @param usuario nombre del usuario a eliminar
+     * @param password contraseña del usuario para verificación de seguridad
+     * @return estado inicial del trabajo de eliminación
+     * @throws RuntimeException si el usuario no existe o la contraseña es incorrecta
+     */
+    public Map<String, Object> deleteUser(String usuario, String password) {
+        UserEntity user = userRepository.findByUsuarioAndEliminadoFalse(usuario)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-            // Limpiar las propias listas del usuario
-            user.getSeguidores().clear();
-            user.getSiguiendo().clear();
-            userRepository.save(user);
-            userRepository.flush();
-            
-        } catch (Exception e) {
-            // Continuar con el proceso
+        if (!passwordHasher.verificarBloqueante(password, user.getPassword())) {
+            throw new RuntimeException("Contraseña incorrecta");
         }
 
-        // 4. CUARTO PASO: Eliminar el usuario
-        userRepository.deleteById(user.getId());
-        userRepository.flush();
-
+        UserDeletionJobEntity job = userDeletionService.solicitarEliminacion(user);
+        userLookupCache.invalidar(usuario);
+        userSearchIndex.eliminar(user.getId());
+        careerRollupService.quitarMiembro(user.getId());
+        sessionTokenService.revocar(user.getId());
+        return userDeletionService.describir(job);
+    }
 
-    } catch (Exception e) {
-        throw new RuntimeException("Error interno al eliminar el usuario: " + e.getMessage());
+    /**
+     * Obtiene el estado de la eliminación de un usuario.
+     *
+     * @param usuario nombre del usuario
+     * @return mapa con el estado y el avance de la eliminación
+     * @throws RuntimeException si no existe ninguna solicitud de eliminación
+     */
+    public Map<String, Object> getEstadoEliminacion(String usuario) {
+        return userDeletionService.getEstado(usuario);
     }
 }
-}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package edu.progavud.distrimusic.playlist;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Entrada del registro de cambios de una playlist.
+ *
+ * Cada modificación de una playlist incrementa su versión y agrega una entrada
+ * a este registro, que solo crece hacia adelante. Los clientes móviles lo usan
+ * para sincronizar únicamente las diferencias desde la última versión que conocen.
+ * Las entradas antiguas se compactan periódicamente.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Entity
+@Table(name = "playlist_changes", indexes = {
+    @Index(name = "idx_playlist_changes_playlist_version", columnList = "playlist_id, version", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlaylistChangeEntity {
+
+    /**
+     * Tipos de cambio que se registran sobre una playlist.
+     */
+    public enum TipoCambio {
+        AGREGAR_CANCION,
+        QUITAR_CANCION,
+        RENOMBRAR,
+        ACTUALIZAR
+    }
+
+    /**
+     * Identificador único de la entrada.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * ID de la playlist modificada.
+     * Se guarda como columna simple para no cargar la playlist al leer el registro.
+     */
+    @Column(name = "playlist_id", nullable = false)
+    private Long playlistId;
+
+    /**
+     * Versión de la playlist resultante de este cambio.
+     */
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Tipo de operación realizada.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoCambio tipo;
+
+    /**
+     * ID de la canción afectada, para cambios sobre canciones.
+     */
+    @Column(name = "song_id")
+    private Long songId;
+
+    /**
+     * Nuevo valor asociado al cambio (por ejemplo, el nuevo nombre).
+     */
+    @Column(name = "valor")
+    private String valor;
+
+    /**
+     * Fecha y hora del cambio.
+     */
+    @CreationTimestamp
+    @Column(name = "fecha_cambio", nullable = false, updatable = false)
+    private LocalDateTime fechaCambio;
+
+    /**
+     * Constructor personalizado para registrar un nuevo cambio.
+     *
+     * @param playlistId ID de la playlist
+     * @param version versión resultante
+     * @param tipo tipo de operación
+     * @param songId ID de la canción afectada (opcional)
+     * @param valor nuevo valor asociado (opcional)
+     */
+    public PlaylistChangeEntity(Long playlistId, Long version, TipoCambio tipo, Long songId, String valor) {
+        this.playlistId = playlistId;
+        this.version = version;
+        this.tipo = tipo;
+        this.songId = songId;
+        this.valor = valor;
+    }
+}
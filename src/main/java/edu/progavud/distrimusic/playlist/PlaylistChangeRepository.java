@@ -0,0 +1,65 @@
+package edu.progavud.distrimusic.playlist;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio para el registro de cambios de las playlists.
+ *
+ * Las consultas usan el índice (playlist_id, version) para leer solo el delta
+ * solicitado y para compactar las entradas antiguas en una sola sentencia.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Repository
+public interface PlaylistChangeRepository extends JpaRepository<PlaylistChangeEntity, Long> {
+
+    /**
+     * Obtiene los cambios posteriores a una versión, en orden de aplicación.
+     *
+     * @param playlistId ID de la playlist
+     * @param version versión conocida por el cliente
+     * @return cambios con versión mayor a la indicada
+     */
+    List<PlaylistChangeEntity> findByPlaylistIdAndVersionGreaterThanOrderByVersionAsc(Long playlistId, Long version);
+
+    /**
+     * Elimina las entradas del registro hasta una versión dada.
+     *
+     * @param playlistId ID de la playlist
+     * @param version versión máxima a eliminar (inclusive)
+     * @return número de entradas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM PlaylistChangeEntity c WHERE c.playlistId = :playlistId AND c.version <= :version")
+    int compactarHastaVersion(@Param("playlistId") Long playlistId, @Param("version") Long version);
+
+    /**
+     * Elimina todo el registro de cambios de una playlist.
+     *
+     * @param playlistId ID de la playlist
+     * @return número de entradas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM PlaylistChangeEntity c WHERE c.playlistId = :playlistId")
+    int deleteByPlaylistId(@Param("playlistId") Long playlistId);
+
+    /**
+     * Elimina el registro de cambios de un conjunto de playlists.
+     *
+     * @param playlistIds IDs de las playlists
+     * @return número de entradas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM PlaylistChangeEntity c WHERE c.playlistId IN :playlistIds")
+    int deleteByPlaylistIdIn(@Param("playlistIds") Collection<Long> playlistIds);
+}
@@ -2,11 +2,17 @@ package edu.progavud.distrimusic.playlist;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 import edu.progavud.distrimusic.music.MusicEntity;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Set;
 import java.util.Map;
@@ -19,6 +25,7 @@ import java.util.HashMap;
  * - Operaciones CRUD básicas
  * - Gestión de canciones en playlists
  * - Consultas específicas (playlists públicas, por usuario)
+ * - Exportación e importación en formatos M3U, XSPF y JSON
  * 
  * Implementa manejo detallado de errores y logging para facilitar el debugging.
  * Todos los endpoints están protegidos contra CORS.
@@ -37,6 +44,7 @@ import java.util.HashMap;
 public class PlaylistController {
     
     private final PlaylistService playlistService;
+    private final PlaylistTransferService playlistTransferService;
     
     /**
      * Crea una nueva playlist.
@@ -279,4 +287,116 @@ public class PlaylistController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+    
+    /**
+     * Obtiene los cambios de una playlist desde una versión conocida.
+     * Si el registro fue compactado, la respuesta indica que el cliente debe resincronizar.
+     *
+     * @param id identificador de la playlist
+     * @param since última versión conocida por el cliente
+     * @return ResponseEntity con la versión actual y la lista de cambios
+     */
+    @GetMapping("/{id}/changes")
+    public ResponseEntity<Map<String, Object>> getPlaylistChanges(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") long since) {
+        try {
+            if (id == null || id <= 0) {
+                return ResponseEntity.badRequest().build();
+            }
+            
+            return ResponseEntity.ok(playlistService.getCambios(id, since));
+        } catch (RuntimeException e) {
+            log.error("Error al obtener cambios de playlist {}: ", id, e);
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Error inesperado al obtener cambios de playlist: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Exporta una playlist en formato M3U, XSPF o JSON.
+     * Las canciones se escriben directamente en la respuesta a medida que se leen.
+     *
+     * @param id identificador de la playlist
+     * @param format formato de salida (m3u, xspf o json)
+     * @return ResponseEntity con el archivo de la playlist como descarga
+     */
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportPlaylist(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "m3u") String format) {
+        try {
+            PlaylistTransferService.Formato formato;
+            try {
+                formato = PlaylistTransferService.Formato.desde(format);
+            } catch (RuntimeException e) {
+                log.warn("Formato de exportación inválido: {}", format);
+                return ResponseEntity.badRequest().build();
+            }
+            if (id == null || id <= 0) {
+                return ResponseEntity.badRequest().build();
+            }
+            
+            PlaylistEntity playlist = playlistService.getPlaylistById(id);
+            StreamingResponseBody body = out -> playlistTransferService.exportar(playlist, formato, out);
+            
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(formato.getContentType() + ";charset=UTF-8"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"playlist-" + id + "." + formato.getExtension() + "\"")
+                    .body(body);
+        } catch (RuntimeException e) {
+            log.error("Error al exportar playlist {}: ", id, e);
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Error inesperado al exportar playlist: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Importa una playlist desde un archivo M3U, XSPF o JSON.
+     * Las entradas se emparejan con el catálogo por título y artista.
+     *
+     * @param file archivo de la playlist
+     * @param usuario nombre del usuario propietario
+     * @param nombre nombre de la nueva playlist (por defecto, el nombre del archivo)
+     * @param esPublica visibilidad de la nueva playlist
+     * @param format formato del archivo (por defecto, según su extensión)
+     * @return ResponseEntity con el resumen de la importación y status 201 (CREATED)
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importPlaylist(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam String usuario,
+            @RequestParam(required = false) String nombre,
+            @RequestParam(required = false) Boolean esPublica,
+            @RequestParam(required = false) String format) {
+        try {
+            String archivo = file.getOriginalFilename() != null ? file.getOriginalFilename() : "playlist";
+            int punto = archivo.lastIndexOf('.');
+            PlaylistTransferService.Formato formato = PlaylistTransferService.Formato.desde(
+                    format != null ? format : (punto >= 0 ? archivo.substring(punto + 1) : null));
+            String nombrePlaylist = nombre != null && !nombre.isBlank()
+                    ? nombre.trim()
+                    : (punto > 0 ? archivo.substring(0, punto) : archivo);
+            
+            try (InputStream in = file.getInputStream()) {
+                Map<String, Object> resumen = playlistTransferService.importar(
+                        usuario, nombrePlaylist, esPublica, formato, in);
+                return new ResponseEntity<>(resumen, HttpStatus.CREATED);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error al importar playlist para {}: ", usuario, e);
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", e.getMessage(),
+                "status", "error"
+            ));
+        } catch (IOException e) {
+            log.error("Error leyendo archivo de playlist: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
\ No newline at end of file
@@ -29,7 +29,9 @@ import java.util.Objects;
  * @since 2025-07-10
  */
 @Entity
-@Table(name = "playlists")
+@Table(name = "playlists", indexes = {
+    @Index(name = "idx_playlists_usuario", columnList = "usuario_id, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -74,6 +76,13 @@ public class PlaylistEntity {
     @Column(name = "fecha_creacion", nullable = false, updatable = false)
     private LocalDateTime fechaCreacion;
 
+    /**
+     * Versión de la playlist, incrementada en cada modificación.
+     * Solo se actualiza mediante incrementos atómicos en SQL, nunca al guardar la entidad.
+     */
+    @Column(name = "version", nullable = false, updatable = false)
+    private Long version = 0L;
+
     /**
      * Usuario propietario de la playlist.
      * Se usa @JsonIgnoreProperties para evitar referencias circulares y datos sensibles.
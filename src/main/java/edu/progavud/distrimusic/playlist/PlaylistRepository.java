@@ -1,9 +1,13 @@
 package edu.progavud.distrimusic.playlist;
 
+import edu.progavud.distrimusic.music.MusicEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -28,6 +32,16 @@ public interface PlaylistRepository extends JpaRepository<PlaylistEntity, Long>
      * @return lista de playlists públicas
      */
     List<PlaylistEntity> findByEsPublicaTrue();
+
+    /**
+     * Obtiene solo la visibilidad y el propietario de una playlist, sin cargar la entidad.
+     * La fila contiene [esPublica, ID del propietario].
+     *
+     * @param playlistId ID de la playlist
+     * @return una fila, o ninguna si la playlist no existe
+     */
+    @Query("SELECT p.esPublica, p.usuario.id FROM PlaylistEntity p WHERE p.id = :playlistId")
+    List<Object[]> findVisibilidadById(@Param("playlistId") Long playlistId);
     
     /**
      * Obtiene todas las playlists de un usuario específico.
@@ -59,4 +73,127 @@ public interface PlaylistRepository extends JpaRepository<PlaylistEntity, Long>
      */
     @Query("SELECT COUNT(c) FROM PlaylistEntity p JOIN p.canciones c WHERE p.id = :playlistId")
     long countCancionesByPlaylistId(@Param("playlistId") Long playlistId);
-}
\ No newline at end of file
+    
+    /**
+     * Obtiene el ID y el artista de cada canción de una playlist.
+     * Usado por la cola de reproducción para mezclar sin cargar las entidades completas.
+     *
+     * @param playlistId ID de la playlist
+     * @return arreglos [id, artista] de cada canción
+     */
+    @Query("SELECT c.id, c.artista FROM PlaylistEntity p JOIN p.canciones c WHERE p.id = :playlistId")
+    List<Object[]> findSongIdsAndArtistasByPlaylistId(@Param("playlistId") Long playlistId);
+    
+    /**
+     * Incrementa atómicamente la versión de una playlist.
+     * La fila queda bloqueada hasta el fin de la transacción, serializando los cambios concurrentes.
+     *
+     * @param playlistId ID de la playlist
+     * @return número de filas actualizadas
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PlaylistEntity p SET p.version = p.version + 1 WHERE p.id = :playlistId")
+    int incrementarVersion(@Param("playlistId") Long playlistId);
+    
+    /**
+     * Obtiene la versión actual de una playlist directamente de la base de datos.
+     *
+     * @param playlistId ID de la playlist
+     * @return versión actual, o null si la playlist no existe
+     */
+    @Query("SELECT p.version FROM PlaylistEntity p WHERE p.id = :playlistId")
+    Long findVersionById(@Param("playlistId") Long playlistId);
+    
+    /**
+     * Obtiene un lote de canciones de una playlist ordenadas por ID, a partir de un ID dado.
+     * Permite recorrer playlists grandes por lotes (keyset) sin cargar la colección completa.
+     *
+     * @param playlistId ID de la playlist
+     * @param afterId ID de la última canción del lote anterior (0 para el primero)
+     * @param pageable tamaño del lote
+     * @return canciones del lote
+     */
+    @Query("SELECT c FROM PlaylistEntity p JOIN p.canciones c WHERE p.id = :playlistId AND c.id > :afterId ORDER BY c.id")
+    List<MusicEntity> findCancionesByPlaylistIdAfter(@Param("playlistId") Long playlistId,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable pageable);
+    
+    /**
+     * Elimina todas las filas de la tabla de unión playlist_songs de una playlist
+     * con una única sentencia, sin inicializar la colección de canciones.
+     *
+     * @param playlistId ID de la playlist
+     * @return número de relaciones eliminadas
+     */
+    @Modifying
+    @Query(value = "DELETE FROM playlist_songs WHERE playlist_id = :playlistId", nativeQuery = true)
+    int deleteCancionesByPlaylistId(@Param("playlistId") Long playlistId);
+    
+    /**
+     * Elimina una playlist con una sentencia DELETE directa.
+     *
+     * @param playlistId ID de la playlist
+     * @return número de playlists eliminadas (0 si no existía)
+     */
+    @Modifying
+    @Query("DELETE FROM PlaylistEntity p WHERE p.id = :playlistId")
+    int deletePlaylistById(@Param("playlistId") Long playlistId);
+    
+    /**
+     * Obtiene una página del resumen de las playlists de un usuario, de la más reciente
+     * a la más antigua. Cada fila contiene [id, nombre, esPublica, imageUrl,
+     * fechaCreacion, cantidad de canciones].
+     *
+     * @param userId ID del propietario
+     * @param incluirPrivadas true para incluir las playlists privadas
+     * @param pageable tamaño de la página
+     * @return filas de la página
+     */
+    @Query("SELECT p.id, p.nombre, p.esPublica, p.imageUrl, p.fechaCreacion, SIZE(p.canciones) " +
+           "FROM PlaylistEntity p WHERE p.usuario.id = :userId AND (p.esPublica = true OR :incluirPrivadas = true) " +
+           "ORDER BY p.id DESC")
+    List<Object[]> findResumenByUsuarioId(@Param("userId") Long userId,
+                                          @Param("incluirPrivadas") boolean incluirPrivadas,
+                                          Pageable pageable);
+
+    /**
+     * Obtiene el resumen de un conjunto de playlists públicas. Cada fila contiene
+     * [id, nombre, imageUrl, usuario del propietario].
+     *
+     * @param playlistIds IDs de las playlists
+     * @return filas de las playlists que siguen siendo públicas
+     */
+    @Query("SELECT p.id, p.nombre, p.imageUrl, p.usuario.usuario FROM PlaylistEntity p " +
+           "WHERE p.id IN :playlistIds AND p.esPublica = true")
+    List<Object[]> findResumenPublicoByIdIn(@Param("playlistIds") Collection<Long> playlistIds);
+
+    /**
+     * Obtiene un lote de IDs de playlists de un usuario.
+     *
+     * @param userId ID del propietario
+     * @param pageable tamaño del lote
+     * @return IDs de las playlists del lote
+     */
+    @Query("SELECT p.id FROM PlaylistEntity p WHERE p.usuario.id = :userId")
+    List<Long> findIdsByUsuarioId(@Param("userId") Long userId, Pageable pageable);
+    
+    /**
+     * Elimina las relaciones con canciones de un conjunto de playlists.
+     *
+     * @param playlistIds IDs de las playlists
+     * @return número de relaciones eliminadas
+     */
+    @Modifying
+    @Query(value = "DELETE FROM playlist_songs WHERE playlist_id IN (:playlistIds)", nativeQuery = true)
+    int deleteCancionesByPlaylistIdIn(@Param("playlistIds") Collection<Long> playlistIds);
+    
+    /**
+     * Elimina un conjunto de playlists con una única sentencia.
+     *
+     * @param playlistIds IDs de las playlists
+     * @return número de playlists eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM PlaylistEntity p WHERE p.id IN :playlistIds")
+    int deleteByIdIn(@Param("playlistIds") Collection<Long> playlistIds);
+}
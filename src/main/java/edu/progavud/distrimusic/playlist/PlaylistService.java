@@ -4,12 +4,18 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import edu.progavud.distrimusic.career.CareerRollupService;
 import edu.progavud.distrimusic.music.MusicEntity;
 import edu.progavud.distrimusic.music.MusicRepository;
-import edu.progavud.distrimusic.comment.CommentEntity;
 import edu.progavud.distrimusic.comment.CommentRepository;
+import edu.progavud.distrimusic.comment.CommentSearchIndex;
+import edu.progavud.distrimusic.timeline.ActivityEntity;
+import edu.progavud.distrimusic.timeline.TimelineService;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Optional;
@@ -21,6 +27,7 @@ import java.util.Optional;
  * - Creación y gestión de playlists
  * - Manejo de canciones dentro de las playlists
  * - Gestión de privacidad (pública/privada)
+ * - Versionado y registro de cambios para sincronización incremental
  *
  * Implementa manejo seguro de colecciones para evitar ConcurrentModificationException
  * y optimizaciones para el manejo de lazy loading.
@@ -33,12 +40,31 @@ public class PlaylistService {
     private final PlaylistRepository playlistRepository;
     private final MusicRepository musicRepository;
     private final CommentRepository commentRepository; // ✅ Se agregó correctamente
+    private final PlaylistChangeRepository playlistChangeRepository;
+    private final TimelineService timelineService;
+    private final CareerRollupService careerRollupService;
+    private final PlaylistVisibilityCache playlistVisibilityCache;
+    private final CommentSearchIndex commentSearchIndex;
+
+    /**
+     * Cantidad de versiones que se conservan en el registro de cambios de cada playlist.
+     */
+    private static final long VERSIONES_RETENIDAS = 100;
+
+    /**
+     * Cada cuántas versiones se compacta el registro de cambios.
+     */
+    private static final long INTERVALO_COMPACTACION = 20;
 
     @Transactional
     public PlaylistEntity createPlaylist(PlaylistEntity playlist) {
         try {
             log.info("🎵 Creando nueva playlist: {}", playlist.getNombre());
+            playlist.setVersion(0L);
             PlaylistEntity saved = playlistRepository.save(playlist);
+            registrarCreacion(saved, saved.getCanciones() != null
+                    ? saved.getCanciones().stream().map(MusicEntity::getId).toList()
+                    : List.of());
             log.info("✅ Playlist creada exitosamente con ID: {}", saved.getId());
             return saved;
         } catch (Exception e) {
@@ -47,6 +73,23 @@ public class PlaylistService {
         }
     }
 
+    /**
+     * Aplica los efectos de la creación de una playlist pública, comunes a todas las
+     * formas de crearla (formulario e importación): publica la actividad PLAYLIST_CREADA
+     * en los timelines de los seguidores y suma sus canciones a la carrera del dueño.
+     *
+     * @param playlist playlist recién guardada
+     * @param songIds IDs de las canciones con las que se creó
+     */
+    public void registrarCreacion(PlaylistEntity playlist, Collection<Long> songIds) {
+        if (!Boolean.TRUE.equals(playlist.getEsPublica()) || playlist.getUsuario() == null) {
+            return;
+        }
+        timelineService.registrarActividad(playlist.getUsuario().getId(),
+                ActivityEntity.Tipo.PLAYLIST_CREADA, playlist.getId(), null, null);
+        careerRollupService.registrarCanciones(playlist.getUsuario().getId(), songIds, 1);
+    }
+
     @Transactional(readOnly = true)
     public PlaylistEntity getPlaylistById(Long id) {
         log.info("🔍 Buscando playlist con ID: {}", id);
@@ -105,21 +148,40 @@ public class PlaylistService {
         try {
             log.info("📝 Actualizando playlist con ID: {}", id);
             PlaylistEntity existingPlaylist = getPlaylistById(id);
+            boolean renombrada = false;
+            boolean actualizada = false;
+            boolean cambioPrivacidad = false;
 
             if (playlistRequest.getNombre() != null && !playlistRequest.getNombre().trim().isEmpty()) {
                 log.info("📝 Actualizando nombre: {} -> {}", existingPlaylist.getNombre(), playlistRequest.getNombre());
+                renombrada = !playlistRequest.getNombre().trim().equals(existingPlaylist.getNombre());
                 existingPlaylist.setNombre(playlistRequest.getNombre().trim());
             }
             if (playlistRequest.getEsPublica() != null) {
                 log.info("🔒 Actualizando privacidad: {} -> {}", existingPlaylist.getEsPublica(), playlistRequest.getEsPublica());
+                cambioPrivacidad = !playlistRequest.getEsPublica().equals(existingPlaylist.getEsPublica());
+                actualizada |= cambioPrivacidad;
                 existingPlaylist.setEsPublica(playlistRequest.getEsPublica());
             }
             if (playlistRequest.getImageUrl() != null) {
                 log.info("🖼️ Actualizando imagen URL");
+                actualizada |= !playlistRequest.getImageUrl().equals(existingPlaylist.getImageUrl());
                 existingPlaylist.setImageUrl(playlistRequest.getImageUrl());
             }
 
             PlaylistEntity saved = playlistRepository.save(existingPlaylist);
+            if (renombrada) {
+                saved.setVersion(registrarCambio(id, PlaylistChangeEntity.TipoCambio.RENOMBRAR, null, saved.getNombre()));
+            }
+            if (actualizada) {
+                saved.setVersion(registrarCambio(id, PlaylistChangeEntity.TipoCambio.ACTUALIZAR, null, null));
+            }
+            if (cambioPrivacidad) {
+                playlistVisibilityCache.invalidar(id);
+                commentSearchIndex.cambiarVisibilidad(id, saved.getEsPublica());
+                careerRollupService.registrarPlaylist(saved.getUsuario().getId(), id,
+                        Boolean.TRUE.equals(saved.getEsPublica()) ? 1 : -1);
+            }
             log.info("✅ Playlist actualizada exitosamente");
             return saved;
         } catch (Exception e) {
@@ -128,56 +190,42 @@ public class PlaylistService {
         }
     }
 
+    /**
+     * Elimina una playlist junto con sus comentarios, sus relaciones con canciones
+     * y su registro de cambios.
+     *
+     * Usa un número fijo de sentencias DELETE masivas, de modo que la latencia
+     * no depende de la cantidad de comentarios ni de canciones.
+     *
+     * @param id ID de la playlist a eliminar
+     * @throws RuntimeException si la playlist no existe
+     */
     @Transactional
     public void deletePlaylist(Long id) {
         try {
             log.info("🗑️ Eliminando playlist con ID: {}", id);
 
-            Optional<PlaylistEntity> playlistOpt = playlistRepository.findById(id);
-            if (!playlistOpt.isPresent()) {
-                log.warn("⚠️ Playlist no existe con ID: {}", id);
-                throw new RuntimeException("Playlist no encontrada con ID: " + id);
-            }
-
-            PlaylistEntity playlist = playlistOpt.get();
-            log.info("📋 Eliminando playlist: {} del usuario: {}", playlist.getNombre(), playlist.getNombreUsuario());
+            // Los aportes de una playlist pública se descuentan antes de borrar sus filas
+            playlistVisibilityCache.buscar(id)
+                    .filter(PlaylistVisibilityCache.Visibilidad::esPublica)
+                    .ifPresent(v -> careerRollupService.registrarPlaylist(v.propietarioId(), id, -1));
 
             // 1. Eliminar comentarios asociados
-            log.info("💬 Eliminando comentarios asociados...");
-            try {
-                List<CommentEntity> comments = commentRepository.findByPlaylistId(id);
-                if (!comments.isEmpty()) {
-                    log.info("📝 Encontrados {} comentarios para eliminar", comments.size());
-                    commentRepository.deleteAll(comments);
-                    commentRepository.flush();
-                    log.info("✅ Comentarios eliminados exitosamente");
-                } else {
-                    log.info("ℹ️ No hay comentarios para eliminar");
-                }
-            } catch (Exception e) {
-                log.error("❌ Error eliminando comentarios: {}", e.getMessage());
-            }
+            int comentarios = commentRepository.deleteByPlaylistId(id);
+            log.info("💬 {} comentarios eliminados", comentarios);
 
             // 2. Limpiar relaciones Many-to-Many con canciones
-            log.info("🔗 Limpiando relaciones con canciones...");
-            try {
-                if (playlist.getCanciones() != null && !playlist.getCanciones().isEmpty()) {
-                    log.info("🎵 Encontradas {} canciones para desasociar", playlist.getCanciones().size());
-                    playlist.getCanciones().clear();
-                    playlistRepository.save(playlist);
-                    playlistRepository.flush();
-                    log.info("✅ Relaciones con canciones eliminadas");
-                } else {
-                    log.info("ℹ️ No hay canciones para desasociar");
-                }
-            } catch (Exception e) {
-                log.error("❌ Error limpiando canciones: {}", e.getMessage());
-            }
+            int canciones = playlistRepository.deleteCancionesByPlaylistId(id);
+            log.info("🔗 {} relaciones con canciones eliminadas", canciones);
 
-            // 3. Eliminar la playlist
-            log.info("🗑️ Eliminando registro de playlist...");
-            playlistRepository.deleteById(id);
-            playlistRepository.flush();
+            // 3. Eliminar el registro de cambios y la playlist
+            playlistChangeRepository.deleteByPlaylistId(id);
+            if (playlistRepository.deletePlaylistById(id) == 0) {
+                log.warn("⚠️ Playlist no existe con ID: {}", id);
+                throw new RuntimeException("Playlist no encontrada con ID: " + id);
+            }
+            playlistVisibilityCache.invalidar(id);
+            commentSearchIndex.eliminarPlaylist(id);
             log.info("✅ Playlist eliminada exitosamente");
 
         } catch (RuntimeException e) {
@@ -228,6 +276,12 @@ public class PlaylistService {
 
             PlaylistEntity savedPlaylist = playlistRepository.save(playlist);
             playlistRepository.flush();
+            savedPlaylist.setVersion(registrarCambio(playlistId, PlaylistChangeEntity.TipoCambio.AGREGAR_CANCION, songId, null));
+            if (Boolean.TRUE.equals(savedPlaylist.getEsPublica())) {
+                timelineService.registrarActividad(savedPlaylist.getUsuario().getId(),
+                        ActivityEntity.Tipo.CANCION_AGREGADA, playlistId, songId, null);
+                careerRollupService.registrarCancion(savedPlaylist.getUsuario().getId(), songId, 1);
+            }
 
             log.info("✅ Canción agregada exitosamente. Total de canciones: {}", savedPlaylist.getCantidadCanciones());
             return savedPlaylist;
@@ -268,6 +322,10 @@ public class PlaylistService {
 
             PlaylistEntity savedPlaylist = playlistRepository.save(playlist);
             playlistRepository.flush();
+            savedPlaylist.setVersion(registrarCambio(playlistId, PlaylistChangeEntity.TipoCambio.QUITAR_CANCION, songId, null));
+            if (Boolean.TRUE.equals(savedPlaylist.getEsPublica())) {
+                careerRollupService.registrarCancion(savedPlaylist.getUsuario().getId(), songId, -1);
+            }
 
             return savedPlaylist;
 
@@ -299,4 +357,59 @@ public class PlaylistService {
             return false;
         }
     }
+
+    /**
+     * Obtiene los cambios de una playlist posteriores a la versión que conoce el cliente.
+     *
+     * Si el registro ya fue compactado más allá de esa versión, no es posible
+     * reconstruir el delta y se indica al cliente que debe resincronizar por completo.
+     *
+     * @param playlistId ID de la playlist
+     * @param since versión conocida por el cliente
+     * @return mapa con la versión actual, la bandera de resincronización y los cambios
+     * @throws RuntimeException si la playlist no existe
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getCambios(Long playlistId, long since) {
+        Long version = playlistRepository.findVersionById(playlistId);
+        if (version == null) {
+            throw new RuntimeException("Playlist no encontrada con ID: " + playlistId);
+        }
+
+        List<PlaylistChangeEntity> cambios = since < version
+                ? playlistChangeRepository.findByPlaylistIdAndVersionGreaterThanOrderByVersionAsc(playlistId, since)
+                : List.of();
+        boolean resync = since < 0 || since > version
+                || (since < version && (cambios.isEmpty() || cambios.get(0).getVersion() != since + 1));
+
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("playlistId", playlistId);
+        respuesta.put("version", version);
+        respuesta.put("resync", resync);
+        respuesta.put("cambios", resync ? List.of() : cambios);
+        return respuesta;
+    }
+
+    /**
+     * Incrementa la versión de la playlist y agrega la entrada correspondiente
+     * al registro de cambios. Cada cierto número de versiones compacta las
+     * entradas más antiguas con una única sentencia DELETE.
+     *
+     * @param playlistId ID de la playlist modificada
+     * @param tipo tipo de cambio
+     * @param songId canción afectada (opcional)
+     * @param valor nuevo valor asociado (opcional)
+     * @return nueva versión de la playlist
+     */
+    private Long registrarCambio(Long playlistId, PlaylistChangeEntity.TipoCambio tipo, Long songId, String valor) {
+        playlistRepository.incrementarVersion(playlistId);
+        Long version = playlistRepository.findVersionById(playlistId);
+        playlistChangeRepository.save(new PlaylistChangeEntity(playlistId, version, tipo, songId, valor));
+
+        if (version % INTERVALO_COMPACTACION == 0 && version > VERSIONES_RETENIDAS) {
+            int eliminadas = playlistChangeRepository.compactarHastaVersion(playlistId, version - VERSIONES_RETENIDAS);
+            log.info("🧹 Registro de cambios de playlist {} compactado: {} entradas eliminadas", playlistId, eliminadas);
+        }
+        return version;
+    }
 }
@@ -0,0 +1,501 @@
+package edu.progavud.distrimusic.playlist;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import edu.progavud.distrimusic.music.CatalogoIndice;
+import edu.progavud.distrimusic.music.MusicEntity;
+import edu.progavud.distrimusic.persona.UserEntity;
+import edu.progavud.distrimusic.persona.UserLookupCache;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Servicio de exportación e importación de playlists en formatos estándar.
+ *
+ * Formatos soportados: M3U extendido, XSPF y JSON. Ambas direcciones trabajan
+ * en streaming:
+ * - La exportación recorre las canciones por lotes (keyset sobre el ID) y las
+ *   escribe directamente en la respuesta sin construir el documento en memoria
+ * - La importación lee el archivo entrada por entrada, busca cada canción en el
+ *   índice del catálogo ({@link CatalogoIndice}, clave título + artista) e inserta las filas
+ *   de playlist_songs por lotes con JDBC. Al terminar aplica los mismos efectos que
+ *   una playlist creada desde el formulario ({@link PlaylistService#registrarCreacion})
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlaylistTransferService {
+
+    /**
+     * Formatos de intercambio soportados.
+     */
+    public enum Formato {
+        M3U("audio/x-mpegurl", "m3u"),
+        XSPF("application/xspf+xml", "xspf"),
+        JSON("application/json", "json");
+
+        private final String contentType;
+        private final String extension;
+
+        Formato(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Resuelve un formato a partir de su nombre o extensión.
+         *
+         * @param valor nombre del formato (m3u, m3u8, xspf, json)
+         * @return formato correspondiente
+         * @throws RuntimeException si el formato no es soportado
+         */
+        public static Formato desde(String valor) {
+            if (valor != null) {
+                switch (valor.trim().toLowerCase()) {
+                    case "m3u", "m3u8" -> { return M3U; }
+                    case "xspf" -> { return XSPF; }
+                    case "json" -> { return JSON; }
+                    default -> { }
+                }
+            }
+            throw new RuntimeException("Formato no soportado: " + valor);
+        }
+    }
+
+    /**
+     * Prefijo de ubicación usado en M3U para referenciar canciones del catálogo.
+     */
+    private static final String PREFIJO_UBICACION = "distrimusic:song:";
+
+    private static final String XSPF_NS = "http://xspf.org/ns/0/";
+
+    private static final int TAMANO_LOTE_EXPORTACION = 500;
+
+    private static final int TAMANO_LOTE_INSERCION = 500;
+
+    /**
+     * Máximo de entradas no encontradas que se reportan en la respuesta de importación.
+     */
+    private static final int MAX_NO_ENCONTRADAS = 50;
+
+    private final PlaylistRepository playlistRepository;
+    private final CatalogoIndice catalogoIndice;
+    private final UserLookupCache userLookupCache;
+    private final PlaylistService playlistService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Escribe una playlist en el formato indicado directamente sobre un flujo de salida.
+     *
+     * @param playlist playlist a exportar
+     * @param formato formato de salida
+     * @param out flujo de salida de la respuesta
+     * @throws IOException si falla la escritura
+     */
+    public void exportar(PlaylistEntity playlist, Formato formato, OutputStream out) throws IOException {
+        log.info("📤 Exportando playlist {} en formato {}", playlist.getId(), formato);
+        try {
+            switch (formato) {
+                case M3U -> exportarM3u(playlist, out);
+                case XSPF -> exportarXspf(playlist, out);
+                case JSON -> exportarJson(playlist, out);
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Error escribiendo XSPF: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Crea una playlist a partir de un archivo M3U, XSPF o JSON.
+     *
+     * @param usuario nombre del usuario propietario
+     * @param nombre nombre de la nueva playlist
+     * @param esPublica visibilidad de la nueva playlist
+     * @param formato formato del archivo
+     * @param in contenido del archivo
+     * @return resumen con la playlist creada, canciones importadas y entradas no encontradas
+     * @throws RuntimeException si el usuario no existe o el archivo no se puede leer
+     */
+    @Transactional
+    public Map<String, Object> importar(String usuario, String nombre, Boolean esPublica,
+                                        Formato formato, InputStream in) {
+        UserEntity user = userLookupCache.buscarEntidad(usuario)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+
+        PlaylistEntity playlist = new PlaylistEntity(nombre, esPublica != null ? esPublica : true, user);
+        playlist = playlistRepository.saveAndFlush(playlist);
+        Long playlistId = playlist.getId();
+        log.info("📥 Importando playlist {} ({}) para {}", playlistId, formato, usuario);
+
+        Set<Long> agregadas = new HashSet<>();
+        List<Long> lote = new ArrayList<>(TAMANO_LOTE_INSERCION);
+        List<String> noEncontradas = new ArrayList<>();
+        int[] entradas = {0};
+
+        Consumer<Entrada> procesar = entrada -> {
+            entradas[0]++;
+            Long songId = entrada.songId();
+            if (!catalogoIndice.contiene(songId)) {
+                songId = catalogoIndice.buscar(entrada.titulo(), entrada.artista());
+            }
+            if (songId == null) {
+                if (noEncontradas.size() < MAX_NO_ENCONTRADAS) {
+                    noEncontradas.add(entrada.artista() == null || entrada.artista().isBlank()
+                            ? entrada.titulo()
+                            : entrada.artista() + " - " + entrada.titulo());
+                }
+                return;
+            }
+            if (agregadas.add(songId)) {
+                lote.add(songId);
+                if (lote.size() >= TAMANO_LOTE_INSERCION) {
+                    insertarLote(playlistId, lote);
+                }
+            }
+        };
+
+        try {
+            switch (formato) {
+                case M3U -> importarM3u(in, procesar);
+                case XSPF -> importarXspf(in, procesar);
+                case JSON -> importarJson(in, procesar);
+            }
+        } catch (IOException | XMLStreamException e) {
+            throw new RuntimeException("Error leyendo el archivo de playlist: " + e.getMessage());
+        }
+        insertarLote(playlistId, lote);
+        playlistService.registrarCreacion(playlist, agregadas);
+        log.info("✅ Importación completada: {} de {} entradas agregadas", agregadas.size(), entradas[0]);
+
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("playlistId", playlistId);
+        resumen.put("nombre", playlist.getNombre());
+        resumen.put("entradas", entradas[0]);
+        resumen.put("importadas", agregadas.size());
+        resumen.put("noEncontradas", noEncontradas);
+        return resumen;
+    }
+
+    // ----------------------------------------------------------------------
+    // Exportación
+    // ----------------------------------------------------------------------
+
+    private void exportarM3u(PlaylistEntity playlist, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("#EXTM3U\n");
+        writer.write("#PLAYLIST:" + limpiarLinea(playlist.getNombre()) + "\n");
+        recorrerCanciones(playlist.getId(), cancion -> {
+            try {
+                writer.write("#EXTINF:-1," + limpiarLinea(cancion.getArtista()) + " - "
+                        + limpiarLinea(cancion.getTitulo()) + "\n");
+                writer.write(PREFIJO_UBICACION + cancion.getId() + "\n");
+            } catch (IOException e) {
+                throw new ExportacionException(e);
+            }
+        }, writer);
+        writer.flush();
+    }
+
+    private void exportarXspf(PlaylistEntity playlist, OutputStream out) throws IOException, XMLStreamException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.writeStartElement("playlist");
+        xml.writeDefaultNamespace(XSPF_NS);
+        xml.writeAttribute("version", "1");
+        escribirElemento(xml, "title", playlist.getNombre());
+        xml.writeStartElement("trackList");
+        recorrerCanciones(playlist.getId(), cancion -> {
+            try {
+                xml.writeStartElement("track");
+                escribirElemento(xml, "location", PREFIJO_UBICACION + cancion.getId());
+                escribirElemento(xml, "title", cancion.getTitulo());
+                escribirElemento(xml, "creator", cancion.getArtista());
+                escribirElemento(xml, "album", cancion.getAlbum());
+                if (cancion.getImageUrl() != null && !cancion.getImageUrl().isBlank()) {
+                    escribirElemento(xml, "image", cancion.getImageUrl());
+                }
+                xml.writeEndElement();
+            } catch (XMLStreamException e) {
+                throw new ExportacionException(e);
+            }
+        }, writer);
+        xml.writeEndElement();
+        xml.writeEndElement();
+        xml.writeEndDocument();
+        xml.flush();
+        writer.flush();
+    }
+
+    private void exportarJson(PlaylistEntity playlist, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.writeStartObject();
+        json.writeStringField("nombre", playlist.getNombre());
+        json.writeArrayFieldStart("canciones");
+        recorrerCanciones(playlist.getId(), cancion -> {
+            try {
+                json.writeStartObject();
+                json.writeNumberField("id", cancion.getId());
+                json.writeStringField("titulo", cancion.getTitulo());
+                json.writeStringField("artista", cancion.getArtista());
+                json.writeStringField("album", cancion.getAlbum());
+                json.writeEndObject();
+            } catch (IOException e) {
+                throw new ExportacionException(e);
+            }
+        }, json::flush);
+        json.writeEndArray();
+        json.writeEndObject();
+        json.close();
+    }
+
+    /**
+     * Recorre las canciones de una playlist por lotes ordenados por ID,
+     * vaciando el escritor al terminar cada lote.
+     */
+    private void recorrerCanciones(Long playlistId, Consumer<MusicEntity> accion, Flushable salida)
+            throws IOException {
+        long ultimoId = 0L;
+        while (true) {
+            List<MusicEntity> lote = playlistRepository.findCancionesByPlaylistIdAfter(
+                    playlistId, ultimoId, PageRequest.of(0, TAMANO_LOTE_EXPORTACION));
+            if (lote.isEmpty()) {
+                return;
+            }
+            try {
+                lote.forEach(accion);
+            } catch (ExportacionException e) {
+                throw new IOException(e.getCause());
+            }
+            salida.flush();
+            ultimoId = lote.get(lote.size() - 1).getId();
+            if (lote.size() < TAMANO_LOTE_EXPORTACION) {
+                return;
+            }
+        }
+    }
+
+    private static void escribirElemento(XMLStreamWriter xml, String nombre, String valor) throws XMLStreamException {
+        xml.writeStartElement(nombre);
+        xml.writeCharacters(valor != null ? valor : "");
+        xml.writeEndElement();
+    }
+
+    private static String limpiarLinea(String valor) {
+        return valor == null ? "" : valor.replace('\r', ' ').replace('\n', ' ');
+    }
+
+    // ----------------------------------------------------------------------
+    // Importación
+    // ----------------------------------------------------------------------
+
+    /**
+     * Lee un M3U extendido línea por línea. Las líneas #EXTINF aportan
+     * "artista - título" y la línea siguiente la ubicación.
+     */
+    private void importarM3u(InputStream in, Consumer<Entrada> procesar) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String linea;
+        String titulo = null;
+        String artista = null;
+        while ((linea = reader.readLine()) != null) {
+            linea = linea.strip();
+            if (linea.isEmpty()) {
+                continue;
+            }
+            if (linea.startsWith("#EXTINF:")) {
+                int coma = linea.indexOf(',');
+                String info = coma >= 0 ? linea.substring(coma + 1).trim() : "";
+                int separador = info.indexOf(" - ");
+                artista = separador >= 0 ? info.substring(0, separador).trim() : "";
+                titulo = separador >= 0 ? info.substring(separador + 3).trim() : info;
+            } else if (!linea.startsWith("#")) {
+                Long songId = idDesdeUbicacion(linea);
+                if (titulo == null) {
+                    titulo = nombreDesdeUbicacion(linea);
+                    artista = "";
+                }
+                procesar.accept(new Entrada(titulo, artista, songId));
+                titulo = null;
+                artista = null;
+            }
+        }
+    }
+
+    /**
+     * Lee un XSPF con StAX, emitiendo una entrada por cada elemento track.
+     */
+    private void importarXspf(InputStream in, Consumer<Entrada> procesar) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLStreamReader xml = factory.createXMLStreamReader(in, "UTF-8");
+        try {
+            boolean enTrack = false;
+            String titulo = null;
+            String artista = null;
+            Long songId = null;
+            while (xml.hasNext()) {
+                int evento = xml.next();
+                if (evento == XMLStreamConstants.START_ELEMENT) {
+                    String nombre = xml.getLocalName();
+                    if ("track".equals(nombre)) {
+                        enTrack = true;
+                        titulo = null;
+                        artista = null;
+                        songId = null;
+                    } else if (enTrack && "title".equals(nombre)) {
+                        titulo = xml.getElementText().trim();
+                    } else if (enTrack && "creator".equals(nombre)) {
+                        artista = xml.getElementText().trim();
+                    } else if (enTrack && "location".equals(nombre)) {
+                        songId = idDesdeUbicacion(xml.getElementText().trim());
+                    }
+                } else if (evento == XMLStreamConstants.END_ELEMENT && "track".equals(xml.getLocalName())) {
+                    enTrack = false;
+                    procesar.accept(new Entrada(titulo, artista, songId));
+                }
+            }
+        } finally {
+            xml.close();
+        }
+    }
+
+    /**
+     * Lee un JSON con el formato de exportación ({"nombre": ..., "canciones": [...]})
+     * o un arreglo de canciones en la raíz, objeto por objeto.
+     */
+    private void importarJson(InputStream in, Consumer<Entrada> procesar) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String campo = parser.currentName();
+                    parser.nextToken();
+                    if ("canciones".equals(campo) && parser.currentToken() == JsonToken.START_ARRAY) {
+                        leerCancionesJson(parser, procesar);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if (token == JsonToken.START_ARRAY) {
+                leerCancionesJson(parser, procesar);
+            } else {
+                throw new IOException("Se esperaba un objeto o un arreglo JSON");
+            }
+        }
+    }
+
+    private void leerCancionesJson(JsonParser parser, Consumer<Entrada> procesar) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String titulo = null;
+            String artista = null;
+            Long songId = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+                switch (campo) {
+                    case "titulo", "title" -> titulo = parser.getValueAsString();
+                    case "artista", "artist", "creator" -> artista = parser.getValueAsString();
+                    case "id" -> songId = valor == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                    default -> parser.skipChildren();
+                }
+            }
+            procesar.accept(new Entrada(titulo, artista, songId));
+        }
+    }
+
+    private void insertarLote(Long playlistId, List<Long> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO playlist_songs (playlist_id, song_id) VALUES (?, ?)",
+                lote, lote.size(), (ps, songId) -> {
+                    ps.setLong(1, playlistId);
+                    ps.setLong(2, songId);
+                });
+        lote.clear();
+    }
+
+    private static Long idDesdeUbicacion(String ubicacion) {
+        if (ubicacion != null && ubicacion.startsWith(PREFIJO_UBICACION)) {
+            try {
+                return Long.parseLong(ubicacion.substring(PREFIJO_UBICACION.length()).trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static String nombreDesdeUbicacion(String ubicacion) {
+        String nombre = ubicacion.substring(Math.max(ubicacion.lastIndexOf('/'), ubicacion.lastIndexOf('\\')) + 1);
+        int punto = nombre.lastIndexOf('.');
+        return punto > 0 ? nombre.substring(0, punto) : nombre;
+    }
+
+    /**
+     * Entrada leída de un archivo de playlist.
+     */
+    private record Entrada(String titulo, String artista, Long songId) {
+    }
+
+    /**
+     * Envuelve errores de escritura lanzados dentro de las lambdas de exportación.
+     */
+    private static class ExportacionException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ExportacionException(Exception causa) {
+            super(causa);
+        }
+    }
+}
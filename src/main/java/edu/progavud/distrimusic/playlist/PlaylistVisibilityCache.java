@@ -0,0 +1,109 @@
+package edu.progavud.distrimusic.playlist;
+
+import edu.progavud.distrimusic.cache.CacheAcotada;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Caché de la visibilidad (pública o privada) y el propietario de las playlists.
+ *
+ * Permite verificar que una playlist existe y es pública sin consultar la base de
+ * datos en cada lectura o escritura de comentarios. Usa una {@link CacheAcotada}:
+ * acotada en tamaño, con expiración y sin bloqueos en las lecturas.
+ *
+ * Los cambios de privacidad y las eliminaciones deben invalidar la entrada; la
+ * invalidación se repite al confirmarse la transacción para que una lectura
+ * concurrente no deje guardado el valor anterior.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Component
+@RequiredArgsConstructor
+public class PlaylistVisibilityCache {
+
+    private final PlaylistRepository playlistRepository;
+
+    /**
+     * Cantidad máxima de playlists en la caché.
+     */
+    @Value("${app.playlists.visibilidad.capacidad:10000}")
+    private int capacidad;
+
+    /**
+     * Tiempo de vida de una entrada.
+     */
+    @Value("${app.playlists.visibilidad.ttl-ms:300000}")
+    private long ttlMs;
+
+    /**
+     * Visibilidad por ID de playlist.
+     */
+    private CacheAcotada<Long, Visibilidad> cache;
+
+    /**
+     * Visibilidad y propietario de una playlist.
+     *
+     * @param esPublica true si la playlist es pública
+     * @param propietarioId ID del dueño de la playlist
+     */
+    public record Visibilidad(boolean esPublica, Long propietarioId) {
+    }
+
+    /**
+     * Crea la caché con la capacidad y el tiempo de vida configurados.
+     */
+    @PostConstruct
+    public void iniciar() {
+        cache = new CacheAcotada<>(capacidad, ttlMs);
+    }
+
+    /**
+     * Obtiene la visibilidad de una playlist.
+     *
+     * @param playlistId ID de la playlist
+     * @return Optional con true si es pública y false si es privada; vacío si no existe
+     */
+    public Optional<Boolean> esPublica(Long playlistId) {
+        return buscar(playlistId).map(Visibilidad::esPublica);
+    }
+
+    /**
+     * Obtiene la visibilidad y el propietario de una playlist.
+     *
+     * @param playlistId ID de la playlist
+     * @return Optional con los datos de la playlist; vacío si no existe
+     */
+    public Optional<Visibilidad> buscar(Long playlistId) {
+        Visibilidad guardada = cache.obtener(playlistId);
+        if (guardada != null) {
+            return Optional.of(guardada);
+        }
+
+        long generacion = cache.generacion();
+        List<Object[]> filas = playlistRepository.findVisibilidadById(playlistId);
+        if (filas.isEmpty()) {
+            return Optional.empty();
+        }
+        Visibilidad visibilidad = new Visibilidad(Boolean.TRUE.equals(filas.get(0)[0]), (Long) filas.get(0)[1]);
+        cache.poner(playlistId, visibilidad, generacion);
+        return Optional.of(visibilidad);
+    }
+
+    /**
+     * Descarta la entrada de una playlist, ahora y al confirmarse la transacción actual.
+     *
+     * @param playlistId ID de la playlist
+     */
+    public void invalidar(Long playlistId) {
+        cache.invalidar(playlistId);
+    }
+}
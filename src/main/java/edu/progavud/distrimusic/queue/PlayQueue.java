@@ -0,0 +1,169 @@
+package edu.progavud.distrimusic.queue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Estado de la cola de reproducción de un usuario.
+ *
+ * La cola se compone de dos partes:
+ * - El contexto: el orden (mezclado o no) de la playlist que se está reproduciendo,
+ *   guardado como un arreglo primitivo de IDs y un índice de posición
+ * - La cola manual: canciones agregadas con "reproducir a continuación" o
+ *   "agregar a la cola", que siempre suenan antes de continuar con el contexto
+ *
+ * Los accesos se sincronizan sobre la propia instancia; cada usuario tiene la suya,
+ * por lo que no hay contención entre usuarios distintos. La cola manual está acotada
+ * a {@value #MAX_COLA_MANUAL} canciones.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+public class PlayQueue {
+
+    /**
+     * Cantidad máxima de canciones en la cola manual.
+     */
+    public static final int MAX_COLA_MANUAL = 500;
+
+    private final Long playlistId;
+    private final boolean mezclada;
+    private final long[] contexto;
+    private final Deque<Long> colaManual = new ArrayDeque<>();
+    private int posicion;
+    private Long actual;
+    private volatile long ultimoAcceso = System.currentTimeMillis();
+
+    /**
+     * Crea una cola a partir del orden de reproducción de una playlist.
+     *
+     * @param playlistId ID de la playlist de origen
+     * @param mezclada indica si el contexto fue mezclado
+     * @param contexto IDs de las canciones en orden de reproducción
+     */
+    public PlayQueue(Long playlistId, boolean mezclada, long[] contexto) {
+        this.playlistId = playlistId;
+        this.mezclada = mezclada;
+        this.contexto = contexto;
+        this.posicion = 0;
+        this.actual = contexto.length > 0 ? contexto[0] : null;
+    }
+
+    public Long getPlaylistId() {
+        return playlistId;
+    }
+
+    public boolean isMezclada() {
+        return mezclada;
+    }
+
+    public synchronized Long getActual() {
+        return actual;
+    }
+
+    /**
+     * Momento del último uso de la cola (System.currentTimeMillis).
+     *
+     * @return milisegundos del último acceso
+     */
+    public long getUltimoAcceso() {
+        return ultimoAcceso;
+    }
+
+    /**
+     * Registra un uso de la cola, para no descartarla por inactividad.
+     */
+    public void tocar() {
+        ultimoAcceso = System.currentTimeMillis();
+    }
+
+    /**
+     * Inserta una canción para que suene justo después de la actual.
+     *
+     * @param songId ID de la canción
+     * @return false si la cola manual está llena
+     */
+    public synchronized boolean reproducirSiguiente(Long songId) {
+        if (colaManual.size() >= MAX_COLA_MANUAL) {
+            return false;
+        }
+        colaManual.addFirst(songId);
+        return true;
+    }
+
+    /**
+     * Agrega una canción al final de la cola manual.
+     *
+     * @param songId ID de la canción
+     * @return false si la cola manual está llena
+     */
+    public synchronized boolean agregarACola(Long songId) {
+        if (colaManual.size() >= MAX_COLA_MANUAL) {
+            return false;
+        }
+        colaManual.addLast(songId);
+        return true;
+    }
+
+    /**
+     * Avanza a la siguiente canción, priorizando la cola manual sobre el contexto.
+     *
+     * @return ID de la nueva canción actual, o null si la cola terminó
+     */
+    public synchronized Long avanzar() {
+        if (!colaManual.isEmpty()) {
+            actual = colaManual.pollFirst();
+        } else if (posicion + 1 < contexto.length) {
+            actual = contexto[++posicion];
+        } else {
+            posicion = contexto.length;
+            actual = null;
+        }
+        return actual;
+    }
+
+    /**
+     * Cantidad de canciones pendientes después de la actual.
+     *
+     * @return número de canciones próximas
+     */
+    public synchronized int getPendientes() {
+        return colaManual.size() + Math.max(0, contexto.length - posicion - 1);
+    }
+
+    /**
+     * Obtiene una ventana de las próximas canciones sin materializar la cola completa.
+     *
+     * @param offset posición inicial dentro de las canciones pendientes
+     * @param limit cantidad máxima de canciones a retornar
+     * @return IDs de las canciones de la ventana en orden de reproducción
+     */
+    public synchronized List<Long> getVentana(int offset, int limit) {
+        List<Long> ventana = new ArrayList<>(limit);
+        int saltar = offset;
+        if (saltar < colaManual.size()) {
+            Iterator<Long> it = colaManual.iterator();
+            while (it.hasNext() && ventana.size() < limit) {
+                Long id = it.next();
+                if (saltar > 0) {
+                    saltar--;
+                } else {
+                    ventana.add(id);
+                }
+            }
+            saltar = 0;
+        } else {
+            saltar -= colaManual.size();
+        }
+        for (int i = posicion + 1 + saltar; i < contexto.length && ventana.size() < limit; i++) {
+            ventana.add(contexto[i]);
+        }
+        return ventana;
+    }
+}
@@ -0,0 +1,123 @@
+package edu.progavud.distrimusic.queue;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+
+/**
+ * Controlador REST para la cola de reproducción de los usuarios.
+ *
+ * Expone la cola generada en el servidor por ventanas, de forma que el cliente
+ * no necesita descargar ni mezclar la playlist completa.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@RestController
+@RequestMapping("/api/queue")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class PlayQueueController {
+
+    private final PlayQueueService playQueueService;
+
+    /**
+     * Inicia la cola de reproducción del usuario con una playlist.
+     *
+     * @param usuario nombre del usuario
+     * @param playlistId ID de la playlist a reproducir
+     * @param shuffle indica si se aplica la mezcla inteligente
+     * @param limit tamaño de la primera ventana
+     * @return ResponseEntity con la primera ventana de la cola
+     */
+    @PostMapping("/{usuario}/playlist/{playlistId}")
+    public ResponseEntity<Map<String, Object>> iniciarCola(
+            @PathVariable String usuario,
+            @PathVariable Long playlistId,
+            @RequestParam(defaultValue = "true") boolean shuffle,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(playQueueService.iniciarCola(usuario, playlistId, shuffle, limit));
+    }
+
+    /**
+     * Obtiene una ventana de la cola de reproducción.
+     *
+     * @param usuario nombre del usuario
+     * @param offset posición inicial dentro de las canciones pendientes
+     * @param limit cantidad de canciones a retornar
+     * @return ResponseEntity con la canción actual y las próximas canciones
+     */
+    @GetMapping("/{usuario}")
+    public ResponseEntity<Map<String, Object>> getVentana(
+            @PathVariable String usuario,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(playQueueService.getVentana(usuario, offset, limit));
+    }
+
+    /**
+     * Inserta una canción para que suene a continuación.
+     *
+     * @param usuario nombre del usuario
+     * @param songId ID de la canción
+     * @return ResponseEntity con mensaje de confirmación
+     */
+    @PostMapping("/{usuario}/next/{songId}")
+    public ResponseEntity<Map<String, String>> reproducirSiguiente(
+            @PathVariable String usuario,
+            @PathVariable Long songId) {
+        playQueueService.reproducirSiguiente(usuario, songId);
+        return ResponseEntity.ok(Map.of(
+            "message", "La canción sonará a continuación",
+            "status", "success"
+        ));
+    }
+
+    /**
+     * Agrega una canción al final de la cola manual.
+     *
+     * @param usuario nombre del usuario
+     * @param songId ID de la canción
+     * @return ResponseEntity con mensaje de confirmación
+     */
+    @PostMapping("/{usuario}/add/{songId}")
+    public ResponseEntity<Map<String, String>> agregarACola(
+            @PathVariable String usuario,
+            @PathVariable Long songId) {
+        playQueueService.agregarACola(usuario, songId);
+        return ResponseEntity.ok(Map.of(
+            "message", "Canción agregada a la cola",
+            "status", "success"
+        ));
+    }
+
+    /**
+     * Avanza a la siguiente canción de la cola.
+     *
+     * @param usuario nombre del usuario
+     * @param limit tamaño de la ventana a retornar
+     * @return ResponseEntity con la ventana actualizada
+     */
+    @PostMapping("/{usuario}/advance")
+    public ResponseEntity<Map<String, Object>> avanzar(
+            @PathVariable String usuario,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(playQueueService.avanzar(usuario, limit));
+    }
+
+    /**
+     * Elimina la cola de reproducción del usuario.
+     *
+     * @param usuario nombre del usuario
+     * @return ResponseEntity sin contenido y status 204 (NO_CONTENT)
+     */
+    @DeleteMapping("/{usuario}")
+    public ResponseEntity<Void> limpiarCola(@PathVariable String usuario) {
+        playQueueService.limpiarCola(usuario);
+        return ResponseEntity.noContent().build();
+    }
+}
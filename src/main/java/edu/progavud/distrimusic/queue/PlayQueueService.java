@@ -0,0 +1,279 @@
+package edu.progavud.distrimusic.queue;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import edu.progavud.distrimusic.music.MusicEntity;
+import edu.progavud.distrimusic.music.MusicRepository;
+import edu.progavud.distrimusic.playlist.PlaylistEntity;
+import edu.progavud.distrimusic.persona.SessionTokenService;
+import edu.progavud.distrimusic.persona.UserLookupCache;
+import edu.progavud.distrimusic.playlist.PlaylistRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio que gestiona las colas de reproducción de los usuarios en el servidor.
+ *
+ * Esta clase permite:
+ * - Iniciar una cola a partir de una playlist, con o sin mezcla inteligente
+ * - Agregar canciones con "reproducir a continuación" y "agregar a la cola"
+ * - Avanzar en la reproducción
+ * - Entregar la cola al cliente por ventanas en lugar de la playlist completa
+ *
+ * Las colas se mantienen en memoria, una por usuario existente. Si la petición trae
+ * un token de sesión, el usuario debe ser el del token. Las colas sin uso durante
+ * {@code app.queue.inactividad-ms} se descartan y, si se alcanza
+ * {@code app.queue.max-colas}, no se crean colas nuevas hasta que se libere espacio.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlayQueueService {
+
+    /**
+     * Tamaño máximo de una ventana de la cola.
+     */
+    private static final int LIMITE_MAXIMO = 100;
+
+    private final PlaylistRepository playlistRepository;
+    private final MusicRepository musicRepository;
+    private final UserLookupCache userLookupCache;
+
+    /**
+     * Cantidad máxima de colas en memoria.
+     */
+    @Value("${app.queue.max-colas:10000}")
+    private int maxColas;
+
+    /**
+     * Tiempo sin uso tras el cual se descarta una cola.
+     */
+    @Value("${app.queue.inactividad-ms:1800000}")
+    private long inactividadMs;
+
+    /**
+     * Colas por ID de usuario.
+     */
+    private final Map<Long, PlayQueue> colas = new ConcurrentHashMap<>();
+
+    /**
+     * Inicia la cola de reproducción de un usuario con las canciones de una playlist.
+     *
+     * @param usuario nombre del usuario que reproduce
+     * @param playlistId ID de la playlist a reproducir
+     * @param mezclar indica si se debe aplicar la mezcla inteligente
+     * @param limit tamaño de la primera ventana a retornar
+     * @return primera ventana de la cola
+     * @throws ResponseStatusException (404) si el usuario o la playlist no existen
+     * @throws ResponseStatusException (403) si la playlist es privada y la petición no trae
+     *         el token de su dueño
+     * @throws ResponseStatusException (503) si se alcanzó el máximo de colas activas
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> iniciarCola(String usuario, Long playlistId, boolean mezclar, int limit) {
+        Long userId = resolverUsuario(usuario);
+        PlaylistEntity playlist = playlistRepository.findById(playlistId)
+            .orElseThrow(() -> new ResponseStatusException(
+                HttpStatus.NOT_FOUND, "Playlist no encontrada"));
+
+        // Una playlist privada solo se reproduce con el token de su dueño, como en el perfil
+        boolean propia = SessionTokenService.actual()
+                .map(sesion -> sesion.usuario().equals(playlist.getNombreUsuario()))
+                .orElse(false);
+        if (!playlist.getEsPublica() && !propia) {
+            throw new ResponseStatusException(
+                HttpStatus.FORBIDDEN, "No puedes reproducir playlists privadas de otros usuarios");
+        }
+        if (!colas.containsKey(userId) && colas.size() >= maxColas) {
+            descartarInactivas();
+            if (colas.size() >= maxColas) {
+                throw new ResponseStatusException(
+                    HttpStatus.SERVICE_UNAVAILABLE, "Hay demasiadas colas de reproducción activas, intenta más tarde");
+            }
+        }
+
+        List<Object[]> filas = playlistRepository.findSongIdsAndArtistasByPlaylistId(playlistId);
+        long[] ids = new long[filas.size()];
+        String[] artistas = new String[filas.size()];
+        for (int i = 0; i < filas.size(); i++) {
+            ids[i] = (Long) filas.get(i)[0];
+            artistas[i] = (String) filas.get(i)[1];
+        }
+
+        long[] orden = mezclar ? SmartShuffle.mezclar(ids, artistas) : ids;
+        colas.put(userId, new PlayQueue(playlistId, mezclar, orden));
+        log.info("🎶 Cola iniciada para {} con {} canciones (mezcla: {})", usuario, orden.length, mezclar);
+
+        return getVentana(usuario, 0, limit);
+    }
+
+    /**
+     * Obtiene una ventana de la cola de reproducción de un usuario.
+     *
+     * @param usuario nombre del usuario
+     * @param offset posición inicial dentro de las canciones pendientes
+     * @param limit cantidad de canciones a retornar (máximo 100)
+     * @return mapa con la canción actual, la ventana de próximas canciones y el total pendiente
+     * @throws ResponseStatusException (404) si el usuario no tiene una cola activa
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getVentana(String usuario, int offset, int limit) {
+        PlayQueue cola = getCola(usuario);
+        int tamano = Math.min(Math.max(limit, 1), LIMITE_MAXIMO);
+        int desde = Math.max(offset, 0);
+
+        List<Long> ids = new ArrayList<>();
+        Long actual;
+        List<Long> ventana;
+        int pendientes;
+        synchronized (cola) {
+            actual = cola.getActual();
+            ventana = cola.getVentana(desde, tamano);
+            pendientes = cola.getPendientes();
+        }
+        if (actual != null) {
+            ids.add(actual);
+        }
+        ids.addAll(ventana);
+
+        Map<Long, MusicEntity> canciones = new HashMap<>();
+        for (MusicEntity cancion : musicRepository.findAllById(ids)) {
+            canciones.put(cancion.getId(), cancion);
+        }
+        List<MusicEntity> proximas = new ArrayList<>(ventana.size());
+        for (Long id : ventana) {
+            MusicEntity cancion = canciones.get(id);
+            if (cancion != null) {
+                proximas.add(cancion);
+            }
+        }
+
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("playlistId", cola.getPlaylistId());
+        respuesta.put("mezclada", cola.isMezclada());
+        respuesta.put("actual", actual != null ? canciones.get(actual) : null);
+        respuesta.put("offset", desde);
+        respuesta.put("limit", tamano);
+        respuesta.put("pendientes", pendientes);
+        respuesta.put("canciones", proximas);
+        return respuesta;
+    }
+
+    /**
+     * Inserta una canción para que suene justo después de la actual.
+     *
+     * @param usuario nombre del usuario
+     * @param songId ID de la canción
+     * @throws ResponseStatusException (404) si no hay cola activa o la canción no existe
+     * @throws ResponseStatusException (400) si la cola manual está llena
+     */
+    public void reproducirSiguiente(String usuario, Long songId) {
+        PlayQueue cola = getCola(usuario);
+        validarCancion(songId);
+        if (!cola.reproducirSiguiente(songId)) {
+            throw colaManualLlena();
+        }
+    }
+
+    /**
+     * Agrega una canción al final de la cola manual del usuario.
+     *
+     * @param usuario nombre del usuario
+     * @param songId ID de la canción
+     * @throws ResponseStatusException (404) si no hay cola activa o la canción no existe
+     * @throws ResponseStatusException (400) si la cola manual está llena
+     */
+    public void agregarACola(String usuario, Long songId) {
+        PlayQueue cola = getCola(usuario);
+        validarCancion(songId);
+        if (!cola.agregarACola(songId)) {
+            throw colaManualLlena();
+        }
+    }
+
+    /**
+     * Avanza la reproducción a la siguiente canción.
+     *
+     * @param usuario nombre del usuario
+     * @param limit tamaño de la ventana a retornar
+     * @return ventana actualizada de la cola
+     * @throws ResponseStatusException (404) si el usuario no tiene una cola activa
+     */
+    public Map<String, Object> avanzar(String usuario, int limit) {
+        getCola(usuario).avanzar();
+        return getVentana(usuario, 0, limit);
+    }
+
+    /**
+     * Elimina la cola de reproducción de un usuario.
+     *
+     * @param usuario nombre del usuario
+     */
+    public void limpiarCola(String usuario) {
+        colas.remove(resolverUsuario(usuario));
+    }
+
+    /**
+     * Descarta las colas que no se usan desde hace más de {@code app.queue.inactividad-ms}.
+     */
+    @Scheduled(fixedDelayString = "${app.queue.limpieza-ms:60000}")
+    public void descartarInactivas() {
+        long limite = System.currentTimeMillis() - inactividadMs;
+        int antes = colas.size();
+        colas.values().removeIf(cola -> cola.getUltimoAcceso() < limite);
+        int quitadas = antes - colas.size();
+        if (quitadas > 0) {
+            log.debug("🧹 {} colas de reproducción inactivas descartadas, quedan {}", quitadas, colas.size());
+        }
+    }
+
+    /**
+     * Resuelve el ID del usuario de la cola, que debe existir y coincidir con el del
+     * token de sesión si la petición trae uno.
+     */
+    private Long resolverUsuario(String usuario) {
+        String actuante = SessionTokenService.usuarioActuante(usuario);
+        return userLookupCache.resolverId(actuante)
+            .orElseThrow(() -> new ResponseStatusException(
+                HttpStatus.NOT_FOUND, "Usuario no encontrado"));
+    }
+
+    private PlayQueue getCola(String usuario) {
+        PlayQueue cola = colas.get(resolverUsuario(usuario));
+        if (cola == null) {
+            throw new ResponseStatusException(
+                HttpStatus.NOT_FOUND, "El usuario no tiene una cola de reproducción activa");
+        }
+        cola.tocar();
+        return cola;
+    }
+
+    private static ResponseStatusException colaManualLlena() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST,
+            "La cola admite como máximo " + PlayQueue.MAX_COLA_MANUAL + " canciones agregadas");
+    }
+
+    private void validarCancion(Long songId) {
+        if (songId == null || !musicRepository.existsById(songId)) {
+            throw new ResponseStatusException(
+                HttpStatus.NOT_FOUND, "Canción no encontrada");
+        }
+    }
+}
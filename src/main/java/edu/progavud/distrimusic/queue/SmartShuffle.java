@@ -0,0 +1,109 @@
+package edu.progavud.distrimusic.queue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Algoritmo de mezcla inteligente para las colas de reproducción.
+ *
+ * A diferencia de un Fisher-Yates plano, este algoritmo reparte las canciones de un
+ * mismo artista a lo largo de toda la cola para evitar que suenen seguidas:
+ * - Agrupa las canciones por artista y mezcla cada grupo por separado
+ * - Asigna a cada canción de un grupo de k elementos una posición en [0, 1)
+ *   separada 1/k de la anterior, con un desfase y una pequeña variación aleatoria
+ * - Ordena las posiciones con un counting sort sobre n cubetas
+ *
+ * Todas las fases son lineales, por lo que el costo total es O(n) sin importar
+ * el tamaño de la playlist.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+public final class SmartShuffle {
+
+    /**
+     * Fracción del espacio entre canciones de un mismo artista usada como variación.
+     */
+    private static final double VARIACION = 0.1;
+
+    private SmartShuffle() {
+    }
+
+    /**
+     * Genera un orden mezclado de las canciones separando las de un mismo artista.
+     *
+     * @param ids identificadores de las canciones
+     * @param artistas artista de cada canción (misma posición que en ids)
+     * @return nuevo arreglo con los identificadores en orden mezclado
+     */
+    public static long[] mezclar(long[] ids, String[] artistas) {
+        int n = ids.length;
+        if (n <= 1) {
+            return ids.clone();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        // 1. Agrupar índices por artista (listas enlazadas sobre arreglos primitivos)
+        Map<String, Integer> grupoPorArtista = new HashMap<>();
+        int[] grupo = new int[n];
+        int[] tamanoGrupo = new int[n];
+        for (int i = 0; i < n; i++) {
+            String artista = artistas[i] != null ? artistas[i].trim().toLowerCase() : "";
+            Integer g = grupoPorArtista.putIfAbsent(artista, grupoPorArtista.size());
+            grupo[i] = g != null ? g : grupoPorArtista.size() - 1;
+            tamanoGrupo[grupo[i]]++;
+        }
+
+        // 2. Mezclar cada grupo y repartirlo en [0, 1)
+        int grupos = grupoPorArtista.size();
+        int[] inicioGrupo = new int[grupos + 1];
+        for (int g = 0; g < grupos; g++) {
+            inicioGrupo[g + 1] = inicioGrupo[g] + tamanoGrupo[g];
+        }
+        int[] miembros = new int[n];
+        int[] cursor = inicioGrupo.clone();
+        for (int i = 0; i < n; i++) {
+            miembros[cursor[grupo[i]]++] = i;
+        }
+
+        int[] cubeta = new int[n];
+        for (int g = 0; g < grupos; g++) {
+            int desde = inicioGrupo[g];
+            int k = tamanoGrupo[g];
+            for (int j = k - 1; j > 0; j--) {
+                int r = random.nextInt(j + 1);
+                int tmp = miembros[desde + j];
+                miembros[desde + j] = miembros[desde + r];
+                miembros[desde + r] = tmp;
+            }
+            double paso = 1.0 / k;
+            double desfase = random.nextDouble() * paso;
+            for (int j = 0; j < k; j++) {
+                double posicion = desfase + j * paso + (random.nextDouble() * 2 - 1) * VARIACION * paso;
+                posicion = Math.min(Math.max(posicion, 0.0), Math.nextDown(1.0));
+                cubeta[miembros[desde + j]] = (int) (posicion * n);
+            }
+        }
+
+        // 3. Counting sort estable por cubeta
+        int[] conteo = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            conteo[cubeta[i] + 1]++;
+        }
+        for (int b = 0; b < n; b++) {
+            conteo[b + 1] += conteo[b];
+        }
+        long[] resultado = new long[n];
+        for (int g = 0; g < grupos; g++) {
+            for (int j = inicioGrupo[g]; j < inicioGrupo[g + 1]; j++) {
+                int i = miembros[j];
+                resultado[conteo[cubeta[i]]++] = ids[i];
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,34 @@
+package edu.progavud.distrimusic.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+
+/**
+ * Controlador REST con las métricas del límite de peticiones.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@RestController
+@RequestMapping("/api/rate-limit")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class RateLimitController {
+
+    private final RateLimiter rateLimiter;
+
+    /**
+     * Obtiene métricas del límite de peticiones.
+     *
+     * @return ResponseEntity con las cubetas activas y las peticiones permitidas y rechazadas por política
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        return ResponseEntity.ok(rateLimiter.getMetricas());
+    }
+}
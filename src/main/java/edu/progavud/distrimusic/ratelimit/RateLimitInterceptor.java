@@ -0,0 +1,145 @@
+package edu.progavud.distrimusic.ratelimit;
+
+import edu.progavud.distrimusic.persona.SessionTokenService;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Interceptor que aplica el límite de peticiones a los endpoints de escritura.
+ *
+ * Cada endpoint limitado se identifica por su método y su patrón de ruta, y tiene una
+ * política configurable:
+ * - Comentarios y respuestas ({@code app.rate-limit.comentarios.*})
+ * - Seguir usuarios ({@code app.rate-limit.follows.*})
+ * - Agregar canciones a playlists ({@code app.rate-limit.canciones.*})
+ * - Iniciar sesión ({@code app.rate-limit.login.*}), para que un solo cliente no
+ *   llene la cola de verificación de contraseñas que comparten todos los usuarios
+ *
+ * La cubeta se elige por el usuario del token de sesión, si lo hay; si no, por la
+ * dirección IP. El inicio de sesión siempre se limita por dirección IP. Si se agotan los tokens se responde 429 con la cabecera Retry-After.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter rateLimiter;
+
+    @Value("${app.rate-limit.activo:true}")
+    private boolean activo;
+
+    @Value("${app.rate-limit.comentarios.capacidad:10}")
+    private int comentariosCapacidad;
+
+    @Value("${app.rate-limit.comentarios.por-minuto:30}")
+    private int comentariosPorMinuto;
+
+    @Value("${app.rate-limit.follows.capacidad:20}")
+    private int followsCapacidad;
+
+    @Value("${app.rate-limit.follows.por-minuto:60}")
+    private int followsPorMinuto;
+
+    @Value("${app.rate-limit.canciones.capacidad:30}")
+    private int cancionesCapacidad;
+
+    @Value("${app.rate-limit.canciones.por-minuto:120}")
+    private int cancionesPorMinuto;
+
+    @Value("${app.rate-limit.login.capacidad:10}")
+    private int loginCapacidad;
+
+    @Value("${app.rate-limit.login.por-minuto:20}")
+    private int loginPorMinuto;
+
+    /**
+     * Política de cada endpoint limitado, por método y patrón de ruta.
+     */
+    private final Map<String, RateLimiter.Politica> politicas = new HashMap<>();
+
+    /**
+     * Política del inicio de sesión, que se aplica por dirección IP.
+     */
+    private RateLimiter.Politica login;
+
+    /**
+     * Arma la tabla de políticas a partir de la configuración.
+     */
+    @PostConstruct
+    public void iniciar() {
+        RateLimiter.Politica comentarios = new RateLimiter.Politica("comentarios", comentariosCapacidad, comentariosPorMinuto);
+        RateLimiter.Politica follows = new RateLimiter.Politica("follows", followsCapacidad, followsPorMinuto);
+        RateLimiter.Politica canciones = new RateLimiter.Politica("canciones", cancionesCapacidad, cancionesPorMinuto);
+        login = new RateLimiter.Politica("login", loginCapacidad, loginPorMinuto);
+        politicas.put("POST /api/comments/playlist/{playlistId}", comentarios);
+        politicas.put("POST /api/comments/{id}/replies", comentarios);
+        politicas.put("POST /api/users/{usuario}/follow", follows);
+        politicas.put("POST /api/playlists/{playlistId}/songs/{songId}", canciones);
+        politicas.put("POST /api/users/login", login);
+        if (activo) {
+            log.info("🚦 Límite de peticiones activo: comentarios {}/min, follows {}/min, canciones {}/min, login {}/min por IP",
+                    comentariosPorMinuto, followsPorMinuto, cancionesPorMinuto, loginPorMinuto);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // El login responde de forma asíncrona; su segundo despacho no debe gastar otro token
+        if (!activo || "GET".equals(request.getMethod()) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        RateLimiter.Politica politica = patron != null ? politicas.get(request.getMethod() + " " + patron) : null;
+        if (politica == null) {
+            return true;
+        }
+
+        RateLimiter.Resultado resultado = rateLimiter.consumir(politica, identificar(request, politica));
+        if (resultado.permitido()) {
+            return true;
+        }
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(resultado.esperaSegundos()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"Demasiadas peticiones, intenta de nuevo en "
+                + resultado.esperaSegundos() + " segundos\",\"status\":\"error\"}");
+        return false;
+    }
+
+    /**
+     * Identifica a quien hace la petición: el usuario del token verificado o, sin token,
+     * la dirección IP. El usuario indicado por parámetro no se usa, porque cualquiera
+     * podría gastar con él la cuota de otro o cambiarlo para obtener una cubeta nueva.
+     * El inicio de sesión se identifica siempre por IP: un token no debe dar más intentos.
+     */
+    private String identificar(HttpServletRequest request, RateLimiter.Politica politica) {
+        Optional<SessionTokenService.Sesion> sesion = SessionTokenService.actual();
+        if (sesion.isPresent() && politica != login) {
+            return "u:" + sesion.get().userId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
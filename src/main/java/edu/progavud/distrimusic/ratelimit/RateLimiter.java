@@ -0,0 +1,200 @@
+package edu.progavud.distrimusic.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador de peticiones en memoria con una cubeta de tokens por usuario y política.
+ *
+ * Cada política define una capacidad (ráfaga máxima) y un ritmo de recarga. La cubeta
+ * guarda un solo número: el instante en que volvería a estar llena. Los tokens
+ * disponibles se deducen de cuánto falta para ese instante, así que consumir uno es
+ * una sola operación compare-and-set, sin bloqueos ni hilos de recarga.
+ *
+ * Una cubeta que ya se llenó es igual a una nueva, por lo que la limpieza periódica
+ * ({@code app.rate-limit.limpieza-ms}) descarta las cubetas llenas sin perder nada.
+ * Si entre limpiezas se alcanza {@code app.rate-limit.max-cubetas}, se limpia en el
+ * momento; si aun así no hay espacio, la petición consume de una cubeta compartida de
+ * la política, así la memoria sigue acotada y nadie queda sin límite.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    /**
+     * Cantidad máxima de cubetas en memoria.
+     */
+    @Value("${app.rate-limit.max-cubetas:100000}")
+    private int maxCubetas;
+
+    /**
+     * Cubetas por política y usuario.
+     */
+    private final Map<Clave, Cubeta> cubetas = new ConcurrentHashMap<>();
+
+    /**
+     * Contadores por nombre de política.
+     */
+    private final Map<String, Contadores> contadores = new ConcurrentHashMap<>();
+
+    private final AtomicLong descartadas = new AtomicLong();
+    private final AtomicLong ultimaLimpiezaForzada = new AtomicLong(System.nanoTime());
+    private final LongAdder compartidas = new LongAdder();
+
+    /**
+     * Identificador de la cubeta compartida que se usa cuando no hay espacio para más.
+     */
+    private static final String COMPARTIDA = "*";
+
+    /**
+     * Política de límite de un grupo de endpoints.
+     *
+     * @param nombre nombre de la política
+     * @param capacidad peticiones que se pueden hacer seguidas
+     * @param porMinuto peticiones que se recuperan por minuto
+     */
+    public record Politica(String nombre, int capacidad, int porMinuto) {
+
+        /**
+         * Nanosegundos que tarda en recuperarse un token.
+         */
+        long intervaloNanos() {
+            return TimeUnit.MINUTES.toNanos(1) / porMinuto;
+        }
+    }
+
+    /**
+     * Resultado de consumir un token.
+     *
+     * @param permitido true si la petición puede continuar
+     * @param esperaSegundos segundos hasta que haya un token disponible (0 si se permitió)
+     */
+    public record Resultado(boolean permitido, long esperaSegundos) {
+
+        static final Resultado PERMITIDO = new Resultado(true, 0);
+    }
+
+    private record Clave(String politica, String usuario) {
+    }
+
+    /**
+     * Cubeta de tokens: guarda el instante (System.nanoTime) en que vuelve a estar llena.
+     */
+    private static final class Cubeta {
+
+        final AtomicLong llena;
+
+        Cubeta(long llena) {
+            this.llena = new AtomicLong(llena);
+        }
+    }
+
+    private static final class Contadores {
+        final LongAdder permitidas = new LongAdder();
+        final LongAdder rechazadas = new LongAdder();
+    }
+
+    /**
+     * Consume un token de la cubeta del usuario para la política indicada.
+     *
+     * @param politica política del endpoint
+     * @param usuario identificador de quien hace la petición
+     * @return resultado con el tiempo de espera si no hay tokens
+     */
+    public Resultado consumir(Politica politica, String usuario) {
+        Contadores contador = contadores.computeIfAbsent(politica.nombre(), n -> new Contadores());
+        long ahora = System.nanoTime();
+        Clave clave = new Clave(politica.nombre(), usuario);
+        Cubeta cubeta = cubetas.get(clave);
+        if (cubeta == null) {
+            cubeta = crear(clave, ahora);
+            if (cubeta == null) {
+                compartidas.increment();
+                cubeta = cubetas.computeIfAbsent(new Clave(politica.nombre(), COMPARTIDA), c -> new Cubeta(ahora));
+            }
+        }
+
+        long intervalo = politica.intervaloNanos();
+        long rafaga = intervalo * politica.capacidad();
+        while (true) {
+            long llena = cubeta.llena.get();
+            long nueva = Math.max(llena, ahora) + intervalo;
+            long exceso = nueva - ahora - rafaga;
+            if (exceso > 0) {
+                contador.rechazadas.increment();
+                return new Resultado(false, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(exceso + 999_999_999)));
+            }
+            if (cubeta.llena.compareAndSet(llena, nueva)) {
+                contador.permitidas.increment();
+                return Resultado.PERMITIDO;
+            }
+        }
+    }
+
+    /**
+     * Descarta las cubetas que ya se llenaron.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.limpieza-ms:60000}")
+    public void limpiar() {
+        long ahora = System.nanoTime();
+        int antes = cubetas.size();
+        cubetas.values().removeIf(cubeta -> cubeta.llena.get() - ahora <= 0);
+        int quitadas = antes - cubetas.size();
+        if (quitadas > 0) {
+            descartadas.addAndGet(quitadas);
+            log.debug("🧹 {} cubetas de límite de peticiones descartadas, quedan {}", quitadas, cubetas.size());
+        }
+    }
+
+    /**
+     * Obtiene métricas del limitador.
+     *
+     * @return mapa con las cubetas activas y las peticiones permitidas y rechazadas por política
+     */
+    public Map<String, Object> getMetricas() {
+        Map<String, Object> politicas = new LinkedHashMap<>();
+        contadores.forEach((nombre, contador) -> politicas.put(nombre, Map.of(
+                "permitidas", contador.permitidas.sum(),
+                "rechazadas", contador.rechazadas.sum())));
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("cubetas", cubetas.size());
+        metricas.put("maxCubetas", maxCubetas);
+        metricas.put("cubetasDescartadas", descartadas.get());
+        metricas.put("enCubetaCompartida", compartidas.sum());
+        metricas.put("politicas", politicas);
+        return metricas;
+    }
+
+    /**
+     * Crea la cubeta de un usuario, llena. Si no hay espacio, descarta las cubetas llenas
+     * (como máximo una vez por segundo, para que recorrer el mapa no se vuelva el cuello
+     * de botella); devuelve null si aun así se alcanzó el máximo.
+     */
+    private Cubeta crear(Clave clave, long ahora) {
+        if (cubetas.size() >= maxCubetas) {
+            long anterior = ultimaLimpiezaForzada.get();
+            if (ahora - anterior >= TimeUnit.SECONDS.toNanos(1) && ultimaLimpiezaForzada.compareAndSet(anterior, ahora)) {
+                limpiar();
+            }
+            if (cubetas.size() >= maxCubetas) {
+                return null;
+            }
+        }
+        return cubetas.computeIfAbsent(clave, c -> new Cubeta(ahora));
+    }
+}
@@ -0,0 +1,73 @@
+package edu.progavud.distrimusic.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización y separación en palabras compartida por los índices de búsqueda de
+ * usuarios y de comentarios, para que ambos traten igual los textos y las consultas.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+public final class TextoBusqueda {
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    private TextoBusqueda() {
+    }
+
+    /**
+     * Normaliza un texto: minúsculas, sin tildes ni otras marcas diacríticas y sin
+     * espacios en los extremos. Los textos ASCII evitan la descomposición Unicode.
+     *
+     * @param texto texto original (puede ser null)
+     * @return texto normalizado
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        boolean ascii = true;
+        for (int i = 0; i < texto.length() && ascii; i++) {
+            ascii = texto.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            return texto.toLowerCase().trim();
+        }
+        return MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("").toLowerCase().trim();
+    }
+
+    /**
+     * Separa un texto normalizado en palabras (secuencias de letras y dígitos).
+     *
+     * @param normalizado texto devuelto por {@link #normalizar(String)}
+     * @return palabras en orden de aparición
+     */
+    public static List<String> separar(String normalizado) {
+        return separar(normalizado, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Separa un texto normalizado en palabras, omitiendo las demasiado largas.
+     *
+     * @param normalizado texto devuelto por {@link #normalizar(String)}
+     * @param maxLargo largo máximo de una palabra
+     * @return palabras en orden de aparición
+     */
+    public static List<String> separar(String normalizado, int maxLargo) {
+        List<String> palabras = new ArrayList<>();
+        for (String palabra : SEPARADORES.split(normalizado)) {
+            if (!palabra.isEmpty() && palabra.length() <= maxLargo) {
+                palabras.add(palabra);
+            }
+        }
+        return palabras;
+    }
+}
@@ -0,0 +1,93 @@
+package edu.progavud.distrimusic.search;
+
+import java.util.Arrays;
+
+/**
+ * Selección de las K claves long mayores con un montículo mínimo, sin crear objetos
+ * por candidato. Los índices de búsqueda empaquetan en cada clave la relevancia (bits
+ * altos) y la posición del documento (bits bajos), así que solo se ordenan los
+ * resultados necesarios para la página pedida.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+public final class TopClaves {
+
+    private final long[] monticulo;
+    private final int capacidad;
+    private int tamano;
+
+    /**
+     * Crea una selección vacía.
+     *
+     * @param capacidad cantidad de claves a conservar
+     */
+    public TopClaves(int capacidad) {
+        this.capacidad = Math.max(0, capacidad);
+        this.monticulo = new long[Math.max(1, this.capacidad)];
+    }
+
+    /**
+     * Considera una clave: se conserva si todavía hay lugar o si supera a la menor.
+     *
+     * @param clave clave candidata
+     */
+    public void ofrecer(long clave) {
+        if (tamano < capacidad) {
+            monticulo[tamano] = clave;
+            subir(tamano++);
+        } else if (tamano > 0 && clave > monticulo[0]) {
+            monticulo[0] = clave;
+            bajar();
+        }
+    }
+
+    /**
+     * Obtiene las claves conservadas en orden ascendente.
+     *
+     * @return copia ordenada de las claves
+     */
+    public long[] ordenadas() {
+        long[] ordenadas = Arrays.copyOf(monticulo, tamano);
+        Arrays.sort(ordenadas);
+        return ordenadas;
+    }
+
+    private void subir(int i) {
+        while (i > 0) {
+            int padre = (i - 1) / 2;
+            if (monticulo[padre] <= monticulo[i]) {
+                return;
+            }
+            long tmp = monticulo[padre];
+            monticulo[padre] = monticulo[i];
+            monticulo[i] = tmp;
+            i = padre;
+        }
+    }
+
+    private void bajar() {
+        int i = 0;
+        while (true) {
+            int menor = i;
+            int izquierdo = 2 * i + 1;
+            int derecho = izquierdo + 1;
+            if (izquierdo < tamano && monticulo[izquierdo] < monticulo[menor]) {
+                menor = izquierdo;
+            }
+            if (derecho < tamano && monticulo[derecho] < monticulo[menor]) {
+                menor = derecho;
+            }
+            if (menor == i) {
+                return;
+            }
+            long tmp = monticulo[menor];
+            monticulo[menor] = monticulo[i];
+            monticulo[i] = tmp;
+            i = menor;
+        }
+    }
+}
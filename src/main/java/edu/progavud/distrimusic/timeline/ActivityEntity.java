@@ -0,0 +1,103 @@
+package edu.progavud.distrimusic.timeline;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa una actividad de un usuario que se muestra en el inicio
+ * de sus seguidores: una playlist pública creada, una canción agregada a una
+ * playlist pública o un comentario.
+ *
+ * La actividad guarda solo referencias; los nombres y títulos se resuelven al leer
+ * la página del timeline. El ID es creciente y sirve como cursor de paginación.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Entity
+@Table(name = "activities", indexes = {
+    @Index(name = "idx_activities_actor_id", columnList = "actor_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityEntity {
+
+    /**
+     * Tipos de actividad publicados en el timeline.
+     */
+    public enum Tipo {
+        PLAYLIST_CREADA,
+        CANCION_AGREGADA,
+        COMENTARIO
+    }
+
+    /**
+     * Identificador único de la actividad.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * ID del usuario que realizó la actividad.
+     */
+    @Column(name = "actor_id", nullable = false)
+    private Long actorId;
+
+    /**
+     * Tipo de actividad.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Tipo tipo;
+
+    /**
+     * ID de la playlist involucrada.
+     */
+    @Column(name = "playlist_id")
+    private Long playlistId;
+
+    /**
+     * ID de la canción involucrada, si aplica.
+     */
+    @Column(name = "song_id")
+    private Long songId;
+
+    /**
+     * ID del comentario involucrado, si aplica.
+     */
+    @Column(name = "comment_id")
+    private Long commentId;
+
+    /**
+     * Fecha y hora de la actividad.
+     */
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime fecha;
+
+    /**
+     * Constructor personalizado para registrar una nueva actividad.
+     *
+     * @param actorId ID del usuario que realizó la actividad
+     * @param tipo tipo de actividad
+     * @param playlistId ID de la playlist
+     * @param songId ID de la canción (puede ser null)
+     * @param commentId ID del comentario (puede ser null)
+     */
+    public ActivityEntity(Long actorId, Tipo tipo, Long playlistId, Long songId, Long commentId) {
+        this.actorId = actorId;
+        this.tipo = tipo;
+        this.playlistId = playlistId;
+        this.songId = songId;
+        this.commentId = commentId;
+    }
+}
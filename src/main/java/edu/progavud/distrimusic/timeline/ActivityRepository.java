@@ -0,0 +1,78 @@
+package edu.progavud.distrimusic.timeline;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio para las actividades publicadas en los timelines.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Repository
+public interface ActivityRepository extends JpaRepository<ActivityEntity, Long> {
+
+    /**
+     * Obtiene los IDs de las actividades más recientes de un conjunto de usuarios,
+     * anteriores a un cursor. Se usa para mezclar al leer las actividades de las
+     * cuentas con muchos seguidores, que no se distribuyen al escribir.
+     *
+     * @param actorIds IDs de los autores
+     * @param antes ID de actividad a partir del cual se lee (exclusivo)
+     * @param pageable tamaño de la página
+     * @return IDs de actividad en orden descendente
+     */
+    @Query("SELECT a.id FROM ActivityEntity a WHERE a.actorId IN :actorIds AND a.id < :antes ORDER BY a.id DESC")
+    List<Long> findIdsByActorIdIn(@Param("actorIds") Collection<Long> actorIds, @Param("antes") Long antes,
+                                  Pageable pageable);
+
+    /**
+     * Obtiene los datos de una página de actividades con su autor, playlist, canción y
+     * comentario en una sola consulta. Se omiten las actividades cuya playlist ya no
+     * existe o es privada, y las de comentarios que ya no existen.
+     * Cada fila contiene [id, tipo, fecha, usuario, nombre, profileImageUrl,
+     * playlistId, nombre de la playlist, songId, título, artista, commentId, contenido].
+     *
+     * @param ids IDs de las actividades
+     * @return filas de las actividades encontradas
+     */
+    @Query("SELECT a.id, a.tipo, a.fecha, u.usuario, u.nombre, u.profileImageUrl, " +
+           "a.playlistId, p.nombre, a.songId, m.titulo, m.artista, a.commentId, c.contenido " +
+           "FROM ActivityEntity a JOIN UserEntity u ON u.id = a.actorId " +
+           "LEFT JOIN PlaylistEntity p ON p.id = a.playlistId " +
+           "LEFT JOIN MusicEntity m ON m.id = a.songId " +
+           "LEFT JOIN CommentEntity c ON c.id = a.commentId " +
+           "WHERE a.id IN :ids AND u.eliminado = false " +
+           "AND (a.playlistId IS NULL OR p.esPublica = true) " +
+           "AND (a.commentId IS NULL OR c.id IS NOT NULL)")
+    List<Object[]> findDetalles(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Obtiene un lote de IDs de actividades de un usuario.
+     *
+     * @param actorId ID del usuario
+     * @param pageable tamaño del lote
+     * @return IDs de las actividades del lote
+     */
+    @Query("SELECT a.id FROM ActivityEntity a WHERE a.actorId = :actorId")
+    List<Long> findIdsByActorId(@Param("actorId") Long actorId, Pageable pageable);
+
+    /**
+     * Elimina un conjunto de actividades con una única sentencia.
+     *
+     * @param ids IDs de las actividades
+     * @return número de actividades eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM ActivityEntity a WHERE a.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,53 @@
+package edu.progavud.distrimusic.timeline;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+
+/**
+ * Controlador REST del timeline de inicio.
+ *
+ * Expone la actividad reciente de los usuarios que sigue un usuario: playlists
+ * públicas creadas, canciones agregadas y comentarios, paginada por cursor.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@RestController
+@RequestMapping("/api/timeline")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class TimelineController {
+
+    private final TimelineService timelineService;
+
+    /**
+     * Obtiene una página del timeline de inicio de un usuario, de lo más reciente a lo más antiguo.
+     *
+     * @param usuario nombre del usuario
+     * @param cursor cursor de la página anterior (siguienteCursor); se omite en la primera
+     * @param limit tamaño de la página (máximo 50)
+     * @return ResponseEntity con la página del timeline
+     */
+    @GetMapping("/{usuario}")
+    public ResponseEntity<?> getTimeline(
+            @PathVariable String usuario,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(timelineService.getTimeline(usuario, cursor, limit));
+        } catch (RuntimeException e) {
+            HttpStatus status = "Usuario no encontrado".equals(e.getMessage())
+                    ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(Map.of(
+                "error", e.getMessage(),
+                "status", "error"
+            ));
+        }
+    }
+}
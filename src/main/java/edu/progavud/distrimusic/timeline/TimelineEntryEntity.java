@@ -0,0 +1,59 @@
+package edu.progavud.distrimusic.timeline;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.io.Serializable;
+
+/**
+ * Entrada del timeline materializado de un usuario.
+ *
+ * Al publicar una actividad de una cuenta normal se inserta una entrada por cada
+ * seguidor. La clave primaria (user_id, activity_id) permite leer una página del
+ * timeline como un recorrido de rango descendente, con un costo que depende solo
+ * del tamaño de la página.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Entity
+@Table(name = "timeline_entries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineEntryEntity {
+
+    /**
+     * Clave compuesta de la entrada.
+     */
+    @EmbeddedId
+    private TimelineEntryId id;
+
+    /**
+     * Clave primaria compuesta (dueño del timeline, actividad).
+     */
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TimelineEntryId implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * ID del usuario dueño del timeline.
+         */
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        /**
+         * ID de la actividad.
+         */
+        @Column(name = "activity_id", nullable = false)
+        private Long activityId;
+    }
+}
@@ -0,0 +1,86 @@
+package edu.progavud.distrimusic.timeline;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio para las entradas de los timelines materializados.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Repository
+public interface TimelineRepository extends JpaRepository<TimelineEntryEntity, TimelineEntryEntity.TimelineEntryId> {
+
+    /**
+     * Distribuye una actividad a los timelines de todos los seguidores de su autor
+     * con un único INSERT ... SELECT sobre la tabla follows.
+     *
+     * @param actorId ID del autor de la actividad
+     * @param activityId ID de la actividad
+     * @return número de timelines actualizados
+     */
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entries (user_id, activity_id) " +
+                   "SELECT f.follower_id, :activityId FROM follows f WHERE f.followee_id = :actorId",
+           nativeQuery = true)
+    int distribuir(@Param("actorId") Long actorId, @Param("activityId") Long activityId);
+
+    /**
+     * Obtiene los IDs de actividad del timeline de un usuario anteriores a un cursor.
+     *
+     * @param userId ID del dueño del timeline
+     * @param antes ID de actividad a partir del cual se lee (exclusivo)
+     * @param pageable tamaño de la página
+     * @return IDs de actividad en orden descendente
+     */
+    @Query("SELECT t.id.activityId FROM TimelineEntryEntity t " +
+           "WHERE t.id.userId = :userId AND t.id.activityId < :antes ORDER BY t.id.activityId DESC")
+    List<Long> findActividadIds(@Param("userId") Long userId, @Param("antes") Long antes, Pageable pageable);
+
+    /**
+     * Recorta a las entradas más recientes los timelines de los seguidores de unos
+     * autores, que son los únicos que recibieron entradas de ellos.
+     *
+     * @param actorIds IDs de los autores cuyas actividades se distribuyeron
+     * @param capacidad cantidad de entradas que se conservan por usuario
+     * @return número de entradas eliminadas
+     */
+    @Modifying
+    @Query(value = "DELETE FROM timeline_entries WHERE (user_id, activity_id) IN (" +
+                   "SELECT user_id, activity_id FROM (" +
+                   "SELECT user_id, activity_id, ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY activity_id DESC) AS rn " +
+                   "FROM timeline_entries WHERE user_id IN (" +
+                   "SELECT f.follower_id FROM follows f WHERE f.followee_id IN (:actorIds))) x " +
+                   "WHERE rn > :capacidad)", nativeQuery = true)
+    int recortar(@Param("actorIds") Collection<Long> actorIds, @Param("capacidad") int capacidad);
+
+    /**
+     * Elimina el timeline de un usuario.
+     *
+     * @param userId ID del dueño del timeline
+     * @return número de entradas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM TimelineEntryEntity t WHERE t.id.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Elimina de todos los timelines un conjunto de actividades.
+     *
+     * @param activityIds IDs de las actividades
+     * @return número de entradas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM TimelineEntryEntity t WHERE t.id.activityId IN :activityIds")
+    int deleteByActivityIdIn(@Param("activityIds") Collection<Long> activityIds);
+}
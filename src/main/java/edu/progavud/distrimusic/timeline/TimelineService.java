@@ -0,0 +1,270 @@
+package edu.progavud.distrimusic.timeline;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import edu.progavud.distrimusic.persona.FollowCounterService;
+import edu.progavud.distrimusic.persona.FollowRepository;
+import edu.progavud.distrimusic.persona.UserLookupCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio del timeline de inicio: la actividad reciente de los usuarios seguidos.
+ *
+ * Usa una distribución híbrida:
+ * - Las actividades de cuentas normales se distribuyen al escribir, insertando una
+ *   entrada en el timeline materializado de cada seguidor con una sola sentencia.
+ * - Las actividades de cuentas con muchos seguidores (celebridades, según
+ *   {@link FollowCounterService}) no se distribuyen; se mezclan al leer.
+ *
+ * Una página se arma con un recorrido de rango sobre el timeline materializado y otro
+ * sobre las actividades de las celebridades seguidas, ambos limitados al tamaño de la
+ * página, de modo que el costo no depende de cuántos usuarios se siguen. Los timelines
+ * se recortan periódicamente a una capacidad fija por usuario.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TimelineService {
+
+    /**
+     * Tamaño máximo de una página del timeline.
+     */
+    private static final int MAX_PAGINA = 50;
+
+    /**
+     * Cantidad máxima de autores por sentencia de recorte.
+     */
+    private static final int LOTE_RECORTE = 500;
+
+    private final ActivityRepository activityRepository;
+    private final TimelineRepository timelineRepository;
+    private final UserLookupCache userLookupCache;
+    private final FollowRepository followRepository;
+    private final FollowCounterService followCounterService;
+
+    /**
+     * Cantidad de entradas que se conservan en el timeline de cada usuario.
+     */
+    @Value("${app.timeline.capacidad:500}")
+    private int capacidad;
+
+    /**
+     * Autores cuyas actividades se distribuyeron desde el último recorte; solo los
+     * timelines de sus seguidores pueden haber superado la capacidad.
+     */
+    private final Set<Long> actoresPendientes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Registra una actividad y, si su autor no es celebridad, la distribuye a los
+     * timelines de sus seguidores dentro de la transacción actual.
+     *
+     * @param actorId ID del usuario que realizó la actividad
+     * @param tipo tipo de actividad
+     * @param playlistId ID de la playlist
+     * @param songId ID de la canción (puede ser null)
+     * @param commentId ID del comentario (puede ser null)
+     */
+    @Transactional
+    public void registrarActividad(Long actorId, ActivityEntity.Tipo tipo, Long playlistId, Long songId, Long commentId) {
+        ActivityEntity actividad = activityRepository.save(
+                new ActivityEntity(actorId, tipo, playlistId, songId, commentId));
+        if (followCounterService.esCelebridad(actorId)) {
+            return;
+        }
+        if (timelineRepository.distribuir(actorId, actividad.getId()) > 0) {
+            marcarParaRecorte(actorId);
+        }
+    }
+
+    /**
+     * Obtiene una página del timeline de inicio de un usuario.
+     *
+     * @param usuario nombre del usuario
+     * @param cursor ID de la última actividad de la página anterior (null para la primera)
+     * @param limit tamaño de la página
+     * @return mapa con las actividades de la página y el cursor de la siguiente
+     * @throws RuntimeException si el usuario no existe o el cursor es inválido
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getTimeline(String usuario, String cursor, int limit) {
+        Long userId = userLookupCache.resolverId(usuario)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        int tamano = Math.max(1, Math.min(limit, MAX_PAGINA));
+        Long antes = decodificarCursor(cursor);
+        PageRequest pagina = PageRequest.of(0, tamano + 1);
+
+        List<Long> materializadas = timelineRepository.findActividadIds(userId, antes, pagina);
+        List<Long> celebridades = List.of();
+        Set<Long> idsCelebridades = followCounterService.getIdsCelebridades();
+        if (!idsCelebridades.isEmpty()) {
+            List<Long> seguidas = followRepository.findSeguidosEntre(userId, idsCelebridades);
+            if (!seguidas.isEmpty()) {
+                celebridades = activityRepository.findIdsByActorIdIn(seguidas, antes, pagina);
+            }
+        }
+
+        List<Long> ids = mezclar(materializadas, celebridades, tamano + 1);
+        boolean hayMas = ids.size() > tamano;
+        if (hayMas) {
+            ids = ids.subList(0, tamano);
+        }
+
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("usuario", usuario);
+        respuesta.put("actividades", describir(ids));
+        respuesta.put("siguienteCursor", hayMas ? String.valueOf(ids.get(ids.size() - 1)) : null);
+        return respuesta;
+    }
+
+    /**
+     * Recorta los timelines que recibieron entradas desde el último recorte.
+     */
+    @Scheduled(fixedDelayString = "${app.timeline.recorte-ms:60000}")
+    @Transactional
+    public void recortar() {
+        if (actoresPendientes.isEmpty()) {
+            return;
+        }
+        List<Long> actores = new ArrayList<>(actoresPendientes);
+        actores.forEach(actoresPendientes::remove);
+        int eliminadas = 0;
+        for (int i = 0; i < actores.size(); i += LOTE_RECORTE) {
+            eliminadas += timelineRepository.recortar(
+                    actores.subList(i, Math.min(i + LOTE_RECORTE, actores.size())), capacidad);
+        }
+        if (eliminadas > 0) {
+            log.info("✂️ Timelines recortados: {} entradas eliminadas de los seguidores de {} autores",
+                    eliminadas, actores.size());
+        }
+    }
+
+    /**
+     * Anota al autor para el próximo recorte cuando se confirma la transacción; antes
+     * de eso el recorte no vería las entradas nuevas y el autor se perdería.
+     *
+     * @param actorId ID del autor de la actividad distribuida
+     */
+    private void marcarParaRecorte(Long actorId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    actoresPendientes.add(actorId);
+                }
+            });
+        } else {
+            actoresPendientes.add(actorId);
+        }
+    }
+
+    /**
+     * Mezcla dos listas de IDs ordenadas en forma descendente, sin repetidos.
+     *
+     * @param a primera lista
+     * @param b segunda lista
+     * @param maximo cantidad máxima de elementos del resultado
+     * @return lista mezclada en orden descendente
+     */
+    private List<Long> mezclar(List<Long> a, List<Long> b, int maximo) {
+        List<Long> resultado = new ArrayList<>(Math.min(maximo, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        while (resultado.size() < maximo && (i < a.size() || j < b.size())) {
+            Long siguiente;
+            if (j >= b.size() || (i < a.size() && a.get(i) >= b.get(j))) {
+                siguiente = a.get(i++);
+            } else {
+                siguiente = b.get(j++);
+            }
+            if (resultado.isEmpty() || !resultado.get(resultado.size() - 1).equals(siguiente)) {
+                resultado.add(siguiente);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Resuelve los datos de una página de actividades con una sola consulta,
+     * conservando el orden de la página.
+     *
+     * @param ids IDs de las actividades en orden
+     * @return lista de actividades
+     */
+    private List<Map<String, Object>> describir(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Object[]> filas = new HashMap<>();
+        for (Object[] fila : activityRepository.findDetalles(ids)) {
+            filas.put((Long) fila[0], fila);
+        }
+
+        List<Map<String, Object>> actividades = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Object[] fila = filas.get(id);
+            if (fila == null) {
+                continue;
+            }
+            Map<String, Object> actividad = new LinkedHashMap<>();
+            actividad.put("id", fila[0]);
+            actividad.put("tipo", fila[1]);
+            actividad.put("fecha", fila[2]);
+            actividad.put("usuario", fila[3]);
+            actividad.put("nombre", fila[4]);
+            actividad.put("profileImageUrl", fila[5]);
+            if (fila[6] != null) {
+                actividad.put("playlist", Map.of("id", fila[6], "nombre", fila[7]));
+            }
+            if (fila[8] != null) {
+                Map<String, Object> cancion = new LinkedHashMap<>();
+                cancion.put("id", fila[8]);
+                cancion.put("titulo", fila[9]);
+                cancion.put("artista", fila[10]);
+                actividad.put("cancion", cancion);
+            }
+            if (fila[11] != null) {
+                actividad.put("comentario", Map.of("id", fila[11], "contenido", fila[12]));
+            }
+            actividades.add(actividad);
+        }
+        return actividades;
+    }
+
+    /**
+     * Interpreta el cursor de paginación.
+     *
+     * @param cursor ID de la última actividad leída, o null
+     * @return ID a partir del cual leer (exclusivo)
+     * @throws RuntimeException si el cursor es inválido
+     */
+    private Long decodificarCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package edu.progavud.distrimusic.comment;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Microbenchmark del filtro de moderación de comentarios.
+ *
+ * Mide el tiempo de {@link CommentModerator#buscarTermino(String)} con la lista de
+ * términos por defecto para comentarios de distintas longitudes. No es una prueba:
+ * su nombre no termina en Test, así que Surefire no lo ejecuta. Para correrlo:
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     edu.progavud.distrimusic.comment.CommentModeratorBenchmark
+ * </pre>
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+public class CommentModeratorBenchmark {
+
+    private static final int CALENTAMIENTO = 200_000;
+    private static final int ITERACIONES = 1_000_000;
+
+    public static void main(String[] args) {
+        CommentModerator moderador = new CommentModerator();
+        ReflectionTestUtils.setField(moderador, "fuente", new ClassPathResource("moderacion/terminos.txt"));
+        moderador.iniciar();
+
+        String frase = "Qué buena lista, la canción número tres me recuerda al concierto del año "
+                + "pasado en Bogotá con mis amigos de la universidad ";
+        String[] textos = {"Me encanta", frase, frase.repeat(4), frase.repeat(9).substring(0, 1000)};
+
+        for (String texto : textos) {
+            for (int i = 0; i < CALENTAMIENTO; i++) {
+                moderador.buscarTermino(texto);
+            }
+            int coincidencias = 0;
+            long inicio = System.nanoTime();
+            for (int i = 0; i < ITERACIONES; i++) {
+                if (moderador.buscarTermino(texto).isPresent()) {
+                    coincidencias++;
+                }
+            }
+            double micros = (System.nanoTime() - inicio) / 1e3 / ITERACIONES;
+            System.out.printf("%4d caracteres: %.3f us por comentario (%d coincidencias)%n",
+                    texto.length(), micros, coincidencias);
+        }
+    }
+}
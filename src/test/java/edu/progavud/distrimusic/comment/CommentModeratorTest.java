@@ -0,0 +1,190 @@
+package edu.progavud.distrimusic.comment;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas del filtro de moderación de comentarios.
+ *
+ * Usan una lista de términos propia en un archivo temporal, para conocer exactamente
+ * qué debe coincidir: palabras completas, leetspeak, tildes, letras repetidas,
+ * términos con '*' y frases. También verifican la recarga cuando cambia el archivo y
+ * que la lista por defecto del classpath se carga.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+class CommentModeratorTest {
+
+    @TempDir
+    Path directorio;
+
+    private Path archivo;
+    private CommentModerator moderador;
+
+    @BeforeEach
+    void crearModerador() throws IOException {
+        archivo = directorio.resolve("terminos.txt");
+        Files.writeString(archivo, """
+                # Comentario que se ignora
+                gato
+                tont*
+
+                bit.ly
+                compra seguidores
+                """, StandardCharsets.UTF_8);
+        moderador = new CommentModerator();
+        ReflectionTestUtils.setField(moderador, "fuente", new FileSystemResource(archivo));
+        moderador.iniciar();
+    }
+
+    /**
+     * Un término sin '*' solo coincide con la palabra completa.
+     */
+    @Test
+    void respetaLimitesDePalabra() {
+        assertEquals(Optional.of("gato"), moderador.buscarTermino("Qué gato"));
+        assertEquals(Optional.of("gato"), moderador.buscarTermino("gato, la canción"));
+        assertEquals(Optional.of("gato"), moderador.buscarTermino("(gato)"));
+        assertEquals(Optional.empty(), moderador.buscarTermino("gatos"));
+        assertEquals(Optional.empty(), moderador.buscarTermino("el gatito"));
+        assertEquals(Optional.empty(), moderador.buscarTermino("regato"));
+    }
+
+    /**
+     * Mayúsculas, tildes y leetspeak se normalizan antes de comparar.
+     */
+    @Test
+    void normalizaTildesYLeetspeak() {
+        assertEquals(Optional.of("gato"), moderador.buscarTermino("GATO"));
+        assertEquals(Optional.of("gato"), moderador.buscarTermino("gátó"));
+        assertEquals(Optional.of("gato"), moderador.buscarTermino("g4t0"));
+        assertEquals(Optional.of("gato"), moderador.buscarTermino("G@7O"));
+        assertEquals(Optional.of("tont*"), moderador.buscarTermino("qué tontería"));
+        // '!' es leetspeak de 'i', no un separador
+        assertEquals(Optional.empty(), moderador.buscarTermino("gato!"));
+    }
+
+    /**
+     * Las letras repetidas se reducen a una, igual que los separadores seguidos.
+     */
+    @Test
+    void reduceLetrasRepetidas() {
+        assertEquals(Optional.of("gato"), moderador.buscarTermino("gaaaatoooo"));
+        assertEquals(Optional.of("gato"), moderador.buscarTermino("ggggato..."));
+        assertEquals(Optional.of("compra seguidores"), moderador.buscarTermino("compra   seguidoreees"));
+        assertEquals(Optional.of("bit.ly"), moderador.buscarTermino("entra a bit . ly/abc"));
+    }
+
+    /**
+     * Un término terminado en '*' coincide con las palabras que empiezan por él, pero no
+     * con las que lo contienen en medio.
+     */
+    @Test
+    void terminoConAsteriscoCoincideConPrefijos() {
+        assertEquals(Optional.of("tont*"), moderador.buscarTermino("tonto"));
+        assertEquals(Optional.of("tont*"), moderador.buscarTermino("eres un tontarrón"));
+        assertEquals(Optional.of("tont*"), moderador.buscarTermino("tont"));
+        assertEquals(Optional.empty(), moderador.buscarTermino("atontado"));
+        assertEquals(Optional.empty(), moderador.buscarTermino("ton"));
+    }
+
+    /**
+     * Las frases coinciden con cualquier separador entre palabras, pero no sin separador
+     * ni con otras palabras en medio.
+     */
+    @Test
+    void frasesRequierenPalabrasSeguidas() {
+        assertEquals(Optional.of("compra seguidores"), moderador.buscarTermino("Compra-seguidores ya"));
+        assertEquals(Optional.empty(), moderador.buscarTermino("compraseguidores"));
+        assertEquals(Optional.empty(), moderador.buscarTermino("compra 1000 seguidores"));
+        assertEquals(Optional.empty(), moderador.buscarTermino("bitly"));
+    }
+
+    /**
+     * Los textos vacíos o nulos no coinciden con nada.
+     */
+    @Test
+    void textosVaciosNoCoinciden() {
+        assertEquals(Optional.empty(), moderador.buscarTermino(null));
+        assertEquals(Optional.empty(), moderador.buscarTermino(""));
+        assertEquals(Optional.empty(), moderador.buscarTermino("   "));
+    }
+
+    /**
+     * verificar rechaza con 400 y cuenta los comentarios revisados y rechazados.
+     */
+    @Test
+    void verificarRechazaConBadRequest() {
+        assertDoesNotThrow(() -> moderador.verificar("Muy buena lista"));
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> moderador.verificar("sígueme en bit.ly/xyz"));
+        assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+
+        assertEquals(2L, moderador.getMetricas().get("revisados"));
+        assertEquals(1L, moderador.getMetricas().get("rechazados"));
+        assertEquals(4, moderador.getMetricas().get("terminos"));
+    }
+
+    /**
+     * Al modificar el archivo, la revisión periódica carga la nueva lista.
+     */
+    @Test
+    void recargaCuandoCambiaElArchivo() throws IOException {
+        moderador.revisar();
+        assertEquals(Optional.of("gato"), moderador.buscarTermino("gato"), "sin cambios no recarga");
+
+        long anterior = archivo.toFile().lastModified();
+        Files.writeString(archivo, "loro\n", StandardCharsets.UTF_8);
+        assertTrue(archivo.toFile().setLastModified(anterior + 2000));
+        moderador.revisar();
+        assertEquals(Optional.empty(), moderador.buscarTermino("gato"));
+        assertEquals(Optional.of("loro"), moderador.buscarTermino("un l0r0"));
+        assertEquals(1, moderador.getMetricas().get("terminos"));
+    }
+
+    /**
+     * Si el archivo no se puede leer, se conserva la lista anterior.
+     */
+    @Test
+    void conservaLaListaSiFallaLaRecarga() throws IOException {
+        Files.delete(archivo);
+        moderador.recargar();
+
+        assertEquals(Optional.of("gato"), moderador.buscarTermino("gato"));
+    }
+
+    /**
+     * La lista por defecto del classpath se carga y reconoce sus términos.
+     */
+    @Test
+    void cargaLaListaPorDefecto() {
+        CommentModerator porDefecto = new CommentModerator();
+        ReflectionTestUtils.setField(porDefecto, "fuente", new ClassPathResource("moderacion/terminos.txt"));
+        porDefecto.iniciar();
+
+        assertEquals(Optional.of("pendej*"), porDefecto.buscarTermino("qué p3nd3j0"));
+        assertEquals(Optional.of("bit.ly"), porDefecto.buscarTermino("https://bit.ly/abc"));
+        assertEquals(Optional.empty(), porDefecto.buscarTermino("Qué buena lista, la computadora suena genial"));
+    }
+}
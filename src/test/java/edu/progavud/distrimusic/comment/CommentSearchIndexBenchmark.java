@@ -0,0 +1,97 @@
+package edu.progavud.distrimusic.comment;
+
+import java.util.Random;
+
+/**
+ * Benchmark del índice de búsqueda de comentarios.
+ *
+ * Indexa 500.000 comentarios sintéticos (palabras de un vocabulario pequeño con
+ * frecuencias muy desiguales, repartidos en 20.000 playlists y 50.000 autores, con una
+ * semilla fija) y mide el costo de indexar, el heap usado y el tiempo de consultas
+ * típicas: un término raro, varios términos, frases, una palabra muy común y búsquedas
+ * limitadas a una playlist o a un autor. No es una prueba: su nombre no termina en
+ * Test, así que Surefire no lo ejecuta. Para correrlo (con heap suficiente):
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -Xmx1g -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     edu.progavud.distrimusic.comment.CommentSearchIndexBenchmark
+ * </pre>
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+public class CommentSearchIndexBenchmark {
+
+    private static final int COMENTARIOS = 500_000;
+    private static final int PLAYLISTS = 20_000;
+    private static final int AUTORES = 50_000;
+    private static final int CALENTAMIENTO = 30;
+    private static final int ITERACIONES = 100;
+
+    private static final String[] VOCABULARIO = ("que la el de rock canción música buena mala genial "
+            + "playlist me gusta encanta bogotá concierto salsa jazz vallenato reggaeton pop clásico "
+            + "estudiar universidad amigos noche fiesta guitarra batería voz letra ritmo baile recuerdo "
+            + "año pasado mejor peor nunca siempre todo nada mucho poco gracias compartir").split(" ");
+
+    /**
+     * Consultas medidas: texto, playlist y autor (null si no se limita).
+     */
+    private static final Object[][] CONSULTAS = {
+            {"zanfona3", null, null},
+            {"vallenato concierto", null, null},
+            {"\"rock cancion\"", null, null},
+            {"que", null, null},
+            {"rock", 77L, null},
+            {"rock", null, 123L},
+            {"\"me gusta\" salsa", null, null},
+    };
+
+    public static void main(String[] args) throws InterruptedException {
+        CommentSearchIndex indice = new CommentSearchIndex(null);
+        Random random = new Random(7);
+
+        long inicio = System.nanoTime();
+        for (int id = 1; id <= COMENTARIOS; id++) {
+            StringBuilder contenido = new StringBuilder();
+            int palabras = 5 + random.nextInt(25);
+            for (int k = 0; k < palabras; k++) {
+                // Las primeras palabras del vocabulario son mucho más frecuentes
+                int palabra = (int) Math.min(VOCABULARIO.length - 1, Math.abs(random.nextGaussian()) * 12);
+                contenido.append(VOCABULARIO[palabra]).append(' ');
+            }
+            if (id % 1000 == 0) {
+                contenido.append("zanfona").append(id % 7);
+            }
+            indice.indexar(new CommentSearchIndex.Entrada(id, 1 + random.nextInt(PLAYLISTS),
+                    1 + random.nextInt(AUTORES), id, "x", contenido.toString()));
+        }
+        System.out.printf("Indexar: %.2f us por comentario%n", (System.nanoTime() - inicio) / 1e3 / COMENTARIOS);
+
+        System.gc();
+        Thread.sleep(500);
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("Heap usado: ~%d MB%n", (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+
+        for (Object[] consulta : CONSULTAS) {
+            String texto = (String) consulta[0];
+            Long playlistId = (Long) consulta[1];
+            Long usuarioId = (Long) consulta[2];
+            for (int i = 0; i < CALENTAMIENTO; i++) {
+                indice.buscar(texto, playlistId, usuarioId, 0, 20);
+            }
+            CommentSearchIndex.Resultado resultado = null;
+            long desde = System.nanoTime();
+            for (int i = 0; i < ITERACIONES; i++) {
+                resultado = indice.buscar(texto, playlistId, usuarioId, 0, 20);
+            }
+            String alcance = playlistId != null ? "playlist " + playlistId
+                    : usuarioId != null ? "autor " + usuarioId : "todo";
+            System.out.printf("%-20s %-14s %8.3f ms (%d resultados)%n", texto, alcance,
+                    (System.nanoTime() - desde) / 1e6 / ITERACIONES, resultado.total());
+        }
+    }
+}
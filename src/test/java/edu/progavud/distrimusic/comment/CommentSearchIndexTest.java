@@ -0,0 +1,370 @@
+package edu.progavud.distrimusic.comment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas del índice de búsqueda de comentarios.
+ *
+ * Las pruebas de consulta indexan directamente, sin base de datos (sin transacción
+ * activa los cambios se aplican en el momento). Las de reconstrucción usan una base H2
+ * en memoria con solo las columnas que lee la reconstrucción, y verifican que los
+ * cambios hechos mientras se carga no se pierdan ni se sobrescriban con los datos
+ * leídos de la base.
+ *
+ * Comentarios de ejemplo (playlist, autor):
+ * 1 (10, 1) "rock clásico de los ochenta", 2 (10, 2) "me gusta el rock",
+ * 3 (11, 1) "rock rock rock", 4 (11, 3) respuesta a 3 con "jazz y rock clásico...",
+ * 5 (12, 2) "clásico rock" y 6 (12, 3) respuesta a 5 con "salsa".
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+class CommentSearchIndexTest {
+
+    private static final Object[][] COMENTARIOS = {
+            {1L, 10L, 1L, 1L, ruta(1), "rock clásico de los ochenta"},
+            {2L, 10L, 2L, 2L, ruta(2), "me gusta el rock"},
+            {3L, 11L, 1L, 3L, ruta(3), "rock rock rock"},
+            {4L, 11L, 3L, 3L, ruta(3, 4), "jazz y rock clásico en vivo con la banda completa esta noche"},
+            {5L, 12L, 2L, 5L, ruta(5), "clásico rock"},
+            {6L, 12L, 3L, 5L, ruta(5, 6), "salsa"},
+    };
+
+    private EmbeddedDatabase baseDatos;
+    private JdbcConAccion jdbcTemplate;
+    private CommentSearchIndex indice;
+
+    /**
+     * JdbcTemplate que ejecuta una acción después de entregar el primer comentario de la
+     * reconstrucción, para simular cambios concurrentes en medio de la carga.
+     */
+    private static final class JdbcConAccion extends JdbcTemplate {
+
+        private Runnable despuesDelPrimerComentario;
+
+        JdbcConAccion(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch) {
+            if (!sql.contains("FROM comments")) {
+                super.query(sql, rch);
+                return;
+            }
+            super.query(sql, (RowCallbackHandler) rs -> {
+                rch.processRow(rs);
+                Runnable accion = despuesDelPrimerComentario;
+                despuesDelPrimerComentario = null;
+                if (accion != null) {
+                    accion.run();
+                }
+            });
+        }
+    }
+
+    @BeforeEach
+    void crearIndice() {
+        baseDatos = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcConAccion(baseDatos);
+        jdbcTemplate.execute("CREATE TABLE playlists (id BIGINT PRIMARY KEY, es_publica BOOLEAN)");
+        jdbcTemplate.execute("CREATE TABLE comments (id BIGINT PRIMARY KEY, playlist_id BIGINT, usuario_id BIGINT, "
+                + "hilo_id BIGINT, ruta VARCHAR(100), contenido VARCHAR(500))");
+        for (long playlist = 10; playlist <= 12; playlist++) {
+            jdbcTemplate.update("INSERT INTO playlists (id, es_publica) VALUES (?, TRUE)", playlist);
+        }
+        for (Object[] comentario : COMENTARIOS) {
+            jdbcTemplate.update("INSERT INTO comments (id, playlist_id, usuario_id, hilo_id, ruta, contenido) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", comentario);
+        }
+        indice = new CommentSearchIndex(jdbcTemplate);
+        indice.reconstruir();
+    }
+
+    @AfterEach
+    void cerrarBaseDatos() {
+        baseDatos.shutdown();
+    }
+
+    /**
+     * Con una sola palabra pesan más las repeticiones y los comentarios cortos.
+     */
+    @Test
+    void ordenaPorBm25() {
+        CommentSearchIndex.Resultado resultado = indice.buscar("rock", null, null, 0, 10);
+
+        assertEquals(5, resultado.total());
+        assertEquals(List.of(3L, 5L, 2L, 1L, 4L), resultado.ids());
+    }
+
+    /**
+     * Entre comentarios del mismo largo pesa más repetir la palabra menos común.
+     */
+    @Test
+    void palabrasRarasPesanMas() {
+        indexar(7, 13, 4, "jazz jazz rock");
+        indexar(8, 13, 4, "rock rock jazz");
+
+        assertEquals(List.of(7L, 8L, 4L), indice.buscar("rock jazz", null, null, 0, 10).ids());
+    }
+
+    /**
+     * A igual relevancia va primero el comentario indexado más recientemente.
+     */
+    @Test
+    void desempataPorMasReciente() {
+        indexar(20, 13, 4, "buena lista");
+        indexar(21, 13, 5, "Buena lista");
+        indexar(19, 13, 6, "buena... ¡lista!");
+
+        assertEquals(List.of(19L, 21L, 20L), indice.buscar("lista buena", null, null, 0, 10).ids());
+    }
+
+    /**
+     * Un comentario coincide solo si tiene todas las palabras; mayúsculas, tildes y
+     * palabras repetidas en la consulta no importan.
+     */
+    @Test
+    void exigeTodasLasPalabras() {
+        assertEquals(List.of(5L, 1L, 4L), indice.buscar("CLÁSICO rock rock", null, null, 0, 10).ids());
+        assertEquals(List.of(4L), indice.buscar("jazz rock", null, null, 0, 10).ids());
+        assertEquals(0, indice.buscar("rock reggaeton", null, null, 0, 10).total());
+        assertEquals(0, indice.buscar("  ¿? ", null, null, 0, 10).total());
+    }
+
+    /**
+     * Una frase entre comillas exige las palabras seguidas y en ese orden.
+     */
+    @Test
+    void buscaFrasesExactas() {
+        assertEquals(Set.of(1L, 4L), Set.copyOf(indice.buscar("\"rock clasico\"", null, null, 0, 10).ids()));
+        assertEquals(List.of(5L), indice.buscar("\"clásico rock\"", null, null, 0, 10).ids());
+        assertEquals(List.of(1L), indice.buscar("\"de los ochenta\"", null, null, 0, 10).ids());
+        assertEquals(0, indice.buscar("\"de ochenta\"", null, null, 0, 10).total());
+        assertEquals(List.of(2L), indice.buscar("\"me gusta\" rock", null, null, 0, 10).ids());
+        assertEquals(List.of(1L), indice.buscar("\"rock clasico\" \"los ochenta\"", null, null, 0, 10).ids());
+    }
+
+    /**
+     * La frase puede estar en cualquiera de las apariciones de su primera palabra.
+     */
+    @Test
+    void fraseEnCualquierAparicion() {
+        indexar(7, 13, 4, "rock y más rock clásico");
+        indexar(8, 13, 4, "clásico rock y rock");
+
+        assertEquals(Set.of(1L, 4L, 7L), Set.copyOf(indice.buscar("\"rock clásico\"", null, null, 0, 10).ids()));
+        assertEquals(List.of(8L), indice.buscar("\"rock y rock\"", null, null, 0, 10).ids());
+    }
+
+    /**
+     * La búsqueda se puede limitar a una playlist, a un autor o a ambos.
+     */
+    @Test
+    void limitaPorPlaylistYAutor() {
+        assertEquals(List.of(2L, 1L), indice.buscar("rock", 10L, null, 0, 10).ids());
+        assertEquals(List.of(3L, 1L), indice.buscar("rock", null, 1L, 0, 10).ids());
+        assertEquals(List.of(3L), indice.buscar("rock", 11L, 1L, 0, 10).ids());
+        assertEquals(0, indice.buscar("rock", 99L, null, 0, 10).total());
+        assertEquals(0, indice.buscar("rock", null, 99L, 0, 10).total());
+    }
+
+    /**
+     * Los comentarios de playlists privadas solo aparecen al buscar dentro de la playlist.
+     */
+    @Test
+    void omitePlaylistsPrivadas() {
+        indice.cambiarVisibilidad(11L, false);
+        assertEquals(List.of(5L, 2L, 1L), indice.buscar("rock", null, null, 0, 10).ids());
+        assertEquals(List.of(3L, 4L), indice.buscar("rock", 11L, null, 0, 10).ids());
+
+        indice.cambiarVisibilidad(11L, true);
+        assertEquals(5, indice.buscar("rock", null, null, 0, 10).total());
+    }
+
+    /**
+     * La página se toma del orden completo y el total cuenta todas las coincidencias.
+     */
+    @Test
+    void paginaResultados() {
+        CommentSearchIndex.Resultado pagina = indice.buscar("rock", null, null, 1, 2);
+
+        assertEquals(5, pagina.total());
+        assertEquals(List.of(5L, 2L), pagina.ids());
+        assertEquals(List.of(4L), indice.buscar("rock", null, null, 4, 2).ids());
+        assertEquals(List.of(), indice.buscar("rock", null, null, 5, 2).ids());
+    }
+
+    /**
+     * Editar reemplaza el contenido; eliminar quita el comentario con sus respuestas y
+     * eliminar una playlist quita todos sus comentarios. Los borrados que las listas
+     * conservan no cambian el orden por relevancia.
+     */
+    @Test
+    void editaYEliminaComentarios() {
+        indexar(2, 10, 2, "me gusta el jazz");
+        indexar(7, 11, 2, ruta(3, 4, 7), 3, "rock en la respuesta");
+        assertEquals(List.of(3L, 5L, 7L, 1L, 4L), indice.buscar("rock", null, null, 0, 10).ids());
+        assertEquals(Set.of(2L, 4L), Set.copyOf(indice.buscar("jazz", null, null, 0, 10).ids()));
+
+        indice.eliminarConRespuestas(List.of(4L));
+        assertEquals(List.of(3L, 5L, 1L), indice.buscar("rock", null, null, 0, 10).ids());
+
+        indice.eliminarPlaylist(12L);
+        assertEquals(List.of(3L, 1L), indice.buscar("rock", null, null, 0, 10).ids());
+        assertEquals(0, indice.buscar("salsa", null, null, 0, 10).total());
+    }
+
+    /**
+     * Los cambios hechos mientras se reconstruye llegan al índice nuevo y no se
+     * sobrescriben con las filas que la reconstrucción lee después.
+     */
+    @Test
+    void reconstruccionConservaCambiosConcurrentes() {
+        List<List<Long>> durante = new ArrayList<>();
+        jdbcTemplate.despuesDelPrimerComentario = () -> {
+            // El comentario 1 ya se leyó; los demás todavía no
+            indexar(1, 10, 1, "rock pesado");
+            indexar(2, 10, 2, "me gusta el jazz");
+            indice.eliminarConRespuestas(List.of(3L));
+            indice.eliminarPlaylist(12L);
+            indexar(7, 10, 1, "rock nuevo");
+            durante.add(indice.buscar("rock", null, null, 0, 10).ids());
+        };
+
+        indice.reconstruir();
+
+        assertEquals(List.of(List.of(7L, 1L)), durante);
+        assertEquals(List.of(7L, 1L), indice.buscar("rock", null, null, 0, 10).ids());
+        assertEquals(List.of(2L), indice.buscar("jazz", null, null, 0, 10).ids());
+        assertEquals(0, indice.buscar("ochenta", null, null, 0, 10).total());
+        assertEquals(0, indice.buscar("salsa", null, null, 0, 10).total());
+
+        // La siguiente reconstrucción vuelve a tomar la base de datos como fuente
+        indice.reconstruir();
+        assertEquals(List.of(1L), indice.buscar("ochenta", null, null, 0, 10).ids());
+        assertEquals(5, indice.buscar("rock", null, null, 0, 10).total());
+    }
+
+    /**
+     * La reconstrucción toma la visibilidad de las playlists de la base de datos.
+     */
+    @Test
+    void reconstruccionLeePlaylistsPrivadas() {
+        jdbcTemplate.update("UPDATE playlists SET es_publica = FALSE WHERE id = 10");
+        indice.reconstruir();
+
+        assertEquals(List.of(3L, 5L, 4L), indice.buscar("rock", null, null, 0, 10).ids());
+        assertEquals(List.of(2L, 1L), indice.buscar("rock", 10L, null, 0, 10).ids());
+    }
+
+    /**
+     * Con reconstrucciones, ediciones y búsquedas en paralelo, al terminar cada
+     * comentario se encuentra por su última versión y no por la anterior.
+     */
+    @Test
+    void cambiosYReconstruccionesEnParalelo() throws Exception {
+        int cantidad = 200;
+        int[] versiones = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            long id = 100L + i;
+            jdbcTemplate.update("INSERT INTO comments (id, playlist_id, usuario_id, hilo_id, ruta, contenido) "
+                    + "VALUES (?, 10, 1, ?, ?, ?)", id, id, ruta(id), contenido(i, 0));
+        }
+        indice.reconstruir();
+
+        AtomicBoolean activo = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Future<?>> tareas = new ArrayList<>();
+        tareas.add(executor.submit(() -> {
+            while (activo.get()) {
+                indice.reconstruir();
+            }
+        }));
+        for (int h = 0; h < 2; h++) {
+            tareas.add(executor.submit(() -> {
+                while (activo.get()) {
+                    assertTrue(indice.buscar("comentario", null, null, 0, 20).total() > 0);
+                }
+            }));
+        }
+        for (int h = 0; h < 3; h++) {
+            tareas.add(executor.submit(() -> {
+                for (int k = 0; k < 2000; k++) {
+                    int i = ThreadLocalRandom.current().nextInt(cantidad);
+                    // Igual que en el servicio: primero se confirma en la base y después se indexa
+                    synchronized (versiones) {
+                        int version = ++versiones[i];
+                        jdbcTemplate.update("UPDATE comments SET contenido = ? WHERE id = ?", contenido(i, version), 100L + i);
+                        indexar(100L + i, 10, 1, contenido(i, version));
+                    }
+                }
+            }));
+        }
+        for (int k = 3; k < tareas.size(); k++) {
+            tareas.get(k).get(1, TimeUnit.MINUTES);
+        }
+        activo.set(false);
+        for (Future<?> tarea : tareas) {
+            tarea.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        for (int i = 0; i < cantidad; i++) {
+            String actual = "c" + i + "v" + versiones[i];
+            assertEquals(List.of(100L + i), indice.buscar(actual, null, null, 0, 10).ids());
+            if (versiones[i] > 0) {
+                assertEquals(0, indice.buscar("c" + i + "v" + (versiones[i] - 1), null, null, 0, 10).total());
+            }
+        }
+        assertEquals(cantidad, indice.buscar("comentario", null, null, 0, 10).total());
+    }
+
+    private void indexar(long id, long playlistId, long usuarioId, String contenido) {
+        indexar(id, playlistId, usuarioId, ruta(id), id, contenido);
+    }
+
+    private void indexar(long id, long playlistId, long usuarioId, String ruta, long hiloId, String contenido) {
+        indice.indexar(new CommentSearchIndex.Entrada(id, playlistId, usuarioId, hiloId, ruta, contenido));
+    }
+
+    private static String contenido(int i, int version) {
+        return "comentario c" + i + "v" + version;
+    }
+
+    /**
+     * Ruta materializada como la arma el servicio: un segmento de 8 caracteres en base 36 por nivel.
+     */
+    private static String ruta(long... ids) {
+        StringBuilder ruta = new StringBuilder();
+        for (long id : ids) {
+            String base36 = Long.toString(id, 36);
+            ruta.append("0".repeat(8 - base36.length())).append(base36);
+        }
+        return ruta.toString();
+    }
+}
@@ -0,0 +1,220 @@
+package edu.progavud.distrimusic.persona;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas de las actualizaciones del grafo de seguimiento entre reconstrucciones.
+ *
+ * Usan una base H2 en memoria con solo las columnas que lee la reconstrucción. Cada
+ * prueba parte de la misma instantánea, registra seguimientos con
+ * {@link FollowGraphService#registrarCambio} (sin transacción activa, así que se aplican
+ * en el momento) y verifica que las sugerencias combinen la instantánea CSR con la capa
+ * de cambios igual que lo haría una instantánea reconstruida.
+ *
+ * Grafo inicial: ana → beto, ana → carla, beto → dario, carla → dario, carla → elena.
+ * Con eso, a ana se le sugiere dario (2 en común), elena (1) y, por carrera, fabio.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+class FollowGraphServiceTest {
+
+    private static final Object[][] USUARIOS = {
+            {1L, "ana", "Sistemas"},
+            {2L, "beto", "Sistemas"},
+            {3L, "carla", "Industrial"},
+            {4L, "dario", "Sistemas"},
+            {5L, "elena", "Industrial"},
+            {6L, "fabio", "Sistemas"},
+    };
+
+    private EmbeddedDatabase baseDatos;
+    private JdbcTemplate jdbcTemplate;
+    private UserLookupCache userLookupCache;
+    private FollowGraphService servicio;
+
+    @BeforeEach
+    void crearServicio() {
+        baseDatos = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(baseDatos);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, usuario VARCHAR(50), "
+                + "carrera VARCHAR(50), eliminado BOOLEAN DEFAULT FALSE)");
+        jdbcTemplate.execute("CREATE TABLE follows (follower_id BIGINT, followee_id BIGINT)");
+        for (Object[] usuario : USUARIOS) {
+            jdbcTemplate.update("INSERT INTO users (id, usuario, carrera) VALUES (?, ?, ?)", usuario);
+        }
+        seguirEnBase(1, 2);
+        seguirEnBase(1, 3);
+        seguirEnBase(2, 4);
+        seguirEnBase(3, 4);
+        seguirEnBase(3, 5);
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findResumenByIdIn(anyCollection())).thenAnswer(invocacion -> {
+            Collection<Long> ids = invocacion.getArgument(0);
+            return jdbcTemplate.query("SELECT id, usuario, usuario, NULL, carrera FROM users",
+                    (rs, fila) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3), null, rs.getString(5)})
+                    .stream().filter(fila -> ids.contains((Long) fila[0])).toList();
+        });
+        userLookupCache = mock(UserLookupCache.class);
+        when(userLookupCache.resolverId("gabi")).thenReturn(Optional.of(7L));
+
+        servicio = new FollowGraphService(jdbcTemplate, userRepository, userLookupCache);
+        servicio.reconstruir();
+    }
+
+    @AfterEach
+    void cerrarBaseDatos() {
+        baseDatos.shutdown();
+    }
+
+    /**
+     * La instantánea ordena por conexiones en común y completa con la misma carrera.
+     */
+    @Test
+    void sugiereDesdeLaInstantanea() {
+        List<Map<String, Object>> sugerencias = servicio.sugerir("ana", 10);
+
+        assertEquals(List.of("dario", "elena", "fabio"), usuarios(sugerencias));
+        assertEquals(List.of(2, 1, 0), valores(sugerencias, "conexionesEnComun"));
+        assertEquals(List.of("CONEXIONES_EN_COMUN", "CONEXIONES_EN_COMUN", "MISMA_CARRERA"),
+                valores(sugerencias, "motivo"));
+        assertEquals(List.of("dario"), usuarios(servicio.sugerir("ana", 1)));
+    }
+
+    /**
+     * Un seguimiento nuevo excluye al seguido y suma sus seguidos al segundo salto.
+     */
+    @Test
+    void aplicaAristasAgregadas() {
+        servicio.registrarCambio("ana", "dario", true);
+        assertEquals(List.of("elena", "fabio"), usuarios(servicio.sugerir("ana", 10)));
+
+        servicio.registrarCambio("elena", "fabio", true);
+        List<Map<String, Object>> sugerencias = servicio.sugerir("ana", 10);
+        assertEquals(List.of("elena", "fabio"), usuarios(sugerencias));
+        assertEquals(List.of(1, 0), valores(sugerencias, "conexionesEnComun"));
+
+        servicio.registrarCambio("ana", "elena", true);
+        sugerencias = servicio.sugerir("ana", 10);
+        assertEquals(List.of("fabio"), usuarios(sugerencias));
+        assertEquals(List.of(1), valores(sugerencias, "conexionesEnComun"));
+    }
+
+    /**
+     * Dejar de seguir oculta la arista de la instantánea sin reconstruir.
+     */
+    @Test
+    void ocultaAristasEliminadas() {
+        servicio.registrarCambio("ana", "carla", false);
+
+        List<Map<String, Object>> sugerencias = servicio.sugerir("ana", 10);
+        assertEquals(List.of("dario", "fabio"), usuarios(sugerencias));
+        assertEquals(List.of(1, 0), valores(sugerencias, "conexionesEnComun"));
+    }
+
+    /**
+     * El último cambio de una arista gana: dejar de seguir y volver a seguir deja la
+     * instantánea como estaba.
+     */
+    @Test
+    void ultimoCambioGana() {
+        servicio.registrarCambio("ana", "carla", false);
+        servicio.registrarCambio("ana", "carla", true);
+        servicio.registrarCambio("beto", "elena", true);
+        servicio.registrarCambio("beto", "elena", false);
+
+        assertEquals(List.of("dario", "elena", "fabio"), usuarios(servicio.sugerir("ana", 10)));
+    }
+
+    /**
+     * Las sugerencias con cambios pendientes coinciden con las de una instantánea
+     * reconstruida con esos cambios, y la reconstrucción descarta los cambios que ya
+     * quedaron incluidos.
+     */
+    @Test
+    void reconstruirIncorporaLosCambios() {
+        servicio.registrarCambio("ana", "carla", false);
+        servicio.registrarCambio("beto", "elena", true);
+        servicio.registrarCambio("dario", "fabio", true);
+        List<Map<String, Object>> conCambios = servicio.sugerir("ana", 10);
+
+        jdbcTemplate.update("DELETE FROM follows WHERE follower_id = 1 AND followee_id = 3");
+        seguirEnBase(2, 5);
+        seguirEnBase(4, 6);
+        servicio.reconstruir();
+
+        assertEquals(conCambios, servicio.sugerir("ana", 10));
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(servicio, "cambios")).isEmpty());
+    }
+
+    /**
+     * Un cambio con un usuario que no está en la instantánea hace que la revisión
+     * periódica adelante la reconstrucción.
+     */
+    @Test
+    void revisarReconstruyeConUsuariosNuevos() {
+        jdbcTemplate.update("INSERT INTO users (id, usuario, carrera) VALUES (7, 'gabi', 'Sistemas')");
+        seguirEnBase(1, 7);
+        servicio.registrarCambio("ana", "gabi", true);
+        assertEquals(6, grafo().tamano());
+
+        servicio.revisar();
+
+        assertEquals(7, grafo().tamano());
+        assertTrue(grafo().contiene(grafo().indice("ana"), grafo().indice("gabi")));
+        assertEquals(List.of("dario", "elena", "fabio"), usuarios(servicio.sugerir("ana", 10)));
+    }
+
+    /**
+     * Un usuario eliminado deja de sugerirse antes de la próxima reconstrucción.
+     */
+    @Test
+    void excluyeUsuariosEliminados() {
+        servicio.excluirUsuario(4L);
+
+        assertEquals(List.of("elena", "fabio"), usuarios(servicio.sugerir("ana", 10)));
+    }
+
+    private void seguirEnBase(long follower, long followee) {
+        jdbcTemplate.update("INSERT INTO follows (follower_id, followee_id) VALUES (?, ?)", follower, followee);
+    }
+
+    private FollowGraph grafo() {
+        return (FollowGraph) ReflectionTestUtils.getField(servicio, "grafo");
+    }
+
+    private static List<Object> usuarios(List<Map<String, Object>> sugerencias) {
+        return valores(sugerencias, "usuario");
+    }
+
+    private static List<Object> valores(List<Map<String, Object>> sugerencias, String campo) {
+        List<Object> valores = new ArrayList<>();
+        for (Map<String, Object> sugerencia : sugerencias) {
+            valores.add(sugerencia.get(campo));
+        }
+        return valores;
+    }
+}
@@ -0,0 +1,168 @@
+package edu.progavud.distrimusic.persona;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de la instantánea CSR del grafo de seguimiento.
+ *
+ * Verifican que cada nodo quede con sus seguidos ordenados en un tramo contiguo, que
+ * se descarten las aristas hacia usuarios que no están en la instantánea, los grados
+ * de entrada, el orden de los miembros de cada carrera y que la construcción en
+ * paralelo dé el mismo resultado que la secuencial.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+class FollowGraphTest {
+
+    private static final long[] IDS = {10, 20, 30, 40, 50};
+    private static final String[] USUARIOS = {"ana", "beto", "carla", "dario", "elena"};
+    private static final String[] CARRERAS = {"Sistemas", " sistemas ", "Industrial", null, "SISTEMAS"};
+
+    /**
+     * Construye el grafo de ejemplo: las aristas llegan desordenadas y dos apuntan a
+     * usuarios que no existen (99).
+     */
+    private static FollowGraph ejemplo() {
+        long[] origenes = {30, 10, 20, 10, 99, 40, 10, 50, 20};
+        long[] destinos = {10, 30, 10, 20, 10, 10, 50, 20, 99};
+        return FollowGraph.construir(IDS, USUARIOS, CARRERAS, origenes, destinos, origenes.length, false);
+    }
+
+    /**
+     * Los seguidos de cada nodo quedan en su tramo, ordenados por índice.
+     */
+    @Test
+    void agrupaSeguidosPorNodoOrdenados() {
+        FollowGraph g = ejemplo();
+
+        assertEquals(5, g.tamano());
+        assertEquals(7, g.aristas());
+        assertArrayEquals(new int[]{1, 2, 4}, seguidos(g, g.indice("ana")));
+        assertArrayEquals(new int[]{0}, seguidos(g, g.indice("beto")));
+        assertArrayEquals(new int[]{0}, seguidos(g, g.indice("carla")));
+        assertArrayEquals(new int[]{0}, seguidos(g, g.indice("dario")));
+        assertArrayEquals(new int[]{1}, seguidos(g, g.indice("elena")));
+    }
+
+    /**
+     * contiene busca la arista en el tramo del origen, en la dirección correcta.
+     */
+    @Test
+    void verificaAristasDirigidas() {
+        FollowGraph g = ejemplo();
+
+        assertTrue(g.contiene(0, 2));
+        assertTrue(g.contiene(2, 0));
+        assertTrue(g.contiene(4, 1));
+        assertFalse(g.contiene(1, 4));
+        assertFalse(g.contiene(0, 3));
+        assertFalse(g.contiene(0, 0));
+    }
+
+    /**
+     * Los índices se asignan en orden de ID y se resuelven por ID o por nombre.
+     */
+    @Test
+    void resuelveIndicesPorIdYNombre() {
+        FollowGraph g = ejemplo();
+
+        assertEquals(2, g.indice(30L));
+        assertEquals(2, g.indice("carla"));
+        assertEquals(30L, g.id(2));
+        assertEquals("carla", g.usuario(2));
+        assertEquals(-1, g.indice(99L));
+        assertEquals(-1, g.indice("zoe"));
+    }
+
+    /**
+     * Los grados de entrada cuentan solo aristas válidas, y los miembros de cada carrera
+     * (normalizada) quedan ordenados por seguidores y luego por índice.
+     */
+    @Test
+    void ordenaMiembrosDeCarreraPorSeguidores() {
+        FollowGraph g = ejemplo();
+
+        assertArrayEquals(new int[]{3, 2, 1, 0, 1}, new int[]{
+                g.gradoEntrada(0), g.gradoEntrada(1), g.gradoEntrada(2), g.gradoEntrada(3), g.gradoEntrada(4)});
+        int sistemas = g.indiceCarrera("  SiStEmAs");
+        assertEquals(g.carrera(0), sistemas);
+        assertArrayEquals(new int[]{0, 1, 4}, g.miembros(sistemas));
+        assertArrayEquals(new int[]{2}, g.miembros(g.indiceCarrera("industrial")));
+        assertEquals(FollowGraph.SIN_CARRERA, g.carrera(3));
+        assertEquals(FollowGraph.SIN_CARRERA, g.indiceCarrera("Medicina"));
+        assertEquals(0, g.miembros(FollowGraph.SIN_CARRERA).length);
+    }
+
+    /**
+     * El grafo vacío no tiene nodos ni aristas.
+     */
+    @Test
+    void grafoVacio() {
+        FollowGraph g = FollowGraph.vacio();
+
+        assertEquals(0, g.tamano());
+        assertEquals(0, g.aristas());
+        assertEquals(-1, g.indice("ana"));
+    }
+
+    /**
+     * La construcción en paralelo produce los mismos tramos que la secuencial.
+     */
+    @Test
+    void construccionParalelaIgualASecuencial() {
+        Random random = new Random(3);
+        int n = 2000;
+        int m = 80_000;
+        long[] ids = new long[n];
+        String[] usuarios = new String[n];
+        String[] carreras = new String[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = 5L * i + 1;
+            usuarios[i] = "u" + i;
+            carreras[i] = "c" + random.nextInt(10);
+        }
+        long[] origenes = new long[m];
+        long[] destinos = new long[m];
+        for (int k = 0; k < m; k++) {
+            origenes[k] = ids[random.nextInt(n)];
+            destinos[k] = random.nextInt(50) == 0 ? 3 : ids[random.nextInt(n)];
+        }
+
+        FollowGraph secuencial = FollowGraph.construir(ids, usuarios, carreras, origenes, destinos, m, false);
+        FollowGraph paralelo = FollowGraph.construir(ids, usuarios, carreras, origenes, destinos, m, true);
+
+        assertEquals(secuencial.aristas(), paralelo.aristas());
+        for (int i = 0; i < n; i++) {
+            int[] tramo = seguidos(secuencial, i);
+            assertArrayEquals(tramo, seguidos(paralelo, i), "nodo " + i);
+            int[] ordenado = tramo.clone();
+            Arrays.sort(ordenado);
+            assertArrayEquals(ordenado, tramo);
+            assertEquals(secuencial.gradoEntrada(i), paralelo.gradoEntrada(i));
+        }
+        assertArrayEquals(secuencial.miembros(secuencial.indiceCarrera("c0")),
+                paralelo.miembros(paralelo.indiceCarrera("c0")));
+    }
+
+    private static int[] seguidos(FollowGraph g, int nodo) {
+        List<Integer> lista = new ArrayList<>();
+        for (int p = g.inicio(nodo); p < g.fin(nodo); p++) {
+            lista.add(g.destino(p));
+        }
+        return lista.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,286 @@
+package edu.progavud.distrimusic.persona;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas del índice de búsqueda de usuarios.
+ *
+ * Usan una base H2 en memoria con solo las columnas que lee la reconstrucción.
+ * Verifican la relevancia (usuario sobre nombre sobre carrera, exacta sobre prefijo,
+ * bonificación por usuario completo y desempate por usuario más corto), la paginación,
+ * las actualizaciones y que los cambios hechos durante una reconstrucción no se pierdan
+ * ni se sobrescriban con los datos leídos de la base.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+class UserSearchIndexTest {
+
+    private static final Object[][] USUARIOS = {
+            {1L, "juanp", "Juan Pérez", "Sistemas"},
+            {2L, "mariaj", "María Juana López", "Industrial"},
+            {3L, "pedro", "Pedro Juan", "Catastral"},
+            {4L, "juan", "Juan Gómez", "Sistemas"},
+            {5L, "ana", "Ana Ruiz", "Juanería"},
+    };
+
+    private EmbeddedDatabase baseDatos;
+    private JdbcConAccion jdbcTemplate;
+    private UserSearchIndex indice;
+
+    /**
+     * JdbcTemplate que ejecuta una acción después de entregar la primera fila de una
+     * consulta, para simular cambios concurrentes en medio de una reconstrucción.
+     */
+    private static final class JdbcConAccion extends JdbcTemplate {
+
+        private Runnable despuesDePrimeraFila;
+
+        JdbcConAccion(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch) {
+            super.query(sql, (RowCallbackHandler) rs -> {
+                rch.processRow(rs);
+                Runnable accion = despuesDePrimeraFila;
+                despuesDePrimeraFila = null;
+                if (accion != null) {
+                    accion.run();
+                }
+            });
+        }
+    }
+
+    @BeforeEach
+    void crearIndice() {
+        baseDatos = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcConAccion(baseDatos);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, usuario VARCHAR(50), nombre VARCHAR(100), "
+                + "carrera VARCHAR(50), profile_image_url VARCHAR(200), eliminado BOOLEAN DEFAULT FALSE)");
+        for (Object[] usuario : USUARIOS) {
+            jdbcTemplate.update("INSERT INTO users (id, usuario, nombre, carrera) VALUES (?, ?, ?, ?)", usuario);
+        }
+        indice = new UserSearchIndex(jdbcTemplate);
+        indice.reconstruir();
+    }
+
+    @AfterEach
+    void cerrarBaseDatos() {
+        baseDatos.shutdown();
+    }
+
+    /**
+     * Usuario completo, luego usuario por prefijo, luego nombre exacto, nombre por
+     * prefijo y carrera.
+     */
+    @Test
+    void ordenaPorRelevancia() {
+        Map<String, Object> resultado = indice.buscar("juan", 0, 10);
+
+        assertEquals(5, resultado.get("total"));
+        assertEquals(List.of("juan", "juanp", "pedro", "mariaj", "ana"), usuarios(resultado));
+    }
+
+    /**
+     * Con varias palabras solo quedan los usuarios que coinciden con todas, sumando el
+     * mejor campo de cada una; mayúsculas y tildes no importan.
+     */
+    @Test
+    void combinaVariasPalabras() {
+        Map<String, Object> resultado = indice.buscar("JUÁN  pé", 0, 10);
+
+        assertEquals(2, resultado.get("total"));
+        assertEquals(List.of("pedro", "juanp"), usuarios(resultado));
+        assertEquals(List.of("mariaj"), usuarios(indice.buscar("lopez maria", 0, 10)));
+        assertEquals(0, indice.buscar("juan zeta", 0, 10).get("total"));
+        assertEquals(0, indice.buscar("  ", 0, 10).get("total"));
+    }
+
+    /**
+     * Ante el mismo puntaje gana el nombre de usuario más corto.
+     */
+    @Test
+    void desempataPorUsuarioMasCorto() {
+        assertEquals(List.of("juan", "juanp"), usuarios(indice.buscar("sistemas", 0, 10)));
+    }
+
+    /**
+     * La página se toma del orden completo y el total cuenta todas las coincidencias.
+     */
+    @Test
+    void paginaResultados() {
+        Map<String, Object> pagina = indice.buscar("juan", 1, 2);
+
+        assertEquals(5, pagina.get("total"));
+        assertEquals(List.of("juanp", "pedro"), usuarios(pagina));
+        assertEquals(List.of("ana"), usuarios(indice.buscar("juan", 4, 2)));
+        assertEquals(List.of(), usuarios(indice.buscar("juan", 5, 2)));
+    }
+
+    /**
+     * Modificar un usuario reemplaza sus palabras; eliminarlo lo quita de los resultados.
+     * juanp y juancho empatan (usuario por prefijo) y gana el más corto.
+     */
+    @Test
+    void actualizaYEliminaUsuarios() {
+        indice.indexar(usuario(3L, "pedro", "Pedro Pablo", "Catastral"));
+        indice.indexar(usuario(6L, "juancho", "Juan Carlos", "Sistemas"));
+        indice.eliminar(4L);
+
+        assertEquals(List.of("juanp", "juancho", "mariaj", "ana"), usuarios(indice.buscar("juan", 0, 10)));
+        assertEquals(List.of("pedro"), usuarios(indice.buscar("pablo", 0, 10)));
+    }
+
+    /**
+     * Los cambios hechos mientras se reconstruye llegan al índice nuevo y no se
+     * sobrescriben con las filas que la reconstrucción lee después. Mientras tanto las
+     * búsquedas usan el índice anterior completo (que también recibe los cambios), no
+     * el que está a medio cargar.
+     */
+    @Test
+    void reconstruccionConservaCambiosConcurrentes() {
+        List<List<Object>> durante = new ArrayList<>();
+        jdbcTemplate.despuesDePrimeraFila = () -> {
+            // La fila de juanp ya se leyó; las de los demás todavía no
+            indice.indexar(usuario(1L, "juanp", "Juan Pablo Pérez", "Sistemas"));
+            indice.indexar(usuario(5L, "ana", "Ana Ruiz", "Música"));
+            indice.indexar(usuario(7L, "nuevito", "Juan Nuevo", "Sistemas"));
+            indice.eliminar(4L);
+            durante.add(usuarios(indice.buscar("juan", 0, 10)));
+        };
+
+        indice.reconstruir();
+
+        List<Object> esperados = List.of("juanp", "pedro", "nuevito", "mariaj");
+        assertEquals(List.of(esperados), durante);
+        assertEquals(esperados, usuarios(indice.buscar("juan", 0, 10)));
+        assertEquals(List.of("juanp"), usuarios(indice.buscar("pablo", 0, 10)));
+        assertEquals(List.of("ana"), usuarios(indice.buscar("musica", 0, 10)));
+
+        // La siguiente reconstrucción vuelve a tomar la base de datos como fuente
+        indice.reconstruir();
+        assertEquals(List.of("juan", "juanp", "pedro", "mariaj", "ana"), usuarios(indice.buscar("juan", 0, 10)));
+    }
+
+    /**
+     * Con reconstrucciones, modificaciones, eliminaciones y búsquedas en paralelo, al
+     * terminar cada usuario se encuentra por su última versión y no por la anterior.
+     */
+    @Test
+    void cambiosYReconstruccionesEnParalelo() throws Exception {
+        int cantidad = 200;
+        int[] versiones = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            jdbcTemplate.update("INSERT INTO users (id, usuario, nombre, carrera) VALUES (?, ?, ?, ?)",
+                    100L + i, "usuario" + i, nombre(i, 0), "Sistemas");
+        }
+        indice.reconstruir();
+
+        AtomicBoolean activo = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(7);
+        List<Future<?>> tareas = new ArrayList<>();
+        tareas.add(executor.submit(() -> {
+            while (activo.get()) {
+                indice.reconstruir();
+            }
+        }));
+        for (int h = 0; h < 2; h++) {
+            tareas.add(executor.submit(() -> {
+                while (activo.get()) {
+                    Map<String, Object> resultado = indice.buscar("sistemas", 0, 20);
+                    assertTrue((Integer) resultado.get("total") >= 2);
+                }
+            }));
+        }
+        for (int h = 0; h < 3; h++) {
+            tareas.add(executor.submit(() -> {
+                for (int k = 0; k < 2000; k++) {
+                    int i = ThreadLocalRandom.current().nextInt(cantidad);
+                    // Igual que en el servicio: primero se confirma en la base y después se indexa
+                    synchronized (versiones) {
+                        int version = ++versiones[i];
+                        jdbcTemplate.update("UPDATE users SET nombre = ? WHERE id = ?", nombre(i, version), 100L + i);
+                        indice.indexar(usuario(100L + i, "usuario" + i, nombre(i, version), "Sistemas"));
+                    }
+                }
+            }));
+        }
+        // Un usuario que se elimina y se vuelve a crear sin parar mientras se busca
+        tareas.add(executor.submit(() -> {
+            for (int k = 0; k < 1000; k++) {
+                synchronized (versiones) {
+                    jdbcTemplate.update("DELETE FROM users WHERE id = 99");
+                    indice.eliminar(99L);
+                }
+                synchronized (versiones) {
+                    jdbcTemplate.update("INSERT INTO users (id, usuario, nombre, carrera) VALUES (99, 'fugaz', 'Fugaz', 'Sistemas')");
+                    indice.indexar(usuario(99L, "fugaz", "Fugaz", "Sistemas"));
+                }
+            }
+        }));
+        for (int k = 3; k < tareas.size(); k++) {
+            tareas.get(k).get(1, TimeUnit.MINUTES);
+        }
+        activo.set(false);
+        for (Future<?> tarea : tareas) {
+            tarea.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        for (int i = 0; i < cantidad; i++) {
+            assertEquals(List.of("usuario" + i), usuarios(indice.buscar(nombre(i, versiones[i]), 0, 10)));
+            if (versiones[i] > 0) {
+                assertEquals(0, indice.buscar(nombre(i, versiones[i] - 1), 0, 10).get("total"));
+            }
+        }
+        assertEquals(cantidad + 3, indice.buscar("sistemas", 0, 10).get("total"));
+    }
+
+    private static String nombre(int i, int version) {
+        return "n" + i + "v" + version;
+    }
+
+    private static UserEntity usuario(Long id, String usuario, String nombre, String carrera) {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        user.setUsuario(usuario);
+        user.setNombre(nombre);
+        user.setCarrera(carrera);
+        return user;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> usuarios(Map<String, Object> resultado) {
+        List<Object> usuarios = new ArrayList<>();
+        for (Map<String, Object> item : (List<Map<String, Object>>) resultado.get("usuarios")) {
+            usuarios.add(item.get("usuario"));
+        }
+        return usuarios;
+    }
+}
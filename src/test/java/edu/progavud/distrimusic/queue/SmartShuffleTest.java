@@ -0,0 +1,162 @@
+package edu.progavud.distrimusic.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de la mezcla inteligente de las colas de reproducción.
+ *
+ * La mezcla es aleatoria, así que las pruebas de reparto repiten la mezcla muchas
+ * veces y comparan contra lo que daría una mezcla plana: con 4 artistas de 25
+ * canciones, un Fisher-Yates deja en promedio unas 24 parejas seguidas del mismo
+ * artista. La prueba de costo compara tiempos de dos tamaños con un margen amplio:
+ * no distingue O(n) de O(n log n), pero sí detecta un costo cuadrático.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+class SmartShuffleTest {
+
+    private static final int REPETICIONES = 1000;
+
+    /**
+     * El resultado contiene exactamente los mismos IDs, repetidos incluidos, y no
+     * modifica el arreglo recibido.
+     */
+    @Test
+    void devuelvePermutacionDeLaEntrada() {
+        Random random = new Random(11);
+        for (int n : new int[]{2, 3, 17, 100, 1000}) {
+            long[] ids = new long[n];
+            String[] artistas = new String[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = random.nextInt(n / 2 + 1);
+                artistas[i] = random.nextInt(5) == 0 ? null : "artista " + random.nextInt(7);
+            }
+            long[] original = ids.clone();
+
+            long[] mezcla = SmartShuffle.mezclar(ids, artistas);
+
+            assertArrayEquals(original, ids, "no modifica la entrada");
+            long[] esperados = original.clone();
+            Arrays.sort(esperados);
+            Arrays.sort(mezcla);
+            assertArrayEquals(esperados, mezcla, "n = " + n);
+        }
+    }
+
+    /**
+     * Las listas vacías o de una canción se devuelven en un arreglo nuevo.
+     */
+    @Test
+    void listasPequenasDevuelvenCopia() {
+        long[] vacia = new long[0];
+        long[] una = {42};
+
+        assertEquals(0, SmartShuffle.mezclar(vacia, new String[0]).length);
+        long[] resultado = SmartShuffle.mezclar(una, new String[]{"Shakira"});
+        assertArrayEquals(una, resultado);
+        assertNotSame(una, resultado);
+    }
+
+    /**
+     * Con varios artistas del mismo tamaño casi nunca quedan canciones seguidas del
+     * mismo artista, y nunca tres.
+     */
+    @Test
+    void separaCancionesDelMismoArtista() {
+        int n = 100;
+        long[] ids = new long[n];
+        String[] artistas = new String[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+            artistas[i] = "Artista " + (i % 4);
+        }
+
+        long seguidas = 0;
+        for (int r = 0; r < REPETICIONES; r++) {
+            long[] mezcla = SmartShuffle.mezclar(ids, artistas);
+            int racha = 1;
+            for (int i = 1; i < n; i++) {
+                if (mezcla[i] % 4 == mezcla[i - 1] % 4) {
+                    seguidas++;
+                    racha++;
+                    assertTrue(racha < 3, "tres canciones seguidas del mismo artista");
+                } else {
+                    racha = 1;
+                }
+            }
+        }
+        double promedio = seguidas / (double) REPETICIONES;
+        assertTrue(promedio < 2, "promedio de parejas seguidas: " + promedio);
+    }
+
+    /**
+     * El artista se compara sin distinguir mayúsculas ni espacios en los extremos: las
+     * variantes del mismo nombre se reparten como un solo artista (tratadas como cuatro
+     * artistas distintos dejarían unas 4,5 parejas seguidas en promedio).
+     */
+    @Test
+    void agrupaArtistasNormalizados() {
+        int n = 100;
+        long[] ids = new long[n];
+        String[] artistas = new String[n];
+        String[] variantes = {"Karol G", "karol g", " KAROL G ", "Karol G  "};
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+            artistas[i] = i % 4 == 0 ? variantes[(i / 4) % variantes.length] : "Artista " + (i % 4);
+        }
+
+        long seguidas = 0;
+        for (int r = 0; r < REPETICIONES; r++) {
+            long[] mezcla = SmartShuffle.mezclar(ids, artistas);
+            for (int i = 1; i < n; i++) {
+                if (mezcla[i] % 4 == 0 && mezcla[i - 1] % 4 == 0) {
+                    seguidas++;
+                }
+            }
+        }
+        double promedio = seguidas / (double) REPETICIONES;
+        assertTrue(promedio < 1, "promedio de parejas seguidas: " + promedio);
+    }
+
+    /**
+     * Diez veces más canciones cuestan del orden de diez veces más, no cien.
+     */
+    @Test
+    void costoCreceLinealmente() {
+        // Calentamiento del JIT antes de medir
+        mejorTiempo(100_000);
+        long pequena = mejorTiempo(100_000);
+        long grande = mejorTiempo(1_000_000);
+
+        double razon = grande / (double) pequena;
+        assertTrue(razon < 40, "razón de tiempos 1M / 100k: " + razon);
+    }
+
+    private static long mejorTiempo(int n) {
+        long[] ids = new long[n];
+        String[] artistas = new String[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+            artistas[i] = "artista " + (i % 1000);
+        }
+        long mejor = Long.MAX_VALUE;
+        for (int r = 0; r < 5; r++) {
+            long inicio = System.nanoTime();
+            SmartShuffle.mezclar(ids, artistas);
+            mejor = Math.min(mejor, System.nanoTime() - inicio);
+        }
+        return mejor;
+    }
+}
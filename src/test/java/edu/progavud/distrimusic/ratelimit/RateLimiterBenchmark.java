@@ -0,0 +1,74 @@
+package edu.progavud.distrimusic.ratelimit;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark del limitador de peticiones.
+ *
+ * Mide el costo de {@link RateLimiter#consumir(RateLimiter.Politica, String)} cuando la
+ * petición se permite: en un hilo repartiendo entre 10.000 usuarios y con varios hilos
+ * compitiendo por la misma cubeta. La política tiene un ritmo tan alto que nunca se
+ * rechaza, para medir solo el camino permitido. No es una prueba: su nombre no termina
+ * en Test, así que Surefire no lo ejecuta. Para correrlo:
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     edu.progavud.distrimusic.ratelimit.RateLimiterBenchmark
+ * </pre>
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+public class RateLimiterBenchmark {
+
+    private static final int USUARIOS = 10_000;
+    private static final int RONDAS = 3;
+    private static final int PETICIONES = 10_000_000;
+    private static final int HILOS = 8;
+    private static final int PETICIONES_POR_HILO = 5_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        RateLimiter limitador = new RateLimiter();
+        ReflectionTestUtils.setField(limitador, "maxCubetas", 100_000);
+        RateLimiter.Politica politica = new RateLimiter.Politica("benchmark", Integer.MAX_VALUE / 1000, 60_000_000);
+
+        String[] usuarios = new String[USUARIOS];
+        for (int i = 0; i < usuarios.length; i++) {
+            usuarios[i] = "u:" + i;
+        }
+        // La primera ronda sirve de calentamiento
+        for (int ronda = 1; ronda <= RONDAS; ronda++) {
+            int permitidas = 0;
+            long inicio = System.nanoTime();
+            for (int i = 0; i < PETICIONES; i++) {
+                if (limitador.consumir(politica, usuarios[i % usuarios.length]).permitido()) {
+                    permitidas++;
+                }
+            }
+            System.out.printf("Ronda %d, 1 hilo: %.1f ns por petición (%d permitidas)%n",
+                    ronda, (System.nanoTime() - inicio) / (double) PETICIONES, permitidas);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        long inicio = System.nanoTime();
+        for (int h = 0; h < HILOS; h++) {
+            executor.execute(() -> {
+                for (int i = 0; i < PETICIONES_POR_HILO; i++) {
+                    limitador.consumir(politica, "u:compartido");
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.MINUTES);
+        System.out.printf("%d hilos, misma cubeta: %.1f ns por petición y por hilo%n",
+                HILOS, (System.nanoTime() - inicio) / (double) PETICIONES_POR_HILO);
+    }
+}
@@ -0,0 +1,175 @@
+package edu.progavud.distrimusic.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas del limitador de peticiones.
+ *
+ * Verifican la ráfaga permitida por la capacidad, la recarga de tokens, el tiempo de
+ * espera que se devuelve en Retry-After, la limpieza de cubetas llenas y el uso de la
+ * cubeta compartida cuando se alcanza el máximo de cubetas. Las políticas de recarga
+ * lenta (un token por minuto) no recuperan tokens durante la prueba; las de recarga
+ * rápida se esperan con pausas cortas.
+ *
+ * @author Batapop
+ * @author Cabrito
+ * @author AlexM
+ * @version 1.0
+ * @since 2025-07-10
+ */
+class RateLimiterTest {
+
+    private RateLimiter limitador;
+
+    @BeforeEach
+    void crearLimitador() {
+        limitador = new RateLimiter();
+        ReflectionTestUtils.setField(limitador, "maxCubetas", 1000);
+    }
+
+    /**
+     * Se permiten tantas peticiones seguidas como la capacidad y la siguiente se rechaza.
+     */
+    @Test
+    void permiteRafagaHastaLaCapacidad() {
+        RateLimiter.Politica politica = new RateLimiter.Politica("rafaga", 5, 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limitador.consumir(politica, "ana").permitido(), "petición " + (i + 1));
+        }
+        assertFalse(limitador.consumir(politica, "ana").permitido());
+    }
+
+    /**
+     * Cada usuario y cada política tienen su propia cubeta.
+     */
+    @Test
+    void separaCubetasPorUsuarioYPolitica() {
+        RateLimiter.Politica comentarios = new RateLimiter.Politica("comentarios", 1, 1);
+        RateLimiter.Politica busqueda = new RateLimiter.Politica("busqueda", 1, 1);
+
+        assertTrue(limitador.consumir(comentarios, "ana").permitido());
+        assertFalse(limitador.consumir(comentarios, "ana").permitido());
+        assertTrue(limitador.consumir(comentarios, "beto").permitido());
+        assertTrue(limitador.consumir(busqueda, "ana").permitido());
+    }
+
+    /**
+     * Después de agotar la cubeta se recupera un token por intervalo, sin superar la capacidad.
+     */
+    @Test
+    void recargaTokensConElTiempo() throws InterruptedException {
+        // 300 por minuto: un token cada 200 ms
+        RateLimiter.Politica politica = new RateLimiter.Politica("recarga", 2, 300);
+        assertTrue(limitador.consumir(politica, "ana").permitido());
+        assertTrue(limitador.consumir(politica, "ana").permitido());
+        assertFalse(limitador.consumir(politica, "ana").permitido());
+
+        Thread.sleep(300);
+        assertTrue(limitador.consumir(politica, "ana").permitido());
+        assertFalse(limitador.consumir(politica, "ana").permitido());
+
+        Thread.sleep(900);
+        assertTrue(limitador.consumir(politica, "ana").permitido());
+        assertTrue(limitador.consumir(politica, "ana").permitido());
+        assertFalse(limitador.consumir(politica, "ana").permitido());
+    }
+
+    /**
+     * La espera devuelta es lo que falta para el próximo token, redondeado hacia arriba.
+     */
+    @Test
+    void calculaLaEsperaHastaElProximoToken() {
+        RateLimiter.Politica porMinuto = new RateLimiter.Politica("minuto", 1, 1);
+        assertEquals(RateLimiter.Resultado.PERMITIDO, limitador.consumir(porMinuto, "ana"));
+        RateLimiter.Resultado rechazo = limitador.consumir(porMinuto, "ana");
+        assertFalse(rechazo.permitido());
+        assertEquals(60, rechazo.esperaSegundos());
+
+        // 6 por minuto: un token cada 10 segundos
+        RateLimiter.Politica cadaDiez = new RateLimiter.Politica("diez", 3, 6);
+        for (int i = 0; i < 3; i++) {
+            limitador.consumir(cadaDiez, "ana");
+        }
+        assertEquals(10, limitador.consumir(cadaDiez, "ana").esperaSegundos());
+    }
+
+    /**
+     * Una petición rechazada no consume tokens ni alarga la espera.
+     */
+    @Test
+    void rechazarNoAlargaLaEspera() {
+        RateLimiter.Politica politica = new RateLimiter.Politica("rechazos", 1, 6);
+        limitador.consumir(politica, "ana");
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(10, limitador.consumir(politica, "ana").esperaSegundos());
+        }
+    }
+
+    /**
+     * La limpieza descarta las cubetas que ya se llenaron y conserva las que no.
+     */
+    @Test
+    void limpiarDescartaSoloCubetasLlenas() throws InterruptedException {
+        RateLimiter.Politica rapida = new RateLimiter.Politica("rapida", 1, 60_000);
+        RateLimiter.Politica lenta = new RateLimiter.Politica("lenta", 1, 1);
+        limitador.consumir(rapida, "ana");
+        limitador.consumir(lenta, "beto");
+        assertEquals(2, limitador.getMetricas().get("cubetas"));
+
+        Thread.sleep(20);
+        limitador.limpiar();
+
+        Map<String, Object> metricas = limitador.getMetricas();
+        assertEquals(1, metricas.get("cubetas"));
+        assertEquals(1L, metricas.get("cubetasDescartadas"));
+        assertFalse(limitador.consumir(lenta, "beto").permitido(), "la cubeta conservada mantiene su estado");
+        assertTrue(limitador.consumir(rapida, "ana").permitido());
+    }
+
+    /**
+     * Al alcanzar el máximo de cubetas los usuarios nuevos comparten una cubeta de la
+     * política, así que siguen limitados y la memoria no crece.
+     */
+    @Test
+    void usaCubetaCompartidaAlAlcanzarElMaximo() {
+        ReflectionTestUtils.setField(limitador, "maxCubetas", 2);
+        RateLimiter.Politica politica = new RateLimiter.Politica("compartida", 1, 1);
+        assertTrue(limitador.consumir(politica, "ana").permitido());
+        assertTrue(limitador.consumir(politica, "beto").permitido());
+
+        assertTrue(limitador.consumir(politica, "carla").permitido());
+        assertFalse(limitador.consumir(politica, "dario").permitido());
+        assertFalse(limitador.consumir(politica, "elena").permitido());
+        assertFalse(limitador.consumir(politica, "ana").permitido(), "las cubetas propias no cambian");
+
+        Map<String, Object> metricas = limitador.getMetricas();
+        assertEquals(3, metricas.get("cubetas"));
+        assertEquals(3L, metricas.get("enCubetaCompartida"));
+    }
+
+    /**
+     * Las métricas cuentan las peticiones permitidas y rechazadas por política.
+     */
+    @Test
+    void cuentaPermitidasYRechazadas() {
+        RateLimiter.Politica politica = new RateLimiter.Politica("metricas", 2, 1);
+        for (int i = 0; i < 5; i++) {
+            limitador.consumir(politica, "ana");
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Long>> politicas = (Map<String, Map<String, Long>>) limitador.getMetricas().get("politicas");
+        assertEquals(2L, politicas.get("metricas").get("permitidas"));
+        assertEquals(3L, politicas.get("metricas").get("rechazadas"));
+    }
+}